@@ -72,6 +72,16 @@ public class Constants {
 	public static final Time kLookaheadTime = TimeUnitsKt.getSecond(0.1);
 	public static final Length kMinLookaheadDistance = LengthKt.getFeet(2);
 
+	/*
+	 * Pose estimator noise. None of these are measured on the robot yet, they're round guesses that
+	 * PoseEstimatorReplayTest's simulated drive is happy with (it uses the same gyro and vision
+	 * numbers). Replace them with what replaying real match logs says.
+	 */
+	public static final double kEstimatorWheelVariancePerMeter = 0.02 * 0.02; // m^2 per meter driven, a guess of 2cm of scrub per meter on carpet
+	public static final double kEstimatorGyroVariance = Math.pow(Math.toRadians(1), 2); // rad^2, a guess of a degree per reading
+	public static final double kEstimatorVisionPositionVariance = 0.1 * 0.1; // m^2, twice the 5cm of camtran noise the replay test simulates
+	public static final double kEstimatorVisionHeadingVariance = Math.pow(Math.toRadians(5), 2); // rad^2, camtran's angle is a lot noisier than its position (the test uses 2 degrees)
+
 	/* Wrist stuff */
 	public static final Length kWristLength = LengthKt.getInch(6); //distance from joint to COM
 	public static final Mass kWristMass = MassKt.getLb(15);
@@ -86,4 +96,13 @@ public class Constants {
 	public static final double kElbowTorquePerVolt = 55; // Newton meters per volt, stall
 	public static final double kElbowStaticFrictionVoltage = 0; // volts, TODO tune
 
+	/* Superstructure trajectory limits, on top of what the motor models say */
+	public static final double kSuperstructureTrajectoryVoltage = 10; // volts, the rest is left for feedback
+	public static final double kElevatorMaxVelocity = 45; // inches/sec, FIXME about motion magic's cruise velocity
+	public static final double kElevatorMaxAcceleration = 150; // inches/sec^2, FIXME
+	public static final double kElbowMaxVelocity = 190; // degrees/sec, same as the pass through
+	public static final double kElbowMaxAcceleration = 600; // degrees/sec^2, FIXME tune
+	public static final double kWristMaxVelocity = 190; // degrees/sec, same as the pass through
+	public static final double kWristMaxAcceleration = 600; // degrees/sec^2, FIXME tune
+
 }
@@ -26,14 +26,21 @@ import frc.robot.commands.auto.Trajectories;
 import frc.robot.commands.subsystems.superstructure.PassThrough;
 import frc.robot.commands.subsystems.superstructure.PassThrough.SyncedMove;
 import frc.robot.commands.subsystems.superstructure.ZeroElevatorDisabled;
+import frc.robot.lib.CANSnapshot;
+import frc.robot.lib.ControlLoop;
 import frc.robot.lib.Logger;
+import frc.robot.lib.LoopTimer;
+import frc.robot.lib.logging.TelemetryTable;
+import frc.robot.lib.motion.TrajectoryCache;
 import frc.robot.lib.obj.RoundRotation2d;
 import frc.robot.lib.statemachines.AutoMotionStateMachine;
 import frc.robot.lib.statemachines.AutoMotionStateMachine.GoalHeight;
+import frc.robot.planners.PresetPlanTable;
 import frc.robot.subsystems.DriveTrain;
 import frc.robot.subsystems.DriveTrain.Gear;
 import frc.robot.subsystems.LimeLight;
 import frc.robot.subsystems.LimeLight.LEDMode;
+import frc.robot.subsystems.PoseEstimator;
 import frc.robot.subsystems.superstructure.SuperStructure;
 
 /**
@@ -52,6 +59,7 @@ public class Robot extends TimedRobot {
 	public static SuperStructure superstructure = SuperStructure.getInstance();
 	// public static VisionProcessor visionProcessor = new VisionProcessor();
 	public static LimeLight limelight = LimeLight.getInstance();
+	public static PoseEstimator poseEstimator = PoseEstimator.getInstance();
 	// public static LIDARSubsystem lidarSubsystem = new LIDARSubsystem();
 	public static DoubleSolenoid shifterDoubleSolenoid;
 	public static DoubleSolenoid intakeDoubleSolenoid;
@@ -63,6 +71,12 @@ public class Robot extends TimedRobot {
 
 	private Notifier mResetNotifier;
 
+	private final LoopTimer.Section mRobotPeriodicTimer = LoopTimer.getInstance().section("robotPeriodic", mPeriod);
+	private final LoopTimer.Section mSchedulerTimer = LoopTimer.getInstance().section("Scheduler", mPeriod);
+	// put the loop timing on the dashboard every kPublishPeriod instead of every loop
+	private final int kLoopTimingDivider = (int) Math.round(LoopTimer.kPublishPeriod / mPeriod);
+	private int mLoopTimingCount = 0;
+
 	// public static Odometer odometry_;
 	// public static DifferentialUltrasonicSensor differentialUltrasonicSensor = DifferentialUltrasonicSensor.getInstance();
 	// private Logger logger;
@@ -168,10 +182,14 @@ public class Robot extends TimedRobot {
 
 		SmartDashboard.putData(zeroElevatorWhileDisabled);
 
+		// only reads the path specs, each path gets generated the first time an auto asks for it
+		Trajectories.loadTrajectorySpecs();
 		mAutoChooser = new TerribleAutoChooser();
 		mAutoChooser.addOptions();
 		System.out.println("Auto chooser sent!");
-		Trajectories.generateAllTrajectories();
+
+		// builds the superstructure's collision grid and plans between all the presets now, so the first button press doesn't
+		PresetPlanTable.getInstance();
 
 		Shuffleboard.getTab("Auto").getLayout("Path selection", BuiltInLayouts.kList).add(mAutoChooser.getChooser()).withSize(2, 5).withPosition(0, 0);
 
@@ -282,7 +300,7 @@ public class Robot extends TimedRobot {
 		drivetrain.zeroEncoders();
 		System.out.println("Robot init'ed and encoders zeroed!");
 
-		mResetNotifier = new Notifier(() -> {
+		mResetNotifier = new Notifier(LoopTimer.getInstance().wrap("Reset notifier", 0.5, () -> {
 
 			// SuperStructure.getElevator().getMaster().setSelectedSensorPosition((int)startingHeightTicks);
 
@@ -317,7 +335,7 @@ public class Robot extends TimedRobot {
 				superstructure.getDefaultCommand().start();
 			}
 
-		});
+		}));
 
 		System.out.println("Welcome to Team 5940 BREAD's 2019 Robot, CROISSANT");
 
@@ -383,6 +401,9 @@ public class Robot extends TimedRobot {
 	@Override
 	public void disabledInit() {
 
+		// everything since the last disable, then start over
+		LoopTimer.getInstance().logHistograms();
+
 		SuperStructure.elevator.onDisable();
 		SuperStructure.getInstance().getElbow().onDisable();
 		SuperStructure.getInstance().getWrist().onDisable();
@@ -404,6 +425,9 @@ public class Robot extends TimedRobot {
 		drivetrain.setNeutralMode(NeutralMode.Coast);
 		SuperStructure.lastSH = LengthKt.getInch(0);
 
+		// write out any paths that had to be generated, while we have time to spare
+		TrajectoryCache.getInstance().save();
+
 	}
 
 	@Override
@@ -494,9 +518,19 @@ public class Robot extends TimedRobot {
 	 */
 	@Override
 	public void robotPeriodic() {
+		long periodicStart = mRobotPeriodicTimer.start();
+		// read the talons once, before any commands run, and have everything use those readings
+		CANSnapshot.getInstance().capture();
+		superstructure.captureSnapshot();
+		long schedulerStart = mSchedulerTimer.start();
 		Scheduler.getInstance().run();
+		mSchedulerTimer.stop(schedulerStart);
 
 		drivetrain.logPeriodicIO();
+		superstructure.logPeriodicIO();
+		poseEstimator.logPeriodicIO();
+		ControlLoop.getInstance().logPeriodicIO();
+		TelemetryTable.getInstance().commit();
 
 		// SmartDashboard.putNumber("Limelight estimated distance with angle", LimeLight.getInstance().estimateDistanceFromAngle().getInch());
 
@@ -512,22 +546,20 @@ public class Robot extends TimedRobot {
 
 			// var tickkkkks = (int) superstructure.getWrist().getMaster().getTicks(RoundRotation2d.getDegree(-90)) + (-640) + (superstructure.getWrist().getMaster().getSensorCollection().getPulseWidthPosition() % 2048 * Math.signum(superstructure.getWrist().getMaster().getSensorCollection().getPulseWidthPosition() % 2048));
 			// var tickkkkks = (superstructure.getElbow().getMaster().getSensorCollection().getPulseWidthPosition() % 2048) * ((superstructure.getElbow().getMaster().getSensorCollection().getPulseWidthPosition() > 0) ? 1 : -1);
-			var tickkkkks = (superstructure.getElbow().getMaster().getSensorCollection().getPulseWidthPosition() % 2048) * ((superstructure.getElbow().getMaster().getSensorCollection().getPulseWidthPosition() > 0) ? 1 : -1);
+			var tickkkkks = superstructure.getElbow().getSnapshot().getAbsolutePosition();
 			SmartDashboard.putNumber("Elbow absolute pos ", tickkkkks);
 
-			var tickks = (superstructure.getWrist().getMaster().getSensorCollection().getPulseWidthPosition() % 2048) * ((superstructure.getWrist().getMaster().getSensorCollection().getPulseWidthPosition() > 0) ? 1 : -1);
+			var tickks = superstructure.getWrist().getSnapshot().getAbsolutePosition();
 
 			SmartDashboard.putNumber("wrist absolute pos ", tickks);
 
-			var ticcccks = (SuperStructure.getElevator().getMaster().getSensorCollection().getPulseWidthPosition() % 2048) * ((SuperStructure.getElevator().getMaster().getSensorCollection().getPulseWidthPosition() > 0) ? 1 : -1);
+			var ticcccks = SuperStructure.getElevator().getSnapshot().getAbsolutePosition();
 
-			SmartDashboard.putNumber("Elevator absolute pos ", tickks);
+			SmartDashboard.putNumber("Elevator absolute pos ", ticcccks);
 
 			// System.out.println(superstructure.getElbow().getMaster().getSensorCollection().getPulseWidthPosition());
 			// System.out.println(superstructure.getElbow().getMaster().getSensorPosition().getDegree());
 
-			SmartDashboard.putString(SuperStructure.getInstance().getCurrentState().getCSVHeader(), SuperStructure.getInstance().getCurrentState().toCSV());
-
 		}
 
 		// var elevatorAbsTicks = SuperStructure.getElevator().getMaster().getSensorCollection().getPulseWidthPosition() % 1024;
@@ -577,14 +609,18 @@ public class Robot extends TimedRobot {
 		// SmartDashboard.putNumber("Target skew", limelightdata[4]);
 		// SmartDashboard.putNumber("Vision pipeline latency", limelightdata[5]);
 
-		// long elapsed = System.currentTimeMillis() - now;
-		// System.out.println("RobotPeriodic took " + elapsed + "ms");
-
 		// if (getElbow().getMaster().getSensorCollection().isFwdLimitSwitchClosed())
 		// System.out.println("elbow limit: " + superstructure.getElbow().getMaster().getSensorCollection().isFwdLimitSwitchClosed());
 		// if (getWrist().getMaster().getSensorCollection().isFwdLimitSwitchClosed())
 		// System.out.println("wrist limit: " + superstructure.getWrist().getMaster().getSensorCollection().isFwdLimitSwitchClosed());
 
+		mRobotPeriodicTimer.stop(periodicStart);
+
+		// after the stop, so putting all the numbers doesn't show up in robotPeriodic's own timing
+		if (++mLoopTimingCount >= kLoopTimingDivider) {
+			mLoopTimingCount = 0;
+			LoopTimer.getInstance().publish();
+		}
 	}
 
 }
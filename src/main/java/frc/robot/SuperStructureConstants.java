@@ -36,6 +36,7 @@ public class SuperStructureConstants {
 		public static final Length top = RobotConfig.elevator.elevator_maximum_height;
 		public static final Length crossbarBottom = LengthKt.getInch(35); //FIXME verify
 		public static final Length crossbarWidth = LengthKt.getInch(4); //FIXME verify
+		public static final Length crossbarDepth = LengthKt.getInch(2); //FIXME verify, how far back from the carriage the crossbar goes
 		public static final Length kElevatorLongRaiseDistance = LengthKt.getInch(27);//FIXME mostly arb.
 		public static final Length kClearFirstStageMaxHeight = crossbarBottom; //yay its redundant
 		public static final Length kElevatorApproachingThreshold = LengthKt.getInch(2); //FIXME
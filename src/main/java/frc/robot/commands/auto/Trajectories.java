@@ -1,70 +1,54 @@
 package frc.robot.commands.auto;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.ghrobotics.lib.mathematics.twodim.geometry.Pose2d;
 import org.ghrobotics.lib.mathematics.twodim.geometry.Pose2dWithCurvature;
 import org.ghrobotics.lib.mathematics.twodim.geometry.Rectangle2d;
-import org.ghrobotics.lib.mathematics.twodim.geometry.Translation2d;
 import org.ghrobotics.lib.mathematics.twodim.trajectory.TrajectoryGeneratorKt;
 import org.ghrobotics.lib.mathematics.twodim.trajectory.constraints.CentripetalAccelerationConstraint;
 import org.ghrobotics.lib.mathematics.twodim.trajectory.constraints.DifferentialDriveDynamicsConstraint;
 import org.ghrobotics.lib.mathematics.twodim.trajectory.constraints.TimingConstraint;
 import org.ghrobotics.lib.mathematics.twodim.trajectory.constraints.VelocityLimitRegionConstraint;
-import org.ghrobotics.lib.mathematics.twodim.trajectory.types.TimedEntry;
 import org.ghrobotics.lib.mathematics.twodim.trajectory.types.TimedTrajectory;
 import org.ghrobotics.lib.mathematics.units.Length;
 import org.ghrobotics.lib.mathematics.units.LengthKt;
-import org.ghrobotics.lib.mathematics.units.Rotation2d;
-import org.ghrobotics.lib.mathematics.units.Rotation2dKt;
 import org.ghrobotics.lib.mathematics.units.derivedunits.Acceleration;
 import org.ghrobotics.lib.mathematics.units.derivedunits.AccelerationKt;
 import org.ghrobotics.lib.mathematics.units.derivedunits.Velocity;
 import org.ghrobotics.lib.mathematics.units.derivedunits.VelocityKt;
 
+import edu.wpi.first.wpilibj.Filesystem;
 import edu.wpi.first.wpilibj.Timer;
 import frc.robot.Constants;
 import frc.robot.lib.Logger;
+import frc.robot.lib.motion.TrajectoryBatch;
+import frc.robot.lib.motion.TrajectoryCache;
+import frc.robot.lib.motion.TrajectoryMirror;
+import frc.robot.subsystems.DriveTrain.Gear;
 
 // @SuppressWarnings("WeakerAccess")
 public class Trajectories {
 
-	public static TimedTrajectory<Pose2dWithCurvature> reverse3FeetLowGear;// = generateTrajectoryLowGear(Arrays.asList(new Pose2d(LengthKt.getFeet(0), LengthKt.getFeet(0), Rotation2dKt.getDegree(180)), new Pose2d(LengthKt.getFeet(3), LengthKt.getFeet(0), Rotation2dKt.getDegree(180))), true);
 	public static HashMap<String, Pose2d> locations = new HashMap<String, Pose2d>();
 	public static Velocity<Length> yeetSpeed = VelocityKt.getVelocity(LengthKt.getFeet(12.5)); //FIXME what is the speed for the spin?
 
 	/**
-	 * WARNING: do NOT call this more than once. it gets VERY sad
-	 * TODO actually figure out why that breaks it
+	 * All of the field locations and named paths live in deploy/trajectories.json. Paths are
+	 * only generated (or pulled from the disk cache) the first time they're asked for.
 	 */
-	private static void genLocs() {
-		locations.put("habL", new Pose2d(LengthKt.getFeet(5.6), LengthKt.getFeet(17.684), Rotation2dKt.getDegree(180)));
-		locations.put("habM", new Pose2d(LengthKt.getFeet(5.6), LengthKt.getFeet(13.379), Rotation2dKt.getDegree(180)));
-		locations.put("habR", new Pose2d(LengthKt.getFeet(5.6), LengthKt.getFeet(9.508), Rotation2dKt.getDegree(180)));
-		locations.put("loadingL", new Pose2d(LengthKt.getFeet(1.286), LengthKt.getFeet(25.021), Rotation2dKt.getDegree(180.0)));
-		locations.put("loadingR", new Pose2d(LengthKt.getFeet(1.325), LengthKt.getFeet(2.336), Rotation2dKt.getDegree(180.0)));
-		locations.put("cargoL1", new Pose2d(LengthKt.getFeet(21.565), LengthKt.getFeet(17.235), Rotation2dKt.getDegree(-90d)));
-		locations.put("cargoL2", new Pose2d(LengthKt.getFeet(23.532), LengthKt.getFeet(17.235), Rotation2dKt.getDegree(-90d)));
-		locations.put("cargoL3", new Pose2d(LengthKt.getFeet(25.277), LengthKt.getFeet(17.235), Rotation2dKt.getDegree(-90d)));
-		locations.put("cargoML", new Pose2d(LengthKt.getFeet(17.101), LengthKt.getFeet(14.338), Rotation2dKt.getDegree(180)));
-		locations.put("cargoMR", new Pose2d(LengthKt.getFeet(17.066), LengthKt.getFeet(12.653), Rotation2dKt.getDegree(180)));
-		locations.put("cargoR1", new Pose2d(LengthKt.getFeet(21.565), LengthKt.getFeet(9.898), Rotation2dKt.getDegree(90d)));
-		locations.put("cargoR2", new Pose2d(LengthKt.getFeet(23.532), LengthKt.getFeet(9.898), Rotation2dKt.getDegree(90d)));
-		locations.put("cargoR3", new Pose2d(LengthKt.getFeet(25.277), LengthKt.getFeet(9.898), Rotation2dKt.getDegree(90d)));
-		locations.put("depotL", new Pose2d(LengthKt.getFeet(5.203), LengthKt.getFeet(20.517), Rotation2dKt.getDegree(0)));
-		locations.put("depotR", new Pose2d(LengthKt.getFeet(5.203), LengthKt.getFeet(6.107), Rotation2dKt.getDegree(0)));
-		locations.put("yeetL", new Pose2d(LengthKt.getFeet(13.606), LengthKt.getFeet(21.315), Rotation2dKt.getDegree(145)));
-		locations.put("yeetR", new Pose2d(LengthKt.getFeet(13.606), LengthKt.getFeet(5.685), Rotation2dKt.getDegree(-145)));
-		locations.put("pyeetL", new Pose2d(LengthKt.getFeet(13.606), LengthKt.getFeet(21.315), Rotation2dKt.getDegree(325)));
-		locations.put("pyeetR", new Pose2d(LengthKt.getFeet(13.606), LengthKt.getFeet(5.685), Rotation2dKt.getDegree(35)));
+	private static final TrajectorySpecRegistry registry = new TrajectorySpecRegistry(Trajectories::generateSpecTrajectory, TrajectorySpecRegistry.kDefaultMaxMaterialized);
+	private static boolean specsLoaded = false;
 
-	}
-
-	public static HashMap<String, TimedTrajectory<Pose2dWithCurvature>> generatedHGTrajectories = new HashMap<String, TimedTrajectory<Pose2dWithCurvature>>();
-	public static HashMap<String, TimedTrajectory<Pose2dWithCurvature>> generatedLGTrajectories = new HashMap<String, TimedTrajectory<Pose2dWithCurvature>>();
+	public static Map<String, TimedTrajectory<Pose2dWithCurvature>> generatedHGTrajectories = registry.view(Gear.HIGH);
+	public static Map<String, TimedTrajectory<Pose2dWithCurvature>> generatedLGTrajectories = registry.view(Gear.LOW);
 	public static List<String> grabs = new ArrayList<String>(Arrays.asList("habR", "habM", "habL", "loadingL", "loadingR", "depotLF", "depotLB", "depotRF", "depotRB"));
 	public static List<String> puts = new ArrayList<String>(Arrays.asList("cargoL1", "cargoL2", "cargoL3", "cargoML", "cargoMR", "cargoR1", "cargoR2", "cargoR3",
 			"rocketL1", "rocketL2", "rocketL3", "rocketR1", "rocketR2", "rocketR3"));
@@ -79,11 +63,6 @@ public class Trajectories {
 
 	public static final boolean kOptomizeSplines = true;
 
-	private static final ArrayList<Pose2d> forward20ftSrc = new ArrayList<Pose2d>(Arrays.asList(
-			new Pose2d(LengthKt.getFeet(20), LengthKt.getFeet(5), Rotation2dKt.getDegree(0)),
-			new Pose2d(LengthKt.getFeet(35), LengthKt.getFeet(5), Rotation2dKt.getDegree(0))));
-	public static TimedTrajectory<Pose2dWithCurvature> forward20Feet;
-
 	public static List<TimingConstraint<Pose2dWithCurvature>> kLowGearConstraints = Arrays.asList(
 			new CentripetalAccelerationConstraint(AccelerationKt.getAcceleration(LengthKt.getFeet(7))),
 			new DifferentialDriveDynamicsConstraint(Constants.kLowGearDifferentialDrive, 12 /* volts */),
@@ -96,226 +75,59 @@ public class Trajectories {
 			// This limits our velocity while within the given Rectangle2d to 2 feet per second (read: the hab)
 			new VelocityLimitRegionConstraint(new Rectangle2d(7.0, 0.0, 8.0, 13.0), VelocityKt.getVelocity(LengthKt.getFeet(5.0))));
 
+	/**
+	 * Read the field locations and path specs from the deploy directory. This doesn't generate
+	 * anything, so it's cheap enough to call in robotInit. Safe to call more than once.
+	 */
+	public static synchronized void loadTrajectorySpecs() {
+		if (specsLoaded)
+			return;
+		var file = new File(Filesystem.getDeployDirectory(), TrajectorySpecRegistry.kSpecFileName);
+		try {
+			registry.load(file);
+			specsLoaded = true;
+		} catch (IOException e) {
+			System.out.println("Unable to load trajectory specs from " + file + "!");
+			e.printStackTrace();
+		}
+		locations.putAll(registry.getLocations());
+		Logger.log("Loaded " + registry.getNames(Gear.HIGH).size() + " high gear and " + registry.getNames(Gear.LOW).size() + " low gear trajectory specs");
+	}
+
 	public static void generateAllTrajectories() {
 		generateAllTrajectories(true);
 	}
 
 	/**
-	 * Generate all trajectories for HIGH GEAR
+	 * Generate every trajectory in the spec file at once, across every core, and save them all
+	 * to the disk cache. Normally paths get generated on demand instead, this is for warming
+	 * up the cache on the sim (so it gets deployed) or for when everything is needed anyways.
 	 * @param isReal
 	 */
 	public static void generateAllTrajectories(boolean isReal) {
-		/** High gear trajectory for going forward 20ft! */
-		forward20Feet = generateTrajectoryHighGear(forward20ftSrc, false);
-		reverse3FeetLowGear = generateTrajectoryLowGear(Arrays.asList(new Pose2d(LengthKt.getFeet(0), LengthKt.getFeet(0), Rotation2dKt.getDegree(180)), new Pose2d(LengthKt.getFeet(3), LengthKt.getFeet(0), Rotation2dKt.getDegree(180))), true);
-
+		loadTrajectorySpecs();
 		Logger.log("Generating ALL trajectories");
-		genLocs();
 		double startTime = 0;
 		if (isReal)
 			startTime = Timer.getFPGATimestamp();
 
-		generatedHGTrajectories.put("habL to cargoML", generateTrajectoryHighGear(new ArrayList<Pose2d>(Arrays.asList(locations.get("habL"), locations.get("cargoML"))), true));
-		generatedHGTrajectories.put("habM to cargoMR", generateTrajectoryHighGear(new ArrayList<Pose2d>(Arrays.asList(locations.get("habM"), locations.get("cargoMR"))), true));
-		generatedHGTrajectories.put("habM to cargoML", generateTrajectoryHighGear(new ArrayList<Pose2d>(Arrays.asList(locations.get("habM"), locations.get("cargoML"))), true));
-		generatedHGTrajectories.put("habR to cargoMR", generateTrajectoryHighGear(new ArrayList<Pose2d>(Arrays.asList(locations.get("habR"), locations.get("cargoMR"))), true));
-
-		generatedHGTrajectories.put("cargoML to loadingL", generateTrajectoryHighGear(new ArrayList<Pose2d>(Arrays.asList(locations.get("cargoML"), locations.get("loadingL"))), false));
-		generatedHGTrajectories.put("cargoMR to loadingR", generateTrajectoryHighGear(new ArrayList<Pose2d>(Arrays.asList(locations.get("cargoMR"), locations.get("loadingR"))), false));
-
-		generatedHGTrajectories.put("cargoL1 to depotL", generateTrajectoryHighGear(new ArrayList<Pose2d>(Arrays.asList(locations.get("cargoL1"), locations.get("depotL"))), true));
-		generatedHGTrajectories.put("cargoR1 to depotR", generateTrajectoryHighGear(new ArrayList<Pose2d>(Arrays.asList(locations.get("cargoR1"), locations.get("depotR"))), true));
-
-		generatedHGTrajectories.put("depotL to cargoL1", generateTrajectoryHighGear(new ArrayList<Pose2d>(Arrays.asList(locations.get("depotL"), locations.get("cargoL1"))), false));
-		generatedHGTrajectories.put("depotR to cargoR1", generateTrajectoryHighGear(new ArrayList<Pose2d>(Arrays.asList(locations.get("depotR"), locations.get("cargoR1"))), false));
-
-		generatedHGTrajectories.put("loadingL to cargoL1", generateTrajectoryHighGear(new ArrayList<Pose2d>(Arrays.asList(
-				locations.get("loadingL"), locations.get("cargoL1").plus(
-						new Pose2d(
-								LengthKt.getFeet(0),
-								LengthKt.getFeet(0),
-								Rotation2dKt.getDegree(-90))))),
-				true));
-
-		generatedHGTrajectories.put("loadingR to cargoR1", generateTrajectoryHighGear(new ArrayList<Pose2d>(Arrays.asList(
-				locations.get("loadingR"), locations.get("cargoR1").plus(
-						new Pose2d(
-								LengthKt.getFeet(0),
-								LengthKt.getFeet(0),
-								Rotation2dKt.getDegree(90))))),
-				true));
-
-		generatedHGTrajectories.put("test", generateTrajectory(new ArrayList<Pose2d>(Arrays.asList(locations.get("loadingL"),
-				new Pose2d(LengthKt.getFeet(15.9), LengthKt.getFeet(22.011), Rotation2dKt.getDegree(165)),
-				new Pose2d(LengthKt.getFeet(21.646), LengthKt.getFeet(19.223), Rotation2dKt.getDegree(-90)))),
-				kHighGearConstraints, kDefaultStartVelocity, kDefaultEndVelocity, kDefaultVelocityHigh, kDefaultAcceleration, true, kOptomizeSplines));
-		generatedHGTrajectories.put("test1", generateTrajectoryHighGear(Arrays.asList(new Pose2d(LengthKt.getFeet(21.646), LengthKt.getFeet(19.223), Rotation2dKt.getDegree(-90)),
-				locations.get("cargoL1")), false));
-
-		generatedLGTrajectories.put("habL to cargoML", generateTrajectoryLowGear(new ArrayList<Pose2d>(Arrays.asList(locations.get("habL"), locations.get("cargoML"))), true));
-		generatedLGTrajectories.put("habM to cargoMR", generateTrajectoryLowGear(new ArrayList<Pose2d>(Arrays.asList(locations.get("habM"), locations.get("cargoMR"))), true));
-		generatedLGTrajectories.put("habM to cargoML", generateTrajectoryLowGear(new ArrayList<Pose2d>(Arrays.asList(locations.get("habM"), locations.get("cargoML"))), true));
-		generatedLGTrajectories.put("habR to cargoMR", generateTrajectoryLowGear(new ArrayList<Pose2d>(Arrays.asList(locations.get("habR"), locations.get("cargoMR"))), true));
-
-		generatedLGTrajectories.put("cargoML to loadingL", generateTrajectoryLowGear(new ArrayList<Pose2d>(Arrays.asList(locations.get("cargoML"), locations.get("loadingL"))), false));
-		generatedLGTrajectories.put("cargoMR to loadingR", generateTrajectoryLowGear(new ArrayList<Pose2d>(Arrays.asList(
-				new Pose2d(locations.get("cargoMR").getTranslation(), Rotation2dKt.getDegree(180)),
-
-				new Pose2d(LengthKt.getFeet(9.6), LengthKt.getFeet(6.7), Rotation2dKt.getDegree(50)),
-
-				locations.get("loadingR").plus(
-						new Pose2d(LengthKt.getFeet(3), LengthKt.getFeet(0), Rotation2dKt.getDegree(0))))),
-				false));
-
-		generatedLGTrajectories.put("cargoL1 to depotL", generateTrajectoryLowGear(new ArrayList<Pose2d>(Arrays.asList(locations.get("cargoL1"), locations.get("depotL"))), true));
-		generatedLGTrajectories.put("cargoR1 to depotR", generateTrajectoryLowGear(new ArrayList<Pose2d>(Arrays.asList(locations.get("cargoR1"), locations.get("depotR"))), true));
-
-		generatedLGTrajectories.put("depotL to cargoL1", generateTrajectoryLowGear(new ArrayList<Pose2d>(Arrays.asList(locations.get("depotL"), locations.get("cargoL1"))), false));
-		generatedLGTrajectories.put("depotR to cargoR1", generateTrajectoryLowGear(new ArrayList<Pose2d>(Arrays.asList(locations.get("depotR"), locations.get("cargoR1"))), false));
-
-		generatedLGTrajectories.put(
-				"loadingR to rocketRF",
-				generateTrajectoryLowGear(
-						// Arrays.asList(
-						// 		locations.get("loadingR").plus(new Pose2d(
-						// 			new Translation2d(), Rotation2dKt.getDegree(180))),
-						// 		new Pose2d(
-						// 				LengthKt.getFeet(19.375),
-						// 				LengthKt.getFeet(4.634),
-						// 				Rotation2dKt.getDegree(170)),
-						// 		new Pose2d(
-						// 				LengthKt.getFeet(23.841),
-						// 				LengthKt.getFeet(3.42),
-						// 				Rotation2dKt.getDegree(-150))),
-						// true));
-
-						Arrays.asList(
-								new Pose2d(
-										LengthKt.getFeet(1.8),
-										LengthKt.getFeet(2.2),
-										Rotation2dKt.getDegree(180)),
-								new Pose2d(
-										LengthKt.getFeet(19.5),
-										LengthKt.getFeet(4.5),
-										Rotation2dKt.getDegree(180)),
-
-								new Pose2d(
-										LengthKt.getFeet(23.92),
-										LengthKt.getFeet(3.5),
-										Rotation2dKt.getDegree(-147))
-
-						),
-						false));
-
-		// Trajectories to the rocket from (REVERSED) on habL. format is rocket[L/R for left/right][C/M/F for close/middle/far]. These are offset to allow for a vision target to yeet into it
-		generatedLGTrajectories.put("habL to rocketLF", generateTrajectoryLowGear(
-				Arrays.asList(
-						locations.get("habL"),
-						new Pose2d(
-								LengthKt.getFeet(19.445),
-								LengthKt.getFeet(22.808),
-								Rotation2dKt.getDegree(-160)),
-						new Pose2d(
-								LengthKt.getFeet(23.801),
-								LengthKt.getFeet(23.509),
-								Rotation2dKt.getDegree(150))),
-				true));
-
-		// Trajectories to the rocket from (REVERSED) on habL. format is rocket[L/R for left/right][C/M/F for close/middle/far]. These are offset to allow for a vision target to yeet into it
-		generatedLGTrajectories.put("habR to rocketRF", generateTrajectoryLowGear(
-				Arrays.asList(
-						locations.get("habR"),
-						new Pose2d(
-								LengthKt.getFeet(20.33),
-								LengthKt.getFeet(5.2),
-								Rotation2dKt.getDegree(140)),
-						new Pose2d(
-								LengthKt.getFeet(25.001),
-								LengthKt.getFeet(4.1),
-								Rotation2dKt.getDegree(-150))),
-				true));
-
-		// generatedHGTrajectories.put("habR to rocketRF", generateTrajectoryHighGear(
-		// 		Arrays.asList(
-		// 				locations.get("habR"),
-		// 				new Pose2d(
-		// 						LengthKt.getFeet(19.8),
-		// 						LengthKt.getFeet(5.1),
-		// 						Rotation2dKt.getDegree(140)),
-		// 				new Pose2d(
-		// 						LengthKt.getFeet(23.801),
-		// 						LengthKt.getFeet(3.5),
-		// 						Rotation2dKt.getDegree(-150))),
-		// 		true));
-
-		// Trajectories to the rocket. format is rocket[L/R for left/right][C/M/F for close/middle/far]. This one is backed up 3 feet already!!!!!!!!!!!!!!!!!!!!!!!!!!
-		generatedLGTrajectories.put("rocketLF to loadingL", generateTrajectoryLowGear(
-				Arrays.asList(
-						new Pose2d(
-								LengthKt.getFeet(23.92),
-								LengthKt.getFeet(23.28),
-								Rotation2dKt.getDegree(-33)),
-						new Pose2d(
-								LengthKt.getFeet(19.5),
-								LengthKt.getFeet(23.065),
-								Rotation2dKt.getDegree(0)),
-						locations.get("loadingL").plus(
-								new Pose2d(LengthKt.getFeet(3), LengthKt.getFeet(0), Rotation2dKt.getDegree(0)) // offset by 3 feet to allow the vision spline to kick in a bit
-						)),
-				true));
-
-		// Trajectories to the rocket. format is rocket[L/R for left/right][C/M/F for close/middle/far]. This one is backed up 3 feet already!!!!!!!!!!!!!!!!!!!!!!!!!!
-		generatedLGTrajectories.put("rocketRF to loadingR", generateTrajectoryLowGear(
-				Arrays.asList(
-						new Pose2d(
-								LengthKt.getFeet(23.92),
-								LengthKt.getFeet(27 - 23.28),
-								Rotation2dKt.getDegree(-147)),
-						new Pose2d(
-								LengthKt.getFeet(19.5),
-								LengthKt.getFeet(4.5),
-								Rotation2dKt.getDegree(180)),
-						new Pose2d(
-								LengthKt.getFeet(4.3),
-								LengthKt.getFeet(2.3),
-								Rotation2dKt.getDegree(180))),
-				false));
-
-		// path from loading station to rcket
-		generatedLGTrajectories.put("loadingL to rocketLC", generateTrajectoryLowGear(
-				Arrays.asList(
-						new Pose2d(
-								LengthKt.getFeet(1.447),
-								LengthKt.getFeet(24.894),
-								Rotation2dKt.getDegree(180)),
-						new Pose2d(
-								LengthKt.getFeet(13.013),
-								LengthKt.getFeet(23.055),
-								Rotation2dKt.getDegree(30))),
-				true));
-
-		generatedLGTrajectories.put("loadingL to cargoL1", generateTrajectoryHighGear(new ArrayList<Pose2d>(Arrays.asList(
-				locations.get("loadingL"), locations.get("cargoL1").plus(
-						new Pose2d(
-								LengthKt.getFeet(0),
-								LengthKt.getFeet(0),
-								Rotation2dKt.getDegree(-90))))),
-				true));
-
-		generatedLGTrajectories.put("loadingR to cargoR1", generateTrajectoryHighGear(new ArrayList<Pose2d>(Arrays.asList(
-				locations.get("loadingR"), locations.get("cargoR1").plus(
-						new Pose2d(
-								LengthKt.getFeet(0),
-								LengthKt.getFeet(0),
-								Rotation2dKt.getDegree(90))))),
-				true));
+		var batch = new TrajectoryBatch();
+		// the registry holds on to what it generates, the batch just needs somewhere to put them
+		var results = new ConcurrentHashMap<String, TimedTrajectory<Pose2dWithCurvature>>();
+		for (Gear gear : Gear.values()) {
+			for (String name : registry.getNames(gear)) {
+				batch.add(results, gear + " " + name, () -> registry.get(gear, name));
+			}
+		}
+		try {
+			batch.generate();
+		} finally {
+			System.out.println(batch.getReport());
+		}
 
-		generatedLGTrajectories.put("test", generateTrajectory(new ArrayList<Pose2d>(Arrays.asList(locations.get("loadingL"),
-				new Pose2d(LengthKt.getFeet(15.9), LengthKt.getFeet(22.011), Rotation2dKt.getDegree(165)),
-				new Pose2d(LengthKt.getFeet(21.646), LengthKt.getFeet(19.223), Rotation2dKt.getDegree(-90)))),
-				kLowGearConstraints, kDefaultStartVelocity, kDefaultEndVelocity, kDefaultVelocityLow, kDefaultAcceleration, true, kOptomizeSplines));
-		generatedLGTrajectories.put("test1", generateTrajectoryLowGear(Arrays.asList(new Pose2d(LengthKt.getFeet(21.646), LengthKt.getFeet(19.223), Rotation2dKt.getDegree(-90)),
-				locations.get("cargoL1")), false));
+		var cache = TrajectoryCache.getInstance();
+		Logger.log("Trajectory cache hits: " + cache.getHits() + " misses: " + cache.getMisses());
+		cache.save();
 
 		System.out.println("Out of first round of generation");
 		double now = 0;
@@ -325,6 +137,16 @@ public class Trajectories {
 		}
 	}
 
+	/**
+	 * Generate a trajectory for the spec registry, going through the disk cache
+	 */
+	private static TimedTrajectory<Pose2dWithCurvature> generateSpecTrajectory(List<Pose2d> waypoints, Gear gear, boolean reversed) {
+		var constraints = (gear == Gear.HIGH) ? kHighGearConstraints : kLowGearConstraints;
+		var maxVelocity = (gear == Gear.HIGH) ? kDefaultVelocityHigh : kDefaultVelocityLow;
+		return TrajectoryCache.getInstance().getOrGenerate(waypoints, constraints, kDefaultStartVelocity, kDefaultEndVelocity, maxVelocity, kDefaultAcceleration, reversed, kOptomizeSplines,
+				() -> generateTrajectory(waypoints, constraints, kDefaultStartVelocity, kDefaultEndVelocity, maxVelocity, kDefaultAcceleration, reversed, kOptomizeSplines));
+	}
+
 	/**
 	 * Generate a trajectory from a list of waypoints in high gear
 	 * @param waypoints to follow
@@ -368,29 +190,13 @@ public class Trajectories {
 				reversed, optomizeSplines);
 	}
 
+	/**
+	 * Mirror a trajectory to the other side of the field. This doesn't re-generate anything,
+	 * so the mirror keeps the timing (and gear) of the original.
+	 * @see TrajectoryMirror#mirror(TimedTrajectory)
+	 */
 	public static TimedTrajectory<Pose2dWithCurvature> reflect(TimedTrajectory<Pose2dWithCurvature> unReflected) {
-		List<Pose2d> newWaypoints = new ArrayList<>();
-		Velocity<Length> maxVelocity = VelocityKt.getVelocity(LengthKt.getInch(0));
-		Acceleration<Length> maxAccel = AccelerationKt.getAcceleration(LengthKt.getInch(0));
-		for (TimedEntry<Pose2dWithCurvature> point : unReflected.getPoints()) {
-			maxVelocity = (point.getVelocity().getValue() > maxVelocity.getValue()) ? point.getVelocity() : maxVelocity;
-			maxAccel = (point.getAcceleration().getValue() > maxAccel.getValue()) ? point.getAcceleration() : maxAccel;
-			double centerOffset = (13.5 - point.getState().getPose().getTranslation().getY().getFeet()) * -1;
-			newWaypoints.add(new Pose2d(
-					new Translation2d(LengthKt.getFeet(centerOffset + 13.5),
-							point.getState().getPose().getTranslation().getY()),
-					new Rotation2d(point.getState().getPose().getRotation().getRadian() * -1)));
-		}
-
-		return TrajectoryGeneratorKt.getDefaultTrajectoryGenerator().generateTrajectory(
-				newWaypoints,
-				kLowGearConstraints, //FIXME find gear of other traject
-				unReflected.getFirstState().getVelocity(), //FIXME i think this does what I want it to
-				unReflected.getLastState().getVelocity(),
-				maxVelocity,
-				maxAccel,
-				unReflected.getReversed(),
-				unReflected.getReversed());
+		return TrajectoryMirror.mirror(unReflected);
 	}
 
 }
@@ -0,0 +1,271 @@
+package frc.robot.commands.auto;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.ghrobotics.lib.mathematics.twodim.geometry.Pose2d;
+import org.ghrobotics.lib.mathematics.twodim.geometry.Pose2dWithCurvature;
+import org.ghrobotics.lib.mathematics.twodim.trajectory.types.TimedTrajectory;
+import org.ghrobotics.lib.mathematics.units.LengthKt;
+import org.ghrobotics.lib.mathematics.units.Rotation2dKt;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import frc.robot.lib.motion.TrajectoryMirror;
+import frc.robot.subsystems.DriveTrain.Gear;
+
+/**
+ * Named field locations and trajectory specs, loaded from trajectories.json in the deploy
+ * directory. A trajectory is only generated the first time something asks for it by name,
+ * so paths that no auto uses never get generated at all. Generated trajectories are kept
+ * in a small LRU so the heap doesn't fill up with every path on the field.
+ *
+ * The file looks like this, with every distance in feet and every heading in degrees:
+ * <pre>
+ * {
+ *   "locations": { "habL": { "x": 5.6, "y": 17.684, "heading": 180 }, ... },
+ *   "highGear": [ { "name": "habL to cargoML", "reversed": true, "waypoints": ["habL", "cargoML"] }, ... ],
+ *   "lowGear": [ ... ]
+ * }
+ * </pre>
+ * A waypoint is either the name of a location or an object. An object can start from a
+ * "location", override its "x", "y" and/or "heading", and then be transformed by a "plus" pose.
+ * A spec can set "gear" to "high" or "low" to use the other gear's constraints than the list it's in.
+ * Paths without a spec of their own are mirrored from the other side of the field when asked for.
+ */
+public class TrajectorySpecRegistry {
+
+	public static final String kSpecFileName = "trajectories.json";
+	public static final int kDefaultMaxMaterialized = 16;
+
+	/**
+	 * Turns waypoints into a trajectory, normally Trajectories.generateTrajectory(waypoints, gear, reversed)
+	 */
+	public interface SpecGenerator {
+		public TimedTrajectory<Pose2dWithCurvature> generate(List<Pose2d> waypoints, Gear gear, boolean reversed);
+	}
+
+	private final SpecGenerator generator;
+	private final int maxMaterialized;
+	private final Map<String, Pose2d> locations = new LinkedHashMap<>();
+	private final Map<Gear, Map<String, Spec>> specs = new EnumMap<>(Gear.class);
+	private final LinkedHashMap<String, TimedTrajectory<Pose2dWithCurvature>> materialized;
+
+	private int generatedCount = 0;
+	private int mirroredCount = 0;
+
+	public TrajectorySpecRegistry(SpecGenerator generator, int maxMaterialized) {
+		this.generator = generator;
+		this.maxMaterialized = maxMaterialized;
+		this.materialized = new LinkedHashMap<String, TimedTrajectory<Pose2dWithCurvature>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, TimedTrajectory<Pose2dWithCurvature>> eldest) {
+				return size() > TrajectorySpecRegistry.this.maxMaterialized;
+			}
+		};
+		for (Gear gear : Gear.values()) {
+			specs.put(gear, new LinkedHashMap<>());
+		}
+	}
+
+	/**
+	 * Load specs from a file, replacing any that have the same name
+	 */
+	public void load(File file) throws IOException {
+		try (var reader = new FileReader(file)) {
+			load(reader);
+		}
+	}
+
+	/**
+	 * Load specs, replacing any that have the same name. Throws an IllegalArgumentException
+	 * saying what's wrong if a spec doesn't make sense, like a waypoint at a location that doesn't exist.
+	 */
+	public synchronized void load(Reader reader) {
+		JsonObject root = new JsonParser().parse(reader).getAsJsonObject();
+
+		if (root.has("locations")) {
+			for (var entry : root.getAsJsonObject("locations").entrySet()) {
+				locations.put(entry.getKey(), parsePose(entry.getValue().getAsJsonObject(), entry.getKey()));
+			}
+		}
+
+		loadSpecs(root, "highGear", Gear.HIGH);
+		loadSpecs(root, "lowGear", Gear.LOW);
+		materialized.clear();
+	}
+
+	private void loadSpecs(JsonObject root, String listName, Gear listGear) {
+		if (!root.has(listName))
+			return;
+		for (JsonElement element : root.getAsJsonArray(listName)) {
+			var spec = element.getAsJsonObject();
+			String name = spec.get("name").getAsString();
+			String where = listName + " \"" + name + "\"";
+
+			Gear gear = listGear;
+			if (spec.has("gear"))
+				gear = Gear.valueOf(spec.get("gear").getAsString().toUpperCase());
+			boolean reversed = spec.has("reversed") && spec.get("reversed").getAsBoolean();
+
+			var waypoints = new ArrayList<Pose2d>();
+			for (JsonElement waypoint : spec.getAsJsonArray("waypoints")) {
+				if (waypoint.isJsonPrimitive())
+					waypoints.add(getLocation(waypoint.getAsString(), where));
+				else
+					waypoints.add(parsePose(waypoint.getAsJsonObject(), where));
+			}
+			if (waypoints.size() < 2)
+				throw new IllegalArgumentException(where + " needs at least two waypoints!");
+
+			specs.get(listGear).put(name, new Spec(Collections.unmodifiableList(waypoints), gear, reversed));
+		}
+	}
+
+	private Pose2d parsePose(JsonObject json, String where) {
+		Pose2d pose = json.has("location") ? getLocation(json.get("location").getAsString(), where) : new Pose2d();
+
+		double x = json.has("x") ? json.get("x").getAsDouble() : pose.getTranslation().getX().getFeet();
+		double y = json.has("y") ? json.get("y").getAsDouble() : pose.getTranslation().getY().getFeet();
+		double heading = json.has("heading") ? json.get("heading").getAsDouble() : pose.getRotation().getDegree();
+		pose = new Pose2d(LengthKt.getFeet(x), LengthKt.getFeet(y), Rotation2dKt.getDegree(heading));
+
+		if (json.has("plus"))
+			pose = pose.plus(parsePose(json.getAsJsonObject("plus"), where));
+		return pose;
+	}
+
+	private Pose2d getLocation(String name, String where) {
+		var location = locations.get(name);
+		if (location == null)
+			throw new IllegalArgumentException(where + " uses location \"" + name + "\" which doesn't exist!");
+		return location;
+	}
+
+	/**
+	 * Get a trajectory by name, generating it if it isn't already in memory. If there's no spec
+	 * with that name but there is one for the other side of the field (see TrajectoryMirror.mirrorName),
+	 * that one gets mirrored instead, so only one side of a symmetric auto needs to be in the spec file.
+	 * @return the trajectory, or null if there is no spec with that name or its mirrored name
+	 */
+	public TimedTrajectory<Pose2dWithCurvature> get(Gear gear, String name) {
+		Spec spec;
+		String key = gear + " " + name;
+		String mirroredName = null;
+		synchronized (this) {
+			var trajectory = materialized.get(key);
+			if (trajectory != null)
+				return trajectory;
+			spec = specs.get(gear).get(name);
+			if (spec == null) {
+				mirroredName = TrajectoryMirror.mirrorName(name);
+				if (mirroredName.equals(name) || !specs.get(gear).containsKey(mirroredName))
+					return null;
+			}
+		}
+
+		if (mirroredName != null) {
+			var original = get(gear, mirroredName);
+			if (original == null)
+				return null;
+			var mirrored = TrajectoryMirror.mirror(original);
+			synchronized (this) {
+				mirroredCount++;
+				materialized.put(key, mirrored);
+			}
+			return mirrored;
+		}
+
+		// generated outside of the lock so that different paths can be generated at once
+		var trajectory = generator.generate(spec.waypoints, spec.gear, spec.reversed);
+		synchronized (this) {
+			generatedCount++;
+			materialized.put(key, trajectory);
+		}
+		return trajectory;
+	}
+
+	/**
+	 * Check if a trajectory can be had by name, either from its own spec or by mirroring
+	 */
+	public synchronized boolean contains(Gear gear, String name) {
+		return specs.get(gear).containsKey(name) || specs.get(gear).containsKey(TrajectoryMirror.mirrorName(name));
+	}
+
+	public synchronized Set<String> getNames(Gear gear) {
+		return new LinkedHashSet<>(specs.get(gear).keySet());
+	}
+
+	public synchronized Map<String, Pose2d> getLocations() {
+		return Collections.unmodifiableMap(new LinkedHashMap<>(locations));
+	}
+
+	/**
+	 * Get how many times a trajectory has been generated (or pulled from the disk cache) since boot
+	 */
+	public synchronized int getGeneratedCount() {
+		return generatedCount;
+	}
+
+	/**
+	 * Get how many times a trajectory has been made by mirroring the other side's since boot
+	 */
+	public synchronized int getMirroredCount() {
+		return mirroredCount;
+	}
+
+	/**
+	 * Get a read only Map view of one gear's trajectories, so code that used to look in a HashMap
+	 * can keep calling get(name). Iterating over it generates everything, so don't.
+	 */
+	public Map<String, TimedTrajectory<Pose2dWithCurvature>> view(Gear gear) {
+		return new AbstractMap<String, TimedTrajectory<Pose2dWithCurvature>>() {
+			@Override
+			public TimedTrajectory<Pose2dWithCurvature> get(Object name) {
+				return (name instanceof String) ? TrajectorySpecRegistry.this.get(gear, (String) name) : null;
+			}
+
+			@Override
+			public boolean containsKey(Object name) {
+				return (name instanceof String) && contains(gear, (String) name);
+			}
+
+			@Override
+			public Set<Map.Entry<String, TimedTrajectory<Pose2dWithCurvature>>> entrySet() {
+				var entries = new LinkedHashMap<String, TimedTrajectory<Pose2dWithCurvature>>();
+				for (String name : getNames(gear)) {
+					entries.put(name, TrajectorySpecRegistry.this.get(gear, name));
+				}
+				return entries.entrySet();
+			}
+		};
+	}
+
+	private static class Spec {
+		final List<Pose2d> waypoints;
+		final Gear gear;
+		final boolean reversed;
+
+		Spec(List<Pose2d> waypoints, Gear gear, boolean reversed) {
+			this.waypoints = waypoints;
+			this.gear = gear;
+			this.reversed = reversed;
+		}
+	}
+
+}
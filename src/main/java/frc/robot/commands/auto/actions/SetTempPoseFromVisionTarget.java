@@ -4,6 +4,7 @@ package frc.robot.commands.auto.actions;
 import edu.wpi.first.wpilibj.command.InstantCommand;
 import frc.robot.commands.auto.groups.VisionCommandGroup;
 import frc.robot.commands.auto.groups.VisionCommandGroup.PoseStorage;
+import frc.robot.lib.Logger;
 import frc.robot.subsystems.LimeLight;
 
 /**
@@ -40,7 +41,12 @@ public class SetTempPoseFromVisionTarget extends InstantCommand {
 	// Called once when the command executes
 	@Override
 	protected void initialize() {
-		command.setPoseStorage(toSet_, LimeLight.getInstance().getPose(0));
+		var pose = LimeLight.getInstance().getLatencyCompensatedPose(0);
+		if (pose == null) {
+			Logger.log("No vision target to set " + toSet_ + " from, leaving it alone");
+			return;
+		}
+		command.setPoseStorage(toSet_, pose);
 	}
 
 }
@@ -37,16 +37,20 @@ public class TwoHatchOneCargo extends VisionCommandGroup {
 	public ArrayList<AutoMotion> motions = new ArrayList<AutoMotion>();
 
 	public TwoHatchOneCargo(char arg1, char arg2) {
-		this();
+		this(arg2);
+	}
+
+	public TwoHatchOneCargo() {
+		this('R');
 	}
 
 	/**
 	 * 2-hatch 1-cargo hard-coded auto. ow. This is fine. Everything is fine. 
+	 * The paths are only written down for the right side, the left side gets them mirrored.
 	 * @param side to target (L or R)
-	 * @param startPos L M or R on the hab
 	 * @author Matthew Morley
 	 */
-	public TwoHatchOneCargo(/*char startPos, char side*/) {
+	public TwoHatchOneCargo(char side) {
 		// HeldPiece cPiece = HeldPiece.HATCH; // we start with a hatch
 		// String cStart = "hab" + startPos;
 
@@ -65,7 +69,7 @@ public class TwoHatchOneCargo extends VisionCommandGroup {
 		// boolean doVision = false;
 
 		/* Get a trajectory to move to the cargo ship. THE ROBOT IS REVERSED */
-		TimedTrajectory<Pose2dWithCurvature> traject = Trajectories.generatedLGTrajectories.get("habR" + " to " + "rocketRF"); //current trajectory from hashmap in Trajectories
+		TimedTrajectory<Pose2dWithCurvature> traject = Trajectories.generatedLGTrajectories.get("hab" + side + " to " + "rocket" + side + "F"); //current trajectory from hashmap in Trajectories
 
 		addParallel(new JankyGoToState(fieldPositions.hatchLowGoal, iPosition.HATCH)); // move arm inside to prep state
 
@@ -97,7 +101,7 @@ public class TwoHatchOneCargo extends VisionCommandGroup {
 		addSequential(new PrintCommand("GOT TO next spline"));
 
 		// // spline over to the rocket
-		var rocketToLoading = Trajectories.generatedLGTrajectories.get("rocketRF to loadingR");
+		var rocketToLoading = Trajectories.generatedLGTrajectories.get("rocket" + side + "F to loading" + side);
 		addSequential(DriveTrain.getInstance().followTrajectoryWithGear(rocketToLoading, TrajectoryTrackerMode.RAMSETE, Gear.LOW, false)); //drive to goal
 
 		// // // addParallel(new SuperstructureGoToState(fieldPositions.hatchMiddleGoal, iPosition.HATCH));
@@ -116,7 +120,7 @@ public class TwoHatchOneCargo extends VisionCommandGroup {
 
 		// // // addParallel(new LimeLight.SetLEDs(LimeLight.LEDMode.kOFF));
 		// addParallel(new JankyGoToState(fieldPositions.hatchLowGoal, iPosition.HATCH)); // move arm inside to prep state
-		var loadingToRocketFar = Trajectories.generatedLGTrajectories.get("loadingR to rocketRF");
+		var loadingToRocketFar = Trajectories.generatedLGTrajectories.get("loading" + side + " to rocket" + side + "F");
 		addSequential(DriveTrain.getInstance().followTrajectoryWithGear(loadingToRocketFar, TrajectoryTrackerMode.RAMSETE, Gear.LOW, false)); //drive to goal
 		addSequential(new FollowVisionTargetTheSecond(3.8));
 		addSequential(new RunIntake(-1, 0, 1));
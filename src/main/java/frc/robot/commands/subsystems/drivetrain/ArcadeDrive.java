@@ -31,10 +31,10 @@ public class ArcadeDrive extends Command {
 	@Override
 	protected void initialize() {
 		Robot.drivetrain.setNeutralMode(NeutralMode.Brake);
-		Robot.drivetrain.getLeft().getMaster().configClosedloopRamp(0.2);
-		Robot.drivetrain.getRight().getMaster().configClosedloopRamp(0.2);
-		Robot.drivetrain.getLeft().getMaster().configOpenloopRamp(0.2);
-		Robot.drivetrain.getRight().getMaster().configOpenloopRamp(0.2);
+		Robot.drivetrain.getLeft().getConfig().configClosedloopRamp(0.2);
+		Robot.drivetrain.getRight().getConfig().configClosedloopRamp(0.2);
+		Robot.drivetrain.getLeft().getConfig().configOpenloopRamp(0.2);
+		Robot.drivetrain.getRight().getConfig().configOpenloopRamp(0.2);
 		Robot.drivetrain.arcadeDrive(0, 0);
 		System.out.println("arcade drive command init");
 		DriveTrain.getInstance().isFirstRun = true;
@@ -92,10 +92,10 @@ public class ArcadeDrive extends Command {
 	protected void end() {
 		Robot.drivetrain.arcadeDrive(0, 0);
 		System.out.println("arcade end called");
-		Robot.drivetrain.getLeft().getMaster().configClosedloopRamp(0.0);
-		Robot.drivetrain.getRight().getMaster().configClosedloopRamp(0.0);
-		Robot.drivetrain.getLeft().getMaster().configOpenloopRamp(0.0);
-		Robot.drivetrain.getRight().getMaster().configOpenloopRamp(0.0);
+		Robot.drivetrain.getLeft().getConfig().configClosedloopRamp(0.0);
+		Robot.drivetrain.getRight().getConfig().configClosedloopRamp(0.0);
+		Robot.drivetrain.getLeft().getConfig().configOpenloopRamp(0.0);
+		Robot.drivetrain.getRight().getConfig().configOpenloopRamp(0.0);
 	}
 
 	// Called when another command which requires one or more of the same
@@ -4,38 +4,35 @@ import java.util.Arrays;
 import java.util.function.Supplier;
 
 import org.ghrobotics.lib.debug.LiveDashboard;
-import org.ghrobotics.lib.mathematics.twodim.control.TrajectoryTracker;
 import org.ghrobotics.lib.mathematics.twodim.geometry.Pose2d;
 import org.ghrobotics.lib.mathematics.twodim.geometry.Pose2dWithCurvature;
 import org.ghrobotics.lib.mathematics.twodim.geometry.Translation2d;
-import org.ghrobotics.lib.mathematics.twodim.trajectory.types.TimedEntry;
 import org.ghrobotics.lib.mathematics.twodim.trajectory.types.TimedTrajectory;
-import org.ghrobotics.lib.mathematics.twodim.trajectory.types.TrajectorySamplePoint;
 import org.ghrobotics.lib.mathematics.units.Length;
 import org.ghrobotics.lib.mathematics.units.LengthKt;
 import org.ghrobotics.lib.mathematics.units.Rotation2dKt;
-import org.ghrobotics.lib.mathematics.units.TimeUnitsKt;
 import org.ghrobotics.lib.mathematics.units.derivedunits.Acceleration;
 import org.ghrobotics.lib.mathematics.units.derivedunits.AccelerationKt;
 import org.ghrobotics.lib.mathematics.units.derivedunits.Velocity;
 import org.ghrobotics.lib.mathematics.units.derivedunits.VelocityKt;
 import org.ghrobotics.lib.mathematics.units.nativeunits.NativeUnit;
-import org.ghrobotics.lib.subsystems.drive.TrajectoryTrackerOutput;
 
-import edu.wpi.first.wpilibj.Notifier;
 import frc.robot.Robot;
 import frc.robot.commands.auto.Trajectories;
 import frc.robot.lib.AutoCommand;
+import frc.robot.lib.ControlLoop;
+import frc.robot.lib.ControlLoop.Phase;
 import frc.robot.lib.Logger;
+import frc.robot.lib.motion.PrimitiveTrajectoryTracker;
+import frc.robot.lib.motion.Util;
 import frc.robot.subsystems.DriveTrain;
 
 // @SuppressWarnings({"WeakerAccess", "unused"})
 public class DriveDistanceTheThird extends AutoCommand {
-	private TrajectoryTracker trajectoryTracker;
+	private PrimitiveTrajectoryTracker trajectoryTracker;
 	private Supplier<TimedTrajectory<Pose2dWithCurvature>> trajectorySource;
 	private DriveTrain driveBase;
 	private boolean reset;
-	private TrajectoryTrackerOutput output;
 	// TODO make sure that this fabled namespace collision doesn't happen on
 	// Shuffleboard
 	Length mDesiredLeft;
@@ -45,7 +42,8 @@ public class DriveDistanceTheThird extends AutoCommand {
 	boolean itDed = false;
 	TimedTrajectory<Pose2dWithCurvature> trajectory;
 
-	Notifier mUpdateNotifier;
+	private static final double kPeriod = 0.01; // seconds
+	ControlLoop.Task mPlanTask, mActTask;
 
 	private static Velocity<Length> kCruiseVel = VelocityKt.getVelocity(LengthKt.getFeet(2));
 	private static Acceleration<Length> kDefaultAcceleration = AccelerationKt.getAcceleration(LengthKt.getFeet(8));
@@ -72,7 +70,7 @@ public class DriveDistanceTheThird extends AutoCommand {
 		// this.vel = vel;
 		// this.reversed = reversed;
 		driveBase = DriveTrain.getInstance();
-		this.trajectoryTracker = driveBase.getTrajectoryTracker();
+		this.trajectoryTracker = driveBase.getPrimitiveTracker();
 		this.distance = distance;
 		this.vel = vel;
 		this.reversed = reversed;
@@ -155,21 +153,18 @@ public class DriveDistanceTheThird extends AutoCommand {
 
 			LiveDashboard.INSTANCE.setFollowingPath(true);
 
-			mUpdateNotifier = new Notifier(() -> {
-				output = trajectoryTracker.nextState(driveBase.getRobotPosition(), TimeUnitsKt.getMillisecond(System.currentTimeMillis()));
-
-				TrajectorySamplePoint<TimedEntry<Pose2dWithCurvature>> referencePoint = trajectoryTracker.getReferencePoint();
-				if (referencePoint != null) {
-					Pose2d referencePose = referencePoint.getState().getState().getPose();
-
-					LiveDashboard.INSTANCE.setPathX(referencePose.getTranslation().getX().getFeet());
-					LiveDashboard.INSTANCE.setPathY(referencePose.getTranslation().getY().getFeet());
-					LiveDashboard.INSTANCE.setPathHeading(referencePose.getRotation().getRadian());
-				}
-				// Logger.log("Linear: " + output.getLinearVelocity().getValue() + " Angular: " + output.getAngularVelocity().getValue() );
-				driveBase.setOutput(output);
-			});
-			mUpdateNotifier.startPeriodic(0.01);
+			var loop = ControlLoop.getInstance();
+			mPlanTask = loop.add("Trajectory tracker", Phase.PLAN, () -> {
+				trajectoryTracker.nextState(driveBase.getRobotPosition(), System.currentTimeMillis() / 1000.0);
+
+				var reference = trajectoryTracker.getReference();
+				LiveDashboard.INSTANCE.setPathX(Util.toFeet(reference.getX()));
+				LiveDashboard.INSTANCE.setPathY(Util.toFeet(reference.getY()));
+				LiveDashboard.INSTANCE.setPathHeading(reference.getHeading());
+			}, kPeriod);
+			mActTask = loop.add("Trajectory output", Phase.ACT, () -> {
+				driveBase.setOutputFromDynamics(trajectoryTracker.getVelocity(), trajectoryTracker.getAcceleration());
+			}, kPeriod);
 		}
 
 	}
@@ -204,7 +199,11 @@ public class DriveDistanceTheThird extends AutoCommand {
 
 	@Override
 	protected void end() {
-		mUpdateNotifier.stop();
+		var loop = ControlLoop.getInstance();
+		loop.remove(mPlanTask);
+		loop.remove(mActTask);
+		mPlanTask = mActTask = null;
+		// remove waits out a tick that's running them, so the output task can't undo this
 		driveBase.stop();
 		LiveDashboard.INSTANCE.setFollowingPath(false);
 	}
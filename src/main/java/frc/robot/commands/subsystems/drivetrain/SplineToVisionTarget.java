@@ -23,11 +23,13 @@ import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.command.Command;
 import edu.wpi.first.wpilibj.command.CommandGroup;
 import frc.robot.commands.auto.Trajectories;
+import frc.robot.lib.Logger;
 import frc.robot.lib.motion.Util;
 import frc.robot.subsystems.DriveTrain;
 import frc.robot.subsystems.DriveTrain.Gear;
 import frc.robot.subsystems.DriveTrain.TrajectoryTrackerMode;
 import frc.robot.subsystems.LimeLight;
+import frc.robot.subsystems.PoseEstimator;
 
 public class SplineToVisionTarget extends CommandGroup {
 	double targetDistance, exitArea;
@@ -59,6 +61,7 @@ public class SplineToVisionTarget extends CommandGroup {
 	boolean mCommandStarted = false;
 	TimedTrajectory<Pose2dWithCurvature> trajectory;
 	Command mFollowerCommand;
+	boolean mNoTarget = false;
 
 	// Called just before this Command runs the first time
 	@Override
@@ -66,9 +69,15 @@ public class SplineToVisionTarget extends CommandGroup {
 		final Length kOffset = LengthKt.getInch(100); // so that the spline ends up in FalconDashboard instead of off the map. HOly shit the possibilty for bugs here is big. Let's not.
 
 		double now = Timer.getFPGATimestamp();
+		mNoTarget = false;
 
 		// get the current and target poses in addition to drive straight pose
-		Pose2d mVisionTargetPose = LimeLight.getInstance().getPose(/*kEndOffset.getInch(), */kOffset.getInch());
+		Pose2d mVisionTargetPose = LimeLight.getInstance().getLatencyCompensatedPose(/*kEndOffset.getInch(), */kOffset.getInch());
+		if (mVisionTargetPose == null) {
+			Logger.log("No vision target, not splining to it");
+			mNoTarget = true;
+			return;
+		}
 		Pose2d end = new Pose2d(new Translation2d(kOffset.plus(kEndOffset), kOffset), Rotation2dKt.getDegree(0));
 		// offset the end by the end offset to make a straight portion
 		Pose2d splineEnd = end.minus(new Pose2d(kOffset.plus(kEndOffset).minus(straightLength), LengthKt.getInch(0), Rotation2dKt.getDegree(0)));
@@ -88,6 +97,11 @@ public class SplineToVisionTarget extends CommandGroup {
 
 		System.out.println("Pose2d of the target that we measured: " + Util.toString(mVisionTargetPose));
 
+		// the follower puts odometry at the start of the trajectory, so put the estimator there too.
+		// In that frame the target's at the offset
+		PoseEstimator.getInstance().reset(mVisionTargetPose);
+		PoseEstimator.getInstance().setVisionTarget(new Pose2d(new Translation2d(kOffset, kOffset), Rotation2dKt.getDegree(0)));
+
 		// this.clearRequirements();
 		mFollowerCommand.start();
 		mCommandStarted = true;
@@ -105,17 +119,20 @@ public class SplineToVisionTarget extends CommandGroup {
 	// Make this return true when this Command no longer needs to run execute()
 	@Override
 	protected boolean isFinished() {
-		return (mCommandStarted && mFollowerCommand.isCompleted()) || (LimeLight.getInstance().getTargetArea() > exitArea);
+		return mNoTarget || (mCommandStarted && mFollowerCommand.isCompleted()) || (LimeLight.getInstance().getTargetArea() > exitArea);
 	}
 
 	// Called once after isFinished returns true
 	@Override
 	protected void end() {
 		DriveTrain.getInstance().stop();
+		PoseEstimator.getInstance().clearVisionTarget();
 	}
 
 	// Called when another command which requires one or more of the same
 	// subsystems is scheduled to run
 	@Override
-	protected void interrupted() {}
+	protected void interrupted() {
+		PoseEstimator.getInstance().clearVisionTarget();
+	}
 }
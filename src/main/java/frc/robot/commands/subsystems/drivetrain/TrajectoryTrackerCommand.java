@@ -3,31 +3,27 @@ package frc.robot.commands.subsystems.drivetrain;
 import java.util.function.Supplier;
 
 import org.ghrobotics.lib.debug.LiveDashboard;
-import org.ghrobotics.lib.mathematics.twodim.control.TrajectoryTracker;
-import org.ghrobotics.lib.mathematics.twodim.geometry.Pose2d;
 import org.ghrobotics.lib.mathematics.twodim.geometry.Pose2dWithCurvature;
-import org.ghrobotics.lib.mathematics.twodim.trajectory.types.TimedEntry;
 import org.ghrobotics.lib.mathematics.twodim.trajectory.types.TimedTrajectory;
-import org.ghrobotics.lib.mathematics.twodim.trajectory.types.TrajectorySamplePoint;
 import org.ghrobotics.lib.mathematics.units.Length;
-import org.ghrobotics.lib.mathematics.units.TimeUnitsKt;
-import org.ghrobotics.lib.subsystems.drive.TrajectoryTrackerOutput;
 
-import edu.wpi.first.wpilibj.Notifier;
 import edu.wpi.first.wpilibj.Timer;
 import frc.robot.Robot;
 import frc.robot.commands.auto.Trajectories;
 import frc.robot.lib.AutoCommand;
+import frc.robot.lib.ControlLoop;
+import frc.robot.lib.ControlLoop.Phase;
 import frc.robot.lib.Logger;
+import frc.robot.lib.motion.PrimitiveTrajectoryTracker;
+import frc.robot.lib.motion.Util;
 import frc.robot.subsystems.DriveTrain;
 
 // @SuppressWarnings({"WeakerAccess", "unused"})
 public class TrajectoryTrackerCommand extends AutoCommand {
-	private TrajectoryTracker trajectoryTracker;
+	private PrimitiveTrajectoryTracker trajectoryTracker;
 	private Supplier<TimedTrajectory<Pose2dWithCurvature>> trajectorySource;
 	private DriveTrain driveBase;
 	private boolean reset;
-	private TrajectoryTrackerOutput output;
 	// TODO make sure that this fabled namespace collision doesn't happen on Shuffleboard 
 	Length mDesiredLeft;
 	Length mDesiredRight;
@@ -37,17 +33,20 @@ public class TrajectoryTrackerCommand extends AutoCommand {
 	// private NetworkTableEntry refVelEntry = Shuffleboard.getTab("Auto").getLayout("List", "Pathing info").add("Reference Velocity", 0).getEntry();
 	// private NetworkTableEntry currentVelEntry = Shuffleboard.getTab("Auto").getLayout("List", "Pathing info").add("Current Velocity", 0).getEntry();
 
-	Notifier mUpdateNotifier;
+	private static final double kPeriod = 0.01; // seconds
+	ControlLoop.Task mPlanTask, mActTask;
 
 	public TrajectoryTrackerCommand(DriveTrain driveBase, Supplier<TimedTrajectory<Pose2dWithCurvature>> trajectorySource) {
 		this(driveBase, trajectorySource, false);
 	}
 
 	public TrajectoryTrackerCommand(DriveTrain driveBase, Supplier<TimedTrajectory<Pose2dWithCurvature>> trajectorySource, boolean reset) {
-		this(driveBase, Robot.drivetrain.getTrajectoryTracker(), trajectorySource, reset);
+		this(driveBase, Robot.drivetrain.getPrimitiveTracker(), trajectorySource, reset);
 	}
 
-	public TrajectoryTrackerCommand(DriveTrain driveBase, TrajectoryTracker trajectoryTracker, Supplier<TimedTrajectory<Pose2dWithCurvature>> trajectorySource, boolean reset) {
+	public TrajectoryTrackerCommand(DriveTrain driveBase, PrimitiveTrajectoryTracker trajectoryTracker, Supplier<TimedTrajectory<Pose2dWithCurvature>> trajectorySource, boolean reset) {
+		if (trajectoryTracker == null)
+			throw new IllegalArgumentException("A trajectory tracker command needs a tracker!");
 		requires(driveBase);
 		this.driveBase = driveBase;
 		this.trajectoryTracker = trajectoryTracker;
@@ -79,28 +78,18 @@ public class TrajectoryTrackerCommand extends AutoCommand {
 
 		LiveDashboard.INSTANCE.setFollowingPath(true);
 
-		mUpdateNotifier = new Notifier(() -> {
-			output = trajectoryTracker.nextState(driveBase.getRobotPosition(), TimeUnitsKt.getSecond(Timer.getFPGATimestamp()));
-
-			TrajectorySamplePoint<TimedEntry<Pose2dWithCurvature>> referencePoint = trajectoryTracker.getReferencePoint();
-			if (referencePoint != null) {
-				Pose2d referencePose = referencePoint.getState().getState().getPose();
-
-				LiveDashboard.INSTANCE.setPathX(referencePose.getTranslation().getX().getFeet());
-				LiveDashboard.INSTANCE.setPathY(referencePose.getTranslation().getY().getFeet());
-				LiveDashboard.INSTANCE.setPathHeading(referencePose.getRotation().getRadian());
-
-				// Shuffleboard.getTab("Auto").getLayout("Pathing", BuiltInLayouts.kList).
-
-				// refVelEntry.setDouble(referencePoint.getState().getVelocity().getType$FalconLibrary().getFeet());
-				// currentVelEntry.setDouble(driveBase.getLeft().getFeetPerSecond());
-
-			}
-			// Logger.log("Linear: " + output.getLinearVelocity().getValue() + " Angular: " + output.getAngularVelocity().getValue() );
-			driveBase.setOutput(output);
-
-		});
-		mUpdateNotifier.startPeriodic(0.01);
+		var loop = ControlLoop.getInstance();
+		mPlanTask = loop.add("Trajectory tracker", Phase.PLAN, () -> {
+			trajectoryTracker.nextState(driveBase.getRobotPosition(), Timer.getFPGATimestamp());
+
+			var reference = trajectoryTracker.getReference();
+			LiveDashboard.INSTANCE.setPathX(Util.toFeet(reference.getX()));
+			LiveDashboard.INSTANCE.setPathY(Util.toFeet(reference.getY()));
+			LiveDashboard.INSTANCE.setPathHeading(reference.getHeading());
+		}, kPeriod);
+		mActTask = loop.add("Trajectory output", Phase.ACT, () -> {
+			driveBase.setOutputFromDynamics(trajectoryTracker.getVelocity(), trajectoryTracker.getAcceleration());
+		}, kPeriod);
 	}
 
 	@Override
@@ -133,7 +122,11 @@ public class TrajectoryTrackerCommand extends AutoCommand {
 
 	@Override
 	protected void end() {
-		mUpdateNotifier.stop();
+		var loop = ControlLoop.getInstance();
+		loop.remove(mPlanTask);
+		loop.remove(mActTask);
+		mPlanTask = mActTask = null;
+		// remove waits out a tick that's running them, so the output task can't undo this
 		driveBase.stop();
 		LiveDashboard.INSTANCE.setFollowingPath(false);
 	}
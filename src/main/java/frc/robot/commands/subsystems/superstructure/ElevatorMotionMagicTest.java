@@ -29,13 +29,13 @@ public class ElevatorMotionMagicTest extends Command {
 	protected void initialize() {
 
 		Elevator elev = SuperStructure.getElevator();
-		elev.getMaster().configMotionAcceleration((int) (600 * 9 * 1.75));
-		elev.getMaster().configMotionCruiseVelocity(4000); // about 3500 theoretical max
-		elev.getMaster().configMotionSCurveStrength(4);
-		elev.getMaster().config_kP(3, 0.05 * 9, 0);
-		elev.getMaster().config_kI(3, 0.0, 0);
-		elev.getMaster().config_kD(3, 0.0, 0);
-		elev.getMaster().config_kF(3, 0.24 * (500 / 400), 0);
+		elev.getConfig().configMotionAcceleration((int) (600 * 9 * 1.75));
+		elev.getConfig().configMotionCruiseVelocity(4000); // about 3500 theoretical max
+		elev.getConfig().configMotionSCurveStrength(4);
+		elev.getConfig().config_kP(3, 0.05 * 9);
+		elev.getConfig().config_kI(3, 0.0);
+		elev.getConfig().config_kD(3, 0.0);
+		elev.getConfig().config_kF(3, 0.24 * (500 / 400));
 		elev.getMaster().selectProfileSlot(3, 0);
 		// elev.getMaster().configClosedloopRamp(0.1);
 
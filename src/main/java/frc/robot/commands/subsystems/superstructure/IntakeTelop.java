@@ -9,10 +9,13 @@ package frc.robot.commands.subsystems.superstructure;
 
 import edu.wpi.first.wpilibj.command.Command;
 import frc.robot.Robot;
+import frc.robot.lib.LoopTimer;
 import frc.robot.lib.motion.Util;
 import frc.robot.subsystems.Intake;
 
 public class IntakeTelop extends Command {
+	private final LoopTimer.Section mExecuteTimer = LoopTimer.getInstance().section("IntakeTelop execute", Robot.mPeriod);
+
 	public IntakeTelop() {
 		// Use requires() here to declare subsystem dependencies
 		requires(Intake.getInstance());
@@ -25,6 +28,7 @@ public class IntakeTelop extends Command {
 	// Called repeatedly when this Command is scheduled to run
 	@Override
 	protected void execute() {
+		long start = mExecuteTimer.start();
 		if (Math.abs(Robot.m_oi.getCargoSpeed()) > 0.2) {
 			Intake.getInstance().setSpeed(-1 * Robot.m_oi.getCargoSpeed(), Robot.m_oi.getCargoSpeed());
 		} else {
@@ -32,6 +36,7 @@ public class IntakeTelop extends Command {
 		}
 		var oi = Robot.m_oi;
 		oi.setAllRumble(Util.limit(Math.max(Robot.m_oi.getCargoSpeed(), Robot.m_oi.getHatchSpeed()), 0, 0.9));
+		mExecuteTimer.stop(start);
 	}
 
 	// Make this return true when this Command no longer needs to run execute()
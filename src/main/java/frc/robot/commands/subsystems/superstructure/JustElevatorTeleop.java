@@ -6,6 +6,7 @@ import org.ghrobotics.lib.mathematics.units.LengthKt;
 import edu.wpi.first.wpilibj.command.Command;
 import frc.robot.OI;
 import frc.robot.Robot;
+import frc.robot.lib.LoopTimer;
 import frc.robot.states.ElevatorState;
 import frc.robot.states.SuperStructureState;
 import frc.robot.subsystems.superstructure.Elevator;
@@ -18,6 +19,8 @@ public class JustElevatorTeleop extends Command {
 
 	private static Length mOffset = LengthKt.getInch(0);
 
+	private final LoopTimer.Section mExecuteTimer = LoopTimer.getInstance().section("JustElevatorTeleop execute", Robot.mPeriod);
+
 	/**
 	 * Jog the superstructure using an xbox controller. Mainly used for testing.
 	 * 
@@ -36,7 +39,8 @@ public class JustElevatorTeleop extends Command {
 	protected void initialize() {
 		SuperStructure.elevator.setGear(Elevator.kDefaultGear);
 		// System.out.println("kp: ================ " + SuperStructure.elevator.getMaster().getKP());
-		mCachedState = SuperStructure.getInstance().updateState();
+		// a copy, since updateState hands out the state everyone else is reading this loop
+		mCachedState = new SuperStructureState(SuperStructure.getInstance().updateState());
 		SuperStructure.getElevator().getMaster().selectProfileSlot(3, 0);
 		// SuperStructure.getInstance().getElbow().getMaster().selectProfileSlot(3, 0);
 
@@ -51,6 +55,7 @@ public class JustElevatorTeleop extends Command {
 	// Called repeatedly when this Command is scheduled to run
 	@Override
 	protected void execute() {
+		long start = mExecuteTimer.start();
 
 		SuperStructureState mCurrentState = SuperStructure.getInstance().updateState();
 		var mNewState = mCachedState;
@@ -71,6 +76,7 @@ public class JustElevatorTeleop extends Command {
 		// Figure out of the operator is commandi
 		SuperStructure.getInstance().move(mNewState);
 
+		mExecuteTimer.stop(start);
 	}
 
 	// Make this return true when this Command no longer needs to run execute()
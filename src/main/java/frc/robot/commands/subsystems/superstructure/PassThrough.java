@@ -11,9 +11,13 @@ import edu.wpi.first.wpilibj.command.Command;
 import edu.wpi.first.wpilibj.command.CommandGroup;
 import edu.wpi.first.wpilibj.command.ConditionalCommand;
 import edu.wpi.first.wpilibj.command.PrintCommand;
+import frc.robot.Robot;
+import frc.robot.lib.LoopTimer;
+import frc.robot.lib.motion.Util;
 import frc.robot.lib.obj.RoundRotation2d;
+import frc.robot.planners.SuperstructureTrajectory;
+import frc.robot.planners.TrajectoryPlanner;
 import frc.robot.states.IntakeAngle;
-import frc.robot.states.SuperStructureState;
 import frc.robot.subsystems.Intake;
 import frc.robot.subsystems.superstructure.SuperStructure;
 
@@ -22,28 +26,43 @@ public class PassThrough extends ConditionalCommand {
 	private static final double kProximalMaxVel = 190d / 360d * 2 * Math.PI;
 	private static final double kWristMaxVel = 190d / 360d * 2 * Math.PI;
 
+	/**
+	 * Swing the elbow over to the other side with the wrist following it, timed with
+	 * TrajectoryPlanner so both get there together without going over either's limits.
+	 * If the wrist falls behind, the trajectory waits for it to catch up.
+	 */
 	public static class SyncedMove extends Command {
 
-		private final double goal;
-		private final double goalWrist;
-		private final RoundRotation2d goalRotation2d;
-		private final RoundRotation2d goalWristRotation2d;
-		private final boolean isFrontToBack;
-		private final SuperStructure structure;
-		private RoundRotation2d lastCommandedProximal;
-		private final double proximalVelocity;
-		private double lastTime = 0;
-		private boolean moveIteratorFinished = false;
-		private SuperStructureState lastObservedState = new SuperStructureState();
+		// how far the elbow's allowed to go, degrees
+		private static final double kMinElbow = -205, kMaxElbow = 5;
+		// how far the wrist can fall behind before the trajectory stops and waits, degrees
+		private static final double kMaxWristLag = 50;
 
+		private final double goal; // elbow, degrees
+		private final SuperStructure structure;
+		private final TrajectoryPlanner planner;
+		private SuperstructureTrajectory trajectory;
+		// how far along the trajectory is, which stops while the wrist catches up
+		private double elapsed, lastTime;
+		private final LoopTimer.Section executeTimer = LoopTimer.getInstance().section("SyncedMove execute", Robot.mPeriod);
+
+		/**
+		 * @param goalAngle for the elbow, in radians
+		 * @param proximalMaxVel radians per second
+		 * @param wristMaxVel radians per second
+		 */
 		public SyncedMove(double goalAngle, double proximalMaxVel, double wristMaxVel, boolean isFrontToBack, SuperStructure structure) {
-			this.goal = goalAngle + (isFrontToBack ? -30 : 0);
-			this.goalWrist = goalAngle;
-			this.goalWristRotation2d = RoundRotation2d.getRadian(goalWrist);
-			this.goalRotation2d = RoundRotation2d.getRadian(goal);
+			// front to back always went all the way to the elbow's limit, since the 30 degrees further it
+			// asked for came off the radians. The rest of FrontToBack is tuned for that, so keep it
+			this.goal = isFrontToBack ? kMinElbow : Util.limit(Math.toDegrees(goalAngle), kMinElbow, kMaxElbow);
 			this.structure = structure;
-			this.isFrontToBack = isFrontToBack;
-			this.proximalVelocity = Math.abs(Math.min(Math.abs(proximalMaxVel), Math.abs(wristMaxVel))) * 0.8 * (isFrontToBack ? -1 : 1);
+			var limits = TrajectoryPlanner.getInstance();
+			var elbow = limits.getLimits(TrajectoryPlanner.kElbow);
+			var wrist = limits.getLimits(TrajectoryPlanner.kWrist);
+			this.planner = new TrajectoryPlanner(limits.getLimits(TrajectoryPlanner.kElevator),
+					new TrajectoryPlanner.JointLimits(Math.min(elbow.maxVelocity, Math.toDegrees(Math.abs(proximalMaxVel))), elbow.maxAcceleration),
+					new TrajectoryPlanner.JointLimits(Math.min(wrist.maxVelocity, Math.toDegrees(Math.abs(wristMaxVel))), wrist.maxAcceleration),
+					TrajectoryPlanner.kDefaultDt);
 		}
 
 		public SyncedMove(double goalAngle, boolean isFrontToBack, SuperStructure structure) {
@@ -52,95 +71,33 @@ public class PassThrough extends ConditionalCommand {
 
 		@Override
 		public void initialize() {
-			lastCommandedProximal = structure.getCurrentState().getElbowAngle();
+			var current = structure.getCurrentState();
+			double height = current.getElevatorHeight().getInch();
+			// the wrist ends up in line with the elbow
+			trajectory = planner.generate(new double[] { height, height },
+					new double[] { current.getElbowAngle().getDegree(), goal },
+					new double[] { current.getWristAngle().getDegree(), getDumbWrist(goal, goal) }, 2);
+			elapsed = 0;
 			lastTime = Timer.getFPGATimestamp();
-			moveIteratorFinished = false;
-
-			System.out.println("initial proximal: " + lastCommandedProximal);
 		}
 
 		@Override
 		public void execute() {
-
-			System.out.println("MOVE I9TERATOR " + moveIteratorFinished);
-
-			if (moveIteratorFinished)
-				return;
-
-			var now = Timer.getFPGATimestamp();
-			var dt = now - lastTime;
-			var currentState = structure.getCurrentState();
-			this.lastObservedState = currentState;
-
-			RoundRotation2d nextProximal = lastCommandedProximal;
-
-			if (Math.abs(SuperStructure.getUnDumbWrist(lastObservedState.getWristAngle(), lastObservedState.getElbowAngle()).getDegree() - lastCommandedProximal.getDegree()) < 50) {
-				nextProximal = this.lastCommandedProximal.plus(RoundRotation2d.getRadian(proximalVelocity * dt));
-			}
-
-			if (nextProximal.getDegree() < -205) {
-				nextProximal = RoundRotation2d.getDegree(-205);
-				moveIteratorFinished = true;
-				System.out.println("SETTING MOVE ITERATOR TO TRUE 1");
-			} else if (nextProximal.getDegree() > 5) {
-				nextProximal = RoundRotation2d.getDegree(5);
-				moveIteratorFinished = true;
-				System.out.println("SETTING MOVE ITERATOR TO TRUE 2");
-			}
-
-			System.out.println("next proximal: " + nextProximal.getDegree());
-
-			if (isFrontToBack) {
-				if (nextProximal.getRadian() < goal)
-					nextProximal = goalRotation2d;
-			} else {
-				if (nextProximal.getRadian() > goal)
-					nextProximal = goalRotation2d;
-			}
-
-			if (isFrontToBack) {
-				if (nextProximal.getRadian() < goal) {
-					this.moveIteratorFinished = true;
-					System.out.println("SETTING MOVE ITERATOR TO TRUE 3");
-				}
-			} else if (nextProximal.getRadian() > goal) {
-				this.moveIteratorFinished = true;
-				System.out.println("SETTING MOVE ITERATOR TO TRUE 4");
-			}
-
-			var nextWrist = getDumbWrist(currentState.getElbowAngle(), currentState.getElbowAngle());
-
-			System.out.println("next elbow " + nextProximal);
-			System.out.println("next wrist " + nextWrist);
-
-			structure.getWrist().requestAngle(nextWrist);
-			structure.getElbow().requestAngle(nextProximal);
-
-			this.lastCommandedProximal = nextProximal;
+			long start = executeTimer.start();
+			double now = Timer.getFPGATimestamp();
+			int i = trajectory.indexAt(elapsed);
+			double wrist = trajectory.getPosition(TrajectoryPlanner.kWrist, i);
+			if (Math.abs(structure.getStateSnapshot().getWrist() - wrist) < kMaxWristLag)
+				elapsed += now - lastTime;
 			lastTime = now;
-
-			System.out.println("====================");
-
-			System.out.println("last observed prox " + lastObservedState.getElbowAngle().getDegree() + " last wrist " +
-					lastObservedState.getWristAngle().getDegree() + " next elbow " + nextProximal +
-					" next wrist " + nextWrist);
-
-			System.out.println("====================");
+			structure.getWrist().requestAngle(RoundRotation2d.getDegree(wrist));
+			structure.getElbow().requestAngle(RoundRotation2d.getDegree(trajectory.getPosition(TrajectoryPlanner.kElbow, i)));
+			executeTimer.stop(start);
 		}
 
 		@Override
 		public boolean isFinished() {
-			var toReturn = (structure.getWrist().isWithinTolerance(RoundRotation2d.getDegree(5),
-					getDumbWrist(RoundRotation2d.getRadian(goal), lastObservedState.getElbowAngle()))
-					&& structure.getElbow()
-							.isWithinTolerance(RoundRotation2d.getDegree(5), RoundRotation2d.getRadian(goal))
-					&& moveIteratorFinished) || moveIteratorFinished;
-
-			System.out.println("pass thru done? " + toReturn);
-
-			System.out.println("moveIteratorFinished? " + moveIteratorFinished);
-
-			return toReturn;
+			return elapsed >= trajectory.getDuration();
 		}
 	}
 
@@ -164,6 +121,8 @@ public class PassThrough extends ConditionalCommand {
 		return isFrontToBack.get();
 	}
 
+	// Hand tuned on the robot. Keep these until the crossbar's been measured and SuperstructurePlanner's
+	// crossbarDepth isn't a guess, then they can go through PlannedGoToState like the other presets.
 	public static class FrontToBack extends CommandGroup {
 
 		public FrontToBack(SuperStructure structure) {
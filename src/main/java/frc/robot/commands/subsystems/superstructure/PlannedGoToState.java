@@ -0,0 +1,125 @@
+package frc.robot.commands.subsystems.superstructure;
+
+import java.util.List;
+
+import edu.wpi.first.wpilibj.command.Command;
+import frc.robot.Robot;
+import frc.robot.lib.Logger;
+import frc.robot.lib.LoopTimer;
+import frc.robot.planners.PresetPlanTable;
+import frc.robot.planners.TrajectoryPlanner;
+import frc.robot.states.SuperStructureState;
+import frc.robot.states.SuperStructureView;
+import frc.robot.subsystems.superstructure.SuperStructure;
+
+/**
+ * Go to a state along the waypoints from PresetPlanTable. Between presets the plan's already
+ * there, so there's nothing to work out when the button gets pressed. TrajectoryPlanner times
+ * the plan so all three joints move together along the lines the planner checked, and
+ * SuperStructure streams it into the talons.
+ *
+ * Once the trajectory's done it holds the goal as asked for, even if the planner had to clamp it
+ * to the joints' limits. If the goal would hit something and the planner stopped short of it
+ * instead, it holds the end of the plan, so it never cuts back into what the planner went around.
+ */
+public class PlannedGoToState extends Command {
+
+	private static final double kDefaultTimeout = 6;
+	// how close to the goal counts as there, under SuperstructurePlanner's half a grid step of padding
+	private static final double kElevatorTolerance = 0.4; // inches
+	private static final double kElbowTolerance = 1; // degrees
+	private static final double kWristTolerance = 2; // degrees
+
+	private final SuperStructureState mGoal;
+	// looked up once, since the goal doesn't change
+	private final int mGoalIndex;
+	// null to look it up when the command starts
+	private final List<SuperStructureState> mPlan;
+	private boolean mHasPlan;
+	// where it ends up, the goal unless that was blocked
+	private SuperStructureState mTarget;
+	private final LoopTimer.Section mExecuteTimer = LoopTimer.getInstance().section("PlannedGoToState execute", Robot.mPeriod);
+
+	public PlannedGoToState(SuperStructureState goal) {
+		this(goal, kDefaultTimeout);
+	}
+
+	public PlannedGoToState(SuperStructureState goal, double timeout) {
+		this(goal, null, timeout);
+	}
+
+	/**
+	 * Follow waypoints someone already planned, like SuperstructureMotion does
+	 * @param plan from SuperstructurePlanner, made from where the superstructure will be when this starts
+	 */
+	public PlannedGoToState(SuperStructureState goal, List<SuperStructureState> plan) {
+		this(goal, plan, kDefaultTimeout);
+	}
+
+	private PlannedGoToState(SuperStructureState goal, List<SuperStructureState> plan, double timeout) {
+		requires(SuperStructure.getInstance());
+		requires(SuperStructure.getInstance().getWrist());
+		requires(SuperStructure.getInstance().getElbow());
+		requires(SuperStructure.getElevator());
+		setTimeout(timeout);
+		mGoal = goal;
+		mPlan = plan;
+		mGoalIndex = plan == null ? PresetPlanTable.getInstance().indexOf(goal) : -1;
+	}
+
+	@Override
+	protected void initialize() {
+		var structure = SuperStructure.getInstance();
+		var current = structure.getCurrentState();
+		var table = PresetPlanTable.getInstance();
+		var waypoints = mPlan != null ? mPlan : table.getPlan(current, mGoal, mGoalIndex);
+		mHasPlan = !waypoints.isEmpty();
+		if (!mHasPlan) {
+			Logger.log("PlannedGoToState has no way to " + mGoal.toCSV());
+			return;
+		}
+		mTarget = mPlan == null && table.isGoalSafed() ? waypoints.get(waypoints.size() - 1) : mGoal;
+		structure.startTrajectory(TrajectoryPlanner.getInstance().generate(current, waypoints), mTarget);
+	}
+
+	@Override
+	protected void execute() {
+		if (!mHasPlan)
+			return;
+		long start = mExecuteTimer.start();
+		var structure = SuperStructure.getInstance();
+		if (!structure.isTrajectoryDone()) {
+			structure.followTrajectory();
+		} else {
+			structure.stopTrajectory();
+			structure.move(mTarget);
+		}
+		mExecuteTimer.stop(start);
+	}
+
+	private static boolean isAt(SuperStructureState target, SuperStructureView current) {
+		return Math.abs(target.getElevatorHeight().getInch() - current.getHeight()) < kElevatorTolerance
+				&& Math.abs(target.getElbowAngle().getDegree() - current.getElbow()) < kElbowTolerance
+				&& Math.abs(target.getWristAngle().getDegree() - current.getWrist()) < kWristTolerance;
+	}
+
+	@Override
+	protected boolean isFinished() {
+		var structure = SuperStructure.getInstance();
+		return !mHasPlan || isTimedOut()
+				|| (structure.isTrajectoryDone() && isAt(mTarget, structure.getStateSnapshot()));
+	}
+
+	@Override
+	protected void end() {
+		if (!mHasPlan)
+			return;
+		var structure = SuperStructure.getInstance();
+		if (!structure.isTrajectoryDone()) {
+			// cut off part way, so stay put rather than cut across to the goal
+			structure.stopTrajectory();
+			structure.move(structure.getCurrentState());
+		}
+	}
+
+}
@@ -3,6 +3,8 @@ package frc.robot.commands.subsystems.superstructure;
 import org.ghrobotics.lib.mathematics.units.Length;
 
 import edu.wpi.first.wpilibj.command.Command;
+import frc.robot.Robot;
+import frc.robot.lib.LoopTimer;
 import frc.robot.lib.obj.RoundRotation2d;
 import frc.robot.states.ElevatorState;
 import frc.robot.states.IntakeAngle;
@@ -16,6 +18,7 @@ public class SuperstructureGoToState extends Command {
 	private boolean hasSetState = false;
 	private final RoundRotation2d wristSetpoint, elbowSetpoint;
 	private final Length elevatorSetpoint;
+	private final LoopTimer.Section mExecuteTimer = LoopTimer.getInstance().section("SuperstructureGoToState execute", Robot.mPeriod);
 
 	public SuperstructureGoToState(SuperStructureState requState) {
 		this(requState, kDefaultTimeout);
@@ -65,9 +68,11 @@ public class SuperstructureGoToState extends Command {
 	// Called repeatedly when this Command is scheduled to run
 	@Override
 	protected void execute() {
+		long start = mExecuteTimer.start();
 		SuperStructure.getInstance().move(mRequState);
 		hasSetState = true;
 		// System.out.println("target state: " + mRequState.toCSV());
+		mExecuteTimer.stop(start);
 	}
 
 	// Make this return true when this Command no longer needs to run execute()
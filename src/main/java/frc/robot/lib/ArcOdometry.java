@@ -0,0 +1,151 @@
+package frc.robot.lib;
+
+/**
+ * Tank drive odometry that takes raw encoder ticks and gyro yaw and keeps the pose in doubles.
+ * Between updates the robot is assumed to drive along an arc of constant curvature (the pose
+ * exponential), rather than straight along its heading, so it stays accurate through turns
+ * even if it gets updated a bit slowly. It's still meant to be updated fast though, every 5ms
+ * or so on its own Notifier.
+ *
+ * The heading comes from the gyro. If the gyro reading is NaN (like when the navX falls off the
+ * bus) the heading comes from the difference between the two sides instead.
+ *
+ * Not thread safe, only call it from one thread and publish the pose somewhere else (like a PoseHistory).
+ */
+public class ArcOdometry {
+
+	/** Below this much turn, sin(x)/x and friends get replaced with a few terms of their Taylor series */
+	private static final double kSmallAngle = 1e-9;
+
+	private final double leftMetersPerTick;
+	private final double rightMetersPerTick;
+	private final double trackWidth;
+	private final double radiansPerGyroDegree;
+
+	private double x, y, heading;
+	private double distance;
+
+	private boolean hasLastReading = false;
+	private long lastLeftTicks, lastRightTicks;
+	private double gyroOffset;
+
+	/**
+	 * @param leftMetersPerTick how far the left side goes per encoder tick
+	 * @param rightMetersPerTick how far the right side goes per encoder tick
+	 * @param trackWidth the distance between the left and right wheels, in meters, only used if the gyro drops out
+	 * @param gyroClockwisePositive if the gyro goes up when the robot turns clockwise, like the navX does
+	 */
+	public ArcOdometry(double leftMetersPerTick, double rightMetersPerTick, double trackWidth, boolean gyroClockwisePositive) {
+		this.leftMetersPerTick = leftMetersPerTick;
+		this.rightMetersPerTick = rightMetersPerTick;
+		this.trackWidth = trackWidth;
+		this.radiansPerGyroDegree = (gyroClockwisePositive ? -1 : 1) * Math.PI / 180;
+	}
+
+	/**
+	 * Put the robot somewhere. The next update takes its readings as the new zero for the
+	 * encoders and gyro, so nothing needs to get zeroed on the hardware.
+	 * @param x in meters
+	 * @param y in meters
+	 * @param heading in radians, counter clockwise positive
+	 */
+	public void reset(double x, double y, double heading) {
+		this.x = x;
+		this.y = y;
+		this.heading = heading;
+		hasLastReading = false;
+	}
+
+	/**
+	 * Move the pose along by however far the encoders and gyro say the robot went since last time
+	 * @param leftTicks total left encoder position
+	 * @param rightTicks total right encoder position
+	 * @param gyroYaw total gyro angle in degrees, or NaN if the gyro isn't working
+	 */
+	public void update(long leftTicks, long rightTicks, double gyroYaw) {
+		boolean hasGyro = !Double.isNaN(gyroYaw);
+		if (!hasLastReading) {
+			hasLastReading = true;
+			lastLeftTicks = leftTicks;
+			lastRightTicks = rightTicks;
+			gyroOffset = hasGyro ? heading - gyroYaw * radiansPerGyroDegree : Double.NaN;
+			return;
+		}
+
+		double leftDelta = (leftTicks - lastLeftTicks) * leftMetersPerTick;
+		double rightDelta = (rightTicks - lastRightTicks) * rightMetersPerTick;
+		lastLeftTicks = leftTicks;
+		lastRightTicks = rightTicks;
+
+		double newHeading;
+		if (hasGyro) {
+			newHeading = gyroYaw * radiansPerGyroDegree + gyroOffset;
+		} else {
+			newHeading = heading + (rightDelta - leftDelta) / trackWidth;
+			// so the gyro picks up from here when it comes back
+			gyroOffset = Double.NaN;
+		}
+		if (hasGyro && Double.isNaN(gyroOffset)) {
+			// the gyro just came back, so line it up with the encoder heading and count this update as straight
+			gyroOffset = heading - gyroYaw * radiansPerGyroDegree;
+			newHeading = heading;
+		}
+
+		integrate((leftDelta + rightDelta) / 2, newHeading - heading);
+		heading = newHeading;
+	}
+
+	/**
+	 * Drive along an arc from the current pose
+	 * @param ds distance along the arc in meters
+	 * @param dtheta change in heading over the arc in radians
+	 */
+	private void integrate(double ds, double dtheta) {
+		// in the robot's frame, an arc of length ds that turns dtheta ends up at
+		// (ds * sin(dtheta) / dtheta, ds * (1 - cos(dtheta)) / dtheta)
+		double s, c;
+		if (Math.abs(dtheta) < kSmallAngle) {
+			s = 1 - dtheta * dtheta / 6;
+			c = dtheta / 2;
+		} else {
+			s = Math.sin(dtheta) / dtheta;
+			c = (1 - Math.cos(dtheta)) / dtheta;
+		}
+		double forward = ds * s;
+		double left = ds * c;
+
+		double cos = Math.cos(heading), sin = Math.sin(heading);
+		x += forward * cos - left * sin;
+		y += forward * sin + left * cos;
+		distance += Math.abs(ds);
+	}
+
+	/**
+	 * Get the x of the robot, in meters
+	 */
+	public double getX() {
+		return x;
+	}
+
+	/**
+	 * Get the y of the robot, in meters
+	 */
+	public double getY() {
+		return y;
+	}
+
+	/**
+	 * Get the heading of the robot, in radians counter clockwise positive. Not wrapped, so it keeps counting past pi.
+	 */
+	public double getHeading() {
+		return heading;
+	}
+
+	/**
+	 * Get how far the robot has driven in total, forwards or backwards, in meters
+	 */
+	public double getDistance() {
+		return distance;
+	}
+
+}
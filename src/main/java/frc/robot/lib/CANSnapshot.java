@@ -0,0 +1,72 @@
+package frc.robot.lib;
+
+import java.util.ArrayList;
+
+import com.ctre.phoenix.motorcontrol.can.TalonSRX;
+
+import frc.robot.lib.logging.TelemetryTable;
+import frc.robot.lib.logging.TelemetryTable.LongChannel;
+
+/**
+ * Reads every registered talon once at the top of the robot loop (see Robot.robotPeriodic), so
+ * the superstructure state, the logging and the dashboard all see the same readings without
+ * each going back over JNI for them.
+ *
+ * The snapshot is only as fresh as the start of the loop. Setting a sensor position doesn't show
+ * up until the next capture, but the talon doesn't report it until its next status frame anyway.
+ *
+ * Only use it from the robot loop thread. Notifiers that need fresh readings (like odometry)
+ * should keep reading the talons themselves.
+ */
+public class CANSnapshot {
+
+	private static CANSnapshot instance_;
+
+	public static synchronized CANSnapshot getInstance() {
+		if (instance_ == null) {
+			instance_ = new CANSnapshot();
+		}
+		return instance_;
+	}
+
+	private final ArrayList<TalonSnapshot> talons = new ArrayList<TalonSnapshot>();
+	private final LongChannel readsChannel;
+	private int readsPerLoop = 0;
+
+	private CANSnapshot() {
+		readsChannel = TelemetryTable.getInstance().addLong("CAN reads per loop");
+	}
+
+	/**
+	 * Start reading a talon every loop. It gets read once right away too, so the snapshot is
+	 * never just zeros.
+	 * @param talon to read
+	 * @param signals which signals to read, like TalonSnapshot.kMechanism
+	 */
+	public synchronized TalonSnapshot register(TalonSRX talon, int signals) {
+		var snapshot = new TalonSnapshot(talon, signals);
+		snapshot.capture();
+		talons.add(snapshot);
+		return snapshot;
+	}
+
+	/**
+	 * Read every registered talon. Call this once, at the very top of the loop.
+	 */
+	public synchronized void capture() {
+		int reads = 0;
+		for (int i = 0; i < talons.size(); i++) {
+			reads += talons.get(i).capture();
+		}
+		readsPerLoop = reads;
+		readsChannel.set(reads);
+	}
+
+	/**
+	 * Get how many JNI calls the last capture took
+	 */
+	public int getReadsPerLoop() {
+		return readsPerLoop;
+	}
+
+}
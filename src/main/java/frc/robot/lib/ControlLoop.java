@@ -0,0 +1,430 @@
+package frc.robot.lib;
+
+import java.util.Arrays;
+
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Threads;
+import frc.robot.lib.logging.TelemetryTable;
+import frc.robot.lib.logging.TelemetryTable.DoubleChannel;
+import frc.robot.lib.logging.TelemetryTable.LongChannel;
+
+/**
+ * One thread that runs every fixed rate control task, instead of a Notifier each. Every tick
+ * runs the phases in order (sense, estimate, plan, act, log), so a task in act always sees
+ * what sense read this tick. Tasks that don't need to run every tick say how often they want
+ * to run, and get rounded to a whole number of ticks.
+ *
+ * Every phase gets timed every tick. Jitter is how far the time between one run of a phase and
+ * the next was off from the period, and a phase overruns when it takes longer than its share
+ * of the period. Both go to telemetry in logPeriodicIO. Each task also gets a LoopTimer section,
+ * so a slow phase can be pinned on a task.
+ *
+ * It's one Notifier underneath, so it runs the same in the desktop sim as on the robot. Tasks
+ * have to be quick, and shouldn't block on the CAN bus or NetworkTables. Removing a task waits
+ * for the tick that's running it, so a command can stop its tasks and then safely zero outputs.
+ */
+public class ControlLoop implements LoggableSubsystem {
+
+	public static enum Phase {
+		/** read sensors */
+		SENSE,
+		/** turn readings into state, like odometry */
+		ESTIMATE,
+		/** work out what to do, like trajectory tracking */
+		PLAN,
+		/** set outputs */
+		ACT,
+		/** dashboard and telemetry */
+		LOG
+	}
+
+	/** Fast enough for the 200hz odometry, everything else runs every few ticks */
+	public static final double kDefaultPeriod = 0.005; // seconds
+	/** RT priority for the loop thread on the roboRIO, above the main robot thread */
+	private static final int kPriority = 40;
+
+	private static final Phase[] kPhases = Phase.values();
+	/** A task that keeps throwing gets logged at most this often */
+	private static final long kErrorLogPeriodNanos = 1_000_000_000;
+
+	/**
+	 * A task that's been added, so it can be taken back out
+	 */
+	public static class Task {
+		private final String name;
+		private final Phase phase;
+		private final Runnable runnable;
+		private final int ticks;
+		private final LoopTimer.Section timer;
+		private int countdown = 0;
+		// only touched by whoever's ticking
+		private volatile long errors = 0;
+		private long unloggedErrors = 0;
+		private long lastErrorLog = 0;
+
+		private Task(String name, Phase phase, Runnable runnable, int ticks, LoopTimer.Section timer) {
+			this.name = name;
+			this.phase = phase;
+			this.runnable = runnable;
+			this.ticks = ticks;
+			this.timer = timer;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public Phase getPhase() {
+			return phase;
+		}
+
+		/**
+		 * Get how many ticks between each run
+		 */
+		public int getTicks() {
+			return ticks;
+		}
+
+		/**
+		 * Get how many times this task has thrown
+		 */
+		public long getErrors() {
+			return errors;
+		}
+
+		@Override
+		public String toString() {
+			return name + " (" + phase + ")";
+		}
+	}
+
+	private static ControlLoop instance_;
+
+	/**
+	 * Get the robot's control loop, started at kDefaultPeriod
+	 */
+	public static synchronized ControlLoop getInstance() {
+		if (instance_ == null) {
+			instance_ = new ControlLoop(kDefaultPeriod);
+			instance_.start();
+		}
+		return instance_;
+	}
+
+	private final double period;
+	private final long periodNanos;
+	private final long[] budgetNanos = new long[kPhases.length];
+
+	// replaced (not changed) when tasks get added or removed, so ticks never need the lock
+	private volatile Task[][] tasks = new Task[kPhases.length][0];
+
+	private Notifier notifier;
+	private boolean prioritySet = false;
+
+	// held for a whole tick, so remove can wait out a tick that's using the task
+	private final Object tickLock = new Object();
+
+	// only touched by whoever's ticking
+	private boolean hasTicked = false;
+	private final long[] lastPhaseStart = new long[kPhases.length];
+	private final long[] tickDuration = new long[kPhases.length];
+	private final long[] tickJitter = new long[kPhases.length];
+	private final long[] tickErrors = new long[kPhases.length];
+
+	// copied in from the tick's numbers at the end of every tick, read by everyone else, all under statsLock
+	private final Object statsLock = new Object();
+	private long ticks = 0;
+	private long loopOverruns = 0;
+	private long lastStart = 0;
+	private final long[] lastDuration = new long[kPhases.length];
+	private final long[] maxDuration = new long[kPhases.length];
+	private final long[] maxJitter = new long[kPhases.length];
+	private final long[] overruns = new long[kPhases.length];
+	private final long[] errors = new long[kPhases.length];
+
+	private final DoubleChannel[] durationChannels = new DoubleChannel[kPhases.length];
+	private final DoubleChannel[] jitterChannels = new DoubleChannel[kPhases.length];
+	private final LongChannel[] overrunChannels = new LongChannel[kPhases.length];
+	private final LongChannel loopOverrunChannel;
+
+	/**
+	 * Make a loop. Nothing runs until start, or tick gets called. Its channels go in the
+	 * telemetry table, so make it before the first commit.
+	 * @param period seconds between ticks
+	 */
+	public ControlLoop(double period) {
+		if (!(period > 0))
+			throw new IllegalArgumentException("Control loop period has to be positive, not " + period);
+		this.period = period;
+		this.periodNanos = (long) (period * 1e9);
+		// everybody gets the same share of the tick unless they're told otherwise
+		Arrays.fill(budgetNanos, periodNanos / kPhases.length);
+
+		var telemetry = TelemetryTable.getInstance();
+		for (var phase : kPhases) {
+			durationChannels[phase.ordinal()] = telemetry.addDouble("Control loop " + phase + " max time (ms)");
+			jitterChannels[phase.ordinal()] = telemetry.addDouble("Control loop " + phase + " max jitter (ms)");
+			overrunChannels[phase.ordinal()] = telemetry.addLong("Control loop " + phase + " overruns");
+		}
+		loopOverrunChannel = telemetry.addLong("Control loop overruns");
+	}
+
+	/**
+	 * Start ticking on a Notifier
+	 */
+	public synchronized void start() {
+		if (notifier == null)
+			notifier = new Notifier(this::tickFromNotifier);
+		notifier.startPeriodic(period);
+	}
+
+	/**
+	 * Stop ticking. Tasks stay added, and start picks them back up.
+	 */
+	public synchronized void stop() {
+		if (notifier != null)
+			notifier.stop();
+	}
+
+	public double getPeriod() {
+		return period;
+	}
+
+	/**
+	 * Run a task every tick
+	 * @param name for logging
+	 * @param phase when in the tick it runs
+	 */
+	public Task add(String name, Phase phase, Runnable runnable) {
+		return add(name, phase, runnable, period);
+	}
+
+	/**
+	 * Run a task every so often
+	 * @param name for logging
+	 * @param phase when in the tick it runs
+	 * @param taskPeriod seconds between runs, rounded to a whole number of ticks (at least one)
+	 */
+	public synchronized Task add(String name, Phase phase, Runnable runnable, double taskPeriod) {
+		// a task that takes a whole tick is definitely overrunning
+		var timer = LoopTimer.getInstance().section("Control loop " + name, period);
+		var task = new Task(name, phase, runnable, Math.max(1, (int) Math.round(taskPeriod / period)), timer);
+		var newTasks = tasks.clone();
+		var phaseTasks = Arrays.copyOf(newTasks[phase.ordinal()], newTasks[phase.ordinal()].length + 1);
+		phaseTasks[phaseTasks.length - 1] = task;
+		newTasks[phase.ordinal()] = phaseTasks;
+		tasks = newTasks;
+		return task;
+	}
+
+	/**
+	 * Stop running a task. It's fine to remove one that's already gone, or null. If a tick is
+	 * going, this waits for it to finish, so once it returns the task isn't running and won't
+	 * run again (unless the task is removing itself, then it's still finishing this run).
+	 * @return if it was there to remove
+	 */
+	public boolean remove(Task task) {
+		if (task == null || !removeFromTasks(task))
+			return false;
+		// the tick holds this the whole time, so getting it means any tick that saw the task is done.
+		// Not while holding this object's lock, a task calling add or remove would deadlock.
+		synchronized (tickLock) {
+		}
+		return true;
+	}
+
+	private synchronized boolean removeFromTasks(Task task) {
+		var phaseTasks = tasks[task.phase.ordinal()];
+		for (int i = 0; i < phaseTasks.length; i++) {
+			if (phaseTasks[i] == task) {
+				var newPhaseTasks = new Task[phaseTasks.length - 1];
+				System.arraycopy(phaseTasks, 0, newPhaseTasks, 0, i);
+				System.arraycopy(phaseTasks, i + 1, newPhaseTasks, i, newPhaseTasks.length - i);
+				var newTasks = tasks.clone();
+				newTasks[task.phase.ordinal()] = newPhaseTasks;
+				tasks = newTasks;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Give a phase more (or less) of the tick before it counts as overrunning
+	 * @param budget seconds
+	 */
+	public void setBudget(Phase phase, double budget) {
+		synchronized (statsLock) {
+			budgetNanos[phase.ordinal()] = (long) (budget * 1e9);
+		}
+	}
+
+	private void tickFromNotifier() {
+		if (!prioritySet) {
+			prioritySet = true;
+			// the sim doesn't do RT priorities, that's fine
+			if (!Threads.setCurrentThreadPriority(true, kPriority))
+				Logger.log("Control loop couldn't get RT priority, running at normal priority");
+		}
+		tick(System.nanoTime());
+	}
+
+	/**
+	 * Run every phase once. The Notifier calls this, tests can too.
+	 * @param start System.nanoTime() at the start of the tick
+	 */
+	public void tick(long start) {
+		synchronized (tickLock) {
+			runPhases(start);
+		}
+	}
+
+	private void runPhases(long start) {
+		var tasks = this.tasks;
+		long phaseStart = start;
+		for (int p = 0; p < kPhases.length; p++) {
+			var phaseTasks = tasks[p];
+			for (int i = 0; i < phaseTasks.length; i++) {
+				var task = phaseTasks[i];
+				if (--task.countdown > 0)
+					continue;
+				task.countdown = task.ticks;
+				long taskStart = task.timer.start();
+				try {
+					task.runnable.run();
+				} catch (Throwable t) {
+					// one bad task shouldn't stop the drive
+					tickErrors[p]++;
+					logError(task, t, start);
+				}
+				task.timer.stop(taskStart);
+			}
+			long phaseEnd = System.nanoTime();
+			tickDuration[p] = phaseEnd - phaseStart;
+			tickJitter[p] = hasTicked ? Math.abs(phaseStart - lastPhaseStart[p] - periodNanos) : 0;
+			lastPhaseStart[p] = phaseStart;
+			phaseStart = phaseEnd;
+		}
+		hasTicked = true;
+
+		synchronized (statsLock) {
+			for (int p = 0; p < kPhases.length; p++) {
+				lastDuration[p] = tickDuration[p];
+				maxDuration[p] = Math.max(maxDuration[p], tickDuration[p]);
+				maxJitter[p] = Math.max(maxJitter[p], tickJitter[p]);
+				if (tickDuration[p] > budgetNanos[p])
+					overruns[p]++;
+				errors[p] += tickErrors[p];
+				tickErrors[p] = 0;
+			}
+			if (phaseStart - start > periodNanos)
+				loopOverruns++;
+			lastStart = start;
+			ticks++;
+		}
+	}
+
+	/**
+	 * Log a task throwing, but only once every kErrorLogPeriodNanos per task so one that throws
+	 * every tick doesn't flood the log
+	 */
+	private static void logError(Task task, Throwable t, long now) {
+		if (task.errors++ == 0 || now - task.lastErrorLog >= kErrorLogPeriodNanos) {
+			Logger.log("Control loop task " + task + " threw " + t
+					+ ((task.unloggedErrors > 0) ? " (and " + task.unloggedErrors + " more times since the last one logged)" : ""));
+			task.lastErrorLog = now;
+			task.unloggedErrors = 0;
+		} else {
+			task.unloggedErrors++;
+		}
+	}
+
+	public long getTicks() {
+		synchronized (statsLock) {
+			return ticks;
+		}
+	}
+
+	/**
+	 * Get how many ticks took longer than the period
+	 */
+	public long getLoopOverruns() {
+		synchronized (statsLock) {
+			return loopOverruns;
+		}
+	}
+
+	/**
+	 * Get how long a phase took last tick, in seconds
+	 */
+	public double getLastDuration(Phase phase) {
+		synchronized (statsLock) {
+			return lastDuration[phase.ordinal()] / 1e9;
+		}
+	}
+
+	/**
+	 * Get the longest a phase has taken since the last logPeriodicIO, in seconds
+	 */
+	public double getMaxDuration(Phase phase) {
+		synchronized (statsLock) {
+			return maxDuration[phase.ordinal()] / 1e9;
+		}
+	}
+
+	/**
+	 * Get the worst jitter of a phase since the last logPeriodicIO, in seconds
+	 */
+	public double getMaxJitter(Phase phase) {
+		synchronized (statsLock) {
+			return maxJitter[phase.ordinal()] / 1e9;
+		}
+	}
+
+	/**
+	 * Get how many times a phase has gone over its budget
+	 */
+	public long getOverruns(Phase phase) {
+		synchronized (statsLock) {
+			return overruns[phase.ordinal()];
+		}
+	}
+
+	/**
+	 * Get how many times tasks in a phase have thrown
+	 */
+	public long getErrors(Phase phase) {
+		synchronized (statsLock) {
+			return errors[phase.ordinal()];
+		}
+	}
+
+	/**
+	 * Get when the last tick started, in System.nanoTime()
+	 */
+	public long getLastStart() {
+		synchronized (statsLock) {
+			return lastStart;
+		}
+	}
+
+	/**
+	 * Put the worst duration and jitter since last time, and the overrun counts, in telemetry.
+	 * Call from the robot loop, before the telemetry commit.
+	 */
+	@Override
+	public void logPeriodicIO() {
+		synchronized (statsLock) {
+			for (int p = 0; p < kPhases.length; p++) {
+				durationChannels[p].set(maxDuration[p] / 1e6);
+				jitterChannels[p].set(maxJitter[p] / 1e6);
+				overrunChannels[p].set(overruns[p]);
+			}
+			loopOverrunChannel.set(loopOverruns);
+			// start a new window for the maxes
+			Arrays.fill(maxDuration, 0);
+			Arrays.fill(maxJitter, 0);
+		}
+	}
+
+}
@@ -1,13 +1,17 @@
 package frc.robot.lib;
 
+/**
+ * Seconds since it was made. Uses System.nanoTime, so it doesn't jump when the clock gets set
+ * and it's good for timing things shorter than a millisecond.
+ */
 public class ExecTimer {
 	private long startTime;
 
 	public ExecTimer() {
-		startTime = System.currentTimeMillis();
+		startTime = System.nanoTime();
 	}
 
 	public double time() {
-		return (System.currentTimeMillis() - startTime) / 1000.0;
+		return (System.nanoTime() - startTime) / 1e9;
 	}
 }
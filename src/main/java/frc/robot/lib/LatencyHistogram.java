@@ -0,0 +1,166 @@
+package frc.robot.lib;
+
+import java.util.Arrays;
+
+/**
+ * Counts how long something took, HdrHistogram style. Buckets are a microsecond wide up to
+ * kSubBuckets microseconds, then every power of two above that gets split into kSubBuckets
+ * more, so a bucket is never more than about 3% wide. Recording is a shift and an increment
+ * into an array made up front, so it's fine to do every loop.
+ *
+ * Only one thread should record into a histogram. Anyone can read it, they might just be a
+ * record or two behind. Resetting from another thread waits for the next record to happen,
+ * and until then the histogram reads as empty.
+ */
+public class LatencyHistogram {
+
+	private static final int kSubBucketBits = 5;
+	private static final int kSubBuckets = 1 << kSubBucketBits;
+	/** Anything over 2^(kMaxExponent + 1) microseconds (about half a minute) goes in the last bucket, the max stays exact */
+	private static final int kMaxExponent = 24;
+	static final int kBuckets = kSubBuckets * (kMaxExponent - kSubBucketBits + 2);
+
+	private final long budgetNanos;
+	private final long[] counts = new long[kBuckets];
+	private long count = 0;
+	private long overruns = 0;
+	private long maxNanos = 0;
+	private long totalNanos = 0;
+	private volatile boolean resetRequested = false;
+
+	/**
+	 * @param budget seconds something can take before it counts as an overrun
+	 */
+	public LatencyHistogram(double budget) {
+		this.budgetNanos = (long) (budget * 1e9);
+	}
+
+	/**
+	 * Count one run
+	 * @param nanos how long it took, from System.nanoTime()
+	 */
+	public void record(long nanos) {
+		if (resetRequested) {
+			resetRequested = false;
+			Arrays.fill(counts, 0);
+			count = 0;
+			overruns = 0;
+			maxNanos = 0;
+			totalNanos = 0;
+		}
+		if (nanos < 0)
+			nanos = 0;
+		counts[getBucket(nanos / 1000)]++;
+		count++;
+		totalNanos += nanos;
+		if (nanos > maxNanos)
+			maxNanos = nanos;
+		if (nanos > budgetNanos)
+			overruns++;
+	}
+
+	/**
+	 * Throw everything away, next time something gets recorded
+	 */
+	public void reset() {
+		resetRequested = true;
+	}
+
+	/**
+	 * Get which bucket a time goes in
+	 * @param micros how long, in microseconds
+	 */
+	static int getBucket(long micros) {
+		if (micros < kSubBuckets)
+			return (int) micros;
+		int exponent = 63 - Long.numberOfLeadingZeros(micros);
+		if (exponent > kMaxExponent)
+			return kBuckets - 1;
+		int shift = exponent - kSubBucketBits;
+		// the top kSubBucketBits + 1 bits, which start with a 1, pick where in the power of two it goes
+		return kSubBuckets * shift + (int) (micros >>> shift);
+	}
+
+	/**
+	 * Get the longest time, in microseconds, that goes in a bucket
+	 */
+	static long getBucketMax(int bucket) {
+		if (bucket < kSubBuckets)
+			return bucket;
+		int shift = bucket / kSubBuckets - 1;
+		long top = bucket % kSubBuckets + kSubBuckets;
+		return ((top + 1) << shift) - 1;
+	}
+
+	public double getBudget() {
+		return budgetNanos / 1e9;
+	}
+
+	public long getCount() {
+		return resetRequested ? 0 : count;
+	}
+
+	/**
+	 * Get how many runs took longer than the budget
+	 */
+	public long getOverruns() {
+		return resetRequested ? 0 : overruns;
+	}
+
+	/**
+	 * Get the longest run, in seconds. This one's exact, not rounded to a bucket.
+	 */
+	public double getMax() {
+		return resetRequested ? 0 : maxNanos / 1e9;
+	}
+
+	/**
+	 * Get the average run, in seconds
+	 */
+	public double getMean() {
+		long count = getCount();
+		return count == 0 ? 0 : totalNanos / 1e9 / count;
+	}
+
+	/**
+	 * Get how long it takes for some percent of runs to be done, in seconds. Rounded up to the
+	 * top of the bucket it lands in, but never more than the max.
+	 * @param percentile 0 to 100, like 99 for p99
+	 */
+	public double getPercentile(double percentile) {
+		long count = getCount();
+		if (count == 0)
+			return 0;
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+		for (int i = 0; i < kBuckets; i++) {
+			seen += counts[i];
+			// the last bucket has no top
+			if (seen >= rank)
+				return i == kBuckets - 1 ? getMax() : Math.min((getBucketMax(i) + 1) * 1000, maxNanos) / 1e9;
+		}
+		// only if it got recorded into while we were counting
+		return getMax();
+	}
+
+	/**
+	 * Go through every bucket that has anything in it, shortest first
+	 */
+	public void forEachBucket(BucketConsumer consumer) {
+		if (resetRequested)
+			return;
+		for (int i = 0; i < kBuckets; i++) {
+			if (counts[i] != 0)
+				consumer.accept(getBucketMax(i), counts[i]);
+		}
+	}
+
+	public interface BucketConsumer {
+		/**
+		 * @param maxMicros the longest time that goes in the bucket
+		 * @param count how many runs are in it
+		 */
+		public void accept(long maxMicros, long count);
+	}
+
+}
@@ -1,27 +1,26 @@
 package frc.robot.lib;
 
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.PrintWriter;
+import frc.robot.lib.logging.BinaryLogWriter;
 
+/**
+ * Static logging methods for the whole robot. Calls only copy the message into a
+ * preallocated ring buffer, and a background thread writes it out to /home/lvuser/log.bin
+ * so that we never do file I/O inside of the robot loop or a Notifier. Decode the
+ * file with BinaryLogWriter's main method.
+ */
 public class Logger {
+	public static final String kLogPath = "/home/lvuser/log.bin";
+	private static final int kCapacity = 8192; // records
+	private static final int kRecordSize = 256; // bytes
+
+	private static final BinaryLogWriter writer = new BinaryLogWriter(kLogPath, kCapacity, kRecordSize);
+
 	public static void clearLog() {
-		try {
-			java.lang.Runtime.getRuntime().exec("/bin/rm -f /home/lvuser/log.txt");
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+		writer.clear();
 	}
 
 	public static void log(String mark) {
-		try (PrintWriter writer = new PrintWriter(new FileWriter("/home/lvuser/log.txt", true))) {
-
-			writer.print(mark);
-			//            writer.println();
-
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+		writer.log(mark);
 	}
 
 	public static void log(Object mark) {
@@ -29,6 +28,31 @@ public class Logger {
 	}
 
 	public static void log(String key, Object value) {
-		log(key + ", " + value.toString() + "\n");
+		writer.log(key, value.toString());
+	}
+
+	public static void log(String key, double value) {
+		writer.log(key, value);
+	}
+
+	/**
+	 * Get how many log records were thrown away because the writer thread couldn't keep up
+	 */
+	public static long getDroppedRecords() {
+		return writer.getDroppedRecords();
+	}
+
+	/**
+	 * Get the most log records that have ever been waiting to be written at once
+	 */
+	public static long getQueueHighWaterMark() {
+		return writer.getHighWaterMark();
+	}
+
+	/**
+	 * Get how many log records were longer than 256 bytes and got cut off. They end with "..." in the decoded log.
+	 */
+	public static long getTruncatedRecords() {
+		return writer.getTruncatedRecords();
 	}
 }
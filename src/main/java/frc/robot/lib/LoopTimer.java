@@ -0,0 +1,167 @@
+package frc.robot.lib;
+
+import java.util.Arrays;
+
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Times sections of the robot loop (the scheduler, subsystem periodics, command executes,
+ * Notifier callbacks, control loop tasks) into a LatencyHistogram each. Wrap the section in
+ * start and stop:
+ *
+ * <pre>
+ * long start = mTimer.start();
+ * Scheduler.getInstance().run();
+ * mTimer.stop(start);
+ * </pre>
+ *
+ * p50, p99, max and overruns go to NetworkTables every kPublishPeriod from publish, and
+ * logHistograms dumps every bucket to the log, which Robot does on disable.
+ */
+public class LoopTimer {
+
+	/** How often publish should get called, it's not worth more than this on the dashboard */
+	public static final double kPublishPeriod = 1; // seconds
+	private static final String kTable = "Loop timing/";
+	// buckets per log record, so a line fits in one
+	private static final int kBucketsPerLine = 10;
+
+	/**
+	 * One timed section, with its histogram
+	 */
+	public static class Section {
+		private final String name;
+		private final LatencyHistogram histogram;
+		// made once so publishing doesn't build strings
+		private final String p50Key, p99Key, maxKey, overrunKey;
+
+		private Section(String name, double budget) {
+			this.name = name;
+			this.histogram = new LatencyHistogram(budget);
+			p50Key = kTable + name + " p50 (ms)";
+			p99Key = kTable + name + " p99 (ms)";
+			maxKey = kTable + name + " max (ms)";
+			overrunKey = kTable + name + " overruns";
+		}
+
+		/**
+		 * @return the time to give to stop
+		 */
+		public long start() {
+			return System.nanoTime();
+		}
+
+		/**
+		 * @param start what start returned
+		 */
+		public void stop(long start) {
+			histogram.record(System.nanoTime() - start);
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public LatencyHistogram getHistogram() {
+			return histogram;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	private static LoopTimer instance_;
+
+	public static synchronized LoopTimer getInstance() {
+		if (instance_ == null) {
+			instance_ = new LoopTimer();
+		}
+		return instance_;
+	}
+
+	// replaced when a section gets added, so publishing never needs the lock
+	private volatile Section[] sections = new Section[0];
+
+	/**
+	 * Get a section to time. Asking for the same name twice gets the same section, so things
+	 * that get made more than once (like commands) all go in one histogram.
+	 * @param name for the dashboard and the log
+	 * @param budget seconds it can take before it counts as an overrun. Ignored if the section's already there.
+	 */
+	public synchronized Section section(String name, double budget) {
+		for (var section : sections) {
+			if (section.name.equals(name))
+				return section;
+		}
+		var section = new Section(name, budget);
+		var newSections = Arrays.copyOf(sections, sections.length + 1);
+		newSections[newSections.length - 1] = section;
+		sections = newSections;
+		return section;
+	}
+
+	/**
+	 * Time every run of a Runnable, like a Notifier callback
+	 * @param name for the dashboard and the log
+	 * @param budget seconds it can take before it counts as an overrun
+	 */
+	public Runnable wrap(String name, double budget, Runnable runnable) {
+		var section = section(name, budget);
+		return () -> {
+			long start = section.start();
+			runnable.run();
+			section.stop(start);
+		};
+	}
+
+	public Section[] getSections() {
+		return sections.clone();
+	}
+
+	/**
+	 * Put p50, p99, max and overruns for every section on NetworkTables. Call about every kPublishPeriod.
+	 */
+	public void publish() {
+		for (var section : sections) {
+			var histogram = section.histogram;
+			SmartDashboard.putNumber(section.p50Key, histogram.getPercentile(50) * 1000);
+			SmartDashboard.putNumber(section.p99Key, histogram.getPercentile(99) * 1000);
+			SmartDashboard.putNumber(section.maxKey, histogram.getMax() * 1000);
+			SmartDashboard.putNumber(section.overrunKey, histogram.getOverruns());
+		}
+	}
+
+	/**
+	 * Log every section's whole histogram, then start them all over. Builds strings, so not in the loop.
+	 */
+	public void logHistograms() {
+		for (var section : sections) {
+			var histogram = section.histogram;
+			if (histogram.getCount() == 0)
+				continue;
+			Logger.log(String.format("Loop timing %s: %d runs, mean %.3f p50 %.3f p90 %.3f p99 %.3f p99.9 %.3f max %.3f ms, %d over %.1f ms",
+					section.name, histogram.getCount(), histogram.getMean() * 1000, histogram.getPercentile(50) * 1000,
+					histogram.getPercentile(90) * 1000, histogram.getPercentile(99) * 1000, histogram.getPercentile(99.9) * 1000,
+					histogram.getMax() * 1000, histogram.getOverruns(), histogram.getBudget() * 1000));
+
+			// buckets as "up to this many us: count"
+			var line = new StringBuilder();
+			int[] inLine = { 0 };
+			histogram.forEachBucket((maxMicros, count) -> {
+				line.append(" <=").append(maxMicros).append("us:").append(count);
+				if (++inLine[0] == kBucketsPerLine) {
+					Logger.log("Loop timing " + section.name + line);
+					line.setLength(0);
+					inLine[0] = 0;
+				}
+			});
+			if (inLine[0] > 0)
+				Logger.log("Loop timing " + section.name + line);
+
+			histogram.reset();
+		}
+	}
+
+}
@@ -1,7 +1,7 @@
 package frc.robot.lib;
 
-import edu.wpi.first.wpilibj.Notifier;
 import edu.wpi.first.wpilibj.command.Subsystem;
+import frc.robot.lib.ControlLoop.Phase;
 
 /**
  * A looping sybsystem is a subsystem that has components that need to run periodically,
@@ -9,11 +9,13 @@ import edu.wpi.first.wpilibj.command.Subsystem;
  * functions the same as it, but this also requires the methods initilze(), execute(), and
  * end() to be immplemented
  * 
+ * execute() runs in the act phase of the ControlLoop while the looper's started.
+ * 
  * @author Matthew Morley
  */
 public abstract class LoopingSubsystem extends Subsystem {
 	private final double loopTime;
-	private Notifier notifier_;
+	private ControlLoop.Task task_;
 
 	public LoopingSubsystem() {
 		this(0.02);
@@ -21,16 +23,12 @@ public abstract class LoopingSubsystem extends Subsystem {
 
 	public LoopingSubsystem(double loopTime) {
 		this.loopTime = loopTime;
-		notifier_ = new Notifier(() -> execute());
 		initilize();
 	}
 
-	public Notifier getNotifier() {
-		return notifier_;
-	}
-
-	public void startLooper() {
-		notifier_.startPeriodic(loopTime);
+	public synchronized void startLooper() {
+		if (task_ == null)
+			task_ = ControlLoop.getInstance().add(getName(), Phase.ACT, this::execute, loopTime);
 	}
 
 	public abstract void initilize();
@@ -39,9 +37,11 @@ public abstract class LoopingSubsystem extends Subsystem {
 
 	public abstract void end();
 
-	public void stop() {
+	public synchronized void stop() {
+		// take it out first, remove waits for a running execute() so end() is really the last thing
+		ControlLoop.getInstance().remove(task_);
+		task_ = null;
 		end();
-		notifier_.stop();
 	}
 
 }
@@ -0,0 +1,116 @@
+package frc.robot.lib;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ctre.phoenix.motorcontrol.can.TalonSRX;
+
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Keeps track of which StatusFrameProfile every talon is on, applies them at init, and puts
+ * them back if a talon resets (like after a brownout), since talons forget their frame periods
+ * when they reboot.
+ *
+ * It also works out roughly how much of the CAN bus the talons use, so when a loop needs a frame
+ * faster we can see if there's room for it.
+ */
+public class StatusFrameManager {
+
+	/** CAN runs at 1 Mbit/s on the roboRIO */
+	public static final double kBusBitsPerSecond = 1_000_000;
+	/** An extended frame with 8 data bytes, not counting bit stuffing, so the real number is a bit higher */
+	public static final double kBitsPerFrame = 128;
+	/** The roboRIO sends every talon a control frame every 10ms, followers included */
+	public static final double kControlFramesPerSecond = 100;
+
+	private static final int kInitTimeout = 30; // ms
+	private static final double kResetCheckPeriod = 1; // seconds
+
+	private static StatusFrameManager instance_;
+
+	public static synchronized StatusFrameManager getInstance() {
+		if (instance_ == null) {
+			instance_ = new StatusFrameManager();
+		}
+		return instance_;
+	}
+
+	private final ArrayList<TalonSRX> talons = new ArrayList<TalonSRX>();
+	private final ArrayList<StatusFrameProfile> profiles = new ArrayList<StatusFrameProfile>();
+	private final Notifier resetChecker;
+
+	private StatusFrameManager() {
+		resetChecker = new Notifier(LoopTimer.getInstance().wrap("Status frame reset check", kResetCheckPeriod, this::reapplyIfReset));
+		resetChecker.startPeriodic(kResetCheckPeriod);
+	}
+
+	/**
+	 * Put a talon on a profile and set its frame periods. Blocks on the bus for a bit, so only call it at init.
+	 * @param talon to set up
+	 * @param profile like StatusFrameProfile.kMaster
+	 */
+	public synchronized void apply(TalonSRX talon, StatusFrameProfile profile) {
+		int index = talons.indexOf(talon);
+		if (index < 0) {
+			talons.add(talon);
+			profiles.add(profile);
+		} else {
+			profiles.set(index, profile);
+		}
+		// clear the reset flag so the checker doesn't apply it all again right away
+		talon.hasResetOccurred();
+
+		int failures = profile.apply(talon, kInitTimeout);
+		if (failures > 0)
+			Logger.log("Talon " + talon.getDeviceID() + " didn't take " + failures + " of its " + profile + " frame periods");
+
+		SmartDashboard.putNumber("Estimated talon CAN utilization (%)", getEstimatedBusUtilization() * 100);
+	}
+
+	/**
+	 * Put the frame periods back on any talon that rebooted since the last check
+	 */
+	private synchronized void reapplyIfReset() {
+		for (int i = 0; i < talons.size(); i++) {
+			var talon = talons.get(i);
+			if (talon.hasResetOccurred()) {
+				Logger.log("Talon " + talon.getDeviceID() + " reset, putting its " + profiles.get(i) + " frame periods back");
+				// don't wait for acks, this is on a Notifier and it'll get checked again anyway
+				profiles.get(i).apply(talon, 0);
+			}
+		}
+	}
+
+	/**
+	 * Get the fraction of the bus the talons we know about use
+	 */
+	public synchronized double getEstimatedBusUtilization() {
+		return estimateBusUtilization(profiles);
+	}
+
+	/**
+	 * Get the fraction of the bus the talons would use if they were on the default frame periods
+	 */
+	public synchronized double getDefaultBusUtilization() {
+		var defaults = new ArrayList<StatusFrameProfile>();
+		for (int i = 0; i < profiles.size(); i++) {
+			defaults.add(StatusFrameProfile.kDefault);
+		}
+		return estimateBusUtilization(defaults);
+	}
+
+	/**
+	 * Work out the fraction of the bus a bunch of talons would use, status and control frames both
+	 * @param profiles one for each talon
+	 */
+	public static double estimateBusUtilization(List<StatusFrameProfile> profiles) {
+		double framesPerSecond = 0;
+		for (var profile : profiles) {
+			framesPerSecond += profile.getFramesPerSecond() + kControlFramesPerSecond;
+		}
+		return framesPerSecond * kBitsPerFrame / kBusBitsPerSecond;
+	}
+
+}
@@ -0,0 +1,139 @@
+package frc.robot.lib;
+
+import com.ctre.phoenix.ErrorCode;
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
+import com.ctre.phoenix.motorcontrol.can.TalonSRX;
+
+/**
+ * How often a talon should send each of its status frames, depending on what it's for.
+ * Talons send every frame at the default rate unless they're told otherwise, even followers
+ * that nobody ever reads, so most of the traffic on the bus is stuff we throw away.
+ *
+ * A profile only knows about the frames in kFrames. Anything else (like the motion profile
+ * buffer frame) is left at whatever the talon defaults to.
+ */
+public class StatusFrameProfile {
+
+	/** Longest period a talon will take, in ms */
+	public static final int kMaxPeriod = 255;
+
+	public static final StatusFrameEnhanced[] kFrames = {
+			StatusFrameEnhanced.Status_1_General, // output, faults, limit switches
+			StatusFrameEnhanced.Status_2_Feedback0, // selected sensor position and velocity
+			StatusFrameEnhanced.Status_3_Quadrature, // raw quadrature
+			StatusFrameEnhanced.Status_4_AinTempVbat, // bus voltage, temperature, analog in
+			StatusFrameEnhanced.Status_8_PulseWidth, // mag encoder absolute position
+			StatusFrameEnhanced.Status_10_MotionMagic, // motion magic and motion profile targets
+			StatusFrameEnhanced.Status_12_Feedback1, // aux sensor
+			StatusFrameEnhanced.Status_13_Base_PIDF0, // closed loop error, integral accumulator
+			StatusFrameEnhanced.Status_14_Turn_PIDF1, // aux closed loop
+	};
+
+	/** Periods the talon uses out of the box, in the same order as kFrames */
+	private static final int[] kDefaultPeriods = { 10, 20, 160, 160, 160, 160, 20, 160, 160 };
+
+	/** What a talon does if nobody touches it */
+	public static final StatusFrameProfile kDefault = new StatusFrameProfile("Default", kDefaultPeriods);
+
+	/**
+	 * A talon running a closed loop that the robot reads every loop: position and velocity
+	 * faster than default, bus voltage and the absolute encoder for logging, the rest as slow as it goes
+	 */
+	public static final StatusFrameProfile kMaster = new StatusFrameProfile("Master", new int[] { 10, 10, kMaxPeriod, 160, 100, 160, kMaxPeriod, 160, kMaxPeriod });
+
+	/**
+	 * A talon in follower mode. Followers follow the master's control frame, not its status frames,
+	 * so nobody needs anything from them except the odd fault check.
+	 */
+	public static final StatusFrameProfile kFollower = new StatusFrameProfile("Follower", new int[] { 100, kMaxPeriod, kMaxPeriod, kMaxPeriod, kMaxPeriod, kMaxPeriod, kMaxPeriod, kMaxPeriod, kMaxPeriod });
+
+	/**
+	 * A talon that's only there for its sensors, the motor output doesn't matter
+	 */
+	public static final StatusFrameProfile kSensorOnly = new StatusFrameProfile("Sensor only", new int[] { 100, 10, kMaxPeriod, kMaxPeriod, 20, kMaxPeriod, kMaxPeriod, kMaxPeriod, kMaxPeriod });
+
+	/**
+	 * A talon driven open loop with nothing plugged into it, like the intake
+	 */
+	public static final StatusFrameProfile kOpenLoop = new StatusFrameProfile("Open loop", new int[] { 20, kMaxPeriod, kMaxPeriod, kMaxPeriod, kMaxPeriod, kMaxPeriod, kMaxPeriod, kMaxPeriod, kMaxPeriod });
+
+	private final String name;
+	private final int[] periods;
+
+	private StatusFrameProfile(String name, int[] periods) {
+		if (periods.length != kFrames.length)
+			throw new IllegalArgumentException("Need a period for each of the " + kFrames.length + " frames, got " + periods.length);
+		this.name = name;
+		this.periods = periods.clone();
+		for (int i = 0; i < this.periods.length; i++) {
+			this.periods[i] = clamp(this.periods[i]);
+		}
+	}
+
+	private static int clamp(int period) {
+		return Math.max(1, Math.min(kMaxPeriod, period));
+	}
+
+	private static int indexOf(StatusFrameEnhanced frame) {
+		for (int i = 0; i < kFrames.length; i++) {
+			if (kFrames[i] == frame)
+				return i;
+		}
+		throw new IllegalArgumentException(frame + " isn't a frame profiles know about");
+	}
+
+	/**
+	 * Make a copy of this profile with one frame at a different rate, like to speed up
+	 * feedback for a loop that runs faster than usual. This one doesn't change.
+	 * @param name of the new profile
+	 * @param frame to change
+	 * @param period new period in ms, clamped to 1-255
+	 */
+	public StatusFrameProfile withPeriod(String name, StatusFrameEnhanced frame, int period) {
+		var newPeriods = periods.clone();
+		newPeriods[indexOf(frame)] = period;
+		return new StatusFrameProfile(name, newPeriods);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Get how often a frame gets sent, in ms
+	 */
+	public int getPeriod(StatusFrameEnhanced frame) {
+		return periods[indexOf(frame)];
+	}
+
+	/**
+	 * Get how many status frames a talon with this profile sends every second
+	 */
+	public double getFramesPerSecond() {
+		double total = 0;
+		for (int period : periods) {
+			total += 1000.0 / period;
+		}
+		return total;
+	}
+
+	/**
+	 * Set all the frame periods on a talon. These are blocking CAN calls, so only do it at init.
+	 * @param timeoutMs how long to wait for each one to get acked, 0 to not wait
+	 * @return how many of them failed
+	 */
+	public int apply(TalonSRX talon, int timeoutMs) {
+		int failures = 0;
+		for (int i = 0; i < kFrames.length; i++) {
+			if (talon.setStatusFramePeriod(kFrames[i], periods[i], timeoutMs) != ErrorCode.OK)
+				failures++;
+		}
+		return failures;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+}
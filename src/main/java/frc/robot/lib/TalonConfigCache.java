@@ -0,0 +1,252 @@
+package frc.robot.lib;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import com.ctre.phoenix.ErrorCode;
+import com.ctre.phoenix.motorcontrol.can.BaseMotorController;
+
+/**
+ * Remembers the last value asked for of each config parameter (and slot) on a talon, and skips
+ * the CAN write if it's asked for again. Real changes get written on a background thread, since
+ * every config call blocks until the talon acks it (or the timeout runs out), and six gains
+ * at 30ms each is most of a robot loop.
+ *
+ * Writes are batched: everything changed before the writer gets to this talon goes out together,
+ * and if a parameter gets changed twice before then, only the newest value gets written. If
+ * a write fails, the parameter is forgotten so asking for it again retries.
+ *
+ * Only works if everything that configures these parameters goes through here. Something
+ * calling config_kP on the talon directly won't be noticed.
+ */
+public class TalonConfigCache {
+
+	public static enum Parameter {
+		P(true), I(true), D(true), F(true), INTEGRAL_ZONE(true), MAX_INTEGRAL_ACCUMULATOR(true),
+		CRUISE_VELOCITY(false), ACCELERATION(false), S_CURVE_STRENGTH(false),
+		CLOSED_LOOP_RAMP(false), OPEN_LOOP_RAMP(false), PEAK_OUTPUT_FORWARD(false), PEAK_OUTPUT_REVERSE(false);
+
+		public final boolean perSlot;
+
+		Parameter(boolean perSlot) {
+			this.perSlot = perSlot;
+		}
+	}
+
+	/**
+	 * The part of a talon that gets configured, so the cache can be run against a fake one
+	 */
+	public interface ConfigTarget {
+		public ErrorCode config(Parameter parameter, int slot, double value, int timeoutMs);
+	}
+
+	public static final int kSlots = 4;
+	public static final int kTimeoutMs = 30;
+
+	/** One thread for every talon, so writes to the bus never overlap */
+	private static final Executor kWriter = Executors.newSingleThreadExecutor(runnable -> {
+		var thread = new Thread(runnable, "Talon config writer");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final ConfigTarget target;
+	private final Executor executor;
+	private final String name;
+
+	private final double[] requested = new double[Parameter.values().length * kSlots];
+	private final boolean[] dirty = new boolean[requested.length];
+	private boolean flushScheduled = false;
+
+	private long writes = 0, skipped = 0, failures = 0;
+
+	/**
+	 * Cache config for a talon, written on the shared writer thread
+	 */
+	public TalonConfigCache(BaseMotorController talon) {
+		this(forTalon(talon), kWriter, "Talon " + talon.getDeviceID());
+	}
+
+	/**
+	 * @param target where the config goes
+	 * @param executor what runs the writes. Runnable::run writes them right away.
+	 * @param name for logging
+	 */
+	public TalonConfigCache(ConfigTarget target, Executor executor, String name) {
+		this.target = target;
+		this.executor = executor;
+		this.name = name;
+		Arrays.fill(requested, Double.NaN);
+	}
+
+	private static int index(Parameter parameter, int slot) {
+		if (!parameter.perSlot)
+			return parameter.ordinal() * kSlots;
+		if (slot < 0 || slot >= kSlots)
+			throw new IllegalArgumentException("Slot " + slot + " isn't a talon slot!");
+		return parameter.ordinal() * kSlots + slot;
+	}
+
+	/**
+	 * Ask for a parameter to be set. Doesn't block.
+	 * @param slot which slot, ignored if the parameter isn't per slot
+	 * @return if it's different than last time, and so is going to be written
+	 */
+	public synchronized boolean set(Parameter parameter, int slot, double value) {
+		int i = index(parameter, slot);
+		if (Double.compare(requested[i], value) == 0) {
+			skipped++;
+			return false;
+		}
+		requested[i] = value;
+		dirty[i] = true;
+		if (!flushScheduled) {
+			flushScheduled = true;
+			executor.execute(this::flush);
+		}
+		return true;
+	}
+
+	/**
+	 * Write everything that's changed. Blocks for however long the talon takes, so this normally
+	 * runs on the writer thread, but it's fine to call it to push changes out right now.
+	 */
+	public void flush() {
+		synchronized (this) {
+			// anything set from here on gets another flush
+			flushScheduled = false;
+		}
+		var parameters = Parameter.values();
+		for (int i = 0; i < requested.length; i++) {
+			double value;
+			synchronized (this) {
+				if (!dirty[i])
+					continue;
+				dirty[i] = false;
+				value = requested[i];
+			}
+			var parameter = parameters[i / kSlots];
+			var error = target.config(parameter, i % kSlots, value, kTimeoutMs);
+			synchronized (this) {
+				writes++;
+				if (error != ErrorCode.OK) {
+					failures++;
+					// forget it unless it's been changed since, so asking again tries again
+					if (!dirty[i])
+						requested[i] = Double.NaN;
+					Logger.log(name + " didn't take " + parameter + " = " + value + ": " + error);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get how many writes have actually gone out on the bus
+	 */
+	public synchronized long getWrites() {
+		return writes;
+	}
+
+	/**
+	 * Get how many sets were skipped because nothing changed
+	 */
+	public synchronized long getSkipped() {
+		return skipped;
+	}
+
+	public synchronized long getFailures() {
+		return failures;
+	}
+
+	public boolean config_kP(int slot, double value) {
+		return set(Parameter.P, slot, value);
+	}
+
+	public boolean config_kI(int slot, double value) {
+		return set(Parameter.I, slot, value);
+	}
+
+	public boolean config_kD(int slot, double value) {
+		return set(Parameter.D, slot, value);
+	}
+
+	public boolean config_kF(int slot, double value) {
+		return set(Parameter.F, slot, value);
+	}
+
+	public boolean config_IntegralZone(int slot, int value) {
+		return set(Parameter.INTEGRAL_ZONE, slot, value);
+	}
+
+	public boolean configMaxIntegralAccumulator(int slot, double value) {
+		return set(Parameter.MAX_INTEGRAL_ACCUMULATOR, slot, value);
+	}
+
+	public boolean configMotionCruiseVelocity(int value) {
+		return set(Parameter.CRUISE_VELOCITY, 0, value);
+	}
+
+	public boolean configMotionAcceleration(int value) {
+		return set(Parameter.ACCELERATION, 0, value);
+	}
+
+	public boolean configMotionSCurveStrength(int value) {
+		return set(Parameter.S_CURVE_STRENGTH, 0, value);
+	}
+
+	public boolean configClosedloopRamp(double seconds) {
+		return set(Parameter.CLOSED_LOOP_RAMP, 0, seconds);
+	}
+
+	public boolean configOpenloopRamp(double seconds) {
+		return set(Parameter.OPEN_LOOP_RAMP, 0, seconds);
+	}
+
+	public boolean configPeakOutputForward(double value) {
+		return set(Parameter.PEAK_OUTPUT_FORWARD, 0, value);
+	}
+
+	public boolean configPeakOutputReverse(double value) {
+		return set(Parameter.PEAK_OUTPUT_REVERSE, 0, value);
+	}
+
+	/**
+	 * Configure a talon (or victor)
+	 */
+	public static ConfigTarget forTalon(BaseMotorController talon) {
+		return (parameter, slot, value, timeoutMs) -> {
+			switch (parameter) {
+			case P:
+				return talon.config_kP(slot, value, timeoutMs);
+			case I:
+				return talon.config_kI(slot, value, timeoutMs);
+			case D:
+				return talon.config_kD(slot, value, timeoutMs);
+			case F:
+				return talon.config_kF(slot, value, timeoutMs);
+			case INTEGRAL_ZONE:
+				return talon.config_IntegralZone(slot, (int) value, timeoutMs);
+			case MAX_INTEGRAL_ACCUMULATOR:
+				return talon.configMaxIntegralAccumulator(slot, value, timeoutMs);
+			case CRUISE_VELOCITY:
+				return talon.configMotionCruiseVelocity((int) value, timeoutMs);
+			case ACCELERATION:
+				return talon.configMotionAcceleration((int) value, timeoutMs);
+			case S_CURVE_STRENGTH:
+				return talon.configMotionSCurveStrength((int) value, timeoutMs);
+			case CLOSED_LOOP_RAMP:
+				return talon.configClosedloopRamp(value, timeoutMs);
+			case OPEN_LOOP_RAMP:
+				return talon.configOpenloopRamp(value, timeoutMs);
+			case PEAK_OUTPUT_FORWARD:
+				return talon.configPeakOutputForward(value, timeoutMs);
+			case PEAK_OUTPUT_REVERSE:
+				return talon.configPeakOutputReverse(value, timeoutMs);
+			default:
+				throw new IllegalArgumentException("Don't know how to set " + parameter);
+			}
+		};
+	}
+
+}
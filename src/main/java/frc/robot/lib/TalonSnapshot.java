@@ -0,0 +1,127 @@
+package frc.robot.lib;
+
+import com.ctre.phoenix.motorcontrol.can.TalonSRX;
+
+/**
+ * The raw readings of one talon, read once per loop by CANSnapshot. Every getter on a talon
+ * is a JNI call into the CAN frame cache, so reading the same value from five places in a loop
+ * costs five calls. Reading it from here costs none.
+ *
+ * Only the signals asked for get read. Everything is in native units, like the talon gives it.
+ */
+public class TalonSnapshot {
+
+	public static final int kPosition = 1;
+	public static final int kVelocity = 1 << 1;
+	public static final int kPulseWidthPosition = 1 << 2;
+	public static final int kOutputVoltage = 1 << 3;
+	public static final int kBusVoltage = 1 << 4;
+	public static final int kLimitSwitches = 1 << 5;
+
+	/** What an arm or elevator master needs: position, velocity, the absolute encoder and output voltage */
+	public static final int kMechanism = kPosition | kVelocity | kPulseWidthPosition | kOutputVoltage;
+
+	private final TalonSRX talon;
+	private final int signals;
+
+	private int position, velocity, pulseWidthPosition;
+	private double outputVoltage, busVoltage;
+	private boolean forwardLimit, reverseLimit;
+
+	/**
+	 * @param talon to read from
+	 * @param signals which signals to read, or'd together (like kPosition | kVelocity)
+	 */
+	public TalonSnapshot(TalonSRX talon, int signals) {
+		this.talon = talon;
+		this.signals = signals;
+	}
+
+	/**
+	 * Read all the signals off the talon
+	 * @return how many JNI calls that took
+	 */
+	public int capture() {
+		int reads = 0;
+		if ((signals & kPosition) != 0) {
+			position = talon.getSelectedSensorPosition();
+			reads++;
+		}
+		if ((signals & kVelocity) != 0) {
+			velocity = talon.getSelectedSensorVelocity();
+			reads++;
+		}
+		if ((signals & kPulseWidthPosition) != 0) {
+			pulseWidthPosition = talon.getSensorCollection().getPulseWidthPosition();
+			reads++;
+		}
+		if ((signals & kOutputVoltage) != 0) {
+			outputVoltage = talon.getMotorOutputVoltage();
+			reads++;
+		}
+		if ((signals & kBusVoltage) != 0) {
+			busVoltage = talon.getBusVoltage();
+			reads++;
+		}
+		if ((signals & kLimitSwitches) != 0) {
+			forwardLimit = talon.getSensorCollection().isFwdLimitSwitchClosed();
+			reverseLimit = talon.getSensorCollection().isRevLimitSwitchClosed();
+			reads += 2;
+		}
+		return reads;
+	}
+
+	public TalonSRX getTalon() {
+		return talon;
+	}
+
+	public int getSignals() {
+		return signals;
+	}
+
+	/**
+	 * Get the selected sensor position, in ticks
+	 */
+	public int getPosition() {
+		return position;
+	}
+
+	/**
+	 * Get the selected sensor velocity, in ticks per 100ms
+	 */
+	public int getVelocity() {
+		return velocity;
+	}
+
+	/**
+	 * Get the raw pulse width position of the mag encoder, in ticks. Keeps counting past one rotation.
+	 */
+	public int getPulseWidthPosition() {
+		return pulseWidthPosition;
+	}
+
+	/**
+	 * Get the absolute position of the mag encoder within one rotation, the same way robotInit
+	 * works it out to zero the arms. Negative if the raw pulse width position is.
+	 */
+	public int getAbsolutePosition() {
+		return (pulseWidthPosition % 2048) * ((pulseWidthPosition > 0) ? 1 : -1);
+	}
+
+	public double getOutputVoltage() {
+		return outputVoltage;
+	}
+
+	public double getBusVoltage() {
+		return busVoltage;
+	}
+
+	public boolean isForwardLimitClosed() {
+		return forwardLimit;
+	}
+
+	public boolean isReverseLimitClosed() {
+		return reverseLimit;
+	}
+
+}
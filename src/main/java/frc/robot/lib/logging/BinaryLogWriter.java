@@ -0,0 +1,290 @@
+package frc.robot.lib.logging;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Owns a LogRingBuffer and a single background thread that drains it in batches
+ * to a FileChannel. All of the file I/O happens on that thread, so calling log()
+ * from the robot loop or a Notifier only costs a copy into the ring buffer.
+ *
+ * The file is just the records back to back, in the format described by LogRingBuffer.
+ * Use decode() to turn it back into text.
+ */
+public class BinaryLogWriter {
+
+	private static final int kBatchBytes = 64 * 1024;
+	private static final long kIdleParkNanos = TimeUnit.MILLISECONDS.toNanos(5);
+
+	private final LogRingBuffer buffer;
+	private final Path path;
+	private final ByteBuffer batch = ByteBuffer.allocateDirect(kBatchBytes);
+	private final long startNanos = System.nanoTime();
+
+	private final AtomicBoolean truncateRequested = new AtomicBoolean(false);
+	private final AtomicLong clearPosition = new AtomicLong(0);
+	private volatile boolean running = true;
+	private final Thread thread;
+
+	private FileChannel channel;
+	private boolean openFailed = false;
+	private long bytesWritten = 0;
+
+	private final LogRingBuffer.RecordSink batchSink = (data, offset, length) -> {
+		if (batch.remaining() < length)
+			flushBatch();
+		batch.put(data, offset, length);
+	};
+
+	/**
+	 * Make a new writer and start its thread
+	 * @param path the file to append records to
+	 * @param capacity how many records can be waiting at once before we start dropping
+	 * @param recordSize the biggest a single record can be, in bytes
+	 */
+	public BinaryLogWriter(String path, int capacity, int recordSize) {
+		this.buffer = new LogRingBuffer(capacity, recordSize);
+		this.path = Paths.get(path);
+		this.thread = new Thread(this::run, "BinaryLogWriter");
+		this.thread.setDaemon(true);
+		this.thread.setPriority(Thread.MIN_PRIORITY);
+		this.thread.start();
+		Runtime.getRuntime().addShutdownHook(new Thread(this::stop));
+	}
+
+	/**
+	 * Get microseconds since this writer was made. This is what every record is stamped with.
+	 */
+	public long timestamp() {
+		return (System.nanoTime() - startNanos) / 1000;
+	}
+
+	public boolean log(CharSequence text) {
+		return buffer.offerText(timestamp(), text, null, null);
+	}
+
+	public boolean log(CharSequence key, CharSequence value) {
+		return buffer.offerText(timestamp(), key, ", ", value);
+	}
+
+	public boolean log(CharSequence key, double value) {
+		return buffer.offerDouble(timestamp(), key, value);
+	}
+
+	/**
+	 * Write the column names and types for the rows that follow, as "name:type,name:type".
+	 * See TelemetryTable.
+	 */
+	public boolean logSchema(CharSequence schema) {
+		return buffer.offerText(timestamp(), LogRingBuffer.kTypeSchema, schema, null, null);
+	}
+
+	public boolean logRow(long[] values, int count) {
+		return buffer.offerRow(timestamp(), values, count);
+	}
+
+	/**
+	 * Throw away everything in the file, and everything logged before now that hasn't been
+	 * written yet. The actual truncate happens on the writer thread.
+	 */
+	public void clear() {
+		clearPosition.accumulateAndGet(buffer.getWritePosition(), Math::max);
+		truncateRequested.set(true);
+		LockSupport.unpark(thread);
+	}
+
+	public long getDroppedRecords() {
+		return buffer.getDroppedRecords();
+	}
+
+	public long getHighWaterMark() {
+		return buffer.getHighWaterMark();
+	}
+
+	public long getTruncatedRecords() {
+		return buffer.getTruncatedRecords();
+	}
+
+	public long getBytesWritten() {
+		return bytesWritten;
+	}
+
+	public LogRingBuffer getBuffer() {
+		return buffer;
+	}
+
+	/**
+	 * Stop the writer thread, after it writes out whatever is still in the buffer
+	 */
+	public void stop() {
+		running = false;
+		LockSupport.unpark(thread);
+		try {
+			thread.join(500);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void run() {
+		while (running) {
+			drainOnce();
+			if (buffer.isEmpty())
+				LockSupport.parkNanos(kIdleParkNanos);
+		}
+		// one last pass so we don't lose the end of the log
+		drainOnce();
+		closeChannel();
+	}
+
+	private void drainOnce() {
+		if (truncateRequested.getAndSet(false)) {
+			buffer.skipTo(clearPosition.get());
+			truncate();
+		}
+		while (buffer.drain(batchSink, buffer.getCapacity()) > 0) {
+			// keep going until we catch up with the producers
+		}
+		flushBatch();
+	}
+
+	private void flushBatch() {
+		batch.flip();
+		if (batch.hasRemaining() && openChannel()) {
+			try {
+				while (batch.hasRemaining()) {
+					bytesWritten += channel.write(batch);
+				}
+			} catch (IOException e) {
+				e.printStackTrace();
+				closeChannel();
+			}
+		}
+		batch.clear();
+	}
+
+	private boolean openChannel() {
+		if (channel != null)
+			return true;
+		if (openFailed)
+			return false;
+		try {
+			channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+			return true;
+		} catch (IOException e) {
+			// no point spamming the console every loop (like on the desktop sim), just say it once
+			System.out.println("Unable to open log file " + path + ", log records will be thrown away: " + e.getMessage());
+			openFailed = true;
+			return false;
+		}
+	}
+
+	private void truncate() {
+		batch.clear();
+		if (openChannel()) {
+			try {
+				channel.truncate(0);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	private void closeChannel() {
+		if (channel == null)
+			return;
+		try {
+			channel.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		channel = null;
+	}
+
+	/**
+	 * Decode a binary log back into the old text format, with a timestamp (in seconds) on each line.
+	 * @param in the raw log file contents
+	 * @param out where to print the decoded lines
+	 */
+	public static void decode(ByteBuffer in, PrintStream out) {
+		String[] columnTypes = new String[0];
+		while (in.remaining() >= LogRingBuffer.kHeaderSize) {
+			long timestamp = in.getLong();
+			byte type = in.get();
+			boolean cutOff = (in.get() & LogRingBuffer.kFlagTruncated) != 0;
+			int len = in.getShort() & 0xFFFF;
+			if (in.remaining() < len)
+				break;
+			byte[] payload = new byte[len];
+			in.get(payload);
+
+			if (type == LogRingBuffer.kTypeSchema) {
+				// print the schema as a CSV header and remember the types for the rows
+				String[] columns = new String(payload, StandardCharsets.US_ASCII).split(",");
+				columnTypes = new String[columns.length];
+				out.print("time");
+				for (int i = 0; i < columns.length; i++) {
+					String[] nameAndType = columns[i].split(":");
+					columnTypes[i] = (nameAndType.length > 1) ? nameAndType[1] : "";
+					out.print("," + nameAndType[0]);
+				}
+				out.println();
+				continue;
+			}
+
+			out.print(timestamp / 1e6);
+			if (type == LogRingBuffer.kTypeRow) {
+				ByteBuffer row = ByteBuffer.wrap(payload);
+				for (int i = 0; row.remaining() >= 8; i++) {
+					long raw = row.getLong();
+					String columnType = (i < columnTypes.length) ? columnTypes[i] : "";
+					out.print(",");
+					if (columnType.equals("double"))
+						out.print(Double.longBitsToDouble(raw));
+					else if (columnType.equals("boolean"))
+						out.print(raw != 0);
+					else
+						out.print(raw);
+				}
+				out.println();
+				continue;
+			}
+
+			out.print(", ");
+			if (type == LogRingBuffer.kTypeKeyDouble && len >= 8) {
+				double value = ByteBuffer.wrap(payload, 0, 8).getDouble();
+				out.print(new String(payload, 8, len - 8, StandardCharsets.US_ASCII));
+				out.print(cutOff ? "..., " : ", ");
+				out.println(value);
+			} else {
+				String text = new String(payload, StandardCharsets.US_ASCII);
+				if (cutOff)
+					out.println(text + "...");
+				else if (text.endsWith("\n"))
+					out.print(text);
+				else
+					out.println(text);
+			}
+		}
+	}
+
+	/**
+	 * Decode a log pulled off the robot, like so: java frc.robot.lib.logging.BinaryLogWriter log.bin
+	 */
+	public static void main(String[] args) throws IOException {
+		try (FileChannel file = FileChannel.open(Paths.get(args[0]), StandardOpenOption.READ)) {
+			decode(file.map(FileChannel.MapMode.READ_ONLY, 0, file.size()), System.out);
+		}
+	}
+
+}
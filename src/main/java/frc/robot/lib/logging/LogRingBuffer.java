@@ -0,0 +1,278 @@
+package frc.robot.lib.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A preallocated, lock-free ring buffer of fixed size log records. Any number of
+ * threads can write records (the robot loop, trajectory notifiers, etc) and exactly
+ * one thread drains them. Producers never block: if the buffer is full the record
+ * is dropped and counted instead of stalling a control loop.
+ *
+ * Each record is laid out in one big byte array as
+ * [8 byte timestamp][1 byte type][1 byte flags][2 byte payload length][payload].
+ *
+ * Slot handoff is done with a per-slot sequence number (the usual bounded MPSC queue
+ * trick), so nothing here allocates after construction.
+ */
+public class LogRingBuffer {
+
+	public static final int kHeaderSize = 12;
+
+	public static final byte kTypeText = 0;
+	public static final byte kTypeKeyDouble = 1;
+	public static final byte kTypeSchema = 2;
+	public static final byte kTypeRow = 3;
+
+	/** Set in the flags byte when the record didn't fit and got cut off */
+	public static final byte kFlagTruncated = 1;
+
+	private final int capacity;
+	private final int mask;
+	private final int recordSize;
+	private final int maxPayload;
+
+	private final byte[] data;
+	private final AtomicLongArray sequences;
+
+	private final AtomicLong producerPosition = new AtomicLong(0);
+	private long consumerPosition = 0;
+	// records before this get thrown away instead of drained, see skipTo()
+	private long skipPosition = 0;
+	// the consumer position is mirrored here so producers can compute the occupancy
+	private final AtomicLong consumerPositionVolatile = new AtomicLong(0);
+
+	private final AtomicLong dropped = new AtomicLong(0);
+	private final AtomicLong highWaterMark = new AtomicLong(0);
+	private final AtomicLong truncated = new AtomicLong(0);
+
+	/**
+	 * Make a new ring buffer
+	 * @param capacity number of records, rounded up to a power of two
+	 * @param recordSize size of each record in bytes, including the header
+	 */
+	public LogRingBuffer(int capacity, int recordSize) {
+		if (recordSize <= kHeaderSize)
+			throw new IllegalArgumentException("Record size must be bigger than the " + kHeaderSize + " byte header!");
+		int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+		this.capacity = size;
+		this.mask = size - 1;
+		this.recordSize = recordSize;
+		this.maxPayload = Math.min(recordSize - kHeaderSize, 0xFFFF);
+		this.data = new byte[size * recordSize];
+		this.sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			sequences.set(i, i);
+		}
+	}
+
+	/**
+	 * Claim the next free slot. Returns the position of the slot, or -1 if the buffer
+	 * is full (in which case the drop is counted). The caller MUST call publish() with
+	 * the returned position once it's done writing.
+	 */
+	private long claim() {
+		long pos = producerPosition.get();
+		while (true) {
+			long seq = sequences.get((int) (pos & mask));
+			long dif = seq - pos;
+			if (dif == 0) {
+				if (producerPosition.compareAndSet(pos, pos + 1))
+					break;
+				pos = producerPosition.get();
+			} else if (dif < 0) {
+				dropped.incrementAndGet();
+				return -1;
+			} else {
+				pos = producerPosition.get();
+			}
+		}
+
+		long occupancy = pos + 1 - consumerPositionVolatile.get();
+		long high = highWaterMark.get();
+		while (occupancy > high && !highWaterMark.compareAndSet(high, occupancy)) {
+			high = highWaterMark.get();
+		}
+		return pos;
+	}
+
+	private void publish(long pos) {
+		sequences.set((int) (pos & mask), pos + 1);
+	}
+
+	/**
+	 * Write a text record. Characters outside of ASCII are replaced with '?', and text
+	 * longer than a record is truncated, flagged and counted.
+	 * @return if the record made it into the buffer
+	 */
+	public boolean offerText(long timestamp, CharSequence first, CharSequence second, CharSequence third) {
+		return offerText(timestamp, kTypeText, first, second, third);
+	}
+
+	/**
+	 * Write a text record with a specific record type.
+	 * @return if the record made it into the buffer
+	 */
+	public boolean offerText(long timestamp, byte type, CharSequence first, CharSequence second, CharSequence third) {
+		long pos = claim();
+		if (pos < 0)
+			return false;
+		int offset = (int) (pos & mask) * recordSize;
+		int len = 0;
+		len = putChars(offset + kHeaderSize, len, first);
+		len = putChars(offset + kHeaderSize, len, second);
+		len = putChars(offset + kHeaderSize, len, third);
+		putHeader(offset, timestamp, type, len, length(first) + length(second) + length(third));
+		publish(pos);
+		return true;
+	}
+
+	/**
+	 * Write a whole row of raw 8 byte values as one record. Values that don't fit in a
+	 * record are cut off (and counted), so size the record for the row.
+	 * @return if the record made it into the buffer
+	 */
+	public boolean offerRow(long timestamp, long[] values, int count) {
+		long pos = claim();
+		if (pos < 0)
+			return false;
+		int offset = (int) (pos & mask) * recordSize;
+		int n = Math.min(count, maxPayload / 8);
+		for (int i = 0; i < n; i++) {
+			putLong(offset + kHeaderSize + i * 8, values[i]);
+		}
+		putHeader(offset, timestamp, kTypeRow, n * 8, count * 8);
+		publish(pos);
+		return true;
+	}
+
+	/**
+	 * Write a key/value record with a raw double value. No string is built for the value,
+	 * it's stored as its 8 raw bytes followed by the key.
+	 * @return if the record made it into the buffer
+	 */
+	public boolean offerDouble(long timestamp, CharSequence key, double value) {
+		long pos = claim();
+		if (pos < 0)
+			return false;
+		int offset = (int) (pos & mask) * recordSize;
+		putLong(offset + kHeaderSize, Double.doubleToRawLongBits(value));
+		int len = putChars(offset + kHeaderSize, 8, key);
+		putHeader(offset, timestamp, kTypeKeyDouble, len, 8 + length(key));
+		publish(pos);
+		return true;
+	}
+
+	/**
+	 * Drain up to maxRecords records into a sink. Must only ever be called from one thread.
+	 * @return the number of records drained
+	 */
+	public int drain(RecordSink sink, int maxRecords) {
+		int count = 0;
+		while (count < maxRecords) {
+			int idx = (int) (consumerPosition & mask);
+			if (sequences.get(idx) != consumerPosition + 1)
+				break;
+			int offset = idx * recordSize;
+			int len = ((data[offset + 10] & 0xFF) << 8) | (data[offset + 11] & 0xFF);
+			if (consumerPosition >= skipPosition)
+				sink.accept(data, offset, kHeaderSize + len);
+			// move the consumer position before freeing the slot, so a producer that gets the slot can't count it twice
+			consumerPositionVolatile.lazySet(consumerPosition + 1);
+			sequences.set(idx, consumerPosition + capacity);
+			consumerPosition++;
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Get the position the next record will be written at. Everything before it has at
+	 * least been claimed by a producer.
+	 */
+	public long getWritePosition() {
+		return producerPosition.get();
+	}
+
+	/**
+	 * Throw away every record before position instead of draining it, including ones that
+	 * are claimed but not published yet. Must only be called from the draining thread.
+	 */
+	public void skipTo(long position) {
+		skipPosition = Math.max(skipPosition, position);
+	}
+
+	public boolean isEmpty() {
+		return sequences.get((int) (consumerPosition & mask)) != consumerPosition + 1;
+	}
+
+	/**
+	 * Get the number of records that were thrown away because the buffer was full
+	 */
+	public long getDroppedRecords() {
+		return dropped.get();
+	}
+
+	/**
+	 * Get the most records that have ever been waiting in the buffer at once
+	 */
+	public long getHighWaterMark() {
+		return highWaterMark.get();
+	}
+
+	/**
+	 * Get the number of records that were too long for a record and got cut off
+	 */
+	public long getTruncatedRecords() {
+		return truncated.get();
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public int getMaxPayload() {
+		return maxPayload;
+	}
+
+	private int putChars(int payloadStart, int len, CharSequence chars) {
+		if (chars == null)
+			return len;
+		int n = chars.length();
+		for (int i = 0; i < n && len < maxPayload; i++) {
+			char c = chars.charAt(i);
+			data[payloadStart + len++] = (c < 0x80) ? (byte) c : (byte) '?';
+		}
+		return len;
+	}
+
+	private static int length(CharSequence chars) {
+		return (chars == null) ? 0 : chars.length();
+	}
+
+	private void putHeader(int offset, long timestamp, byte type, int len, int wanted) {
+		boolean cutOff = wanted > len;
+		if (cutOff)
+			truncated.incrementAndGet();
+		putLong(offset, timestamp);
+		data[offset + 8] = type;
+		data[offset + 9] = cutOff ? kFlagTruncated : 0;
+		data[offset + 10] = (byte) (len >>> 8);
+		data[offset + 11] = (byte) len;
+	}
+
+	private void putLong(int offset, long value) {
+		for (int i = 7; i >= 0; i--) {
+			data[offset + i] = (byte) value;
+			value >>>= 8;
+		}
+	}
+
+	/**
+	 * Gets handed each drained record. The array is only valid for the duration of the call.
+	 */
+	public interface RecordSink {
+		public void accept(byte[] buffer, int offset, int length);
+	}
+
+}
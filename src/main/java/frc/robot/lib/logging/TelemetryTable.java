@@ -0,0 +1,186 @@
+package frc.robot.lib.logging;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Typed telemetry channels that get written out one row per robot loop. Subsystems
+ * register their channels once (usually in the constructor), keep the channel objects
+ * around, and set primitives on them in logPeriodicIO(). Nothing is boxed or turned
+ * into a string in the loop, commit() just copies the slots into the log as one row.
+ *
+ * The first commit() seals the table and writes the schema (column names and types)
+ * at the top of the file, so every channel has to be registered before that.
+ *
+ * Channels are meant to be set from the robot loop thread. Setting one from a Notifier
+ * works, but on the 32 bit roboRIO a long write can tear, so the row might see half of it.
+ */
+public class TelemetryTable {
+
+	public static final String kDefaultPath = "/home/lvuser/telemetry.bin";
+	public static final int kMaxChannels = 128;
+	private static final int kCapacity = 512; // rows
+
+	private static TelemetryTable instance_;
+
+	private final String path;
+	private final long[] slots;
+	private final String[] names;
+	private final String[] types;
+	private int count = 0;
+
+	private BinaryLogWriter writer;
+
+	public static synchronized TelemetryTable getInstance() {
+		if (instance_ == null) {
+			instance_ = new TelemetryTable(kDefaultPath, kMaxChannels);
+		}
+		return instance_;
+	}
+
+	/**
+	 * Make a new table. Most things should use getInstance() instead.
+	 * @param path the file to write rows to
+	 * @param maxChannels how many channels can be registered
+	 */
+	public TelemetryTable(String path, int maxChannels) {
+		this.path = path;
+		this.slots = new long[maxChannels];
+		this.names = new String[maxChannels];
+		this.types = new String[maxChannels];
+	}
+
+	public DoubleChannel addDouble(String name) {
+		return new DoubleChannel(register(name, "double"));
+	}
+
+	public LongChannel addLong(String name) {
+		return new LongChannel(register(name, "long"));
+	}
+
+	public BooleanChannel addBoolean(String name) {
+		return new BooleanChannel(register(name, "boolean"));
+	}
+
+	private synchronized int register(String name, String type) {
+		if (isSealed())
+			throw new IllegalStateException("Telemetry channel " + name + " was registered after the first commit!");
+		if (count >= slots.length)
+			throw new IllegalStateException("Out of telemetry channels! Can't add " + name);
+		if (name.indexOf(',') >= 0 || name.indexOf(':') >= 0)
+			throw new IllegalArgumentException("Telemetry channel names can't have commas or colons in them: " + name);
+		names[count] = name;
+		types[count] = type;
+		return count++;
+	}
+
+	/**
+	 * Write every channel out as one row. Call this once per loop, after everything has
+	 * set its channels.
+	 * @return if the row made it into the log
+	 */
+	public boolean commit() {
+		if (!isSealed())
+			seal();
+		return writer.logRow(slots, count);
+	}
+
+	public boolean isSealed() {
+		return writer != null;
+	}
+
+	public int getChannelCount() {
+		return count;
+	}
+
+	public long getDroppedRows() {
+		return (writer == null) ? 0 : writer.getDroppedRecords();
+	}
+
+	/**
+	 * Get the writer rows go to, or null if nothing has been committed yet
+	 */
+	public BinaryLogWriter getWriter() {
+		return writer;
+	}
+
+	/**
+	 * Get the schema written at the top of the log, like "name:double,other:long"
+	 */
+	public String getSchema() {
+		var schema = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			if (i > 0)
+				schema.append(',');
+			schema.append(names[i]).append(':').append(types[i]);
+		}
+		return schema.toString();
+	}
+
+	private synchronized void seal() {
+		if (writer != null)
+			return;
+		String schema = getSchema();
+		// a row has to fit in one record, and so does the schema
+		int recordSize = LogRingBuffer.kHeaderSize + Math.max(8 * count, schema.length());
+		// start a fresh file, rows from last boot would have a different schema. This only
+		// happens once so it's fine to do it on the calling thread
+		try {
+			Files.deleteIfExists(Paths.get(path));
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		writer = new BinaryLogWriter(path, kCapacity, Math.max(recordSize, LogRingBuffer.kHeaderSize + 8));
+		writer.logSchema(schema);
+	}
+
+	public class DoubleChannel {
+		private final int slot;
+
+		private DoubleChannel(int slot) {
+			this.slot = slot;
+		}
+
+		public void set(double value) {
+			slots[slot] = Double.doubleToRawLongBits(value);
+		}
+
+		public double get() {
+			return Double.longBitsToDouble(slots[slot]);
+		}
+	}
+
+	public class LongChannel {
+		private final int slot;
+
+		private LongChannel(int slot) {
+			this.slot = slot;
+		}
+
+		public void set(long value) {
+			slots[slot] = value;
+		}
+
+		public long get() {
+			return slots[slot];
+		}
+	}
+
+	public class BooleanChannel {
+		private final int slot;
+
+		private BooleanChannel(int slot) {
+			this.slot = slot;
+		}
+
+		public void set(boolean value) {
+			slots[slot] = value ? 1 : 0;
+		}
+
+		public boolean get() {
+			return slots[slot] != 0;
+		}
+	}
+
+}
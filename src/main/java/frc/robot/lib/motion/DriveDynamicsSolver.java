@@ -0,0 +1,146 @@
+package frc.robot.lib.motion;
+
+import com.team254.lib.physics.DCMotorTransmission;
+import com.team254.lib.physics.DifferentialDrive;
+
+/**
+ * The same inverse dynamics as DifferentialDrive.solveInverseDynamics, but on doubles, with the
+ * answer kept in fields instead of a new DriveDynamics (and its six WheelStates and ChassisStates)
+ * every call. Turns a chassis velocity and acceleration into wheel speeds and the voltages it
+ * takes to get there.
+ *
+ * Not thread safe, since the answer lives in the solver. Give each thread its own.
+ */
+public class DriveDynamicsSolver {
+
+	/** Same as FalconLibrary's, used to tell if a wheel is moving */
+	public static final double kEpsilon = 1E-5;
+
+	private final double mass, moi, angularDrag, wheelRadius, wheelBaseRadius;
+	private final double leftSpeedPerVolt, leftTorquePerVolt, leftFrictionVoltage;
+	private final double rightSpeedPerVolt, rightTorquePerVolt, rightFrictionVoltage;
+
+	private double leftVelocity, rightVelocity; // rad/s
+	private double leftVoltage, rightVoltage;
+
+	/**
+	 * Copy the constants out of a drive model
+	 */
+	public DriveDynamicsSolver(DifferentialDrive drive) {
+		this(drive.getMass(), drive.getMoi(), drive.getAngularDrag(), drive.getWheelRadius(), drive.getEffectiveWheelBaseRadius(),
+				drive.getLeftTransmission(), drive.getRightTransmission());
+	}
+
+	private DriveDynamicsSolver(double mass, double moi, double angularDrag, double wheelRadius, double wheelBaseRadius,
+			DCMotorTransmission left, DCMotorTransmission right) {
+		this(mass, moi, angularDrag, wheelRadius, wheelBaseRadius, left.getSpeedPerVolt(), left.getTorquePerVolt(), left.getFrictionVoltage(),
+				right.getSpeedPerVolt(), right.getTorquePerVolt(), right.getFrictionVoltage());
+	}
+
+	/**
+	 * @param mass of the robot in kg
+	 * @param moi moment of inertia in kg m^2
+	 * @param angularDrag in N m per rad/s
+	 * @param wheelRadius in meters
+	 * @param wheelBaseRadius half the effective track width, in meters
+	 * @param leftSpeedPerVolt rad/s per volt of the left side
+	 * @param leftTorquePerVolt N m per volt of the left side
+	 * @param leftFrictionVoltage volts to get the left side moving
+	 */
+	public DriveDynamicsSolver(double mass, double moi, double angularDrag, double wheelRadius, double wheelBaseRadius,
+			double leftSpeedPerVolt, double leftTorquePerVolt, double leftFrictionVoltage,
+			double rightSpeedPerVolt, double rightTorquePerVolt, double rightFrictionVoltage) {
+		this.mass = mass;
+		this.moi = moi;
+		this.angularDrag = angularDrag;
+		this.wheelRadius = wheelRadius;
+		this.wheelBaseRadius = wheelBaseRadius;
+		this.leftSpeedPerVolt = leftSpeedPerVolt;
+		this.leftTorquePerVolt = leftTorquePerVolt;
+		this.leftFrictionVoltage = leftFrictionVoltage;
+		this.rightSpeedPerVolt = rightSpeedPerVolt;
+		this.rightTorquePerVolt = rightTorquePerVolt;
+		this.rightFrictionVoltage = rightFrictionVoltage;
+	}
+
+	/**
+	 * Work out the wheel speeds and voltages
+	 * @param linearVelocity in m/s
+	 * @param angularVelocity in rad/s
+	 * @param linearAcceleration in m/s^2
+	 * @param angularAcceleration in rad/s^2
+	 */
+	public void solve(double linearVelocity, double angularVelocity, double linearAcceleration, double angularAcceleration) {
+		leftVelocity = (linearVelocity - wheelBaseRadius * angularVelocity) / wheelRadius;
+		rightVelocity = (linearVelocity + wheelBaseRadius * angularVelocity) / wheelRadius;
+
+		// in the same order as DifferentialDrive, so the answer comes out bit for bit the same
+		double leftTorque = wheelRadius / 2.0 * (linearAcceleration * mass - angularAcceleration * moi / wheelBaseRadius
+				- angularVelocity * angularDrag / wheelBaseRadius);
+		double rightTorque = wheelRadius / 2.0 * (linearAcceleration * mass + angularAcceleration * moi / wheelBaseRadius
+				+ angularVelocity * angularDrag / wheelBaseRadius);
+
+		leftVoltage = voltageForTorque(leftSpeedPerVolt, leftTorquePerVolt, leftFrictionVoltage, leftVelocity, leftTorque);
+		rightVoltage = voltageForTorque(rightSpeedPerVolt, rightTorquePerVolt, rightFrictionVoltage, rightVelocity, rightTorque);
+	}
+
+	/**
+	 * DCMotorTransmission.getVoltageForTorque
+	 */
+	private static double voltageForTorque(double speedPerVolt, double torquePerVolt, double frictionVoltage, double speed, double torque) {
+		double friction;
+		if (speed > kEpsilon) {
+			friction = frictionVoltage;
+		} else if (speed < -kEpsilon) {
+			friction = -frictionVoltage;
+		} else if (torque > kEpsilon) {
+			friction = frictionVoltage;
+		} else if (torque < -kEpsilon) {
+			friction = -frictionVoltage;
+		} else {
+			return 0;
+		}
+		return torque / torquePerVolt + speed / speedPerVolt + friction;
+	}
+
+	public double getWheelRadius() {
+		return wheelRadius;
+	}
+
+	/**
+	 * Get the left wheel speed from the last solve, in rad/s
+	 */
+	public double getLeftVelocity() {
+		return leftVelocity;
+	}
+
+	/**
+	 * Get the right wheel speed from the last solve, in rad/s
+	 */
+	public double getRightVelocity() {
+		return rightVelocity;
+	}
+
+	/**
+	 * Get the left side's ground speed from the last solve, in m/s
+	 */
+	public double getLeftSpeed() {
+		return leftVelocity * wheelRadius;
+	}
+
+	/**
+	 * Get the right side's ground speed from the last solve, in m/s
+	 */
+	public double getRightSpeed() {
+		return rightVelocity * wheelRadius;
+	}
+
+	public double getLeftVoltage() {
+		return leftVoltage;
+	}
+
+	public double getRightVoltage() {
+		return rightVoltage;
+	}
+
+}
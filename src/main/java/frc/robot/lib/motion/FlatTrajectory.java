@@ -0,0 +1,115 @@
+package frc.robot.lib.motion;
+
+import org.ghrobotics.lib.mathematics.twodim.geometry.Pose2dWithCurvature;
+import org.ghrobotics.lib.mathematics.twodim.trajectory.types.TimedEntry;
+import org.ghrobotics.lib.mathematics.twodim.trajectory.types.TimedTrajectory;
+
+/**
+ * A TimedTrajectory flattened into one primitive array per field, so that it can be sampled
+ * from a control loop without making any objects. Everything is in SI units (seconds, meters
+ * and radians), the same as the values inside FalconLibrary's unit classes.
+ *
+ * Flatten a trajectory once when a command starts, then sample it with a TrajectoryCursor.
+ */
+public class FlatTrajectory {
+
+	private final double[] t, x, y, heading, curvature, dkds, velocity, acceleration;
+	private final boolean reversed;
+
+	public FlatTrajectory(double[] t, double[] x, double[] y, double[] heading, double[] curvature, double[] dkds,
+			double[] velocity, double[] acceleration, boolean reversed) {
+		int length = t.length;
+		if (length == 0)
+			throw new IllegalArgumentException("A trajectory needs at least one point!");
+		if (x.length != length || y.length != length || heading.length != length || curvature.length != length
+				|| dkds.length != length || velocity.length != length || acceleration.length != length)
+			throw new IllegalArgumentException("Every column of a trajectory needs the same number of points!");
+		this.t = t;
+		this.x = x;
+		this.y = y;
+		this.heading = heading;
+		this.curvature = curvature;
+		this.dkds = dkds;
+		this.velocity = velocity;
+		this.acceleration = acceleration;
+		this.reversed = reversed;
+	}
+
+	/**
+	 * Flatten a trajectory. This allocates, so do it before the control loop starts.
+	 */
+	public static FlatTrajectory of(TimedTrajectory<Pose2dWithCurvature> trajectory) {
+		var points = trajectory.getPoints();
+		int length = points.size();
+		double[] t = new double[length], x = new double[length], y = new double[length], heading = new double[length],
+				curvature = new double[length], dkds = new double[length], velocity = new double[length], acceleration = new double[length];
+
+		for (int i = 0; i < length; i++) {
+			TimedEntry<Pose2dWithCurvature> point = points.get(i);
+			var state = point.getState();
+			var pose = state.getPose();
+			t[i] = point.getT().getValue();
+			x[i] = pose.getTranslation().getX().getValue();
+			y[i] = pose.getTranslation().getY().getValue();
+			heading[i] = pose.getRotation().getValue();
+			curvature[i] = state.getCurvature();
+			dkds[i] = state.getDkds();
+			velocity[i] = point.getVelocity().getValue();
+			acceleration[i] = point.getAcceleration().getValue();
+		}
+		return new FlatTrajectory(t, x, y, heading, curvature, dkds, velocity, acceleration, trajectory.getReversed());
+	}
+
+	public int size() {
+		return t.length;
+	}
+
+	public boolean isReversed() {
+		return reversed;
+	}
+
+	public double getStartTime() {
+		return t[0];
+	}
+
+	public double getEndTime() {
+		return t[t.length - 1];
+	}
+
+	public double getTotalTime() {
+		return getEndTime() - getStartTime();
+	}
+
+	public double getT(int i) {
+		return t[i];
+	}
+
+	public double getX(int i) {
+		return x[i];
+	}
+
+	public double getY(int i) {
+		return y[i];
+	}
+
+	public double getHeading(int i) {
+		return heading[i];
+	}
+
+	public double getCurvature(int i) {
+		return curvature[i];
+	}
+
+	public double getDkds(int i) {
+		return dkds[i];
+	}
+
+	public double getVelocity(int i) {
+		return velocity[i];
+	}
+
+	public double getAcceleration(int i) {
+		return acceleration[i];
+	}
+
+}
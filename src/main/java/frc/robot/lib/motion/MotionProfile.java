@@ -0,0 +1,219 @@
+package frc.robot.lib.motion;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+ * A Pathfinder style motion profile stored by column instead of by row, so that a whole
+ * profile is one block of doubles that can be memory mapped straight from the deploy
+ * directory. Reading a value is just an absolute get on the buffer, so nothing gets
+ * allocated no matter how many points are read.
+ *
+ * File format (big endian):
+ * [int magic][int version][int column count][int point count], then each column one after
+ * the other as point count doubles, in the order dt, x, y, position, velocity, acceleration,
+ * jerk, heading (the same order as the columns in a .pf1.csv).
+ *
+ * Convert the .pf1.csv files with convertCSV, or run main with the directory they're in. load
+ * falls back to the csv if the binary is stale.
+ */
+public class MotionProfile {
+
+	public static final int kMagic = 0x4d504631; // "MPF1"
+	public static final int kVersion = 1;
+	public static final int kHeaderBytes = 16;
+	public static final String kCSVExtension = ".pf1.csv";
+	public static final String kBinaryExtension = ".pf1.bin";
+
+	public static final int kDt = 0;
+	public static final int kX = 1;
+	public static final int kY = 2;
+	public static final int kPosition = 3;
+	public static final int kVelocity = 4;
+	public static final int kAcceleration = 5;
+	public static final int kJerk = 6;
+	public static final int kHeading = 7;
+	public static final int kColumns = 8;
+
+	private final ByteBuffer buffer;
+	private final int length;
+
+	private MotionProfile(ByteBuffer buffer) {
+		if (buffer.getInt(0) != kMagic || buffer.getInt(4) != kVersion)
+			throw new IllegalArgumentException("Not a version " + kVersion + " motion profile!");
+		if (buffer.getInt(8) != kColumns)
+			throw new IllegalArgumentException("Motion profile has " + buffer.getInt(8) + " columns, expected " + kColumns + "!");
+		this.length = buffer.getInt(12);
+		if (buffer.limit() < kHeaderBytes + (long) kColumns * length * Double.BYTES)
+			throw new IllegalArgumentException("Motion profile is truncated!");
+		this.buffer = buffer;
+	}
+
+	/**
+	 * Memory map a binary profile
+	 */
+	public static MotionProfile read(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			// the mapping stays valid after the channel is closed
+			return new MotionProfile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	/**
+	 * Wrap a binary profile that's already in memory
+	 */
+	public static MotionProfile wrap(ByteBuffer buffer) {
+		return new MotionProfile(buffer.duplicate());
+	}
+
+	/**
+	 * Read a binary profile, or parse a .pf1.csv if that's what it is. Prefers the
+	 * .pf1.bin next to a .pf1.csv if there is one and it's up to date with the csv.
+	 */
+	public static MotionProfile load(String path) throws IOException {
+		if (path.endsWith(kCSVExtension)) {
+			var csv = new File(path);
+			var binary = new File(path.substring(0, path.length() - kCSVExtension.length()) + kBinaryExtension);
+			if (binary.exists() && isUpToDate(csv, binary))
+				return read(binary);
+			return wrap(parseCSV(csv));
+		}
+		return read(new File(path));
+	}
+
+	/**
+	 * Check a .pf1.bin isn't older than its .pf1.csv and has as many points, so a path that got
+	 * regenerated without running convertCSV doesn't get followed from the old binary. Deploying
+	 * can give both the same time, so the points get counted as well.
+	 */
+	public static boolean isUpToDate(File csv, File binary) throws IOException {
+		if (binary.lastModified() < csv.lastModified())
+			return false;
+		int rows = 0;
+		try (var reader = new BufferedReader(new FileReader(csv))) {
+			String line = reader.readLine(); // header
+			while ((line = reader.readLine()) != null) {
+				if (!line.isEmpty())
+					rows++;
+			}
+		}
+		var header = ByteBuffer.allocate(kHeaderBytes);
+		try (FileChannel channel = FileChannel.open(binary.toPath(), StandardOpenOption.READ)) {
+			while (header.hasRemaining() && channel.read(header) >= 0)
+				;
+		}
+		return !header.hasRemaining() && header.getInt(12) == rows;
+	}
+
+	/**
+	 * Get the number of points in the profile
+	 */
+	public int size() {
+		return length;
+	}
+
+	/**
+	 * Get one value
+	 * @param column one of kDt, kX, ... kHeading
+	 * @param index of the point
+	 */
+	public double get(int column, int index) {
+		if (column < 0 || column >= kColumns || index < 0 || index >= length)
+			throw new IndexOutOfBoundsException("column " + column + " point " + index + " of " + length);
+		return buffer.getDouble(kHeaderBytes + (column * length + index) * Double.BYTES);
+	}
+
+	public double getDt(int index) {
+		return get(kDt, index);
+	}
+
+	public double getPosition(int index) {
+		return get(kPosition, index);
+	}
+
+	public double getVelocity(int index) {
+		return get(kVelocity, index);
+	}
+
+	public double getAcceleration(int index) {
+		return get(kAcceleration, index);
+	}
+
+	/**
+	 * Get the heading of a point in radians, like Pathfinder writes it
+	 */
+	public double getHeading(int index) {
+		return get(kHeading, index);
+	}
+
+	/**
+	 * Parse a .pf1.csv into the binary format. This is the slow part, so it should be done
+	 * ahead of time with convertCSV rather than on the robot.
+	 */
+	public static ByteBuffer parseCSV(File csv) throws IOException {
+		var rows = new ArrayList<double[]>();
+		try (var reader = new BufferedReader(new FileReader(csv))) {
+			String line = reader.readLine(); // header
+			while ((line = reader.readLine()) != null) {
+				if (line.isEmpty())
+					continue;
+				String[] values = line.split(",");
+				if (values.length != kColumns)
+					throw new IOException(csv + " has " + values.length + " columns on line " + (rows.size() + 2) + ", expected " + kColumns);
+				var row = new double[kColumns];
+				for (int i = 0; i < kColumns; i++) {
+					row[i] = Double.parseDouble(values[i]);
+				}
+				rows.add(row);
+			}
+		}
+
+		var buffer = ByteBuffer.allocate(kHeaderBytes + kColumns * rows.size() * Double.BYTES);
+		buffer.putInt(kMagic).putInt(kVersion).putInt(kColumns).putInt(rows.size());
+		for (int column = 0; column < kColumns; column++) {
+			for (double[] row : rows) {
+				buffer.putDouble(row[column]);
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * Convert a .pf1.csv into a .pf1.bin
+	 */
+	public static void convertCSV(File csv, File binary) throws IOException {
+		var buffer = parseCSV(csv);
+		try (var out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(binary)))) {
+			out.write(buffer.array(), 0, buffer.limit());
+		}
+	}
+
+	/**
+	 * Convert every .pf1.csv in a directory (src/main/deploy/paths by default) to a .pf1.bin next to it
+	 */
+	public static void main(String[] args) throws IOException {
+		var directory = new File(args.length > 0 ? args[0] : "src/main/deploy/paths");
+		var files = directory.listFiles((dir, name) -> name.endsWith(kCSVExtension));
+		if (files == null) {
+			System.out.println(directory + " isn't a directory!");
+			return;
+		}
+		for (File csv : files) {
+			String name = csv.getName();
+			var binary = new File(directory, name.substring(0, name.length() - kCSVExtension.length()) + kBinaryExtension);
+			convertCSV(csv, binary);
+			System.out.println("Converted " + csv + " to " + binary);
+		}
+	}
+
+}
@@ -0,0 +1,264 @@
+package frc.robot.lib.motion;
+
+import com.ctre.phoenix.ErrorCode;
+import com.ctre.phoenix.motion.MotionProfileStatus;
+import com.ctre.phoenix.motion.TrajectoryPoint;
+import com.ctre.phoenix.motorcontrol.IMotorController;
+
+import edu.wpi.first.wpilibj.Notifier;
+import frc.robot.lib.LoopTimer;
+
+/**
+ * Streams a motion profile into a Talon a chunk at a time instead of loading the whole thing
+ * before it starts. A Notifier running at half the point duration tops up the Talon's top
+ * buffer as room frees up, and moves points down to the bottom buffer with
+ * processMotionProfileBuffer, so a long profile can start as soon as the first few points are in.
+ *
+ * Underruns (the Talon running out of points while the profile is going) are counted and
+ * cleared, and the time it took to get ready to run and the worst gap between feeds are kept
+ * so it's easy to tell if the feeder is keeping up.
+ */
+public class MotionProfileFeeder {
+
+	/** Points in the Talon's bottom buffer before it's safe to enable the profile */
+	public static final int kMinPointsToStart = 5;
+	/** Most points pushed per feed, so one feed never hogs the CAN bus */
+	public static final int kDefaultChunkSize = 32;
+
+	/**
+	 * The parts of a Talon the feeder uses, so that it can be run against a simulated buffer
+	 */
+	public interface ProfileBuffer {
+		public ErrorCode pushMotionProfileTrajectory(TrajectoryPoint point);
+
+		public void processMotionProfileBuffer();
+
+		public ErrorCode getMotionProfileStatus(MotionProfileStatus status);
+
+		public ErrorCode clearMotionProfileTrajectories();
+
+		public ErrorCode clearMotionProfileHasUnderrun(int timeoutMs);
+
+		public ErrorCode changeMotionControlFramePeriod(int periodMs);
+
+		/** Which device this is, so each feeder gets its own loop timing section */
+		public default int getDeviceID() {
+			return -1;
+		}
+	}
+
+	/**
+	 * Where the points come from. fill should write into the point it's given rather than make a new one.
+	 */
+	public interface PointSource {
+		public int size();
+
+		public void fill(TrajectoryPoint point, int index);
+	}
+
+	private final ProfileBuffer buffer;
+	private final PointSource source;
+	private final int chunkSize;
+	private final int pointDurationMs;
+
+	private final TrajectoryPoint point = new TrajectoryPoint();
+	private final MotionProfileStatus status = new MotionProfileStatus();
+	private Notifier notifier;
+
+	private volatile int nextIndex = 0;
+	private volatile int underruns = 0;
+	private volatile boolean readyToRun = false;
+	private long startTime = 0;
+	private long lastFeedTime = 0;
+	private volatile long startupLatencyNanos = -1;
+	private volatile long maxFeedPeriodNanos = 0;
+
+	/**
+	 * Make a feeder
+	 * @param buffer to feed, usually a Talon from forTalon
+	 * @param source of the points
+	 * @param pointDurationMs how long each point lasts, which sets how often the feeder runs
+	 * @param chunkSize most points to push per feed
+	 */
+	public MotionProfileFeeder(ProfileBuffer buffer, PointSource source, int pointDurationMs, int chunkSize) {
+		this.buffer = buffer;
+		this.source = source;
+		this.pointDurationMs = pointDurationMs;
+		this.chunkSize = chunkSize;
+	}
+
+	public MotionProfileFeeder(ProfileBuffer buffer, PointSource source, int pointDurationMs) {
+		this(buffer, source, pointDurationMs, kDefaultChunkSize);
+	}
+
+	/**
+	 * Clear out whatever is in the Talon, feed the first chunk and start feeding the rest in the background
+	 */
+	public synchronized void start() {
+		reset();
+		feed();
+		if (notifier == null)
+			notifier = new Notifier(LoopTimer.getInstance().wrap("Motion profile feeder " + buffer.getDeviceID(), pointDurationMs / 2000.0, this::feed));
+		notifier.startPeriodic(pointDurationMs / 2000.0);
+	}
+
+	/**
+	 * Stop feeding. Whatever is already in the Talon stays there.
+	 */
+	public synchronized void stop() {
+		if (notifier != null)
+			notifier.stop();
+	}
+
+	/**
+	 * Stop feeding and give the Notifier back. Call this when the command using the feeder ends,
+	 * start() makes a new Notifier if the feeder gets used again.
+	 */
+	public synchronized void close() {
+		if (notifier != null) {
+			notifier.stop();
+			notifier.close();
+			notifier = null;
+		}
+	}
+
+	/**
+	 * Get ready to feed from the beginning, without starting the Notifier. start() does this for you.
+	 */
+	public synchronized void reset() {
+		buffer.clearMotionProfileTrajectories();
+		buffer.clearMotionProfileHasUnderrun(0);
+		buffer.changeMotionControlFramePeriod(Math.max(pointDurationMs / 2, 1));
+		nextIndex = 0;
+		underruns = 0;
+		readyToRun = false;
+		startTime = System.nanoTime();
+		lastFeedTime = startTime;
+		startupLatencyNanos = -1;
+		maxFeedPeriodNanos = 0;
+	}
+
+	/**
+	 * Push as many points as there's room for (up to the chunk size) and move points down to the
+	 * bottom buffer. Run periodically by the Notifier, at least twice per point duration.
+	 */
+	public synchronized void feed() {
+		long now = System.nanoTime();
+		maxFeedPeriodNanos = Math.max(maxFeedPeriodNanos, now - lastFeedTime);
+		lastFeedTime = now;
+
+		buffer.getMotionProfileStatus(status);
+		if (status.hasUnderrun) {
+			underruns++;
+			buffer.clearMotionProfileHasUnderrun(0);
+		}
+
+		int size = source.size();
+		int toPush = Math.min(Math.min(status.topBufferRem, chunkSize), size - nextIndex);
+		for (int i = 0; i < toPush; i++) {
+			point.zeroPos = nextIndex == 0;
+			point.isLastPoint = nextIndex == size - 1;
+			point.timeDur = pointDurationMs;
+			source.fill(point, nextIndex);
+			if (buffer.pushMotionProfileTrajectory(point) != ErrorCode.OK)
+				break; // full after all, try again next time
+			nextIndex++;
+		}
+
+		buffer.processMotionProfileBuffer();
+
+		if (!readyToRun) {
+			buffer.getMotionProfileStatus(status);
+			if (status.btmBufferCnt >= Math.min(kMinPointsToStart, size)) {
+				readyToRun = true;
+				startupLatencyNanos = System.nanoTime() - startTime;
+			}
+		}
+	}
+
+	/**
+	 * Check if enough points have made it to the Talon to enable the profile
+	 */
+	public boolean isReadyToRun() {
+		return readyToRun;
+	}
+
+	/**
+	 * Check if every point has been pushed to the Talon
+	 */
+	public boolean isDonePushing() {
+		return nextIndex >= source.size();
+	}
+
+	/**
+	 * Get how many points have been pushed to the Talon so far
+	 */
+	public int getPointsPushed() {
+		return nextIndex;
+	}
+
+	/**
+	 * Get how many times the Talon ran out of points since the feeder was started
+	 */
+	public int getUnderruns() {
+		return underruns;
+	}
+
+	/**
+	 * Get how long it took from start to the profile being ready to run, in seconds, or -1 if it isn't yet
+	 */
+	public double getStartupLatency() {
+		long latency = startupLatencyNanos;
+		return (latency < 0) ? -1 : latency / 1e9;
+	}
+
+	/**
+	 * Get the longest time between two feeds, in seconds. If this gets near the point duration, underruns are coming.
+	 */
+	public double getMaxFeedPeriod() {
+		return maxFeedPeriodNanos / 1e9;
+	}
+
+	/**
+	 * Feed a Talon (or Victor)
+	 */
+	public static ProfileBuffer forTalon(IMotorController talon) {
+		return new ProfileBuffer() {
+			@Override
+			public ErrorCode pushMotionProfileTrajectory(TrajectoryPoint point) {
+				return talon.pushMotionProfileTrajectory(point);
+			}
+
+			@Override
+			public void processMotionProfileBuffer() {
+				talon.processMotionProfileBuffer();
+			}
+
+			@Override
+			public ErrorCode getMotionProfileStatus(MotionProfileStatus status) {
+				return talon.getMotionProfileStatus(status);
+			}
+
+			@Override
+			public ErrorCode clearMotionProfileTrajectories() {
+				return talon.clearMotionProfileTrajectories();
+			}
+
+			@Override
+			public ErrorCode clearMotionProfileHasUnderrun(int timeoutMs) {
+				return talon.clearMotionProfileHasUnderrun(timeoutMs);
+			}
+
+			@Override
+			public ErrorCode changeMotionControlFramePeriod(int periodMs) {
+				return talon.changeMotionControlFramePeriod(periodMs);
+			}
+
+			@Override
+			public int getDeviceID() {
+				return talon.getDeviceID();
+			}
+		};
+	}
+
+}
@@ -8,7 +8,6 @@ import java.util.Arrays;
 
 import com.ctre.phoenix.motion.MotionProfileStatus;
 import com.ctre.phoenix.motion.TrajectoryPoint;
-import com.ctre.phoenix.motorcontrol.IMotorController;
 import com.ctre.phoenix.motorcontrol.can.TalonSRX;
 
 import frc.robot.RobotConfig;
@@ -17,7 +16,8 @@ import frc.robot.lib.EncoderLib;
 /**
  * This is some basic functions for motion profiling. Similar to pathfinder, but also
  * not nearly as good^tm. Contains methods for reading, preparing and sending motion
- * profiles to a Talon.
+ * profiles to a Talon. Profiles are read with MotionProfile, which memory maps the
+ * .pf1.bin files made from Pathfinder's .pf1.csv files.
  * 
  * @author Matthew Morley
  */
@@ -26,9 +26,10 @@ public class MotionProfileLib {
 	// Credit to RobotThatFollows from team 1757
 
 	/**
-	 * Initiate a new motion path. This should be called on auto init
+	 * Initiate a new motion path. This should be called on auto init. This loads the whole
+	 * profile before returning, see MotionProfileFeeder for long profiles.
 	 * @param talon to configure
-	 * @param path to the csv file
+	 * @param path to the .pf1.bin file (or a .pf1.csv, which uses the .pf1.bin next to it if there is one)
 	 * @param effective_diameter of the drivetrain wheel
 	 * @param motionProfileStatus object
 	 */
@@ -39,12 +40,19 @@ public class MotionProfileLib {
 		// MotionProfileStatus talonMPstatus = new MotionProfileStatus();
 		talon.getMotionProfileStatus(motionProfileStatus);
 
-		ArrayList<double[]> profile = readCSVMotionProfileFile(path);
+		MotionProfile profile;
+		try {
+			profile = MotionProfile.load(path);
+		} catch (IOException | IllegalArgumentException e) {
+			System.out.println("Unable to read motion profile file " + path + "!");
+			e.printStackTrace();
+			return;
+		}
 
-		System.out.println("Profile parsed from CSV! Size: " + profile.size());
+		System.out.println("Profile loaded! Size: " + profile.size());
 
 		if (motionProfileStatus.hasUnderrun)
-			((IMotorController) motionProfileStatus).clearMotionProfileHasUnderrun(0);
+			talon.clearMotionProfileHasUnderrun(0);
 
 		talon.clearMotionProfileTrajectories();
 		talon.changeMotionControlFramePeriod(0);
@@ -60,7 +68,9 @@ public class MotionProfileLib {
 	 *
 	 * @param path the path of the file with the data points
 	 * @return an ArrayList of double[] with each data point
+	 * @deprecated allocates an array and a pile of strings per segment, use MotionProfile.load instead
 	 */
+	@Deprecated
 	public static ArrayList<double[]> readCSVMotionProfileFile(String path) {
 
 		ArrayList<double[]> pathSegments = new ArrayList<>();
@@ -101,8 +111,43 @@ public class MotionProfileLib {
 	 * things will happen, and you will be sad there is now another hole in the DRG
 	 *
 	 * @param talonSRX the Talon SRX device reference
+	 * @param profile the generated trajectory, straight from the mapped file
+	 */
+	public static void loadTrajectoryToTalon(TalonSRX talonSRX, MotionProfile profile, double effective_diameter) {
+		TrajectoryPoint point = new TrajectoryPoint();
+
+		for (int i = 0; i < profile.size(); i++) {
+			fillPoint(point, profile, i, effective_diameter);
+			point.timeDur = 50;
+
+			point.zeroPos = i == 0;
+			point.isLastPoint = (i + 1) == profile.size();
+			talonSRX.pushMotionProfileTrajectory(point);
+		}
+
+		System.out.println("Loaded Trajectory");
+	}
+
+	/**
+	 * Convert one point of a profile to Talon units, without touching timeDur, zeroPos or isLastPoint
+	 */
+	public static void fillPoint(TrajectoryPoint point, MotionProfile profile, int index, double effective_diameter) {
+		point.position = EncoderLib.distanceToRaw(profile.getPosition(index), effective_diameter,
+				RobotConfig.driveTrain.POSITION_PULSES_PER_ROTATION);     // meters -> rotations -> ticks
+		point.velocity = EncoderLib.distanceToRaw(profile.getVelocity(index) / 10.0, effective_diameter,
+				RobotConfig.driveTrain.POSITION_PULSES_PER_ROTATION);     // meters/second -> ticks/sec -> ticks/100ms
+		point.headingDeg = Math.toDegrees(profile.getHeading(index));
+		point.profileSlotSelect0 = 0;
+	}
+
+	/**
+	 * Processes and feeds the generated data points one-by-one into the Talon SRX MPB.
+	 *
+	 * @param talonSRX the Talon SRX device reference
 	 * @param profile the generated trajectory extracted from a CSV file
+	 * @deprecated use the MotionProfile version, which reads the position and velocity columns
 	 */
+	@Deprecated
 	public static void loadTrajectoryToTalon(TalonSRX talonSRX, ArrayList<double[]> profile, double effective_diameter) {
 		TrajectoryPoint point = new TrajectoryPoint();
 
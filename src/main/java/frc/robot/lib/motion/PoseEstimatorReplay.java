@@ -0,0 +1,173 @@
+package frc.robot.lib.motion;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.channels.FileChannel;
+
+import frc.robot.Constants;
+import frc.robot.lib.logging.BinaryLogWriter;
+
+/**
+ * Runs a PoseKalmanFilter over sensor readings recorded by the PoseEstimator subsystem, so the
+ * filter can be tuned (and timed) on a laptop without the robot. The input is the telemetry log
+ * decoded to CSV (see BinaryLogWriter.decode), and only the estimator's columns get looked at.
+ *
+ * Every row is one tick: the filter gets updated with the encoders and gyro, and if the vision
+ * frame time is different from the last row's (and isn't NaN), the vision pose gets added too.
+ */
+public class PoseEstimatorReplay {
+
+	public static final String kTimestampColumn = "Estimator timestamp (s)";
+	public static final String kLeftColumn = "Estimator left distance (m)";
+	public static final String kRightColumn = "Estimator right distance (m)";
+	public static final String kGyroColumn = "Estimator gyro heading (rad)";
+	public static final String kVisionTimeColumn = "Estimator vision frame time (s)";
+	public static final String kVisionXColumn = "Estimator vision x (m)";
+	public static final String kVisionYColumn = "Estimator vision y (m)";
+	public static final String kVisionHeadingColumn = "Estimator vision heading (rad)";
+
+	private final PoseKalmanFilter filter;
+
+	private long ticks = 0;
+	private long totalNanos = 0;
+	private long maxNanos = 0;
+	private int visionMeasurements = 0;
+	private int rejectedVisionMeasurements = 0;
+
+	public PoseEstimatorReplay(PoseKalmanFilter filter) {
+		this.filter = filter;
+	}
+
+	/**
+	 * Feed every row of a decoded telemetry log through the filter
+	 * @param csv the log, starting with the header row
+	 */
+	public void replay(Reader csv) throws IOException {
+		var reader = new BufferedReader(csv);
+		String header = reader.readLine();
+		if (header == null)
+			throw new IOException("The log is empty!");
+		String[] columns = header.split(",");
+		int time = find(columns, kTimestampColumn);
+		int left = find(columns, kLeftColumn);
+		int right = find(columns, kRightColumn);
+		int gyro = find(columns, kGyroColumn);
+		int visionTime = find(columns, kVisionTimeColumn);
+		int visionX = find(columns, kVisionXColumn);
+		int visionY = find(columns, kVisionYColumn);
+		int visionHeading = find(columns, kVisionHeadingColumn);
+
+		double lastVisionTime = Double.NaN;
+		String line;
+		while ((line = reader.readLine()) != null) {
+			String[] row = line.split(",");
+			if (row.length < columns.length)
+				continue; // not a row, probably a log message that snuck in
+			double frameTime = Double.parseDouble(row[visionTime]);
+			boolean newFrame = !Double.isNaN(frameTime) && frameTime != lastVisionTime;
+			lastVisionTime = frameTime;
+
+			double timestamp = Double.parseDouble(row[time]);
+			double leftDistance = Double.parseDouble(row[left]);
+			double rightDistance = Double.parseDouble(row[right]);
+			double gyroHeading = Double.parseDouble(row[gyro]);
+			double x = newFrame ? Double.parseDouble(row[visionX]) : 0;
+			double y = newFrame ? Double.parseDouble(row[visionY]) : 0;
+			double heading = newFrame ? Double.parseDouble(row[visionHeading]) : 0;
+
+			// only the filter gets timed, not the parsing
+			long start = System.nanoTime();
+			filter.update(timestamp, leftDistance, rightDistance, gyroHeading);
+			boolean accepted = newFrame && filter.addVisionMeasurement(frameTime, x, y, heading);
+			long elapsed = System.nanoTime() - start;
+
+			if (newFrame) {
+				if (accepted)
+					visionMeasurements++;
+				else
+					rejectedVisionMeasurements++;
+			}
+			ticks++;
+			totalNanos += elapsed;
+			maxNanos = Math.max(maxNanos, elapsed);
+		}
+	}
+
+	private static int find(String[] columns, String name) throws IOException {
+		for (int i = 0; i < columns.length; i++) {
+			if (columns[i].equals(name))
+				return i;
+		}
+		throw new IOException("The log doesn't have a \"" + name + "\" column!");
+	}
+
+	public PoseKalmanFilter getFilter() {
+		return filter;
+	}
+
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * Get how long a tick took on average, in nanoseconds
+	 */
+	public double getMeanNanos() {
+		return (ticks == 0) ? 0 : (double) totalNanos / ticks;
+	}
+
+	/**
+	 * Get how long the slowest tick took, in nanoseconds
+	 */
+	public long getMaxNanos() {
+		return maxNanos;
+	}
+
+	public int getVisionMeasurements() {
+		return visionMeasurements;
+	}
+
+	public int getRejectedVisionMeasurements() {
+		return rejectedVisionMeasurements;
+	}
+
+	/**
+	 * Replay a telemetry log, either the raw .bin off the robot or one that's already been decoded to CSV
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.out.println("Usage: PoseEstimatorReplay <telemetry.bin or decoded csv>");
+			return;
+		}
+		var file = new File(args[0]);
+		Reader csv;
+		if (file.getName().endsWith(".bin")) {
+			var text = new ByteArrayOutputStream();
+			try (var channel = new RandomAccessFile(file, "r").getChannel()) {
+				BinaryLogWriter.decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), new PrintStream(text));
+			}
+			csv = new StringReader(text.toString());
+		} else {
+			csv = new FileReader(file);
+		}
+
+		var replay = new PoseEstimatorReplay(new PoseKalmanFilter(Constants.kTrackWidth, Constants.kEstimatorWheelVariancePerMeter,
+				Constants.kEstimatorGyroVariance, Constants.kEstimatorVisionPositionVariance, Constants.kEstimatorVisionHeadingVariance));
+		try (csv) {
+			replay.replay(csv);
+		}
+
+		var filter = replay.getFilter();
+		System.out.println(String.format("%d ticks, %.0f ns/tick average, %d ns worst", replay.getTicks(), replay.getMeanNanos(), replay.getMaxNanos()));
+		System.out.println(String.format("%d vision measurements used, %d thrown out", replay.getVisionMeasurements(), replay.getRejectedVisionMeasurements()));
+		System.out.println(String.format("Final pose: x %.3f m, y %.3f m, heading %.1f deg", filter.getX(), filter.getY(), Math.toDegrees(filter.getHeading())));
+	}
+
+}
@@ -0,0 +1,229 @@
+package frc.robot.lib.motion;
+
+import java.lang.invoke.VarHandle;
+
+import org.ghrobotics.lib.mathematics.twodim.geometry.Pose2d;
+import org.ghrobotics.lib.mathematics.twodim.geometry.Translation2d;
+import org.ghrobotics.lib.mathematics.units.LengthKt;
+import org.ghrobotics.lib.mathematics.units.Rotation2d;
+
+/**
+ * The last second or so of robot poses, so that a measurement that took a while to show up
+ * (like a Limelight frame) can be matched with where the robot was when it was taken. Poses
+ * are kept in a ring of primitive arrays in SI units (meters and radians) against FPGA
+ * timestamps in seconds, and looked up with a binary search and linear interpolation.
+ *
+ * Only one thread (the ControlLoop task that fills it, like DriveTrain's odometry task) is allowed
+ * to call add and clear. Any number of threads can read at the same time without locking: the
+ * writer bumps a sequence number to odd before it touches the arrays and back to even after, and
+ * a reader just tries again if the sequence changed while it was reading.
+ */
+public class PoseHistory {
+
+	/**
+	 * 128 slots is 1.28 seconds of history at PoseEstimator's 10ms rate. DriveTrain's odometry runs
+	 * at 200Hz, so it asks for 256 to keep the same 1.28 seconds
+	 */
+	public static final int kDefaultCapacity = 128;
+
+	private final int mask;
+	private final double[] times, xs, ys, headings;
+
+	/** Odd while the writer is part way through an update */
+	private volatile long sequence = 0;
+	/** How many poses have ever been added. Only changed by the writer, inside the sequence */
+	private long count = 0;
+
+	public PoseHistory() {
+		this(kDefaultCapacity);
+	}
+
+	/**
+	 * @param capacity how many poses to keep, rounded up to a power of two
+	 */
+	public PoseHistory(int capacity) {
+		if (capacity < 2)
+			throw new IllegalArgumentException("A pose history needs at least 2 slots, not " + capacity);
+		int size = Integer.highestOneBit(capacity - 1) << 1;
+		mask = size - 1;
+		times = new double[size];
+		xs = new double[size];
+		ys = new double[size];
+		headings = new double[size];
+	}
+
+	/**
+	 * Record a pose. Only call this from the one thread that owns the history!
+	 * @param timestamp FPGA time in seconds, which has to be after the last pose's
+	 * @param x in meters
+	 * @param y in meters
+	 * @param heading in radians
+	 */
+	public void add(double timestamp, double x, double y, double heading) {
+		long seq = sequence;
+		sequence = seq + 1;
+		VarHandle.storeStoreFence();
+
+		int slot = (int) (count & mask);
+		times[slot] = timestamp;
+		xs[slot] = x;
+		ys[slot] = y;
+		headings[slot] = heading;
+		count++;
+
+		sequence = seq + 2;
+	}
+
+	/**
+	 * Record a pose. Only call this from the one thread that owns the history!
+	 * @param timestamp FPGA time in seconds
+	 */
+	public void add(double timestamp, Pose2d pose) {
+		add(timestamp, pose.getTranslation().getX().getValue(), pose.getTranslation().getY().getValue(),
+				pose.getRotation().getValue());
+	}
+
+	/**
+	 * Forget everything, like after the pose gets reset. Only call this from the one thread that owns the history!
+	 */
+	public void clear() {
+		long seq = sequence;
+		sequence = seq + 1;
+		VarHandle.storeStoreFence();
+		count = 0;
+		sequence = seq + 2;
+	}
+
+	/**
+	 * Get where the robot was at some time. Times before the oldest pose get the oldest pose,
+	 * and times after the newest get the newest. Doesn't allocate anything.
+	 * @param timestamp FPGA time in seconds
+	 * @param out gets the x (m), y (m) and heading (rad)
+	 * @return false if there's nothing in the history yet, in which case out isn't touched
+	 */
+	public boolean getPose(double timestamp, double[] out) {
+		while (true) {
+			long before = sequence;
+			if ((before & 1) != 0) {
+				Thread.onSpinWait();
+				continue;
+			}
+			double x = 0, y = 0, heading = 0;
+			boolean found = false;
+
+			long newest = count - 1;
+			long oldest = Math.max(0, count - (mask + 1));
+			if (newest >= oldest) {
+				found = true;
+				if (timestamp <= times[slot(oldest)]) {
+					int i = slot(oldest);
+					x = xs[i];
+					y = ys[i];
+					heading = headings[i];
+				} else if (timestamp >= times[slot(newest)]) {
+					int i = slot(newest);
+					x = xs[i];
+					y = ys[i];
+					heading = headings[i];
+				} else {
+					// find the last pose at or before the timestamp
+					long low = oldest, high = newest - 1;
+					while (low < high) {
+						long mid = (low + high + 1) >>> 1;
+						if (times[slot(mid)] <= timestamp)
+							low = mid;
+						else
+							high = mid - 1;
+					}
+					int a = slot(low), b = slot(low + 1);
+					double span = times[b] - times[a];
+					double ratio = (span > 0) ? (timestamp - times[a]) / span : 0;
+					x = xs[a] + (xs[b] - xs[a]) * ratio;
+					y = ys[a] + (ys[b] - ys[a]) * ratio;
+					// go the short way around
+					heading = headings[a] + Math.IEEEremainder(headings[b] - headings[a], 2 * Math.PI) * ratio;
+				}
+			}
+
+			VarHandle.acquireFence();
+			if (sequence != before)
+				continue; // the writer got in the way, so try again
+
+			if (found) {
+				out[0] = x;
+				out[1] = y;
+				out[2] = heading;
+			}
+			return found;
+		}
+	}
+
+	/**
+	 * Get where the robot was at some time
+	 * @param timestamp FPGA time in seconds
+	 * @return the pose, or null if there's nothing in the history yet
+	 */
+	public Pose2d getPose(double timestamp) {
+		double[] pose = new double[3];
+		if (!getPose(timestamp, pose))
+			return null;
+		return new Pose2d(new Translation2d(LengthKt.getMeter(pose[0]), LengthKt.getMeter(pose[1])), new Rotation2d(pose[2]));
+	}
+
+	/**
+	 * Get how the robot has moved since some time, in the frame of the robot back then. Adding this
+	 * to a pose measured at that time (with Pose2d.plus) brings the measurement up to now.
+	 * @param timestamp FPGA time in seconds
+	 * @return the change in pose, or null if there's nothing in the history yet
+	 */
+	public Pose2d getMotionSince(double timestamp) {
+		double[] then = new double[3];
+		double[] now = new double[3];
+		if (!getPose(timestamp, then) || !getPose(Double.POSITIVE_INFINITY, now))
+			return null;
+		double dx = now[0] - then[0], dy = now[1] - then[1];
+		double cos = Math.cos(then[2]), sin = Math.sin(then[2]);
+		return new Pose2d(new Translation2d(LengthKt.getMeter(cos * dx + sin * dy), LengthKt.getMeter(-sin * dx + cos * dy)),
+				new Rotation2d(now[2] - then[2]));
+	}
+
+	/**
+	 * Get how many poses are in the history right now
+	 */
+	public int size() {
+		while (true) {
+			long before = sequence;
+			long size = Math.min(count, mask + 1);
+			VarHandle.acquireFence();
+			if ((before & 1) == 0 && sequence == before)
+				return (int) size;
+			Thread.onSpinWait();
+		}
+	}
+
+	/**
+	 * Get the time of the oldest pose in the history, or NaN if it's empty
+	 */
+	public double getOldestTime() {
+		while (true) {
+			long before = sequence;
+			double time = (count == 0) ? Double.NaN : times[slot(Math.max(0, count - (mask + 1)))];
+			VarHandle.acquireFence();
+			if ((before & 1) == 0 && sequence == before)
+				return time;
+			Thread.onSpinWait();
+		}
+	}
+
+	/**
+	 * Get how many poses the history can hold
+	 */
+	public int getCapacity() {
+		return mask + 1;
+	}
+
+	private int slot(long index) {
+		return (int) (index & mask);
+	}
+
+}
@@ -0,0 +1,314 @@
+package frc.robot.lib.motion;
+
+/**
+ * An extended Kalman filter for where a tank drive is on the field. The state is x (m), y (m)
+ * and heading (rad), with a 3x3 covariance. The encoders drive the prediction, and the gyro
+ * and vision poses correct it.
+ *
+ * Vision frames show up late, so the filter also keeps its own dead reckoning (everything except
+ * vision) in a PoseHistory. A vision pose taken at some earlier time gets moved forward by how far
+ * the dead reckoning says the robot has gone since, and then corrects the current state.
+ *
+ * Everything is on doubles and preallocated scratch arrays, so none of the update methods
+ * allocate. Not thread safe, whatever owns the filter has to lock around it.
+ */
+public class PoseKalmanFilter {
+
+	/** Keeps the covariance from collapsing to zero while the robot is sitting still */
+	private static final double kMinWheelVariance = 1e-8;
+
+	private final double trackWidth;
+	private final double wheelVariancePerMeter;
+	private final double gyroVariance;
+	private final double visionPositionVariance;
+	private final double visionHeadingVariance;
+
+	private double x, y, heading;
+	private final double[] covariance = new double[9];
+
+	// dead reckoning, for lining vision up with when it was taken
+	private double odometryX, odometryY, odometryHeading;
+	private final PoseHistory odometry = new PoseHistory();
+
+	// the last sensor readings, so update can take totals instead of deltas
+	private boolean hasLastReading = false;
+	private double lastLeft, lastRight, gyroOffset;
+
+	// scratch space so the math doesn't allocate
+	private final double[] a = new double[9], b = new double[9], c = new double[9];
+	private final double[] then = new double[3], now = new double[3];
+
+	/**
+	 * @param trackWidth the distance between the left and right wheels, in meters
+	 * @param wheelVariancePerMeter how much each wheel's distance is trusted, in m^2 of variance per meter driven
+	 * @param gyroVariance how much the gyro is trusted, in rad^2
+	 * @param visionPositionVariance how much vision x and y is trusted, in m^2
+	 * @param visionHeadingVariance how much vision heading is trusted, in rad^2
+	 */
+	public PoseKalmanFilter(double trackWidth, double wheelVariancePerMeter, double gyroVariance,
+			double visionPositionVariance, double visionHeadingVariance) {
+		this.trackWidth = trackWidth;
+		this.wheelVariancePerMeter = wheelVariancePerMeter;
+		this.gyroVariance = gyroVariance;
+		this.visionPositionVariance = visionPositionVariance;
+		this.visionHeadingVariance = visionHeadingVariance;
+		reset(0, 0, 0);
+	}
+
+	/**
+	 * Put the robot somewhere, and be sure about it. The next update takes its readings
+	 * as the new zero for the encoders and gyro.
+	 * @param x in meters
+	 * @param y in meters
+	 * @param heading in radians
+	 */
+	public void reset(double x, double y, double heading) {
+		this.x = odometryX = x;
+		this.y = odometryY = y;
+		this.heading = odometryHeading = heading;
+		for (int i = 0; i < 9; i++)
+			covariance[i] = 0;
+		odometry.clear();
+		hasLastReading = false;
+	}
+
+	/**
+	 * Step the filter with the latest sensor readings. The first call after a reset just
+	 * remembers the readings.
+	 * @param timestamp FPGA time in seconds
+	 * @param leftDistance total distance of the left side, in meters
+	 * @param rightDistance total distance of the right side, in meters
+	 * @param gyroHeading the gyro angle in radians, counter clockwise positive. Doesn't have to be zeroed
+	 */
+	public void update(double timestamp, double leftDistance, double rightDistance, double gyroHeading) {
+		if (!hasLastReading) {
+			hasLastReading = true;
+			gyroOffset = heading - gyroHeading;
+		} else {
+			predict(leftDistance - lastLeft, rightDistance - lastRight);
+			correctHeading(gyroHeading + gyroOffset);
+			// the dead reckoning just believes the gyro
+			odometryHeading = gyroHeading + gyroOffset;
+		}
+		lastLeft = leftDistance;
+		lastRight = rightDistance;
+		odometry.add(timestamp, odometryX, odometryY, odometryHeading);
+	}
+
+	/**
+	 * Move the state along by how far each side of the drivetrain went, and grow the covariance
+	 * by how much the encoders are trusted
+	 * @param leftDelta in meters
+	 * @param rightDelta in meters
+	 */
+	public void predict(double leftDelta, double rightDelta) {
+		double distance = (leftDelta + rightDelta) / 2;
+		double turn = (rightDelta - leftDelta) / trackWidth;
+
+		double mid = heading + turn / 2;
+		double cos = Math.cos(mid), sin = Math.sin(mid);
+		x += distance * cos;
+		y += distance * sin;
+		heading += turn;
+
+		double odometryMid = odometryHeading + turn / 2;
+		odometryX += distance * Math.cos(odometryMid);
+		odometryY += distance * Math.sin(odometryMid);
+		odometryHeading += turn;
+
+		// P = F P F^T, where F is the identity plus how x and y move with heading
+		double[] f = a;
+		set(f, 1, 0, -distance * sin, 0, 1, distance * cos, 0, 0, 1);
+		multiply(f, covariance, b);
+		multiplyTransposed(b, f, covariance);
+
+		// plus G Q G^T, where G is how the state moves with each wheel's distance
+		double qLeft = wheelVariancePerMeter * Math.abs(leftDelta) + kMinWheelVariance;
+		double qRight = wheelVariancePerMeter * Math.abs(rightDelta) + kMinWheelVariance;
+		double skew = distance / (2 * trackWidth);
+		double gLeft0 = 0.5 * cos + skew * sin, gRight0 = 0.5 * cos - skew * sin;
+		double gLeft1 = 0.5 * sin - skew * cos, gRight1 = 0.5 * sin + skew * cos;
+		double gLeft2 = -1 / trackWidth, gRight2 = 1 / trackWidth;
+		set(a, gLeft0, gLeft1, gLeft2, gRight0, gRight1, gRight2, 0, 0, 0);
+		for (int i = 0; i < 3; i++) {
+			for (int j = 0; j < 3; j++) {
+				covariance[i * 3 + j] += a[i] * a[j] * qLeft + a[3 + i] * a[3 + j] * qRight;
+			}
+		}
+	}
+
+	/**
+	 * Correct the heading with a gyro reading that's already lined up with the field
+	 * @param measuredHeading in radians
+	 */
+	public void correctHeading(double measuredHeading) {
+		double innovation = Math.IEEEremainder(measuredHeading - heading, 2 * Math.PI);
+		double s = covariance[8] + gyroVariance;
+		double k0 = covariance[2] / s, k1 = covariance[5] / s, k2 = covariance[8] / s;
+
+		x += k0 * innovation;
+		y += k1 * innovation;
+		heading += k2 * innovation;
+
+		// P = (I - K H) P, where H just picks out the heading
+		double p20 = covariance[6], p21 = covariance[7], p22 = covariance[8];
+		covariance[0] -= k0 * p20;
+		covariance[1] -= k0 * p21;
+		covariance[2] -= k0 * p22;
+		covariance[3] -= k1 * p20;
+		covariance[4] -= k1 * p21;
+		covariance[5] -= k1 * p22;
+		covariance[6] -= k2 * p20;
+		covariance[7] -= k2 * p21;
+		covariance[8] -= k2 * p22;
+		symmetrize();
+	}
+
+	/**
+	 * Correct the state with a field relative pose that was measured a while ago, like from vision
+	 * @param timestamp FPGA time in seconds that the pose was measured at
+	 * @param measuredX in meters
+	 * @param measuredY in meters
+	 * @param measuredHeading in radians
+	 * @return false if the measurement is too old to line up with anything, so it got thrown out
+	 */
+	public boolean addVisionMeasurement(double timestamp, double measuredX, double measuredY, double measuredHeading) {
+		if (timestamp < odometry.getOldestTime() || !odometry.getPose(timestamp, then))
+			return false;
+		odometry.getPose(Double.POSITIVE_INFINITY, now);
+
+		// how far the robot has gone since, in the frame of the robot back then
+		double dx = now[0] - then[0], dy = now[1] - then[1];
+		double cos = Math.cos(then[2]), sin = Math.sin(then[2]);
+		double forward = cos * dx + sin * dy;
+		double left = -sin * dx + cos * dy;
+
+		// add that onto the measurement
+		cos = Math.cos(measuredHeading);
+		sin = Math.sin(measuredHeading);
+		correctPose(measuredX + cos * forward - sin * left, measuredY + sin * forward + cos * left,
+				measuredHeading + now[2] - then[2], visionPositionVariance, visionHeadingVariance);
+		return true;
+	}
+
+	/**
+	 * Correct the state with a field relative pose measured right now
+	 * @param positionVariance how much the x and y are trusted, in m^2
+	 * @param headingVariance how much the heading is trusted, in rad^2
+	 */
+	public void correctPose(double measuredX, double measuredY, double measuredHeading, double positionVariance, double headingVariance) {
+		double ix = measuredX - x;
+		double iy = measuredY - y;
+		double ih = Math.IEEEremainder(measuredHeading - heading, 2 * Math.PI);
+
+		// S = P + R
+		double[] s = a;
+		System.arraycopy(covariance, 0, s, 0, 9);
+		s[0] += positionVariance;
+		s[4] += positionVariance;
+		s[8] += headingVariance;
+		if (!invert(s, b))
+			return;
+
+		// K = P S^-1
+		double[] k = c;
+		multiply(covariance, b, k);
+		x += k[0] * ix + k[1] * iy + k[2] * ih;
+		y += k[3] * ix + k[4] * iy + k[5] * ih;
+		heading += k[6] * ix + k[7] * iy + k[8] * ih;
+
+		// P = (I - K) P
+		for (int i = 0; i < 9; i++)
+			k[i] = ((i % 4 == 0) ? 1 : 0) - k[i];
+		multiply(k, covariance, b);
+		System.arraycopy(b, 0, covariance, 0, 9);
+		symmetrize();
+	}
+
+	public double getX() {
+		return x;
+	}
+
+	public double getY() {
+		return y;
+	}
+
+	public double getHeading() {
+		return heading;
+	}
+
+	/**
+	 * Copy the covariance into a 9 long array, row by row, in the order x, y, heading
+	 */
+	public void getCovariance(double[] out) {
+		System.arraycopy(covariance, 0, out, 0, 9);
+	}
+
+	/**
+	 * Get one entry of the covariance, where 0 is x, 1 is y and 2 is heading
+	 */
+	public double getCovariance(int row, int column) {
+		return covariance[row * 3 + column];
+	}
+
+	private void symmetrize() {
+		double p01 = (covariance[1] + covariance[3]) / 2;
+		double p02 = (covariance[2] + covariance[6]) / 2;
+		double p12 = (covariance[5] + covariance[7]) / 2;
+		covariance[1] = covariance[3] = p01;
+		covariance[2] = covariance[6] = p02;
+		covariance[5] = covariance[7] = p12;
+	}
+
+	private static void set(double[] m, double m00, double m01, double m02, double m10, double m11, double m12, double m20, double m21, double m22) {
+		m[0] = m00;
+		m[1] = m01;
+		m[2] = m02;
+		m[3] = m10;
+		m[4] = m11;
+		m[5] = m12;
+		m[6] = m20;
+		m[7] = m21;
+		m[8] = m22;
+	}
+
+	/** out = left * right, for 3x3s */
+	private static void multiply(double[] left, double[] right, double[] out) {
+		for (int i = 0; i < 3; i++) {
+			for (int j = 0; j < 3; j++) {
+				out[i * 3 + j] = left[i * 3] * right[j] + left[i * 3 + 1] * right[3 + j] + left[i * 3 + 2] * right[6 + j];
+			}
+		}
+	}
+
+	/** out = left * right^T, for 3x3s */
+	private static void multiplyTransposed(double[] left, double[] right, double[] out) {
+		for (int i = 0; i < 3; i++) {
+			for (int j = 0; j < 3; j++) {
+				out[i * 3 + j] = left[i * 3] * right[j * 3] + left[i * 3 + 1] * right[j * 3 + 1] + left[i * 3 + 2] * right[j * 3 + 2];
+			}
+		}
+	}
+
+	/** out = m^-1 for a 3x3, or false if it can't be inverted */
+	private static boolean invert(double[] m, double[] out) {
+		double c00 = m[4] * m[8] - m[5] * m[7];
+		double c01 = m[5] * m[6] - m[3] * m[8];
+		double c02 = m[3] * m[7] - m[4] * m[6];
+		double det = m[0] * c00 + m[1] * c01 + m[2] * c02;
+		if (det == 0 || Double.isNaN(det))
+			return false;
+		double inv = 1 / det;
+		out[0] = c00 * inv;
+		out[1] = (m[2] * m[7] - m[1] * m[8]) * inv;
+		out[2] = (m[1] * m[5] - m[2] * m[4]) * inv;
+		out[3] = c01 * inv;
+		out[4] = (m[0] * m[8] - m[2] * m[6]) * inv;
+		out[5] = (m[2] * m[3] - m[0] * m[5]) * inv;
+		out[6] = c02 * inv;
+		out[7] = (m[1] * m[6] - m[0] * m[7]) * inv;
+		out[8] = (m[0] * m[4] - m[1] * m[3]) * inv;
+		return true;
+	}
+
+}
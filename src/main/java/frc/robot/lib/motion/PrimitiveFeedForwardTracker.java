@@ -0,0 +1,18 @@
+package frc.robot.lib.motion;
+
+import com.team254.lib.physics.DifferentialDrive.ChassisState;
+
+/**
+ * Follows the trajectory's velocity and curvature with no feedback at all, like FalconLibrary's
+ * FeedForwardTracker. Mostly useful for checking the drive characterization.
+ */
+public class PrimitiveFeedForwardTracker extends PrimitiveTrajectoryTracker {
+
+	@Override
+	protected void calculateState(TrajectoryCursor reference, double x, double y, double heading, ChassisState output) {
+		double velocity = reference.getVelocity();
+		output.setLinear(velocity);
+		output.setAngular(velocity * reference.getCurvature());
+	}
+
+}
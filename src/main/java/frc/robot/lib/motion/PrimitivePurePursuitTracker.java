@@ -0,0 +1,96 @@
+package frc.robot.lib.motion;
+
+import com.team254.lib.physics.DifferentialDrive.ChassisState;
+
+/**
+ * Adaptive pure pursuit, the same as FalconLibrary's PurePursuitTracker without the units.
+ * Drives along the arc to a point some time ahead on the trajectory (or further, if that point
+ * is closer than the minimum lookahead distance), speeding up when the robot lags behind the reference.
+ */
+public class PrimitivePurePursuitTracker extends PrimitiveTrajectoryTracker {
+
+	/** How far ahead to step when searching for a point far enough away, in seconds */
+	private static final double kLookaheadSearchStep = 0.02;
+
+	private final double kLat;
+	private final double kLookaheadTime;
+	private final double kMinLookaheadDistance;
+
+	private TrajectoryCursor lookahead;
+	private double lookaheadX, lookaheadY, lookaheadHeading;
+
+	/**
+	 * @param kLat gain on how far behind (or ahead of) the reference the robot is
+	 * @param kLookaheadTime how far ahead to look, in seconds
+	 * @param kMinLookaheadDistance the closest the lookahead point can be, in meters
+	 */
+	public PrimitivePurePursuitTracker(double kLat, double kLookaheadTime, double kMinLookaheadDistance) {
+		this.kLat = kLat;
+		this.kLookaheadTime = kLookaheadTime;
+		this.kMinLookaheadDistance = kMinLookaheadDistance;
+	}
+
+	@Override
+	protected void onReset(FlatTrajectory trajectory) {
+		lookahead = new TrajectoryCursor(trajectory);
+	}
+
+	@Override
+	protected void calculateState(TrajectoryCursor reference, double x, double y, double heading, ChassisState output) {
+		calculateLookahead(reference, x, y, heading);
+
+		double lookaheadErrorX = errorX(lookaheadX, lookaheadY, x, y, heading);
+		double lookaheadErrorY = errorY(lookaheadX, lookaheadY, x, y, heading);
+		double xError = errorX(reference.getX(), reference.getY(), x, y, heading);
+
+		double vd = reference.getVelocity();
+		double l = Math.hypot(lookaheadErrorX, lookaheadErrorY);
+		// the curvature of the arc from the robot to the lookahead point
+		double curvature = (l > Util.kEpsilon) ? 2 * lookaheadErrorY / (l * l) : 0;
+
+		double linear = vd * Math.cos(angleError(lookaheadHeading, heading)) + kLat * xError;
+		output.setLinear(linear);
+		output.setAngular(linear * curvature);
+	}
+
+	private void calculateLookahead(TrajectoryCursor reference, double x, double y, double heading) {
+		var trajectory = reference.getTrajectory();
+		double now = reference.getTime();
+		double remaining = trajectory.getEndTime() - now;
+
+		lookahead.sample(now + kLookaheadTime);
+		if (distanceTo(lookahead, x, y) >= kMinLookaheadDistance) {
+			setLookahead(lookahead.getX(), lookahead.getY(), lookahead.getHeading());
+			return;
+		}
+
+		// too close, so walk along the trajectory until a point is far enough away
+		lookahead.sample(now);
+		double previewed = 0;
+		while (previewed < remaining) {
+			previewed += kLookaheadSearchStep;
+			lookahead.sample(now + previewed);
+			if (distanceTo(lookahead, x, y) > kMinLookaheadDistance) {
+				setLookahead(lookahead.getX(), lookahead.getY(), lookahead.getHeading());
+				return;
+			}
+		}
+
+		// ran out of trajectory, so extend the end of it straight out
+		double extra = (kMinLookaheadDistance - distanceTo(lookahead, x, y)) * (trajectory.isReversed() ? -1 : 1);
+		setLookahead(lookahead.getX() + extra * Math.cos(lookahead.getHeading()),
+				lookahead.getY() + extra * Math.sin(lookahead.getHeading()),
+				lookahead.getHeading());
+	}
+
+	private void setLookahead(double x, double y, double heading) {
+		lookaheadX = x;
+		lookaheadY = y;
+		lookaheadHeading = heading;
+	}
+
+	private static double distanceTo(TrajectoryCursor point, double x, double y) {
+		return Math.hypot(point.getX() - x, point.getY() - y);
+	}
+
+}
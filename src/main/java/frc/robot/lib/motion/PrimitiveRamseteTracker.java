@@ -0,0 +1,44 @@
+package frc.robot.lib.motion;
+
+import com.team254.lib.physics.DifferentialDrive.ChassisState;
+
+/**
+ * Ramsete, the same nonlinear controller as FalconLibrary's RamseteTracker, without the units.
+ * See "Control of Wheeled Mobile Robots: An Experimental Overview" (Ramsete is equation 5.12).
+ */
+public class PrimitiveRamseteTracker extends PrimitiveTrajectoryTracker {
+
+	private final double kBeta;
+	private final double kZeta;
+
+	/**
+	 * @param kBeta how aggressively to correct, in 1/m^2
+	 * @param kZeta damping, between 0 and 1
+	 */
+	public PrimitiveRamseteTracker(double kBeta, double kZeta) {
+		this.kBeta = kBeta;
+		this.kZeta = kZeta;
+	}
+
+	@Override
+	protected void calculateState(TrajectoryCursor reference, double x, double y, double heading, ChassisState output) {
+		double vd = reference.getVelocity();
+		double wd = vd * reference.getCurvature();
+
+		double errorX = errorX(reference.getX(), reference.getY(), x, y, heading);
+		double errorY = errorY(reference.getX(), reference.getY(), x, y, heading);
+		double angleError = angleError(reference.getHeading(), heading);
+
+		double k1 = 2 * kZeta * Math.sqrt(wd * wd + kBeta * vd * vd);
+
+		output.setLinear(vd * Math.cos(angleError) + k1 * errorX);
+		output.setAngular(wd + kBeta * vd * sinc(angleError) * errorY + k1 * angleError);
+	}
+
+	private static double sinc(double theta) {
+		if (Math.abs(theta) < Util.kEpsilon)
+			return 1.0 - 1.0 / 6.0 * theta * theta;
+		return Math.sin(theta) / theta;
+	}
+
+}
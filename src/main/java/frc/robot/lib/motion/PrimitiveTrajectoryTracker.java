@@ -0,0 +1,162 @@
+package frc.robot.lib.motion;
+
+import org.ghrobotics.lib.mathematics.twodim.geometry.Pose2d;
+import org.ghrobotics.lib.mathematics.twodim.geometry.Pose2dWithCurvature;
+import org.ghrobotics.lib.mathematics.twodim.trajectory.types.TimedTrajectory;
+
+import com.team254.lib.physics.DifferentialDrive.ChassisState;
+
+/**
+ * A trajectory tracker that does all of its math on doubles in SI units (meters, seconds and
+ * radians), so that nextState doesn't allocate anything. Works the same way as FalconLibrary's
+ * TrajectoryTracker: the reference advances by however much time has passed since the last
+ * call, the subclass turns the reference and the robot pose into a linear and angular
+ * velocity, and the accelerations come from the change in velocity since the last call.
+ *
+ * The outputs are kept in two ChassisStates that get reused every call, so they can go
+ * straight into DriveTrain.setOutputFromDynamics.
+ */
+public abstract class PrimitiveTrajectoryTracker {
+
+	private TrajectoryCursor reference;
+	private double lastTime = Double.NaN;
+	private double progress = 0;
+	private boolean hasPreviousVelocity = false;
+
+	private final ChassisState velocity = new ChassisState();
+	private final ChassisState acceleration = new ChassisState();
+
+	/**
+	 * Start following a trajectory. This flattens it, so it allocates.
+	 */
+	public void reset(TimedTrajectory<Pose2dWithCurvature> trajectory) {
+		reset(FlatTrajectory.of(trajectory));
+	}
+
+	/**
+	 * Start following a trajectory that's already been flattened
+	 */
+	public void reset(FlatTrajectory trajectory) {
+		reference = new TrajectoryCursor(trajectory);
+		lastTime = Double.NaN;
+		progress = 0;
+		hasPreviousVelocity = false;
+		velocity.setLinear(0);
+		velocity.setAngular(0);
+		acceleration.setLinear(0);
+		acceleration.setAngular(0);
+		onReset(trajectory);
+	}
+
+	/**
+	 * Called after reset, for trackers that need to set up more state
+	 */
+	protected void onReset(FlatTrajectory trajectory) {}
+
+	/**
+	 * Work out the next output
+	 * @param robotPose where the robot is now
+	 * @param time now, in seconds
+	 */
+	public void nextState(Pose2d robotPose, double time) {
+		nextState(robotPose.getTranslation().getX().getValue(), robotPose.getTranslation().getY().getValue(),
+				robotPose.getRotation().getValue(), time);
+	}
+
+	/**
+	 * Work out the next output
+	 * @param x of the robot in meters
+	 * @param y of the robot in meters
+	 * @param heading of the robot in radians
+	 * @param time now, in seconds
+	 */
+	public void nextState(double x, double y, double heading, double time) {
+		if (reference == null)
+			throw new IllegalStateException("The tracker needs a trajectory, call reset first!");
+
+		// the first call doesn't advance at all, just like FalconLibrary's DeltaTime
+		double dt = Double.isNaN(lastTime) ? 0 : time - lastTime;
+		lastTime = time;
+		progress += dt;
+		var trajectory = reference.getTrajectory();
+		reference.sample(trajectory.getStartTime() + Math.min(progress, trajectory.getTotalTime()));
+
+		double lastLinear = velocity.getLinear();
+		double lastAngular = velocity.getAngular();
+		calculateState(reference, x, y, heading, velocity);
+
+		if (!hasPreviousVelocity || dt <= 0) {
+			acceleration.setLinear(0);
+			acceleration.setAngular(0);
+		} else {
+			acceleration.setLinear((velocity.getLinear() - lastLinear) / dt);
+			acceleration.setAngular((velocity.getAngular() - lastAngular) / dt);
+		}
+		hasPreviousVelocity = true;
+	}
+
+	/**
+	 * Work out the linear and angular velocity to follow the reference
+	 * @param reference already sampled at the current time
+	 * @param x of the robot in meters
+	 * @param y of the robot in meters
+	 * @param heading of the robot in radians
+	 * @param output to put the linear (m/s) and angular (rad/s) velocity in
+	 */
+	protected abstract void calculateState(TrajectoryCursor reference, double x, double y, double heading, ChassisState output);
+
+	/**
+	 * Get the linear (m/s) and angular (rad/s) velocity from the last nextState. Reused every call, so don't hang onto it.
+	 */
+	public ChassisState getVelocity() {
+		return velocity;
+	}
+
+	/**
+	 * Get the linear (m/s^2) and angular (rad/s^2) acceleration from the last nextState. Reused every call, so don't hang onto it.
+	 */
+	public ChassisState getAcceleration() {
+		return acceleration;
+	}
+
+	/**
+	 * Get the reference the tracker is following, sampled at the time of the last nextState
+	 */
+	public TrajectoryCursor getReference() {
+		return reference;
+	}
+
+	/**
+	 * Get how long the tracker has been following the trajectory, in seconds
+	 */
+	public double getProgress() {
+		return progress;
+	}
+
+	public boolean isFinished() {
+		return reference == null || progress >= reference.getTrajectory().getTotalTime();
+	}
+
+	/**
+	 * Get the x (forward) part of a field relative point in the robot's frame of reference
+	 */
+	protected static double errorX(double pointX, double pointY, double x, double y, double heading) {
+		return Math.cos(heading) * (pointX - x) + Math.sin(heading) * (pointY - y);
+	}
+
+	/**
+	 * Get the y (left) part of a field relative point in the robot's frame of reference
+	 */
+	protected static double errorY(double pointX, double pointY, double x, double y, double heading) {
+		return -Math.sin(heading) * (pointX - x) + Math.cos(heading) * (pointY - y);
+	}
+
+	/**
+	 * Get the difference between two headings, between -pi and pi
+	 */
+	protected static double angleError(double target, double heading) {
+		double error = target - heading;
+		return Math.atan2(Math.sin(error), Math.cos(error));
+	}
+
+}
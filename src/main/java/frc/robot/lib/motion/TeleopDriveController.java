@@ -0,0 +1,179 @@
+package frc.robot.lib.motion;
+
+/**
+ * Closed loop arcade drive for teleop. Turns joystick percents into a chassis velocity, limits
+ * how fast that's allowed to change, then runs inverse dynamics to get wheel speeds and
+ * feedforward voltages. Runs every loop, so every stage works on primitives in fields this
+ * owns and nothing gets allocated once it's constructed.
+ *
+ * The stages are split up so each one can be checked on its own: shapeInputs, then
+ * limitAcceleration, then the solver, then the Output.
+ */
+public class TeleopDriveController {
+
+	/**
+	 * Where the wheel speeds and voltages go, normally the drive talons
+	 */
+	public interface Output {
+		/**
+		 * @param leftSpeed in m/s
+		 * @param rightSpeed in m/s
+		 * @param leftVoltage feedforward in volts
+		 * @param rightVoltage feedforward in volts
+		 */
+		public void set(double leftSpeed, double rightSpeed, double leftVoltage, double rightVoltage);
+	}
+
+	public static final double kLinearDeadband = 0.07;
+	public static final double kRotationDeadband = 0.1;
+
+	// all in m/s, rad/s or per second of those. The angular ones are in "feet" because they always have been,
+	// except kLowGearAngularAccel, which never got used until the limiter worked
+	public static final double kLowGearLinearSpeed = Util.toMeters(7.5);
+	public static final double kLowGearAngularSpeed = Util.toMeters(12);
+	public static final double kLowGearLinearAccel = Util.toMeters(12);
+	/** rad/s^2, so it takes about a second to get to full low gear turning speed */
+	public static final double kLowGearAngularAccel = 3.6;
+	public static final double kHighGearLinearSpeed = Util.toMeters(11);
+	public static final double kHighGearAngularSpeed = Util.toMeters(18);
+	/** Slower turning in high gear below kHighGearSlowTurnBelow, since it's twitchy */
+	public static final double kHighGearSlowAngularSpeed = Util.toMeters(12);
+	public static final double kHighGearSlowTurnBelow = Util.toMeters(5);
+	public static final double kHighGearLinearAccel = Util.toMeters(18);
+	public static final double kHighGearAngularAccel = Util.toMeters(13);
+
+	private final DriveDynamicsSolver lowGear, highGear;
+	private final Output output;
+
+	// shaped inputs, -1 to 1
+	private double linearPercent, rotationPercent;
+	// the chassis state going out, and the one that went out last loop
+	private double linearVelocity, angularVelocity, linearAcceleration, angularAcceleration;
+	private double lastLinearVelocity, lastAngularVelocity;
+
+	/**
+	 * @param lowGear dynamics to use in low gear
+	 * @param highGear dynamics to use in high gear
+	 * @param output where to send the answer
+	 */
+	public TeleopDriveController(DriveDynamicsSolver lowGear, DriveDynamicsSolver highGear, Output output) {
+		this.lowGear = lowGear;
+		this.highGear = highGear;
+		this.output = output;
+	}
+
+	/**
+	 * Forget the last commanded velocity, so the next update accelerates from a stop
+	 */
+	public void reset() {
+		lastLinearVelocity = 0;
+		lastAngularVelocity = 0;
+	}
+
+	/**
+	 * Run every stage and send the result to the output
+	 * @param linear joystick, -1 to 1
+	 * @param rotation joystick, -1 to 1, positive turns clockwise
+	 * @param squareInputs to square the joysticks for finer control at low speed
+	 * @param highGear which gear's limits and dynamics to use
+	 * @param dt seconds since the last update
+	 */
+	public void update(double linear, double rotation, boolean squareInputs, boolean highGear, double dt) {
+		shapeInputs(linear, rotation, squareInputs);
+		limitAcceleration(highGear, dt);
+
+		var solver = highGear ? this.highGear : lowGear;
+		solver.solve(linearVelocity, angularVelocity, linearAcceleration, angularAcceleration);
+		output.set(solver.getLeftSpeed(), solver.getRightSpeed(), solver.getLeftVoltage(), solver.getRightVoltage());
+
+		lastLinearVelocity = linearVelocity;
+		lastAngularVelocity = angularVelocity;
+	}
+
+	/**
+	 * Clamp, deadband and (maybe) square the joysticks
+	 */
+	void shapeInputs(double linear, double rotation, boolean squareInputs) {
+		linear = Util.deadband(Util.limit(linear, 1), kLinearDeadband);
+		rotation = Util.deadband(Util.limit(rotation, 1), kRotationDeadband);
+
+		if (squareInputs) {
+			linear = Math.copySign(linear * linear, linear);
+			rotation = Math.copySign(rotation * rotation, rotation);
+		}
+		linearPercent = linear;
+		rotationPercent = rotation;
+	}
+
+	/**
+	 * Scale the shaped inputs to a velocity, keep it from speeding up faster than the gear's max
+	 * acceleration, clamp it to the gear's top speed, and work out the acceleration that takes.
+	 * Slowing down isn't limited, so letting go of the stick still stops right away.
+	 */
+	void limitAcceleration(boolean highGear, double dt) {
+		double maxLinear, maxAngular, maxLinearAccel, maxAngularAccel;
+		if (highGear) {
+			maxLinear = kHighGearLinearSpeed;
+			maxAngular = kHighGearAngularSpeed;
+			maxLinearAccel = kHighGearLinearAccel;
+			maxAngularAccel = kHighGearAngularAccel;
+		} else {
+			maxLinear = kLowGearLinearSpeed;
+			maxAngular = kLowGearAngularSpeed;
+			maxLinearAccel = kLowGearLinearAccel;
+			maxAngularAccel = kLowGearAngularAccel;
+		}
+
+		double linear = linearPercent * maxLinear;
+		double angular = -rotationPercent * maxAngular;
+
+		linear = limitSpeedingUp(linear, lastLinearVelocity, maxLinearAccel * dt);
+		if (highGear && linear < kHighGearSlowTurnBelow)
+			maxAngular = kHighGearSlowAngularSpeed;
+		angular = limitSpeedingUp(angular, lastAngularVelocity, maxAngularAccel * dt);
+
+		linearVelocity = Util.limit(linear, maxLinear);
+		angularVelocity = Util.limit(angular, maxAngular);
+		linearAcceleration = (linearVelocity - lastLinearVelocity) / dt;
+		angularAcceleration = (angularVelocity - lastAngularVelocity) / dt;
+	}
+
+	/**
+	 * Limit how much faster than last it gets, either way. Going down to zero is always allowed,
+	 * and reversing counts as speeding up from zero.
+	 */
+	static double limitSpeedingUp(double velocity, double last, double maxChange) {
+		return Util.limit(velocity, Math.min(last, 0) - maxChange, Math.max(last, 0) + maxChange);
+	}
+
+	public double getLinearPercent() {
+		return linearPercent;
+	}
+
+	public double getRotationPercent() {
+		return rotationPercent;
+	}
+
+	/**
+	 * Get the last commanded linear velocity, in m/s
+	 */
+	public double getLinearVelocity() {
+		return linearVelocity;
+	}
+
+	/**
+	 * Get the last commanded angular velocity, in rad/s
+	 */
+	public double getAngularVelocity() {
+		return angularVelocity;
+	}
+
+	public double getLinearAcceleration() {
+		return linearAcceleration;
+	}
+
+	public double getAngularAcceleration() {
+		return angularAcceleration;
+	}
+
+}
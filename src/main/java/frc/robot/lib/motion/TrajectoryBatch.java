@@ -0,0 +1,161 @@
+package frc.robot.lib.motion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.ghrobotics.lib.mathematics.twodim.geometry.Pose2dWithCurvature;
+import org.ghrobotics.lib.mathematics.twodim.trajectory.types.TimedTrajectory;
+
+/**
+ * Generates a bunch of independent trajectories at once across every core. Add a generator
+ * for each named trajectory along with the map it should end up in, then call generate().
+ *
+ * It's all or nothing: if any generator throws, none of the results are put in their maps
+ * and a BatchFailedException with every failure in it is thrown instead.
+ */
+public class TrajectoryBatch {
+
+	private final List<Spec> specs = new ArrayList<>();
+	private final int threads;
+	private String report = "";
+
+	/**
+	 * Make a batch that uses one thread per core
+	 */
+	public TrajectoryBatch() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	public TrajectoryBatch(int threads) {
+		this.threads = Math.max(threads, 1);
+	}
+
+	/**
+	 * Add a trajectory to generate
+	 * @param destination the map to put it in once the whole batch is done
+	 * @param name the key in that map
+	 * @param generator makes the trajectory
+	 */
+	public void add(Map<String, TimedTrajectory<Pose2dWithCurvature>> destination, String name, Supplier<TimedTrajectory<Pose2dWithCurvature>> generator) {
+		add(destination, name, name, generator);
+	}
+
+	/**
+	 * Add a trajectory to generate, with a different name in the timing report (like "HG " + name)
+	 */
+	public void add(Map<String, TimedTrajectory<Pose2dWithCurvature>> destination, String name, String label, Supplier<TimedTrajectory<Pose2dWithCurvature>> generator) {
+		specs.add(new Spec(destination, name, label, generator));
+	}
+
+	public int size() {
+		return specs.size();
+	}
+
+	/**
+	 * Generate everything that was added, wait for it all to finish and put the results
+	 * in their maps.
+	 * @throws BatchFailedException if anything failed to generate
+	 */
+	public void generate() {
+		var threadNumber = new AtomicInteger();
+		int poolSize = Math.min(threads, Math.max(specs.size(), 1));
+		ExecutorService pool = Executors.newFixedThreadPool(poolSize, runnable -> {
+			var thread = new Thread(runnable, "TrajectoryBatch-" + threadNumber.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		long batchStart = System.nanoTime();
+		var futures = new ArrayList<Future<Result>>(specs.size());
+		for (Spec spec : specs) {
+			futures.add(pool.submit(() -> {
+				long start = System.nanoTime();
+				var trajectory = spec.generator.get();
+				return new Result(trajectory, System.nanoTime() - start);
+			}));
+		}
+
+		var results = new ArrayList<Result>(specs.size());
+		var failures = new StringBuilder();
+		int failed = 0;
+		try {
+			for (int i = 0; i < specs.size(); i++) {
+				try {
+					results.add(futures.get(i).get());
+				} catch (ExecutionException e) {
+					failed++;
+					results.add(null);
+					failures.append("\n  ").append(specs.get(i).label).append(": ").append(e.getCause());
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new BatchFailedException("Interrupted while generating trajectories", e);
+		} finally {
+			pool.shutdownNow();
+		}
+		long batchTime = System.nanoTime() - batchStart;
+
+		var report = new StringBuilder();
+		report.append(String.format("Generated %s trajectories on %s threads in %.3f seconds", specs.size(), poolSize, batchTime / 1e9));
+		for (int i = 0; i < specs.size(); i++) {
+			var result = results.get(i);
+			report.append(String.format("\n  %-30s %s", specs.get(i).label, (result == null) ? "FAILED" : String.format("%.3f s", result.nanos / 1e9)));
+		}
+		this.report = report.toString();
+
+		if (failed > 0)
+			throw new BatchFailedException(failed + " of " + specs.size() + " trajectories failed to generate:" + failures + "\n" + this.report, null);
+
+		for (int i = 0; i < specs.size(); i++) {
+			specs.get(i).destination.put(specs.get(i).name, results.get(i).trajectory);
+		}
+	}
+
+	/**
+	 * Get how long each trajectory took, and the whole batch, from the last generate()
+	 */
+	public String getReport() {
+		return report;
+	}
+
+	public static class BatchFailedException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		public BatchFailedException(String message, Throwable cause) {
+			super(message, cause);
+		}
+	}
+
+	private static class Spec {
+		final Map<String, TimedTrajectory<Pose2dWithCurvature>> destination;
+		final String name;
+		final String label;
+		final Supplier<TimedTrajectory<Pose2dWithCurvature>> generator;
+
+		Spec(Map<String, TimedTrajectory<Pose2dWithCurvature>> destination, String name, String label, Supplier<TimedTrajectory<Pose2dWithCurvature>> generator) {
+			this.destination = destination;
+			this.name = name;
+			this.label = label;
+			this.generator = generator;
+		}
+	}
+
+	private static class Result {
+		final TimedTrajectory<Pose2dWithCurvature> trajectory;
+		final long nanos;
+
+		Result(TimedTrajectory<Pose2dWithCurvature> trajectory, long nanos) {
+			this.trajectory = trajectory;
+			this.nanos = nanos;
+		}
+	}
+
+}
@@ -0,0 +1,400 @@
+package frc.robot.lib.motion;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.ghrobotics.lib.mathematics.twodim.geometry.Pose2d;
+import org.ghrobotics.lib.mathematics.twodim.geometry.Pose2dWithCurvature;
+import org.ghrobotics.lib.mathematics.twodim.geometry.Translation2d;
+import org.ghrobotics.lib.mathematics.twodim.trajectory.constraints.TimingConstraint;
+import org.ghrobotics.lib.mathematics.twodim.trajectory.types.TimedEntry;
+import org.ghrobotics.lib.mathematics.twodim.trajectory.types.TimedTrajectory;
+import org.ghrobotics.lib.mathematics.units.Length;
+import org.ghrobotics.lib.mathematics.units.LengthKt;
+import org.ghrobotics.lib.mathematics.units.Rotation2d;
+import org.ghrobotics.lib.mathematics.units.TimeUnitsKt;
+import org.ghrobotics.lib.mathematics.units.derivedunits.Acceleration;
+import org.ghrobotics.lib.mathematics.units.derivedunits.AccelerationKt;
+import org.ghrobotics.lib.mathematics.units.derivedunits.Velocity;
+import org.ghrobotics.lib.mathematics.units.derivedunits.VelocityKt;
+
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * A content addressed, on disk cache of generated trajectories. Each trajectory is keyed on
+ * a hash of everything that goes into generating it (waypoints, constraints, velocities,
+ * acceleration and the reversed/optimize flags), so changing any of those just makes a new
+ * key and the old entry is never used again.
+ *
+ * The file is memory mapped on load and an entry is only decoded when it's asked for. The
+ * last few decoded entries are kept, so asking again hands back the same trajectory instead
+ * of decoding it all over. save() rewrites the file with just the entries used
+ * this boot, which keeps stale trajectories from piling up. Since the file lives in the deploy directory, running
+ * the sim once will make a cache that gets deployed along with the code.
+ *
+ * File format (big endian):
+ * [int magic][int version][int entry count], then for each entry
+ * [long key][byte reversed][int point count][point count * 8 doubles], with each point as
+ * t (s), x (m), y (m), heading (rad), curvature, dkds, velocity (m/s), acceleration (m/s^2).
+ */
+public class TrajectoryCache {
+
+	private static final int kMagic = 0x5452414A; // "TRAJ"
+	/** Bump this if the generator (or FalconLibrary) changes in a way the key can't see */
+	private static final int kVersion = 1;
+	private static final int kDoublesPerPoint = 8;
+	private static final int kFingerprintDepth = 6;
+	/** Same as TrajectorySpecRegistry keeps, so anything it still has is decoded here too */
+	private static final int kMaxDecoded = 16;
+
+	public static final String kCacheFileName = "trajectory-cache.bin";
+
+	private static TrajectoryCache instance_;
+
+	private final Path file;
+	private MappedByteBuffer mapped;
+	/** Offset of each entry in the mapped file, by key */
+	private final Map<Long, Integer> diskEntries = new LinkedHashMap<>();
+	/** Entries from the file that were asked for since boot. These get copied over on save */
+	private final Set<Long> usedDiskEntries = new LinkedHashSet<>();
+	/** Trajectories that had to be generated since the last save */
+	private final Map<Long, TimedTrajectory<Pose2dWithCurvature>> generatedEntries = new LinkedHashMap<>();
+	/** The most recently used entries that have already been decoded, oldest first */
+	private final Map<Long, TimedTrajectory<Pose2dWithCurvature>> decodedEntries = new LinkedHashMap<Long, TimedTrajectory<Pose2dWithCurvature>>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, TimedTrajectory<Pose2dWithCurvature>> eldest) {
+			return size() > kMaxDecoded;
+		}
+	};
+
+	private int hits = 0;
+	private int misses = 0;
+
+	public static synchronized TrajectoryCache getInstance() {
+		if (instance_ == null) {
+			instance_ = new TrajectoryCache(new File(Filesystem.getDeployDirectory(), kCacheFileName).toPath());
+		}
+		return instance_;
+	}
+
+	public TrajectoryCache(Path file) {
+		this.file = file;
+		load();
+	}
+
+	/**
+	 * Get a trajectory from the cache, or generate (and remember) it if it isn't there.
+	 * Safe to call from several threads at once, generation happens outside of the lock.
+	 * @param generator makes the trajectory on a cache miss
+	 */
+	public TimedTrajectory<Pose2dWithCurvature> getOrGenerate(List<Pose2d> waypoints,
+			List<? extends TimingConstraint<Pose2dWithCurvature>> constraints, Velocity<Length> startVelocity, Velocity<Length> endVelocity,
+			Velocity<Length> maxVelocity, Acceleration<Length> maxAcceleration, boolean reversed, boolean optomizeSplines,
+			Supplier<TimedTrajectory<Pose2dWithCurvature>> generator) {
+
+		long key = key(waypoints, constraints, startVelocity, endVelocity, maxVelocity, maxAcceleration, reversed, optomizeSplines);
+
+		var trajectory = lookup(key);
+		if (trajectory != null)
+			return trajectory;
+
+		trajectory = generator.get();
+		synchronized (this) {
+			misses++;
+			generatedEntries.put(key, trajectory);
+		}
+		return trajectory;
+	}
+
+	private synchronized TimedTrajectory<Pose2dWithCurvature> lookup(long key) {
+		var trajectory = generatedEntries.get(key);
+		if (trajectory == null)
+			trajectory = decodedEntries.get(key);
+		if (trajectory == null) {
+			Integer offset = diskEntries.get(key);
+			if (offset == null)
+				return null;
+			try {
+				trajectory = decode(mapped.duplicate(), offset);
+			} catch (RuntimeException e) {
+				// a truncated or otherwise broken file, just generate it again
+				e.printStackTrace();
+				return null;
+			}
+			usedDiskEntries.add(key);
+			decodedEntries.put(key, trajectory);
+		}
+		hits++;
+		return trajectory;
+	}
+
+	/**
+	 * Write every trajectory used since boot back out, if anything had to be generated.
+	 * Written to a temp file first and moved into place, so a brownout can't leave half a cache.
+	 * This does file I/O, so call it from robotInit or disabledInit and not from a periodic method.
+	 */
+	public synchronized void save() {
+		if (generatedEntries.isEmpty())
+			return;
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (var out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp.toFile())))) {
+			out.writeInt(kMagic);
+			out.writeInt(kVersion);
+			out.writeInt(usedDiskEntries.size() + generatedEntries.size());
+			for (long key : usedDiskEntries) {
+				// copied straight from the old file, no need to decode it
+				int offset = diskEntries.get(key);
+				var entry = mapped.duplicate();
+				entry.position(offset + 1);
+				int length = 1 + 4 + entry.getInt() * kDoublesPerPoint * 8;
+				var bytes = new byte[length];
+				entry.position(offset);
+				entry.get(bytes);
+				out.writeLong(key);
+				out.write(bytes);
+			}
+			for (var entry : generatedEntries.entrySet()) {
+				out.writeLong(entry.getKey());
+				encode(entry.getValue(), out);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			return;
+		}
+		try {
+			// this can fail on Windows while the old file is still mapped, in which case the
+			// next boot just regenerates and tries again
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			e.printStackTrace();
+			return;
+		}
+
+		// everything is on disk now, so map the new file. The generated ones are as good as decoded
+		diskEntries.clear();
+		decodedEntries.putAll(generatedEntries);
+		generatedEntries.clear();
+		load();
+		usedDiskEntries.clear();
+		usedDiskEntries.addAll(diskEntries.keySet());
+	}
+
+	public synchronized int getHits() {
+		return hits;
+	}
+
+	public synchronized int getMisses() {
+		return misses;
+	}
+
+	private void load() {
+		if (!Files.exists(file))
+			return;
+		try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (mapped.remaining() < 12 || mapped.getInt() != kMagic || mapped.getInt() != kVersion) {
+				System.out.println("Trajectory cache " + file + " is from a different version, ignoring it");
+				mapped = null;
+				return;
+			}
+			int count = mapped.getInt();
+			for (int i = 0; i < count; i++) {
+				long key = mapped.getLong();
+				int offset = mapped.position();
+				mapped.get(); // reversed
+				int points = mapped.getInt();
+				mapped.position(mapped.position() + points * kDoublesPerPoint * 8);
+				diskEntries.put(key, offset);
+			}
+		} catch (IOException | RuntimeException e) {
+			// keep whatever entries we got through before the file ended
+			System.out.println("Unable to fully read trajectory cache " + file + ": " + e);
+		}
+	}
+
+	private static TimedTrajectory<Pose2dWithCurvature> decode(ByteBuffer in, int offset) {
+		in.position(offset);
+		boolean reversed = in.get() != 0;
+		int count = in.getInt();
+		var points = new ArrayList<TimedEntry<Pose2dWithCurvature>>(count);
+		for (int i = 0; i < count; i++) {
+			double t = in.getDouble();
+			double x = in.getDouble();
+			double y = in.getDouble();
+			double heading = in.getDouble();
+			double curvature = in.getDouble();
+			double dkds = in.getDouble();
+			double velocity = in.getDouble();
+			double acceleration = in.getDouble();
+
+			var pose = new Pose2d(new Translation2d(LengthKt.getMeter(x), LengthKt.getMeter(y)), new Rotation2d(heading));
+			points.add(new TimedEntry<Pose2dWithCurvature>(
+					new Pose2dWithCurvature(pose, curvature, dkds),
+					TimeUnitsKt.getSecond(t),
+					VelocityKt.getVelocity(LengthKt.getMeter(velocity)),
+					AccelerationKt.getAcceleration(LengthKt.getMeter(acceleration))));
+		}
+		return new TimedTrajectory<Pose2dWithCurvature>(points, reversed);
+	}
+
+	private static void encode(TimedTrajectory<Pose2dWithCurvature> trajectory, DataOutputStream out) throws IOException {
+		var points = trajectory.getPoints();
+		out.writeByte(trajectory.getReversed() ? 1 : 0);
+		out.writeInt(points.size());
+		for (TimedEntry<Pose2dWithCurvature> point : points) {
+			var pose = point.getState().getPose();
+			out.writeDouble(point.getT().getValue());
+			out.writeDouble(pose.getTranslation().getX().getValue());
+			out.writeDouble(pose.getTranslation().getY().getValue());
+			out.writeDouble(pose.getRotation().getValue());
+			out.writeDouble(point.getState().getCurvature());
+			out.writeDouble(point.getState().getDkds());
+			out.writeDouble(point.getVelocity().getValue());
+			out.writeDouble(point.getAcceleration().getValue());
+		}
+	}
+
+	/**
+	 * Hash everything that goes into generating a trajectory. Constraints don't implement
+	 * equals or hashCode, so they're fingerprinted by walking their fields, and the contents
+	 * of any lists or maps in them.
+	 */
+	public static long key(List<Pose2d> waypoints, List<? extends TimingConstraint<Pose2dWithCurvature>> constraints,
+			Velocity<Length> startVelocity, Velocity<Length> endVelocity, Velocity<Length> maxVelocity, Acceleration<Length> maxAcceleration,
+			boolean reversed, boolean optomizeSplines) {
+		var hash = new Fnv64();
+		hash.add(kVersion);
+		hash.add(waypoints.size());
+		for (Pose2d waypoint : waypoints) {
+			hash.add(waypoint.getTranslation().getX().getValue());
+			hash.add(waypoint.getTranslation().getY().getValue());
+			hash.add(waypoint.getRotation().getValue());
+		}
+		hash.add(constraints.size());
+		var seen = new IdentityHashMap<Object, Boolean>();
+		for (var constraint : constraints) {
+			fingerprint(hash, constraint, kFingerprintDepth, seen);
+		}
+		hash.add(startVelocity.getValue());
+		hash.add(endVelocity.getValue());
+		hash.add(maxVelocity.getValue());
+		hash.add(maxAcceleration.getValue());
+		hash.add(reversed ? 1 : 0);
+		hash.add(optomizeSplines ? 1 : 0);
+		return hash.get();
+	}
+
+	private static void fingerprint(Fnv64 hash, Object value, int depth, IdentityHashMap<Object, Boolean> seen) {
+		if (value == null) {
+			hash.add(0);
+			return;
+		}
+		Class<?> type = value.getClass();
+		if (value instanceof Number) {
+			hash.add(((Number) value).doubleValue());
+			return;
+		}
+		if (value instanceof Boolean || value instanceof Character || value instanceof String || value instanceof Enum) {
+			hash.add(value.toString());
+			return;
+		}
+		hash.add(type.getName());
+		if (depth <= 0 || seen.put(value, Boolean.TRUE) != null)
+			return;
+		// collections (Kotlin's too) are java.util classes, so hash what's in them instead of walking their insides
+		if (value instanceof Iterable) {
+			int count = 0;
+			for (Object element : (Iterable<?>) value) {
+				fingerprint(hash, element, depth - 1, seen);
+				count++;
+			}
+			hash.add(count);
+			return;
+		}
+		if (value instanceof Map) {
+			for (var entry : ((Map<?, ?>) value).entrySet()) {
+				fingerprint(hash, entry.getKey(), depth - 1, seen);
+				fingerprint(hash, entry.getValue(), depth - 1, seen);
+			}
+			hash.add(((Map<?, ?>) value).size());
+			return;
+		}
+		// anything else from the JDK can't be reflected into, so all we've got is its type
+		if (type.getName().startsWith("java."))
+			return;
+		if (type.isArray()) {
+			if (!type.getComponentType().isPrimitive()) {
+				for (Object element : (Object[]) value) {
+					fingerprint(hash, element, depth - 1, seen);
+				}
+			} else {
+				hash.add(Arrays.deepToString(new Object[] { value }));
+			}
+			return;
+		}
+		for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+			for (Field field : c.getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers()))
+					continue;
+				try {
+					field.setAccessible(true);
+					fingerprint(hash, field.get(value), depth - 1, seen);
+				} catch (ReflectiveOperationException | RuntimeException e) {
+					hash.add(field.getName());
+				}
+			}
+		}
+	}
+
+	/** 64 bit FNV-1a, good enough to tell trajectories apart */
+	private static class Fnv64 {
+		private long hash = 0xcbf29ce484222325L;
+
+		void add(long value) {
+			for (int i = 0; i < 8; i++) {
+				hash ^= (value >>> (i * 8)) & 0xFF;
+				hash *= 0x100000001b3L;
+			}
+		}
+
+		void add(double value) {
+			add(Double.doubleToLongBits(value));
+		}
+
+		void add(String value) {
+			for (int i = 0; i < value.length(); i++) {
+				hash ^= value.charAt(i);
+				hash *= 0x100000001b3L;
+			}
+			add(value.length());
+		}
+
+		long get() {
+			return hash;
+		}
+	}
+
+}
@@ -0,0 +1,162 @@
+package frc.robot.lib.motion;
+
+/**
+ * Samples a FlatTrajectory by time without making any objects. The cursor remembers which
+ * segment it was in last time, and since a control loop asks for times that only go forwards
+ * that makes each lookup O(1) amortized. Asking for an earlier time still works, it just falls
+ * back to a binary search.
+ *
+ * Between two points the state is interpolated the same way FalconLibrary's TimedEntry does it:
+ * velocity from the first point's acceleration, and the pose moved along by the distance that
+ * velocity covers, so the reference doesn't jump around when points are far apart.
+ */
+public class TrajectoryCursor {
+
+	private final FlatTrajectory trajectory;
+	private int index = 0;
+
+	private double time, x, y, heading, curvature, dkds, velocity, acceleration;
+
+	public TrajectoryCursor(FlatTrajectory trajectory) {
+		this.trajectory = trajectory;
+		sample(trajectory.getStartTime());
+	}
+
+	public FlatTrajectory getTrajectory() {
+		return trajectory;
+	}
+
+	/**
+	 * Go back to the start of the trajectory
+	 */
+	public void reset() {
+		index = 0;
+		sample(trajectory.getStartTime());
+	}
+
+	/**
+	 * Move the cursor to a time along the trajectory, clamped to its start and end, and update
+	 * everything the getters return
+	 * @param t time in seconds, on the same clock as the trajectory (so starting at getStartTime())
+	 */
+	public void sample(double t) {
+		var traj = trajectory;
+		int last = traj.size() - 1;
+
+		if (t <= traj.getStartTime() || last == 0) {
+			index = 0;
+			setToPoint(0, traj.getStartTime());
+			return;
+		}
+		if (t >= traj.getEndTime()) {
+			index = last;
+			setToPoint(last, traj.getEndTime());
+			return;
+		}
+
+		if (t < traj.getT(index))
+			index = search(t);
+		while (index < last - 1 && traj.getT(index + 1) <= t)
+			index++;
+
+		int i = index;
+		double dt = t - traj.getT(i);
+		double v0 = traj.getVelocity(i);
+		double a0 = traj.getAcceleration(i);
+		boolean reversing = v0 < 0 || (Math.abs(v0) < Util.kEpsilon && a0 < 0);
+		double s = (reversing ? -1 : 1) * (v0 * dt + 0.5 * a0 * dt * dt);
+
+		double dx = traj.getX(i + 1) - traj.getX(i);
+		double dy = traj.getY(i + 1) - traj.getY(i);
+		double distance = Math.sqrt(dx * dx + dy * dy);
+		double fraction;
+		if (distance > Util.kEpsilon)
+			fraction = s / distance;
+		else
+			fraction = dt / (traj.getT(i + 1) - traj.getT(i));
+		fraction = Math.max(0, Math.min(1, fraction));
+
+		time = t;
+		x = traj.getX(i) + dx * fraction;
+		y = traj.getY(i) + dy * fraction;
+		heading = traj.getHeading(i) + Math.IEEEremainder(traj.getHeading(i + 1) - traj.getHeading(i), 2 * Math.PI) * fraction;
+		curvature = traj.getCurvature(i) + (traj.getCurvature(i + 1) - traj.getCurvature(i)) * fraction;
+		dkds = traj.getDkds(i) + (traj.getDkds(i + 1) - traj.getDkds(i)) * fraction;
+		velocity = v0 + a0 * dt;
+		acceleration = a0;
+	}
+
+	/**
+	 * Find the last point at or before t
+	 */
+	private int search(double t) {
+		int low = 0, high = trajectory.size() - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (trajectory.getT(mid) <= t)
+				low = mid;
+			else
+				high = mid - 1;
+		}
+		return low;
+	}
+
+	private void setToPoint(int i, double t) {
+		var traj = trajectory;
+		time = t;
+		x = traj.getX(i);
+		y = traj.getY(i);
+		heading = traj.getHeading(i);
+		curvature = traj.getCurvature(i);
+		dkds = traj.getDkds(i);
+		velocity = traj.getVelocity(i);
+		acceleration = traj.getAcceleration(i);
+	}
+
+	/**
+	 * Check if the cursor has reached the end of the trajectory
+	 */
+	public boolean isDone() {
+		return time >= trajectory.getEndTime();
+	}
+
+	/**
+	 * Get the index of the point at or just before the current time
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	public double getTime() {
+		return time;
+	}
+
+	public double getX() {
+		return x;
+	}
+
+	public double getY() {
+		return y;
+	}
+
+	public double getHeading() {
+		return heading;
+	}
+
+	public double getCurvature() {
+		return curvature;
+	}
+
+	public double getDkds() {
+		return dkds;
+	}
+
+	public double getVelocity() {
+		return velocity;
+	}
+
+	public double getAcceleration() {
+		return acceleration;
+	}
+
+}
@@ -0,0 +1,115 @@
+package frc.robot.lib.motion;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.ghrobotics.lib.mathematics.twodim.geometry.Pose2d;
+import org.ghrobotics.lib.mathematics.twodim.geometry.Pose2dWithCurvature;
+import org.ghrobotics.lib.mathematics.twodim.geometry.Translation2d;
+import org.ghrobotics.lib.mathematics.twodim.trajectory.types.TimedEntry;
+import org.ghrobotics.lib.mathematics.twodim.trajectory.types.TimedTrajectory;
+import org.ghrobotics.lib.mathematics.units.Length;
+import org.ghrobotics.lib.mathematics.units.LengthKt;
+import org.ghrobotics.lib.mathematics.units.Rotation2d;
+
+/**
+ * Mirrors trajectories and waypoints across the long axis of the field, so a path built for
+ * the right side of the field can be driven on the left (and the other way around).
+ *
+ * Mirroring an already timed trajectory doesn't need to re-run the generator. The timing,
+ * velocity and acceleration of every point stay the same, only the pose flips (y goes to
+ * width - y and the heading is negated) and the path curves the other way, so curvature and
+ * dk/ds get negated too. That makes it O(n) in the number of points.
+ */
+public class TrajectoryMirror {
+
+	/** The field is mirrored about y = kFieldWidth / 2 */
+	public static final Length kFieldWidth = LengthKt.getFeet(27);
+
+	/**
+	 * Every location that has a twin on the other side of the field, left first. Add new
+	 * locations here too or mirrorName won't know they have a side.
+	 */
+	private static final String[][] kSides = {
+			{ "habL", "habR" },
+			{ "loadingL", "loadingR" },
+			{ "cargoL1", "cargoR1" },
+			{ "cargoL2", "cargoR2" },
+			{ "cargoL3", "cargoR3" },
+			{ "cargoML", "cargoMR" },
+			{ "depotL", "depotR" },
+			{ "depotLF", "depotRF" },
+			{ "depotLB", "depotRB" },
+			{ "rocketLF", "rocketRF" },
+			{ "rocketLC", "rocketRC" },
+			{ "rocketLB", "rocketRB" },
+			{ "yeetL", "yeetR" },
+			{ "pyeetL", "pyeetR" },
+	};
+
+	private static final Map<String, String> kMirroredNames = new HashMap<>();
+
+	static {
+		for (String[] pair : kSides) {
+			kMirroredNames.put(pair[0], pair[1]);
+			kMirroredNames.put(pair[1], pair[0]);
+		}
+	}
+
+	private TrajectoryMirror() {}
+
+	/**
+	 * Mirror a single pose across the field
+	 */
+	public static Pose2d mirror(Pose2d pose) {
+		return new Pose2d(
+				new Translation2d(pose.getTranslation().getX(), kFieldWidth.minus(pose.getTranslation().getY())),
+				new Rotation2d(-pose.getRotation().getRadian()));
+	}
+
+	/**
+	 * Mirror a list of waypoints across the field
+	 */
+	public static List<Pose2d> mirror(List<Pose2d> waypoints) {
+		var mirrored = new ArrayList<Pose2d>(waypoints.size());
+		for (Pose2d pose : waypoints) {
+			mirrored.add(mirror(pose));
+		}
+		return mirrored;
+	}
+
+	/**
+	 * Mirror a timed trajectory point by point, without re-generating it. The result drives
+	 * exactly like the original, just on the other side of the field.
+	 */
+	public static TimedTrajectory<Pose2dWithCurvature> mirror(TimedTrajectory<Pose2dWithCurvature> trajectory) {
+		var points = trajectory.getPoints();
+		var mirrored = new ArrayList<TimedEntry<Pose2dWithCurvature>>(points.size());
+		for (TimedEntry<Pose2dWithCurvature> point : points) {
+			var state = point.getState();
+			mirrored.add(new TimedEntry<Pose2dWithCurvature>(
+					new Pose2dWithCurvature(mirror(state.getPose()), -state.getCurvature(), -state.getDkds()),
+					point.getT(),
+					point.getVelocity(),
+					point.getAcceleration()));
+		}
+		return new TimedTrajectory<Pose2dWithCurvature>(mirrored, trajectory.getReversed());
+	}
+
+	/**
+	 * Get the name of the mirrored version of a named path by swapping every location in it for
+	 * its twin on the other side (so "habR to rocketRF" becomes "habL to rocketLF"). Words that
+	 * aren't a location with a side, like "habM" or "loadingToRocketF", are left alone.
+	 * @return the mirrored name, which is the same as the name if it doesn't have a side
+	 */
+	public static String mirrorName(String name) {
+		var words = name.split(" ", -1);
+		for (int i = 0; i < words.length; i++) {
+			words[i] = kMirroredNames.getOrDefault(words[i], words[i]);
+		}
+		return String.join(" ", words);
+	}
+
+}
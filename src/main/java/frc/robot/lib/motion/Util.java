@@ -2,7 +2,6 @@ package frc.robot.lib.motion;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.ArrayList;
 import java.util.List;
 
 import org.ghrobotics.lib.mathematics.twodim.geometry.Pose2d;
@@ -169,29 +168,20 @@ public class Util {
 		return String.format("Pose: (%s, %s) theta: (%s)", pose.getTranslation().getX().getFeet(), pose.getTranslation().getY().getFeet(), pose.getRotation().getDegree());
 	}
 
+	/**
+	 * Mirror a waypoint to the other side of the field
+	 * @see TrajectoryMirror#mirror(Pose2d)
+	 */
 	public static Pose2d reflectWaypoint(Pose2d waypoint) {
-		var toReturn = new Pose2d(
-				// new Translation2d(LengthKt.getFeet(((13.5 - waypoint.getTranslation().getY().getFeet()) * -1) + 13.5),
-				// waypoint.getTranslation().getY()),
-				waypoint.getTranslation().getX(),
-				LengthKt.getFeet(27).minus(waypoint.getTranslation().getY()),
-				new Rotation2d(waypoint.getRotation().getRadian() * -1));
-
-		return toReturn;
-
-		// return new Pose2d();
+		return TrajectoryMirror.mirror(waypoint);
 	}
 
+	/**
+	 * Mirror a list of waypoints to the other side of the field
+	 * @see TrajectoryMirror#mirror(List)
+	 */
 	public static List<Pose2d> reflectTrajectory(List<Pose2d> old_) {
-		ArrayList<Pose2d> new_ = new ArrayList<>();
-		for (Pose2d pose : old_) {
-			Pose2d reflected = reflectWaypoint(pose);
-			// new_.add(reflectWaypoint(pose));
-			new_.add(reflected);
-			// System.out.println(toString(reflected));
-		}
-		// return new_;
-		return new_.subList(0, new_.size());
+		return TrajectoryMirror.mirror(old_);
 	}
 
 }
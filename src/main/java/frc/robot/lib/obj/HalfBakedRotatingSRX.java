@@ -46,7 +46,14 @@ public class HalfBakedRotatingSRX extends WPI_TalonSRX {
 	}
 
 	public AngularVelocity getSensorVelocity() {
-		int raw_ = super.getSelectedSensorVelocity();
+		return fromRawVelocity(super.getSelectedSensorVelocity());
+	}
+
+	/**
+	 * Convert a raw velocity, like one out of a TalonSnapshot
+	 * @param raw_ velocity in ticks per 100ms
+	 */
+	public AngularVelocity fromRawVelocity(int raw_) {
 		double rotPerSec = raw_ / mModel * 10;
 		return new AngularVelocity(RoundRotation2d.fromRotations(rotPerSec), TimeUnitsKt.getSecond(0.1));
 	}
@@ -76,7 +83,7 @@ public class HalfBakedRotatingSRX extends WPI_TalonSRX {
 	}
 
 	public void set(ControlMode mode, RoundRotation2d setpoint, DemandType type, double arg2) {
-		if (mode == ControlMode.Position)
+		if (mode == ControlMode.Position || mode == ControlMode.MotionMagic)
 			super.set(mode, getTicks(setpoint), type, arg2);
 		else {
 			System.out.println("Cannot set to any other mode with RoundRotation2d. ur bad");
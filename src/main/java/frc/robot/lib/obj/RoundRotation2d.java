@@ -7,17 +7,20 @@ import frc.robot.lib.Loggable;
 
 public class RoundRotation2d implements Loggable {
 	protected double value;
-	protected double cosine;
-	protected double sine;
+	// worked out once up front, the value never changes after that
+	protected final double cosine;
+	protected final double sine;
 
 	public RoundRotation2d(RoundRotation2d n) {
 		this.value = n.value;
-		this.cosine = Math.cos(this.getRadian());
-		this.sine = Math.sin(this.getRadian());
+		this.cosine = n.cosine;
+		this.sine = n.sine;
 	}
 
 	private RoundRotation2d(double deg) {
 		this.value = deg;
+		this.cosine = Math.cos(getRadian());
+		this.sine = Math.sin(getRadian());
 	}
 
 	public RoundRotation2d() {
@@ -57,12 +60,10 @@ public class RoundRotation2d implements Loggable {
 	}
 
 	public double getCos() {
-		this.cosine = Math.cos(this.getRadian());
 		return this.cosine;
 	}
 
 	public double getSin() {
-		this.sine = Math.sin(this.getRadian());
 		return this.sine;
 	}
 
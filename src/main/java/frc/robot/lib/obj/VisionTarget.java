@@ -38,7 +38,7 @@ public class VisionTarget implements Loggable {
 
 	@Override
 	public String toCSV() {
-		return String.format("%s,%s", width.getInch(), height.getInch());
+		return new StringBuilder(16).append(width.getInch()).append(',').append(height.getInch()).toString();
 	}
 
 	/**
@@ -0,0 +1,174 @@
+package frc.robot.planners;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.ghrobotics.lib.mathematics.units.LengthKt;
+
+import frc.robot.RobotConfig.auto.fieldPositions;
+import frc.robot.lib.Logger;
+import frc.robot.lib.obj.RoundRotation2d;
+import frc.robot.states.ElevatorState;
+import frc.robot.states.IntakeAngle;
+import frc.robot.states.SuperStructureState;
+import frc.robot.subsystems.superstructure.SuperStructure.iPosition;
+
+/**
+ * Every plan between every pair of presets, planned once at startup with SuperstructurePlanner,
+ * so going from one preset to another is just looking it up. Starting from anywhere else (like
+ * after jogging) falls back to planning it live.
+ *
+ * The plans are shared, so don't change the states in them.
+ */
+public class PresetPlanTable {
+
+	/** How close the superstructure has to be to a preset to count as on it, same as SuperstructureGoToState */
+	public static final double kElevatorTolerance = 1; // inches
+	public static final double kAngleTolerance = 5; // degrees
+
+	/** Where the superstructure ends up after PassThrough.FrontToBack */
+	public static final SuperStructureState kPassThroughBack = new SuperStructureState(new ElevatorState(LengthKt.getInch(5)),
+			new IntakeAngle(RoundRotation2d.getDegree(-193), RoundRotation2d.getDegree(-112)));
+
+	private static PresetPlanTable instance_;
+
+	/**
+	 * Get the table of the presets OI uses. The first call plans all of them, so do it at init.
+	 */
+	public static synchronized PresetPlanTable getInstance() {
+		if (instance_ == null) {
+			instance_ = new PresetPlanTable(
+					new SuperStructureState(new ElevatorState(LengthKt.getInch(13.25)), iPosition.CARGO_GRAB),
+					new SuperStructureState(new ElevatorState(fieldPositions.cargoLowGoal), iPosition.CARGO_PLACE),
+					new SuperStructureState(new ElevatorState(fieldPositions.cargoMiddleGoal), iPosition.CARGO_PLACE),
+					new SuperStructureState(new ElevatorState(fieldPositions.cargoHighGoal), iPosition.CARGO_PLACE_PITCHED_UP),
+					new SuperStructureState(new ElevatorState(fieldPositions.cargoMiddleGoal.plus(LengthKt.getInch(2))), iPosition.CARGO_DOWN),
+					new SuperStructureState(new ElevatorState(fieldPositions.hatchLowGoal), iPosition.HATCH),
+					new SuperStructureState(new ElevatorState(fieldPositions.hatchMiddleGoal), iPosition.HATCH),
+					new SuperStructureState(new ElevatorState(fieldPositions.hatchHighGoal), iPosition.HATCH_PITCHED_UP),
+					iPosition.HATCH_GRAB_INSIDE,
+					iPosition.HATCH_GRAB_INSIDE_PREP,
+					iPosition.HATCH_SLAM_ROCKET_INSIDE,
+					iPosition.HATCH_SLAM_ROCKET_INSIDE_PREP,
+					kPassThroughBack);
+		}
+		return instance_;
+	}
+
+	private final SuperStructureState[] presets;
+	// plans[start * presets.length + goal]
+	private final List<List<SuperStructureState>> plans;
+	// if the planner had to stop short of each plan's goal, same indexing as plans
+	private final boolean[] safed;
+	private boolean lastGoalSafed = false;
+	private int hits = 0, misses = 0;
+
+	/**
+	 * Plan between every pair of presets
+	 */
+	public PresetPlanTable(SuperStructureState... presets) {
+		this.presets = presets.clone();
+		this.plans = new ArrayList<>(presets.length * presets.length);
+		this.safed = new boolean[presets.length * presets.length];
+		var planner = SuperstructurePlanner.getInstance();
+		for (var start : presets) {
+			for (var goal : presets) {
+				var plan = planner.plan(start, goal);
+				if (plan.isEmpty())
+					Logger.log("No plan between presets " + start.toCSV() + " and " + goal.toCSV());
+				safed[plans.size()] = planner.isGoalSafed();
+				plans.add(Collections.unmodifiableList(plan));
+			}
+		}
+	}
+
+	/**
+	 * Find the preset a state is on
+	 * @return which one, or -1 if it's not on any
+	 */
+	public int indexOf(SuperStructureState state) {
+		double height = state.getElevatorHeight().getInch();
+		double elbow = state.getElbowAngle().getDegree();
+		double wrist = state.getWristAngle().getDegree();
+		for (int i = 0; i < presets.length; i++) {
+			var preset = presets[i];
+			if (Math.abs(preset.getElevatorHeight().getInch() - height) < kElevatorTolerance
+					&& Math.abs(preset.getElbowAngle().getDegree() - elbow) < kAngleTolerance
+					&& Math.abs(preset.getWristAngle().getDegree() - wrist) < kAngleTolerance)
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Get the plan between two presets
+	 * @param start from indexOf
+	 * @param goal from indexOf
+	 */
+	public List<SuperStructureState> getPlan(int start, int goal) {
+		return plans.get(start * presets.length + goal);
+	}
+
+	/**
+	 * Get the states to go through from one state to another, ending at the goal. Looked up if
+	 * both are on presets, otherwise planned now.
+	 * @param goalIndex the goal's preset from indexOf, or -1 to plan it live
+	 * @return empty if there's no way there
+	 */
+	public List<SuperStructureState> getPlan(SuperStructureState start, SuperStructureState goal, int goalIndex) {
+		int startIndex = goalIndex < 0 ? -1 : indexOf(start);
+		if (startIndex >= 0) {
+			hits++;
+			lastGoalSafed = safed[startIndex * presets.length + goalIndex];
+			return getPlan(startIndex, goalIndex);
+		}
+		misses++;
+		var planner = SuperstructurePlanner.getInstance();
+		synchronized (planner) {
+			var plan = planner.plan(start, goal);
+			lastGoalSafed = planner.isGoalSafed();
+			return plan;
+		}
+	}
+
+	/**
+	 * Get if the last getPlan's goal was blocked, so the plan ends somewhere safe short of it
+	 * instead. Same as SuperstructurePlanner.isGoalSafed, but works for looked up plans too.
+	 */
+	public boolean isGoalSafed() {
+		return lastGoalSafed;
+	}
+
+	/**
+	 * Get the states to go through from one state to another, ending at the goal. Looked up if
+	 * both are on presets, otherwise planned now.
+	 * @return empty if there's no way there
+	 */
+	public List<SuperStructureState> getPlan(SuperStructureState start, SuperStructureState goal) {
+		return getPlan(start, goal, indexOf(goal));
+	}
+
+	public SuperStructureState getPreset(int index) {
+		return presets[index];
+	}
+
+	public int getPresetCount() {
+		return presets.length;
+	}
+
+	/**
+	 * Get how many plans got looked up
+	 */
+	public int getHits() {
+		return hits;
+	}
+
+	/**
+	 * Get how many plans didn't start on a preset, so got planned live
+	 */
+	public int getMisses() {
+		return misses;
+	}
+
+}
@@ -0,0 +1,697 @@
+package frc.robot.planners;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.ghrobotics.lib.mathematics.units.LengthKt;
+
+import frc.robot.SuperStructureConstants;
+import frc.robot.lib.Logger;
+import frc.robot.lib.obj.RoundRotation2d;
+import frc.robot.states.ElevatorState;
+import frc.robot.states.IntakeAngle;
+import frc.robot.states.SuperStructureState;
+
+/**
+ * Plans superstructure moves in configuration space, (elevator height, elbow angle, wrist angle),
+ * instead of working out crashes joint point by joint point every time.
+ *
+ * At startup every cell of a grid over the three joints gets checked against the geometry in
+ * SuperStructureConstants (the electronics plate inside the frame perimeter, and the crossbar
+ * just behind the carriage) and packed into a bitset. Planning is A* over the free cells, moving
+ * one joint a step at a time, and then the path gets pulled straight wherever nothing's in the
+ * way, so what's left is a few waypoints where all the joints move together.
+ *
+ * Every step costs the same no matter which joint moves, which is about right at these step
+ * sizes since the elevator, elbow and wrist each take about as long to cross their grid. The
+ * obstacles get padded by how far anything can move in half a step on every joint at once, so
+ * nothing in between free cells can clip anything.
+ *
+ * Going over the crossbar is a long way around, which the straight line distance doesn't know
+ * about, so A* also gets a lower bound from the distances to a few landmark cells (worked out
+ * at startup). That keeps it from searching the whole front of the robot before it goes up.
+ *
+ * Presets right up against the electronics plate land in blocked cells. Like the old planner,
+ * starts in there get out by moving just the elevator, to the nearest free cell above them. Goals
+ * only get gone into that way if they're on kSafeBlockedGoals, hand tuned spots that have been run
+ * on the robot. Any other blocked goal gets safed to the nearest free cell in its column instead.
+ */
+public class SuperstructurePlanner {
+
+	public static final double kHeightStep = 1; // inches
+	public static final double kElbowStep = 3; // degrees
+	public static final double kWristStep = 5; // degrees
+	private static final int kLandmarks = 4;
+	// how much more to trust the estimate than the steps so far. Paths come out at most this many times longer than
+	// the shortest, and they're mostly getting pulled straight after anyway, but it searches a lot less.
+	private static final int kWeight = 3;
+
+	// anything past this is behind the carriage, in inches
+	private static final double kBehind = -1e-6;
+	// the electronics plate goes all the way back, and down as far as matters
+	private static final double kFarBack = -1000, kFarDown = -1000;
+
+	/**
+	 * Height, elbow and wrist of presets that land in blocked cells (the padding's a bit much for
+	 * them) but have been run on the robot plenty, so it's fine to go straight up or down into them
+	 */
+	private static final double[][] kSafeBlockedGoals = {
+			{ 13.25, -44, -20 }, // iPosition.CARGO_GRAB, where OI grabs cargo
+			{ 3.5, -44, -20 }, // iPosition.CARGO_GRAB all the way down
+			{ 5, -193, -112 }, // PresetPlanTable.kPassThroughBack, the end of PassThrough.FrontToBack
+	};
+
+	private static SuperstructurePlanner instance_;
+
+	/**
+	 * Get the planner. The first call builds the grid, which takes a bit, so do it at init.
+	 */
+	public static synchronized SuperstructurePlanner getInstance() {
+		if (instance_ == null) {
+			instance_ = new SuperstructurePlanner();
+		}
+		return instance_;
+	}
+
+	private final double minHeight, minElbow, minWrist;
+	private final double maxHeight, maxElbow, maxWrist;
+	// the grid has a blocked cell on each side past the limits, so neighbours never need bounds checks
+	private final int heights, elbows, wrists, cells, heightStride;
+	private final double clearance;
+	private final long[] occupied;
+	// free cells that can get to each other, the biggest bunch of them. The rest are pockets the arm can't plan out of.
+	private final long[] connected;
+	// steps from each landmark to each cell, a cell's kLandmarks distances next to each other
+	private final short[] landmarkDistance;
+
+	// every way to move one joint a step, as an index offset and as (height, elbow, wrist) steps
+	private final int[] neighbours = new int[6], neighbourHeight = new int[6], neighbourElbow = new int[6], neighbourWrist = new int[6];
+
+	// search state, reused every plan. A cell's g and parent only count if its stamp is this search's.
+	private int search = 0;
+	private final int[] stamp, closed, g, parent, heapIndex;
+	private final int[] heap, heapKey;
+	private int heapSize = 0;
+	private int expanded = 0;
+	private int goalH, goalE, goalW, goalCell;
+
+	private final int[] safeBlockedGoals;
+
+	// the last plan: cells to go through, then the exact goal
+	private final int[] path;
+	private int waypoints = 0;
+	private double goalHeight, goalElbow, goalWrist;
+	private boolean goalSafed = false;
+
+	/**
+	 * Build the grid from SuperStructureConstants
+	 */
+	public SuperstructurePlanner() {
+		minHeight = SuperStructureConstants.Elevator.bottom.getInch();
+		maxHeight = SuperStructureConstants.Elevator.top.getInch();
+		minElbow = SuperStructureConstants.Elbow.kElbowMin.getDegree();
+		maxElbow = SuperStructureConstants.Elbow.kElbowMax.getDegree();
+		minWrist = SuperStructureConstants.Wrist.kWristMin.getDegree();
+		maxWrist = SuperStructureConstants.Wrist.kWristMax.getDegree();
+		heights = (int) Math.floor((maxHeight - minHeight) / kHeightStep) + 1;
+		elbows = (int) Math.floor((maxElbow - minElbow) / kElbowStep) + 1;
+		wrists = (int) Math.floor((maxWrist - minWrist) / kWristStep) + 1;
+		heightStride = (elbows + 2) * (wrists + 2);
+		cells = (heights + 2) * heightStride;
+
+		int n = 0;
+		for (int dh = -1; dh <= 1; dh++) {
+			for (int de = -1; de <= 1; de++) {
+				for (int dw = -1; dw <= 1; dw++) {
+					if (Math.abs(dh) + Math.abs(de) + Math.abs(dw) != 1)
+						continue;
+					neighbours[n] = dh * heightStride + de * (wrists + 2) + dw;
+					neighbourHeight[n] = dh;
+					neighbourElbow[n] = de;
+					neighbourWrist[n] = dw;
+					n++;
+				}
+			}
+		}
+
+		stamp = new int[cells];
+		closed = new int[cells];
+		g = new int[cells];
+		parent = new int[cells];
+		heapIndex = new int[cells];
+		heap = new int[cells];
+		heapKey = new int[cells];
+		path = new int[cells];
+
+		double proximal = SuperStructureConstants.Elbow.carriageToIntake.getInch();
+		double intake = SuperStructureConstants.Wrist.intakeOut.getInch();
+		// the end of the intake swings proximal + half of intake per elbow radian, since the wrist's angle is half relative to the elbow
+		clearance = kHeightStep / 2 + (proximal + intake / 2) * Math.toRadians(kElbowStep) / 2 + intake * Math.toRadians(kWristStep) / 2;
+
+		occupied = new long[(cells + 63) / 64];
+		connected = new long[occupied.length];
+		landmarkDistance = new short[cells * kLandmarks];
+		fillOccupied(proximal, intake);
+		fillConnected();
+		fillLandmarks();
+
+		safeBlockedGoals = new int[kSafeBlockedGoals.length];
+		for (int i = 0; i < kSafeBlockedGoals.length; i++)
+			safeBlockedGoals[i] = toCell(kSafeBlockedGoals[i][0], kSafeBlockedGoals[i][1], kSafeBlockedGoals[i][2]);
+	}
+
+	/**
+	 * Get the absolute angle of the wrist, since the wrist encoder (and the presets) are half relative to the elbow
+	 */
+	public static double getAbsoluteWrist(double wrist, double elbow) {
+		return wrist + elbow / 2;
+	}
+
+	private void fillOccupied(double proximal, double intake) {
+		double electronicsTop = SuperStructureConstants.Elevator.electronicsHeight.getInch() + clearance;
+		double framePerimeter = SuperStructureConstants.kCarriageToFramePerimeter.getInch() + clearance;
+		double crossbarBottom = SuperStructureConstants.Elevator.crossbarBottom.getInch() - clearance;
+		double crossbarTop = SuperStructureConstants.Elevator.crossbarBottom.plus(SuperStructureConstants.Elevator.crossbarWidth).getInch() + clearance;
+		double crossbarBack = -SuperStructureConstants.Elevator.crossbarDepth.getInch() - clearance;
+		double intakeAbove = SuperStructureConstants.Wrist.intakeAbove.getInch();
+
+		for (int cell = 0; cell < cells; cell++) {
+			int h = getHeightIndex(cell), e = getElbowIndex(cell), w = getWristIndex(cell);
+			if (h < 0 || h >= heights || e < 0 || e >= elbows || w < 0 || w >= wrists) {
+				setBit(occupied, cell);
+				continue;
+			}
+			double elbow = Math.toRadians(minElbow + e * kElbowStep);
+			double wrist = Math.toRadians(getAbsoluteWrist(minWrist + w * kWristStep, minElbow + e * kElbowStep));
+			// the arm's points, from the elbow pivot on the carriage
+			double pivotY = minHeight + h * kHeightStep;
+			double wristX = proximal * Math.cos(elbow), wristY = pivotY + proximal * Math.sin(elbow);
+			double endX = wristX + intake * Math.cos(wrist), endY = wristY + intake * Math.sin(wrist);
+			double bottomY = endY - intakeAbove;
+
+			// the pivot itself rides the elevator, so it's only the arm past it that can hit anything
+			boolean hit = false;
+			// electronics plate, everywhere inside the frame perimeter
+			hit |= hits(0, pivotY, wristX, wristY, kFarBack, framePerimeter, kFarDown, electronicsTop, true);
+			hit |= hits(wristX, wristY, endX, endY, kFarBack, framePerimeter, kFarDown, electronicsTop, false);
+			hit |= hits(endX, endY, endX, bottomY, kFarBack, framePerimeter, kFarDown, electronicsTop, false);
+			// crossbar, just behind the carriage. Straight down is fine.
+			hit |= hits(0, pivotY, wristX, wristY, crossbarBack, kBehind, crossbarBottom, crossbarTop, true);
+			hit |= hits(wristX, wristY, endX, endY, crossbarBack, kBehind, crossbarBottom, crossbarTop, false);
+			hit |= hits(endX, endY, endX, bottomY, crossbarBack, kBehind, crossbarBottom, crossbarTop, false);
+			if (hit)
+				setBit(occupied, cell);
+		}
+	}
+
+	/**
+	 * Check if a segment goes through a box, by clipping it to each side of the box in turn (Liang-Barsky)
+	 * @param fromPivot to not count the segment's start touching the box, only it going in
+	 */
+	static boolean hits(double x0, double y0, double x1, double y1, double minX, double maxX, double minY, double maxY, boolean fromPivot) {
+		// how far along the segment (0 to 1) it's inside the box
+		double enter = 0, leave = 1;
+		double dx = x1 - x0, dy = y1 - y0;
+		if (dx == 0) {
+			if (x0 < minX || x0 > maxX)
+				return false;
+		} else {
+			double a = (minX - x0) / dx, b = (maxX - x0) / dx;
+			enter = Math.max(enter, Math.min(a, b));
+			leave = Math.min(leave, Math.max(a, b));
+		}
+		if (dy == 0) {
+			if (y0 < minY || y0 > maxY)
+				return false;
+		} else {
+			double a = (minY - y0) / dy, b = (maxY - y0) / dy;
+			enter = Math.max(enter, Math.min(a, b));
+			leave = Math.min(leave, Math.max(a, b));
+		}
+		return enter <= leave && (!fromPivot || leave > 1e-9);
+	}
+
+	/**
+	 * Flood fill every bunch of free cells, and keep the biggest
+	 */
+	private void fillConnected() {
+		// parent holds which bunch a cell's in for now, and heap is the flood's queue
+		var label = parent;
+		Arrays.fill(label, -1);
+		int biggest = -1, biggestSize = 0;
+		for (int seed = 0, next = 0; seed < cells; seed++) {
+			if (isOccupied(seed) || label[seed] >= 0)
+				continue;
+			int head = 0, tail = 0;
+			heap[tail++] = seed;
+			label[seed] = next;
+			while (head < tail) {
+				int cell = heap[head++];
+				for (int n = 0; n < 6; n++) {
+					int neighbour = cell + neighbours[n];
+					if (label[neighbour] < 0 && !isOccupied(neighbour)) {
+						label[neighbour] = next;
+						heap[tail++] = neighbour;
+					}
+				}
+			}
+			if (tail > biggestSize) {
+				biggest = next;
+				biggestSize = tail;
+			}
+			next++;
+		}
+		for (int cell = 0; cell < cells; cell++) {
+			if (label[cell] == biggest)
+				setBit(connected, cell);
+		}
+	}
+
+	/**
+	 * Pick landmarks spread out as far from each other as they go (each one the farthest cell from
+	 * the ones before), and work out how many steps every connected cell is from each
+	 */
+	private void fillLandmarks() {
+		int first = 0;
+		while (!isConnected(first))
+			first++;
+		var distance = new short[cells];
+		int landmark = farthest(first, distance);
+		for (int i = 0; i < kLandmarks; i++) {
+			farthest(landmark, distance);
+			// next is the farthest from all of them so far, not just this one
+			int bestDistance = -1;
+			for (int cell = 0; cell < cells; cell++) {
+				if (!isConnected(cell))
+					continue;
+				landmarkDistance[cell * kLandmarks + i] = distance[cell];
+				int nearest = Integer.MAX_VALUE;
+				for (int j = 0; j <= i; j++)
+					nearest = Math.min(nearest, landmarkDistance[cell * kLandmarks + j]);
+				if (nearest > bestDistance) {
+					landmark = cell;
+					bestDistance = nearest;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Breadth first search over the connected cells
+	 * @param distance filled in with how many steps each cell is from the start
+	 * @return the farthest cell
+	 */
+	private int farthest(int start, short[] distance) {
+		Arrays.fill(distance, Short.MAX_VALUE);
+		int head = 0, tail = 0;
+		heap[tail++] = start;
+		distance[start] = 0;
+		while (head < tail) {
+			int cell = heap[head++];
+			for (int n = 0; n < 6; n++) {
+				int neighbour = cell + neighbours[n];
+				if (distance[neighbour] == Short.MAX_VALUE && isConnected(neighbour)) {
+					distance[neighbour] = (short) (distance[cell] + 1);
+					heap[tail++] = neighbour;
+				}
+			}
+		}
+		return heap[tail - 1];
+	}
+
+	private static void setBit(long[] bits, int cell) {
+		bits[cell >>> 6] |= 1L << cell;
+	}
+
+	private boolean isOccupied(int cell) {
+		return (occupied[cell >>> 6] & (1L << cell)) != 0;
+	}
+
+	private boolean isConnected(int cell) {
+		return (connected[cell >>> 6] & (1L << cell)) != 0;
+	}
+
+	private int index(int h, int e, int w) {
+		return (h + 1) * heightStride + (e + 1) * (wrists + 2) + w + 1;
+	}
+
+	private int getHeightIndex(int cell) {
+		return cell / heightStride - 1;
+	}
+
+	private int getElbowIndex(int cell) {
+		return cell % heightStride / (wrists + 2) - 1;
+	}
+
+	private int getWristIndex(int cell) {
+		return cell % (wrists + 2) - 1;
+	}
+
+	private int toCell(double height, double elbow, double wrist) {
+		return index(toIndex(height, minHeight, maxHeight, kHeightStep, heights),
+				toIndex(elbow, minElbow, maxElbow, kElbowStep, elbows),
+				toIndex(wrist, minWrist, maxWrist, kWristStep, wrists));
+	}
+
+	/**
+	 * Round to the nearest step, without rounding the top limit up past the last step
+	 */
+	private static int toIndex(double value, double min, double max, double step, int count) {
+		return Math.min(count - 1, (int) Math.round((clamp(value, min, max) - min) / step));
+	}
+
+	private static double clamp(double value, double min, double max) {
+		return Math.max(min, Math.min(max, value));
+	}
+
+	/**
+	 * Check if the superstructure would hit something, rounded to the grid
+	 * @param height elevator, in inches
+	 * @param elbow in degrees
+	 * @param wrist in degrees, the way the wrist encoder sees it
+	 */
+	public boolean isOccupied(double height, double elbow, double wrist) {
+		return isOccupied(toCell(height, elbow, wrist));
+	}
+
+	/**
+	 * Find the nearest connected cell in the same elevator column, trying up first
+	 * @return the cell, or -1 if there isn't one
+	 */
+	private int escape(int cell) {
+		if (isConnected(cell))
+			return cell;
+		for (int up = cell + heightStride; up < cells; up += heightStride) {
+			if (isConnected(up))
+				return up;
+		}
+		for (int down = cell - heightStride; down >= 0; down -= heightStride) {
+			if (isConnected(down))
+				return down;
+		}
+		return -1;
+	}
+
+	private boolean isSafeBlockedGoal(int cell) {
+		for (int safe : safeBlockedGoals) {
+			if (safe == cell)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Plan a move. Anything past a joint's limits gets clamped to it, like the old planner's safing,
+	 * and so does a goal that's blocked (unless it's on kSafeBlockedGoals), to the nearest free cell
+	 * in its column. Read the answer back with getWaypointCount and the waypoint getters.
+	 * @param startHeight elevator, in inches
+	 * @param startElbow in degrees
+	 * @param startWrist in degrees, the way the wrist encoder sees it
+	 * @return if there's a collision free way there
+	 */
+	public synchronized boolean plan(double startHeight, double startElbow, double startWrist, double goalHeight, double goalElbow, double goalWrist) {
+		waypoints = 0;
+		expanded = 0;
+		goalSafed = false;
+		this.goalHeight = clamp(goalHeight, minHeight, maxHeight);
+		this.goalElbow = clamp(goalElbow, minElbow, maxElbow);
+		this.goalWrist = clamp(goalWrist, minWrist, maxWrist);
+
+		int startCell = toCell(startHeight, startElbow, startWrist);
+		int goalCell = toCell(goalHeight, goalElbow, goalWrist);
+		int from = escape(startCell), to = escape(goalCell);
+		if (from < 0 || to < 0)
+			return false;
+		// only go up or down into a goal the arm can't plan into if it's known to be fine, otherwise stop short
+		if (to != goalCell && !isSafeBlockedGoal(goalCell)) {
+			goalCell = to;
+			this.goalHeight = minHeight + getHeightIndex(to) * kHeightStep;
+			goalSafed = true;
+		}
+
+		if (from != startCell)
+			path[waypoints++] = from;
+		// nothing in the way, no need to search
+		if (isClear(from, to)) {
+			if (to != goalCell)
+				path[waypoints++] = to;
+			path[waypoints++] = goalCell;
+			return true;
+		}
+		if (!search(from, to))
+			return false;
+
+		// walk back from the goal, then flip it around
+		int first = waypoints;
+		for (int cell = to; cell != from; cell = parent[cell])
+			path[waypoints++] = cell;
+		for (int i = first, j = waypoints - 1; i < j; i++, j--) {
+			int swap = path[i];
+			path[i] = path[j];
+			path[j] = swap;
+		}
+
+		// pull it straight: go as far along the path as there's a clear line to, then go from there
+		int kept = first, anchor = from;
+		for (int i = first; i < waypoints; i++) {
+			if (!isClear(anchor, path[i])) {
+				anchor = path[i - 1];
+				path[kept++] = anchor;
+			}
+		}
+		waypoints = kept;
+		// then straight up or down into a safe blocked goal
+		if (to != from && to != goalCell)
+			path[waypoints++] = to;
+		// and the goal, exactly
+		path[waypoints++] = goalCell;
+		return true;
+	}
+
+	/**
+	 * Check every cell the straight line between two cells goes through, stepping one joint at a
+	 * time to whichever cell it gets to next. Everywhere on the line is then within half a step of
+	 * a free cell, the same as moving between neighbours.
+	 */
+	private boolean isClear(int from, int to) {
+		int dh = getHeightIndex(to) - getHeightIndex(from), de = getElbowIndex(to) - getElbowIndex(from), dw = getWristIndex(to) - getWristIndex(from);
+		int stepH = dh < 0 ? -heightStride : heightStride, stepE = de < 0 ? -(wrists + 2) : wrists + 2, stepW = dw < 0 ? -1 : 1;
+		dh = Math.abs(dh);
+		de = Math.abs(de);
+		dw = Math.abs(dw);
+		// the line leaves a cell halfway to the next one, so it crosses into the (n+1)th cell on an axis (2n + 1) / 2d of the way along
+		int h = 0, e = 0, w = 0;
+		int cell = from;
+		while (h < dh || e < de || w < dw) {
+			boolean beforeE = e == de || (2 * h + 1) * de <= (2 * e + 1) * dh;
+			boolean beforeW = w == dw || (2 * h + 1) * dw <= (2 * w + 1) * dh;
+			if (h < dh && beforeE && beforeW) {
+				h++;
+				cell += stepH;
+			} else if (e < de && (w == dw || (2 * e + 1) * dw <= (2 * w + 1) * de)) {
+				e++;
+				cell += stepE;
+			} else {
+				w++;
+				cell += stepW;
+			}
+			if (isOccupied(cell))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * A* from one connected cell to another
+	 */
+	private boolean search(int from, int to) {
+		search++;
+		heapSize = 0;
+		goalCell = to;
+		goalH = getHeightIndex(to);
+		goalE = getElbowIndex(to);
+		goalW = getWristIndex(to);
+
+		stamp[from] = search;
+		g[from] = 0;
+		push(from, kWeight * estimate(from, getHeightIndex(from), getElbowIndex(from), getWristIndex(from)), 0);
+		while (heapSize > 0) {
+			int cell = pop();
+			if (cell == to)
+				return true;
+			closed[cell] = search;
+			expanded++;
+
+			int nextG = g[cell] + 1;
+			int h = getHeightIndex(cell), e = getElbowIndex(cell), w = getWristIndex(cell);
+			for (int n = 0; n < 6; n++) {
+				int next = cell + neighbours[n];
+				if (closed[next] == search || isOccupied(next))
+					continue;
+				if (stamp[next] != search) {
+					stamp[next] = search;
+					g[next] = nextG;
+					parent[next] = cell;
+					push(next, nextG + kWeight * estimate(next, h + neighbourHeight[n], e + neighbourElbow[n], w + neighbourWrist[n]), nextG);
+				} else if (nextG < g[next]) {
+					g[next] = nextG;
+					parent[next] = cell;
+					decrease(next, nextG + kWeight * estimate(next, h + neighbourHeight[n], e + neighbourElbow[n], w + neighbourWrist[n]), nextG);
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Steps to the goal at the very least: every joint's steps added up, or what the landmarks
+	 * say, whichever's more
+	 * @param h e w the cell's indices, passed in so they don't need working out again
+	 */
+	private int estimate(int cell, int h, int e, int w) {
+		int estimate = Math.abs(h - goalH) + Math.abs(e - goalE) + Math.abs(w - goalW);
+		for (int i = 0, c = cell * kLandmarks, goal = goalCell * kLandmarks; i < kLandmarks; i++)
+			estimate = Math.max(estimate, Math.abs(landmarkDistance[goal + i] - landmarkDistance[c + i]));
+		return estimate;
+	}
+
+	// ties go to whichever's gone further, so it doesn't spread out over all the equally short paths
+	private static int key(int f, int g) {
+		return (f << 12) | (4095 - Math.min(g, 4095));
+	}
+
+	private void push(int cell, int f, int g) {
+		heap[heapSize] = cell;
+		heapKey[heapSize] = key(f, g);
+		heapIndex[cell] = heapSize;
+		siftUp(heapSize++);
+	}
+
+	private void decrease(int cell, int f, int g) {
+		int i = heapIndex[cell];
+		heapKey[i] = key(f, g);
+		siftUp(i);
+	}
+
+	private int pop() {
+		int top = heap[0];
+		heapSize--;
+		if (heapSize > 0) {
+			move(heapSize, 0);
+			siftDown(0);
+		}
+		return top;
+	}
+
+	private void siftUp(int i) {
+		int cell = heap[i], key = heapKey[i];
+		while (i > 0) {
+			int up = (i - 1) / 2;
+			if (heapKey[up] <= key)
+				break;
+			move(up, i);
+			i = up;
+		}
+		heap[i] = cell;
+		heapKey[i] = key;
+		heapIndex[cell] = i;
+	}
+
+	private void siftDown(int i) {
+		int cell = heap[i], key = heapKey[i];
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= heapSize)
+				break;
+			if (child + 1 < heapSize && heapKey[child + 1] < heapKey[child])
+				child++;
+			if (heapKey[child] >= key)
+				break;
+			move(child, i);
+			i = child;
+		}
+		heap[i] = cell;
+		heapKey[i] = key;
+		heapIndex[cell] = i;
+	}
+
+	private void move(int from, int to) {
+		heap[to] = heap[from];
+		heapKey[to] = heapKey[from];
+		heapIndex[heap[to]] = to;
+	}
+
+	/**
+	 * Get how many waypoints the last plan has, the last one being the goal
+	 */
+	public int getWaypointCount() {
+		return waypoints;
+	}
+
+	/**
+	 * @return the elevator height, in inches
+	 */
+	public double getWaypointHeight(int i) {
+		return i == waypoints - 1 ? goalHeight : minHeight + getHeightIndex(path[i]) * kHeightStep;
+	}
+
+	/**
+	 * @return the elbow angle, in degrees
+	 */
+	public double getWaypointElbow(int i) {
+		return i == waypoints - 1 ? goalElbow : minElbow + getElbowIndex(path[i]) * kElbowStep;
+	}
+
+	/**
+	 * @return the wrist angle, in degrees, the way the wrist encoder sees it
+	 */
+	public double getWaypointWrist(int i) {
+		return i == waypoints - 1 ? goalWrist : minWrist + getWristIndex(path[i]) * kWristStep;
+	}
+
+	/**
+	 * Get if the last plan's goal was blocked, so it ends at the nearest free height instead
+	 */
+	public boolean isGoalSafed() {
+		return goalSafed;
+	}
+
+	/**
+	 * Get how many cells the last plan's search went through
+	 */
+	public int getExpanded() {
+		return expanded;
+	}
+
+	/**
+	 * Get how far the obstacles got padded, in inches
+	 */
+	public double getClearance() {
+		return clearance;
+	}
+
+	/**
+	 * Plan a move between two states
+	 * @return the states to go through in order, ending at the goal (with the goal's game piece), or empty if there's no way there
+	 */
+	public List<SuperStructureState> plan(SuperStructureState start, SuperStructureState goal) {
+		var states = new ArrayList<SuperStructureState>();
+		synchronized (this) {
+			if (!plan(start.getElevatorHeight().getInch(), start.getElbowAngle().getDegree(), start.getWristAngle().getDegree(),
+					goal.getElevatorHeight().getInch(), goal.getElbowAngle().getDegree(), goal.getWristAngle().getDegree())) {
+				Logger.log("No collision free way from " + start + " to " + goal);
+				return states;
+			}
+			if (goalSafed)
+				Logger.log("Goal " + goal + " would hit something, stopping at " + getWaypointHeight(waypoints - 1) + " inches instead");
+			for (int i = 0; i < waypoints; i++) {
+				states.add(new SuperStructureState(new ElevatorState(LengthKt.getInch(getWaypointHeight(i))),
+						new IntakeAngle(RoundRotation2d.getDegree(getWaypointElbow(i)), RoundRotation2d.getDegree(getWaypointWrist(i))),
+						goal.getHeldPiece()));
+			}
+		}
+		return states;
+	}
+
+}
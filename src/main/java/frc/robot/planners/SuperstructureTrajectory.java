@@ -0,0 +1,104 @@
+package frc.robot.planners;
+
+import com.ctre.phoenix.motion.TrajectoryPoint;
+
+import frc.robot.lib.motion.MotionProfileFeeder;
+
+/**
+ * A timed move of all three superstructure joints, one primitive array per joint per column,
+ * sampled every dt so it can go straight into a Talon's motion profile buffer. Heights are in
+ * inches and angles in degrees, the same as SuperStructureState.
+ *
+ * Make these with TrajectoryPlanner.
+ */
+public class SuperstructureTrajectory {
+
+	private final double dt;
+	private final double[] t;
+	// [joint][point], joints indexed by TrajectoryPlanner.kElevator, kElbow and kWrist
+	private final double[][] position, velocity, acceleration;
+
+	public SuperstructureTrajectory(double dt, double[] t, double[][] position, double[][] velocity, double[][] acceleration) {
+		int length = t.length;
+		if (length == 0)
+			throw new IllegalArgumentException("A trajectory needs at least one point!");
+		if (position.length != TrajectoryPlanner.kJoints || velocity.length != TrajectoryPlanner.kJoints || acceleration.length != TrajectoryPlanner.kJoints)
+			throw new IllegalArgumentException("A superstructure trajectory needs a column for every joint!");
+		for (int joint = 0; joint < TrajectoryPlanner.kJoints; joint++) {
+			if (position[joint].length != length || velocity[joint].length != length || acceleration[joint].length != length)
+				throw new IllegalArgumentException("Every column of a trajectory needs the same number of points!");
+		}
+		this.dt = dt;
+		this.t = t;
+		this.position = position;
+		this.velocity = velocity;
+		this.acceleration = acceleration;
+	}
+
+	public int size() {
+		return t.length;
+	}
+
+	/**
+	 * Get how long each point lasts, in seconds
+	 */
+	public double getDt() {
+		return dt;
+	}
+
+	public double getDuration() {
+		return t[t.length - 1];
+	}
+
+	public double getTime(int index) {
+		return t[index];
+	}
+
+	public double getPosition(int joint, int index) {
+		return position[joint][index];
+	}
+
+	public double getVelocity(int joint, int index) {
+		return velocity[joint][index];
+	}
+
+	public double getAcceleration(int joint, int index) {
+		return acceleration[joint][index];
+	}
+
+	/**
+	 * Get the last point at or before a time since the start, clamped to the ends
+	 */
+	public int indexAt(double time) {
+		if (!(time > 0))
+			return 0;
+		return (int) Math.min(t.length - 1, Math.floor(time / dt));
+	}
+
+	/**
+	 * Stream one joint into a Talon with a MotionProfileFeeder, at getDt() per point.
+	 * SuperStructure.startTrajectory does this for all three joints.
+	 * @param joint TrajectoryPlanner.kElevator, kElbow or kWrist
+	 * @param nativeUnitsPerUnit sensor ticks per inch or per degree
+	 * @param profileSlot the Talon's gains slot to follow it with
+	 */
+	public MotionProfileFeeder.PointSource getPointSource(int joint, double nativeUnitsPerUnit, int profileSlot) {
+		double[] position = this.position[joint], velocity = this.velocity[joint];
+		return new MotionProfileFeeder.PointSource() {
+			@Override
+			public int size() {
+				return position.length;
+			}
+
+			@Override
+			public void fill(TrajectoryPoint point, int index) {
+				point.position = position[index] * nativeUnitsPerUnit;
+				point.velocity = velocity[index] * nativeUnitsPerUnit / 10; // per second -> per 100ms
+				point.headingDeg = 0;
+				point.profileSlotSelect0 = profileSlot;
+				point.zeroPos = false; // the positions are absolute, so don't let the first point zero the sensor
+			}
+		};
+	}
+
+}
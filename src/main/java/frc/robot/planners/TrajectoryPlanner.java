@@ -1,27 +1,201 @@
 package frc.robot.planners;
 
-import frc.robot.lib.Path;
+import java.util.List;
 
+import com.team254.lib.physics.DCMotorTransmission;
+
+import frc.robot.Constants;
+import frc.robot.states.SuperStructureState;
+
+/**
+ * Puts times on a path through the superstructure's C-space (from SuperstructurePlanner or
+ * PresetPlanTable) so that all three joints move together. Each straight bit between waypoints
+ * gets the fastest trapezoid that keeps every joint inside its limits. The slowest joint sets
+ * the pace, so every joint starts and arrives at the same time and the arm stays on the line
+ * the planner checked for collisions.
+ *
+ * It stops at every waypoint. That's as fast as a path with corners can go without cutting
+ * them, and the planner smooths out most of the corners anyway.
+ */
 public class TrajectoryPlanner {
 
-	protected static double maxV;
-	protected static double epsiWeight;
-	protected static double maxVOffWeight;
-	protected static double deltaWeight;
-	protected static double accelWeight;
-	protected static double deltaAccelWeight;
-	protected static double deltaDeltaWeight;
-	protected Path path;
-
-	public TrajectoryPlanner(Path path) {
-		this.path = path;
-		/*
-		  this should do the following:
-		  1. take an input of (1) maximum/minimum angles, (2) maximum/minimum heights, (3) how stuff should be weighted, (4) the desired Path
-		  2. Somehow convert it into a kinematic model
-		a. This is gonna be a ton of math because its up-down-angle-angle as opposed to back-forwards-left-right
+	public static final int kElevator = 0, kElbow = 1, kWrist = 2;
+	public static final int kJoints = 3;
+
+	/** How long each point lasts, the shortest a Talon motion profile point can be */
+	public static final double kDefaultDt = 0.01; // seconds
+
+	/** How much of the voltage left over after gravity goes to going fast. The rest is kept for accelerating at that speed. */
+	public static final double kVelocityFraction = 0.75;
+
+	/**
+	 * How fast one joint can go, in inches or degrees
+	 */
+	public static class JointLimits {
+		public final double maxVelocity; // per second
+		public final double maxAcceleration; // per second squared
+
+		public JointLimits(double maxVelocity, double maxAcceleration) {
+			if (!(maxVelocity > 0) || !(maxAcceleration > 0))
+				throw new IllegalArgumentException("A joint needs to be able to move!");
+			this.maxVelocity = maxVelocity;
+			this.maxAcceleration = maxAcceleration;
+		}
+
+		/**
+		 * Work out a rotating joint's limits from its motor model. It's as fast as it can go while
+		 * holding up the worst case gravity torque and still having the torque to accelerate at
+		 * that speed, which is where back EMF leaves it the least.
+		 * @param transmission the joint's motor model
+		 * @param gravityTorque with the arm sticking straight out, in newton meters
+		 * @param inertia about the joint, in kg m^2
+		 * @param voltage to plan with, less than the battery's so feedback has room
+		 * @param maxVelocity degrees per second to never go over, whatever the model says
+		 * @param maxAcceleration degrees per second squared to never go over
 		 */
+		public static JointLimits fromTransmission(DCMotorTransmission transmission, double gravityTorque, double inertia, double voltage,
+				double maxVelocity, double maxAcceleration) {
+			double headroom = voltage - transmission.getFrictionVoltage() - gravityTorque / transmission.getTorquePerVolt();
+			if (!(headroom > 0))
+				throw new IllegalArgumentException("The joint can't hold itself up with " + voltage + " volts!");
+			double velocity = transmission.getSpeedPerVolt() * headroom * kVelocityFraction; // rad/s
+			double acceleration = transmission.getTorquePerVolt() * headroom * (1 - kVelocityFraction) / inertia; // rad/s^2
+			return new JointLimits(Math.min(maxVelocity, Math.toDegrees(velocity)), Math.min(maxAcceleration, Math.toDegrees(acceleration)));
+		}
+	}
+
+	private static TrajectoryPlanner instance_;
+
+	/**
+	 * Get the planner with the limits from Constants
+	 */
+	public static synchronized TrajectoryPlanner getInstance() {
+		if (instance_ == null) {
+			double wristMass = Constants.kWristMass.getKilogram(), wristLength = Constants.kWristLength.getMeter();
+			double elbowMass = Constants.kElbowMass.getKilogram(), elbowLength = Constants.kElbowLength.getMeter();
+			// the elbow carries the wrist, which is about twice as far out as the elbow's own COM
+			double elbowGravity = (elbowMass * elbowLength + wristMass * elbowLength * 2) * 9.8;
+			double elbowInertia = elbowMass * elbowLength * elbowLength + wristMass * Math.pow(elbowLength * 2, 2);
+			instance_ = new TrajectoryPlanner(
+					new JointLimits(Constants.kElevatorMaxVelocity, Constants.kElevatorMaxAcceleration),
+					JointLimits.fromTransmission(
+							new DCMotorTransmission(Constants.kElbowSpeedPerVolt, Constants.kElbowTorquePerVolt, Constants.kElbowStaticFrictionVoltage),
+							elbowGravity, elbowInertia, Constants.kSuperstructureTrajectoryVoltage,
+							Constants.kElbowMaxVelocity, Constants.kElbowMaxAcceleration),
+					JointLimits.fromTransmission(
+							new DCMotorTransmission(Constants.kWristSpeedPerVolt, Constants.kWristTorquePerVolt, Constants.kWristStaticFrictionVoltage),
+							wristMass * wristLength * 9.8, wristMass * wristLength * wristLength, Constants.kSuperstructureTrajectoryVoltage,
+							Constants.kWristMaxVelocity, Constants.kWristMaxAcceleration),
+					kDefaultDt);
+		}
+		return instance_;
+	}
+
+	private final JointLimits[] limits;
+	private final double dt;
+
+	public TrajectoryPlanner(JointLimits elevator, JointLimits elbow, JointLimits wrist, double dt) {
+		if (!(dt > 0))
+			throw new IllegalArgumentException("Points need to last some time!");
+		this.limits = new JointLimits[] { elevator, elbow, wrist };
+		this.dt = dt;
+	}
+
+	public JointLimits getLimits(int joint) {
+		return limits[joint];
+	}
+
+	/**
+	 * Time a path that starts where the superstructure is now
+	 * @param start where the superstructure is
+	 * @param waypoints to go through, like from PresetPlanTable, ending at the goal
+	 */
+	public SuperstructureTrajectory generate(SuperStructureState start, List<SuperStructureState> waypoints) {
+		int count = waypoints.size() + 1;
+		double[] height = new double[count], elbow = new double[count], wrist = new double[count];
+		for (int i = 0; i < count; i++) {
+			var state = i == 0 ? start : waypoints.get(i - 1);
+			height[i] = state.getElevatorHeight().getInch();
+			elbow[i] = state.getElbowAngle().getDegree();
+			wrist[i] = state.getWristAngle().getDegree();
+		}
+		return generate(height, elbow, wrist, count);
+	}
+
+	/**
+	 * Time a path. This allocates the trajectory, so do it before the control loop starts.
+	 * @param height of each waypoint, in inches, the first being where it starts
+	 * @param elbow of each waypoint, in degrees
+	 * @param wrist of each waypoint, in degrees
+	 * @param count how many waypoints there are
+	 */
+	public SuperstructureTrajectory generate(double[] height, double[] elbow, double[] wrist, int count) {
+		if (count < 1)
+			throw new IllegalArgumentException("A path needs somewhere to start!");
+		double[][] waypoints = { height, elbow, wrist };
+
+		// each segment runs s from 0 to 1, as fast as the most limited joint lets it
+		double[] segmentVelocity = new double[count], segmentAcceleration = new double[count], segmentEnd = new double[count];
+		double duration = 0;
+		for (int i = 0; i + 1 < count; i++) {
+			double velocity = Double.POSITIVE_INFINITY, acceleration = Double.POSITIVE_INFINITY;
+			for (int joint = 0; joint < kJoints; joint++) {
+				double delta = Math.abs(waypoints[joint][i + 1] - waypoints[joint][i]);
+				if (delta > 0) {
+					velocity = Math.min(velocity, limits[joint].maxVelocity / delta);
+					acceleration = Math.min(acceleration, limits[joint].maxAcceleration / delta);
+				}
+			}
+			if (velocity != Double.POSITIVE_INFINITY) {
+				// triangle if it can't get up to speed by halfway
+				velocity = Math.min(velocity, Math.sqrt(acceleration));
+				duration += velocity / acceleration + 1 / velocity;
+			}
+			segmentVelocity[i] = velocity;
+			segmentAcceleration[i] = acceleration;
+			segmentEnd[i] = duration;
+		}
+
+		int length = (int) Math.ceil(duration / dt - 1e-9) + 1;
+		double[] t = new double[length];
+		double[][] position = new double[kJoints][length], velocity = new double[kJoints][length], acceleration = new double[kJoints][length];
+		int segment = 0;
+		double segmentStart = 0;
+		for (int p = 0; p < length; p++) {
+			double time = Math.min(p * dt, duration);
+			while (segment + 1 < count && (time > segmentEnd[segment] || segmentVelocity[segment] == Double.POSITIVE_INFINITY)) {
+				segmentStart = segmentEnd[segment];
+				segment++;
+			}
+			t[p] = time;
 
+			double s = 1, ds = 0, dds = 0;
+			if (segment + 1 < count) {
+				double tau = time - segmentStart, top = segmentVelocity[segment], accel = segmentAcceleration[segment];
+				double rampTime = top / accel, total = segmentEnd[segment] - segmentStart;
+				if (tau < rampTime) {
+					s = 0.5 * accel * tau * tau;
+					ds = accel * tau;
+					dds = accel;
+				} else if (tau <= total - rampTime) {
+					s = 0.5 * top * rampTime + top * (tau - rampTime);
+					ds = top;
+				} else {
+					double left = Math.max(0, total - tau);
+					s = 1 - 0.5 * accel * left * left;
+					ds = accel * left;
+					dds = left > 0 ? -accel : 0;
+				}
+			}
+			int from = Math.min(segment, count - 1), to = Math.min(segment + 1, count - 1);
+			for (int joint = 0; joint < kJoints; joint++) {
+				double delta = waypoints[joint][to] - waypoints[joint][from];
+				position[joint][p] = waypoints[joint][from] + delta * s;
+				velocity[joint][p] = delta * ds;
+				acceleration[joint][p] = delta * dds;
+			}
+		}
+		return new SuperstructureTrajectory(dt, t, position, velocity, acceleration);
 	}
 
 }
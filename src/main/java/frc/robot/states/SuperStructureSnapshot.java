@@ -0,0 +1,104 @@
+package frc.robot.states;
+
+import org.ghrobotics.lib.mathematics.units.LengthKt;
+import org.ghrobotics.lib.mathematics.units.derivedunits.VelocityKt;
+
+import frc.robot.lib.obj.AngularVelocity;
+import frc.robot.lib.obj.RoundRotation2d;
+import frc.robot.lib.statemachines.AutoMotionStateMachine.HeldPiece;
+import frc.robot.subsystems.superstructure.RotatingJoint.RotatingArmState;
+
+/**
+ * The superstructure's readings for one loop as primitives, filled in place so there's nothing
+ * to allocate. SuperStructure keeps two and swaps between them every loop, so hand out
+ * SuperStructureView rather than this.
+ */
+public class SuperStructureSnapshot implements SuperStructureView {
+
+	private double time, height, heightVelocity, elbow, elbowVelocity, wrist, wristVelocity;
+	private long sequence = -1;
+	private HeldPiece heldPiece = HeldPiece.NONE;
+
+	/**
+	 * Fill in this loop's readings
+	 * @param height inches
+	 * @param heightVelocity inches per second
+	 * @param elbow degrees
+	 * @param elbowVelocity degrees per second
+	 * @param wrist sensor angle, degrees
+	 * @param wristVelocity degrees per second
+	 */
+	public void set(long sequence, double time, double height, double heightVelocity, double elbow, double elbowVelocity, double wrist,
+			double wristVelocity, HeldPiece heldPiece) {
+		this.sequence = sequence;
+		this.time = time;
+		this.height = height;
+		this.heightVelocity = heightVelocity;
+		this.elbow = elbow;
+		this.elbowVelocity = elbowVelocity;
+		this.wrist = wrist;
+		this.wristVelocity = wristVelocity;
+		this.heldPiece = heldPiece;
+	}
+
+	public void copyFrom(SuperStructureView other) {
+		set(other.getSequence(), other.getTime(), other.getHeight(), other.getHeightVelocity(), other.getElbow(), other.getElbowVelocity(),
+				other.getWrist(), other.getWristVelocity(), other.getHeldPiece());
+	}
+
+	/**
+	 * Make a SuperStructureState out of a view, for the code that still wants one. This allocates.
+	 */
+	public static SuperStructureState toState(SuperStructureView view) {
+		return new SuperStructureState(new ElevatorState(LengthKt.getInch(view.getHeight()), VelocityKt.getVelocity(LengthKt.getInch(view.getHeightVelocity()))),
+				new IntakeAngle(new RotatingArmState(RoundRotation2d.getDegree(view.getElbow()), new AngularVelocity(RoundRotation2d.getDegree(view.getElbowVelocity()))),
+						new RotatingArmState(RoundRotation2d.getDegree(view.getWrist()), new AngularVelocity(RoundRotation2d.getDegree(view.getWristVelocity())))),
+				view.getHeldPiece());
+	}
+
+	@Override
+	public double getTime() {
+		return time;
+	}
+
+	@Override
+	public long getSequence() {
+		return sequence;
+	}
+
+	@Override
+	public double getHeight() {
+		return height;
+	}
+
+	@Override
+	public double getHeightVelocity() {
+		return heightVelocity;
+	}
+
+	@Override
+	public double getElbow() {
+		return elbow;
+	}
+
+	@Override
+	public double getElbowVelocity() {
+		return elbowVelocity;
+	}
+
+	@Override
+	public double getWrist() {
+		return wrist;
+	}
+
+	@Override
+	public double getWristVelocity() {
+		return wristVelocity;
+	}
+
+	@Override
+	public HeldPiece getHeldPiece() {
+		return heldPiece;
+	}
+
+}
@@ -115,8 +115,10 @@ public class SuperStructureState implements Loggable {
 
 	@Override
 	public String toCSV() {
-		return Math.round(elevator.getHeight().getInch() * 100) / 100 + "," + Math.round(jointAngles.getElbow().angle.getDegree() * 100) / 100 + ","
-				+ Math.round(jointAngles.getWrist().angle.getDegree() * 100) / 100 + "," + piece.name();
+		return new StringBuilder(32).append(Math.round(elevator.getHeight().getInch() * 100) / 100.0).append(',')
+				.append(Math.round(jointAngles.getElbow().angle.getDegree() * 100) / 100.0).append(',')
+				.append(Math.round(jointAngles.getWrist().angle.getDegree() * 100) / 100.0).append(',')
+				.append(piece.name()).toString();
 	}
 
 }
@@ -0,0 +1,35 @@
+package frc.robot.states;
+
+import frc.robot.lib.statemachines.AutoMotionStateMachine.HeldPiece;
+
+/**
+ * A read only look at where the superstructure is, all in plain numbers so reading it doesn't
+ * make any objects. Heights are in inches and angles in degrees, the same as SuperStructureState,
+ * so the wrist is its sensor angle.
+ */
+public interface SuperStructureView {
+
+	/** When the readings were taken, in seconds */
+	public double getTime();
+
+	/** Which loop the readings are from, counting up by one every capture */
+	public long getSequence();
+
+	public double getHeight();
+
+	/** In inches per second */
+	public double getHeightVelocity();
+
+	public double getElbow();
+
+	/** In degrees per second */
+	public double getElbowVelocity();
+
+	public double getWrist();
+
+	/** In degrees per second */
+	public double getWristVelocity();
+
+	public HeldPiece getHeldPiece();
+
+}
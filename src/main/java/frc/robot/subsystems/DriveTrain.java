@@ -2,6 +2,7 @@ package frc.robot.subsystems;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.ghrobotics.lib.localization.Localization;
 import org.ghrobotics.lib.localization.TankEncoderLocalization;
@@ -15,6 +16,7 @@ import org.ghrobotics.lib.mathematics.twodim.trajectory.types.TimedTrajectory;
 import org.ghrobotics.lib.mathematics.units.Length;
 import org.ghrobotics.lib.mathematics.units.Rotation2dKt;
 import org.ghrobotics.lib.mathematics.units.derivedunits.Velocity;
+import org.ghrobotics.lib.mathematics.units.nativeunits.NativeUnitKt;
 import org.ghrobotics.lib.subsystems.drive.DifferentialTrackerDriveBase;
 import org.ghrobotics.lib.wrappers.ctre.FalconSRX;
 
@@ -25,8 +27,8 @@ import com.kauailabs.navx.frc.AHRS;
 import com.team254.lib.physics.DifferentialDrive;
 import com.team254.lib.physics.DifferentialDrive.ChassisState;
 
-import edu.wpi.first.wpilibj.Notifier;
 import edu.wpi.first.wpilibj.SPI;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.command.Command;
 import edu.wpi.first.wpilibj.command.CommandGroup;
 import edu.wpi.first.wpilibj.command.Subsystem;
@@ -36,9 +38,23 @@ import frc.robot.Robot;
 import frc.robot.RobotConfig;
 import frc.robot.commands.subsystems.drivetrain.SetGearCommand;
 import frc.robot.commands.subsystems.drivetrain.TrajectoryTrackerCommand;
+import frc.robot.lib.ArcOdometry;
+import frc.robot.lib.CANSnapshot;
+import frc.robot.lib.ControlLoop;
+import frc.robot.lib.ControlLoop.Phase;
 import frc.robot.lib.LoggableSubsystem;
-import frc.robot.lib.Logger;
+import frc.robot.lib.LoopTimer;
+import frc.robot.lib.TalonSnapshot;
+import frc.robot.lib.logging.TelemetryTable;
+import frc.robot.lib.logging.TelemetryTable.DoubleChannel;
 import frc.robot.lib.enums.TransmissionSide;
+import frc.robot.lib.motion.DriveDynamicsSolver;
+import frc.robot.lib.motion.PoseHistory;
+import frc.robot.lib.motion.PrimitiveFeedForwardTracker;
+import frc.robot.lib.motion.PrimitivePurePursuitTracker;
+import frc.robot.lib.motion.PrimitiveRamseteTracker;
+import frc.robot.lib.motion.PrimitiveTrajectoryTracker;
+import frc.robot.lib.motion.TeleopDriveController;
 import frc.robot.lib.motion.Util;
 import frc.robot.lib.obj.DriveSignal;
 import frc.robot.subsystems.superstructure.SuperStructure;
@@ -59,7 +75,8 @@ public class DriveTrain extends Subsystem implements DifferentialTrackerDriveBas
 
 	private static DriveTrain instance;
 
-	public List<Double> lastCommandedVoltages;
+	/** Left then right, in volts. Overwritten in place every loop. */
+	public final double[] lastCommandedVoltages = new double[2];
 	public List<Double> lastFeetPerSecond = Arrays.asList(0d, 0d);
 
 	public AHRS gyro = new AHRS(SPI.Port.kMXP);
@@ -79,6 +96,10 @@ public class DriveTrain extends Subsystem implements DifferentialTrackerDriveBas
 	private FeedForwardTracker feedForwardTracker;
 	private PurePursuitTracker purePursuitTracker;
 
+	private PrimitiveRamseteTracker primitiveRamseteTracker;
+	private PrimitiveFeedForwardTracker primitiveFeedForwardTracker;
+	private PrimitivePurePursuitTracker primitivePurePursuitTracker;
+
 	public static enum Gear {
 		LOW, HIGH;
 	}
@@ -89,7 +110,32 @@ public class DriveTrain extends Subsystem implements DifferentialTrackerDriveBas
 		return mCurrentGear;
 	}
 
-	Notifier localizationNotifier; // TODO maybe make me do stuff?
+	private static final double kLocalizationPeriod = 0.01; // seconds
+	private static final double kOdometryPeriod = 0.005; // seconds, 200hz
+
+	private final ArcOdometry odometry;
+	// read in the sense phase, integrated in the estimate phase, same thread
+	private int odometryLeftTicks, odometryRightTicks;
+	private double odometryGyroAngle;
+	/** 256 poses is 1.28 seconds at the odometry rate */
+	private final PoseHistory poseHistory = new PoseHistory(256);
+	/** Set when the pose gets reset, so the odometry task knows to reset itself and clear the history */
+	private final AtomicReference<Pose2d> pendingOdometryReset = new AtomicReference<>();
+
+	/**
+	 * Get the last second or so of robot poses from the arc odometry, for lining up latent measurements
+	 * (like vision) with where the robot was
+	 */
+	public PoseHistory getPoseHistory() {
+		return poseHistory;
+	}
+
+	/**
+	 * Get the newest pose from the arc odometry, or null if it hasn't run yet
+	 */
+	public Pose2d getOdometryPose() {
+		return poseHistory.getPose(Double.POSITIVE_INFINITY);
+	}
 
 	public static enum TrajectoryTrackerMode {
 		RAMSETE, PUREPURSUIT, FEEDFORWARD, PID
@@ -104,10 +150,24 @@ public class DriveTrain extends Subsystem implements DifferentialTrackerDriveBas
 	// private DCMotorTransmission mLeftTransmissionModel, mRightTransmissionModel;
 	private DifferentialDrive lowGearDifferentialDrive, highGearDifferentialDrive;
 	private Transmission leftTransmission, rightTransmission;
+	private final double leftMetersPerTick, rightMetersPerTick;
+	private final TeleopDriveController teleopDrive;
+	private final DriveDynamicsSolver lowGearDynamics, highGearDynamics;
 
 	private TrajectoryTrackerMode kDefaulTrajectoryTrackerMode = TrajectoryTrackerMode.RAMSETE;
 
+	private final DoubleChannel busVoltageChannel, forwardCommandChannel, turnCommandChannel, leftVoltageChannel, rightVoltageChannel;
+	private final TalonSnapshot leftSnapshot, rightSnapshot;
+
 	private DriveTrain() {
+		var telemetry = TelemetryTable.getInstance();
+		busVoltageChannel = telemetry.addDouble("Bus voltage");
+		forwardCommandChannel = telemetry.addDouble("Forward joystick command");
+		turnCommandChannel = telemetry.addDouble("Turn joystick command");
+		leftVoltageChannel = telemetry.addDouble("Left talon output voltage");
+		rightVoltageChannel = telemetry.addDouble("Right talon output voltage");
+
+
 		leftTransmission = new Transmission(RobotConfig.driveTrain.leftTalons.m_left_talon_port,
 				RobotConfig.driveTrain.leftTalons.s_left_talon_port, Transmission.EncoderMode.CTRE_MagEncoder_Relative,
 				TransmissionSide.LEFT, true);
@@ -115,6 +175,10 @@ public class DriveTrain extends Subsystem implements DifferentialTrackerDriveBas
 				RobotConfig.driveTrain.rightTalons.s_right_talon_port, Transmission.EncoderMode.CTRE_MagEncoder_Relative,
 				TransmissionSide.RIGHT, false);
 
+		// only what logPeriodicIO needs, the encoders get read fresh by the odometry task
+		leftSnapshot = CANSnapshot.getInstance().register(getLeftMotor(), TalonSnapshot.kBusVoltage | TalonSnapshot.kOutputVoltage);
+		rightSnapshot = CANSnapshot.getInstance().register(getRightMotor(), TalonSnapshot.kOutputVoltage);
+
 		/* Create a localization object because lamda expressions are fun */
 		localization = new TankEncoderLocalization(() -> Rotation2dKt.getDegree(getGyro(true)),
 				() -> getLeft().getDistance(), () -> getRight().getDistance());
@@ -124,22 +188,34 @@ public class DriveTrain extends Subsystem implements DifferentialTrackerDriveBas
 		lowGearDifferentialDrive = Constants.kHighGearDifferentialDrive;
 		highGearDifferentialDrive = Constants.kLowGearDifferentialDrive;
 
+		leftMetersPerTick = metersPerTick(leftTransmission);
+		rightMetersPerTick = metersPerTick(rightTransmission);
+		// teleop and trajectory following each get their own, since they keep their answers
+		teleopDrive = new TeleopDriveController(new DriveDynamicsSolver(lowGearDifferentialDrive), new DriveDynamicsSolver(highGearDifferentialDrive),
+				this::setWheelOutputs);
+		lowGearDynamics = new DriveDynamicsSolver(lowGearDifferentialDrive);
+		highGearDynamics = new DriveDynamicsSolver(highGearDifferentialDrive);
+
 		ramseteTracker = new RamseteTracker(Constants.kDriveBeta, Constants.kDriveZeta);
 		purePursuitTracker = new PurePursuitTracker(Constants.kLat, Constants.kLookaheadTime,
 				Constants.kMinLookaheadDistance);
 		feedForwardTracker = new FeedForwardTracker();
 
-		localizationNotifier = new Notifier(() -> {
-			this.getLocalization().update();
-		});
-		localizationNotifier.startPeriodic(0.01);
+		primitiveRamseteTracker = new PrimitiveRamseteTracker(Constants.kDriveBeta, Constants.kDriveZeta);
+		primitivePurePursuitTracker = new PrimitivePurePursuitTracker(Constants.kLat, Constants.kLookaheadTime.getValue(),
+				Constants.kMinLookaheadDistance.getValue());
+		primitiveFeedForwardTracker = new PrimitiveFeedForwardTracker();
+
+		odometry = new ArcOdometry(metersPerTick(leftTransmission), metersPerTick(rightTransmission), Constants.kTrackWidth, true);
+
+		var loop = ControlLoop.getInstance();
+		loop.add("Odometry sensors", Phase.SENSE, this::readOdometrySensors, kOdometryPeriod);
+		loop.add("Odometry", Phase.ESTIMATE, this::updateOdometry, kOdometryPeriod);
+		loop.add("Localization", Phase.ESTIMATE, () -> getLocalization().update(), kLocalizationPeriod);
 
 	}
 
 	public DifferentialDrive getDifferentialDrive() {
-		// String mes = (mCurrentGear == Gear.LOW) ? "lowGearDifferentialDrive" : "highGearDifferentialDrive"; 
-		SmartDashboard.putString("current drive model", (mCurrentGear == Gear.LOW) ? "lowGearDifferentialDrive" : "highGearDifferentialDrive");
-
 		return (mCurrentGear == Gear.LOW) ? lowGearDifferentialDrive : highGearDifferentialDrive;
 	}
 
@@ -190,6 +266,29 @@ public class DriveTrain extends Subsystem implements DifferentialTrackerDriveBas
 		}
 	}
 
+	public PrimitiveTrajectoryTracker getPrimitiveTracker() {
+		return getPrimitiveTracker(kDefaulTrajectoryTrackerMode);
+	}
+
+	/**
+	 * Get one of our own trackers, which do the same thing as the FalconLibrary ones without allocating every loop
+	 * @throws IllegalArgumentException for PID, there isn't a PID tracker
+	 */
+	public PrimitiveTrajectoryTracker getPrimitiveTracker(TrajectoryTrackerMode mode) {
+		switch (mode) {
+		case RAMSETE:
+			return primitiveRamseteTracker;
+		case FEEDFORWARD:
+			return primitiveFeedForwardTracker;
+		case PUREPURSUIT:
+			return primitivePurePursuitTracker;
+		case PID:
+			throw new IllegalArgumentException("There's no PID trajectory tracker! Use RAMSETE, PUREPURSUIT or FEEDFORWARD");
+		default:
+			return primitiveRamseteTracker;
+		}
+	}
+
 	public void init() {
 		zeroEncoders();
 		setHighGear();
@@ -207,6 +306,7 @@ public class DriveTrain extends Subsystem implements DifferentialTrackerDriveBas
 		// Trigger solenoids
 		Robot.drivetrain_shift_high();
 		mCurrentGear = Gear.HIGH;
+		SmartDashboard.putString("current drive model", "highGearDifferentialDrive");
 	}
 
 	public void setLowGear() {
@@ -221,6 +321,7 @@ public class DriveTrain extends Subsystem implements DifferentialTrackerDriveBas
 		// Trigger solenoids
 		Robot.drivetrain_shift_low();
 		mCurrentGear = Gear.LOW;
+		SmartDashboard.putString("current drive model", "lowGearDifferentialDrive");
 	}
 
 	public void setGear(Gear gear) {
@@ -348,8 +449,33 @@ public class DriveTrain extends Subsystem implements DifferentialTrackerDriveBas
 		return getLocalization().getRobotPosition();
 	}
 
+	private void readOdometrySensors() {
+		odometryLeftTicks = leftTransmission.getMaster().getSelectedSensorPosition(0);
+		odometryRightTicks = rightTransmission.getMaster().getSelectedSensorPosition(0);
+		odometryGyroAngle = gyro.isConnected() ? gyro.getAngle() : Double.NaN;
+	}
+
+	/**
+	 * Runs on the control loop, which is the only thing that touches the arc odometry and writes the pose history
+	 */
+	private void updateOdometry() {
+		var reset = pendingOdometryReset.getAndSet(null);
+		if (reset != null) {
+			odometry.reset(reset.getTranslation().getX().getValue(), reset.getTranslation().getY().getValue(), reset.getRotation().getValue());
+			poseHistory.clear();
+		}
+		odometry.update(odometryLeftTicks, odometryRightTicks, odometryGyroAngle);
+		poseHistory.add(Timer.getFPGATimestamp(), odometry.getX(), odometry.getY(), odometry.getHeading());
+	}
+
+	private static double metersPerTick(Transmission transmission) {
+		return transmission.getModel().fromNativeUnitPosition(NativeUnitKt.getNativeUnits(1)).getValue();
+	}
+
 	public void setRobotPosition(Pose2d pose2d) {
 		getLocalization().reset(pose2d);
+		pendingOdometryReset.set(pose2d);
+		PoseEstimator.getInstance().reset(pose2d);
 	}
 
 	public void arcadeDrive(double linear, double rotation) {
@@ -398,113 +524,47 @@ public class DriveTrain extends Subsystem implements DifferentialTrackerDriveBas
 		tankDrive(leftMotorOutput, rightMotorOutput);
 	}
 
+	/**
+	 * Drive with the joysticks using velocity closed loop and inverse dynamics feedforward.
+	 * Runs every loop without allocating, see TeleopDriveController.
+	 */
 	public void closedLoopArcadeDrive(double linearPercent, double rotationPercent, boolean squareInputs) {
-		linearPercent = Util.limit(linearPercent, 1);
-		linearPercent = Util.deadband(linearPercent, 0.07);
-
-		rotationPercent = Util.limit(rotationPercent, 1);
-		rotationPercent = Util.deadband(rotationPercent, 0.1);
-
-		// Square the inputs (while preserving the sign) to increase fine control
-		// while permitting full power.
-		if (squareInputs) {
-			linearPercent = Math.copySign(linearPercent * linearPercent, linearPercent);
-			rotationPercent = Math.copySign(rotationPercent * rotationPercent, rotationPercent);
-		}
-
-		double leftMotorOutput;
-		double rightMotorOutput;
-
-		double maxInput = Math.copySign(Math.max(Math.abs(linearPercent), Math.abs(rotationPercent)), linearPercent);
-
-		if (linearPercent >= 0.0) {
-			// First quadrant, else second quadrant
-			if (rotationPercent >= 0.0) {
-				leftMotorOutput = maxInput;
-				rightMotorOutput = linearPercent - rotationPercent;
-			} else {
-				leftMotorOutput = linearPercent + rotationPercent;
-				rightMotorOutput = maxInput;
-			}
-		} else {
-			// Third quadrant, else fourth quadrant
-			if (rotationPercent >= 0.0) {
-				leftMotorOutput = linearPercent + rotationPercent;
-				rightMotorOutput = maxInput;
-			} else {
-				leftMotorOutput = maxInput;
-				rightMotorOutput = linearPercent - rotationPercent;
-			}
-		}
-		// Logger.log("Linear input " + linearPercent + " turn input " +
-		// rotationPercent);
-		// Logger.log("left motor output " + leftMotorOutput + " right motor output " +
-		// rightMotorOutput);
-
-		var isHighGear = getCachedGear() == Gear.HIGH;
-
-		final double lowGearForward = Util.toMeters(7.5);
-		final double lowGearTurn = Util.toMeters(12);
-		final double highGearForward = Util.toMeters(11);
-		double highGearTurn = Util.toMeters(18);
-		final double maxAccelLinearLow = Util.toMeters(12);
-		final double maxAccelLinearHigh = Util.toMeters(18);
-		final double maxAccelAngularLow = Util.toMeters(12);
-		final double maxAccelAngularHigh = Util.toMeters(13);
-
-		double forwardSpeed = linearPercent * ((isHighGear) ? highGearForward : lowGearForward);
-		double turnSpeed = -1 * rotationPercent * ((isHighGear) ? highGearTurn : lowGearTurn);
-
-		// forwardSpeed = Util.limit(forwardSpeed, forwardSpeed-(maxAccelLinearLow * Robot.mPeriod), forwardSpeed+(maxAccelLinearLow * Robot.mPeriod))
-
-		ChassisState mVelocity = new ChassisState(forwardSpeed, turnSpeed);
 		if (isFirstRun) {
-			mCachedChassisState = new ChassisState();
+			teleopDrive.reset();
 			isFirstRun = false;
 		}
+		teleopDrive.update(linearPercent, rotationPercent, squareInputs, getCachedGear() == Gear.HIGH, Robot.mPeriod);
+	}
 
-		if (isHighGear) {
-			mVelocity.setLinear(Util.limit(mVelocity.getLinear(), mCachedChassisState.getLinear() - maxAccelLinearHigh / Robot.mPeriod,
-					mCachedChassisState.getLinear() + maxAccelLinearHigh / Robot.mPeriod));
-
-			if (mVelocity.getLinear() < Util.toMeters(5))
-				highGearTurn = Util.toMeters(12);
-
-			mVelocity.setAngular(Util.limit(mVelocity.getAngular(), mCachedChassisState.getAngular() - maxAccelAngularHigh / Robot.mPeriod,
-					mCachedChassisState.getAngular() + maxAccelAngularHigh / Robot.mPeriod));
-
-			mVelocity.setLinear(Util.limit(mVelocity.getLinear(), highGearForward));
-			mVelocity.setAngular(Util.limit(mVelocity.getAngular(), highGearTurn));
-		} else {
-			mVelocity.setLinear(Util.limit(mVelocity.getLinear(), mCachedChassisState.getLinear() - maxAccelLinearLow / Robot.mPeriod,
-					mCachedChassisState.getLinear() + maxAccelLinearLow / Robot.mPeriod));
-			mVelocity.setLinear(Util.limit(mVelocity.getLinear(), lowGearForward));
-			mVelocity.setAngular(Util.limit(mVelocity.getAngular(), lowGearTurn));
-		}
-
-		ChassisState mAcceleration = new ChassisState(
-				(mVelocity.getLinear() - mCachedChassisState.getLinear()) / Robot.mPeriod,
-				(mVelocity.getAngular() - mCachedChassisState.getAngular()) / Robot.mPeriod);
-
-		// System.out.println("mVelocity: " + mVelocity.getLinear() + " mAccel: " + mAcceleration.getLinear());
-
-		this.setOutputFromDynamics(mVelocity, mAcceleration);
-
-		mCachedChassisState = mVelocity;
-
-		// tankDrive(left/12, right/12);
-
-		// tankDrive(leftMotorOutput, rightMotorOutput);
-		// tankDrive(0.2, 0.2);
+	/**
+	 * Velocity closed loop with arbitrary feedforward, straight from m/s and volts
+	 */
+	private void setWheelOutputs(double leftSpeed, double rightSpeed, double leftVoltage, double rightVoltage) {
+		getLeftMotor().set(ControlMode.Velocity, leftSpeed / leftMetersPerTick / 10, DemandType.ArbitraryFeedForward, leftVoltage / 12);
+		getRightMotor().set(ControlMode.Velocity, rightSpeed / rightMetersPerTick / 10, DemandType.ArbitraryFeedForward, rightVoltage / 12);
+		lastCommandedVoltages[0] = leftVoltage;
+		lastCommandedVoltages[1] = rightVoltage;
 	}
 
-	private ChassisState mCachedChassisState;
 	public boolean isFirstRun = true;
 
+	/**
+	 * Same as FalconLibrary's, but without allocating a DriveDynamics every time. Only one
+	 * trajectory follower should be calling this at once.
+	 */
+	@Override
+	public void setOutputFromDynamics(ChassisState chassisVelocity, ChassisState chassisAcceleration) {
+		var dynamics = (mCurrentGear == Gear.LOW) ? lowGearDynamics : highGearDynamics;
+		dynamics.solve(chassisVelocity.getLinear(), chassisVelocity.getAngular(), chassisAcceleration.getLinear(), chassisAcceleration.getAngular());
+		setWheelOutputs(dynamics.getLeftSpeed(), dynamics.getRightSpeed(), dynamics.getLeftVoltage(), dynamics.getRightVoltage());
+	}
+
 	public class CurvatureDrive extends Command {
 
 		static final boolean squared = true;
 
+		private final LoopTimer.Section mExecuteTimer = LoopTimer.getInstance().section("CurvatureDrive execute", Robot.mPeriod);
+
 		public CurvatureDrive() {
 			requires(DriveTrain.getInstance());
 		}
@@ -512,14 +572,15 @@ public class DriveTrain extends Subsystem implements DifferentialTrackerDriveBas
 		@Override
 		protected void initialize() {
 			DriveTrain.getInstance().setNeutralMode(NeutralMode.Brake);
-			DriveTrain.getInstance().getLeft().getMaster().configClosedloopRamp(0.16);
-			DriveTrain.getInstance().getRight().getMaster().configClosedloopRamp(0.16);
-			DriveTrain.getInstance().getLeft().getMaster().configOpenloopRamp(0.16);
-			DriveTrain.getInstance().getRight().getMaster().configOpenloopRamp(0.16);
+			DriveTrain.getInstance().getLeft().getConfig().configClosedloopRamp(0.16);
+			DriveTrain.getInstance().getRight().getConfig().configClosedloopRamp(0.16);
+			DriveTrain.getInstance().getLeft().getConfig().configOpenloopRamp(0.16);
+			DriveTrain.getInstance().getRight().getConfig().configOpenloopRamp(0.16);
 		}
 
 		@Override
 		protected void execute() {
+			long start = mExecuteTimer.start();
 
 //			var isQuickTurn = Robot.m_oi.getPrimary().getRawButton(3);
 			var isQuickTurn = Robot.m_oi.getPrimary().getRawButton(6);
@@ -549,6 +610,7 @@ public class DriveTrain extends Subsystem implements DifferentialTrackerDriveBas
 				curvatureDrive(forwardSpeed * Math.abs(forwardSpeed), turnSpeed, true);
 			}
 
+			mExecuteTimer.stop(start);
 		}
 
 		@Override
@@ -638,7 +700,8 @@ public class DriveTrain extends Subsystem implements DifferentialTrackerDriveBas
 	}
 
 	public void tankDrive(double leftPercent, double rightPercent) {
-		lastCommandedVoltages = Arrays.asList(leftPercent * 12, rightPercent * 12);
+		lastCommandedVoltages[0] = leftPercent * 12;
+		lastCommandedVoltages[1] = rightPercent * 12;
 
 		// Logger.log("Left error: " + getLeft().getClosedLoopError().getFeet());
 		// Logger.log("Right error: " + getRight().getClosedLoopError().getFeet());
@@ -696,7 +759,7 @@ public class DriveTrain extends Subsystem implements DifferentialTrackerDriveBas
 			TrajectoryTrackerMode mode, boolean reset) {
 		// kDefaulTrajectoryTrackerMode = mode;
 		mCurrentGear = Robot.getDrivetrainGear();
-		return new TrajectoryTrackerCommand(this, getTrajectoryTracker(mode), () -> trajectory, reset);
+		return new TrajectoryTrackerCommand(this, getPrimitiveTracker(mode), () -> trajectory, reset);
 	}
 
 	/**
@@ -760,11 +823,11 @@ public class DriveTrain extends Subsystem implements DifferentialTrackerDriveBas
 
 	@Override
 	public void logPeriodicIO() {
-		Logger.log("Bus voltage", getLeftMotor().getBusVoltage());
-		Logger.log("Forward joystick command", Robot.m_oi.getForwardAxis());
-		Logger.log("Turn joystick command", Robot.m_oi.getTurnAxis());
-		Logger.log("Left talon output voltage", getLeftMotor().getMotorOutputVoltage());
-		Logger.log("Right talon output voltage", getRightMotor().getMotorOutputVoltage());
+		busVoltageChannel.set(leftSnapshot.getBusVoltage());
+		forwardCommandChannel.set(Robot.m_oi.getForwardAxis());
+		turnCommandChannel.set(Robot.m_oi.getTurnAxis());
+		leftVoltageChannel.set(leftSnapshot.getOutputVoltage());
+		rightVoltageChannel.set(rightSnapshot.getOutputVoltage());
 	}
 
 }
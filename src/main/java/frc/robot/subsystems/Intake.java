@@ -10,6 +10,8 @@ import edu.wpi.first.wpilibj.command.Subsystem;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import frc.robot.Robot;
 import frc.robot.commands.subsystems.superstructure.IntakeTelop;
+import frc.robot.lib.StatusFrameManager;
+import frc.robot.lib.StatusFrameProfile;
 
 /**
  * The intake subsystem. Contains method setSpeed, openClamp and closeClamp.
@@ -80,6 +82,9 @@ public class Intake extends Subsystem {
 		// talon.setName("Intake");
 		cargoTalon.configPeakOutputForward(.8);
 		cargoTalon.configPeakOutputReverse(-.8);
+
+		StatusFrameManager.getInstance().apply(cargoTalon, StatusFrameProfile.kOpenLoop);
+		StatusFrameManager.getInstance().apply(hatchTalon, StatusFrameProfile.kOpenLoop);
 	}
 
 	private Intake() {
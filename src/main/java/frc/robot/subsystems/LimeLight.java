@@ -13,6 +13,7 @@ import edu.wpi.first.networktables.EntryListenerFlags;
 import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTableEntry;
 import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.command.InstantCommand;
 import edu.wpi.first.wpilibj.command.Subsystem;
 import frc.robot.RobotConfig;
@@ -133,7 +134,22 @@ public class LimeLight extends Subsystem {
 	 * @param distanceToShiftBy how far to move everything up/right so it shows up on falcon dashboard
 	 */
 	public Pose2d getPose(double distanceToShiftBy) {
-		double[] camtran = NetworkTableInstance.getDefault().getTable("limelight").getEntry("camtran").getDoubleArray(new double[]{});
+		Pose2d mPoseToGoal = getTargetRelativePose(distanceToShiftBy);
+
+		System.out.println(Util.toString(mPoseToGoal));
+
+		return mPoseToGoal;
+	}
+
+	/**
+	 * Get the same pose as getPose without printing it, for things that run every loop
+	 * @param distanceToShiftBy how far to move everything up/right so it shows up on falcon dashboard
+	 * @return the pose, or null if camtran hasn't shown up yet
+	 */
+	public Pose2d getTargetRelativePose(double distanceToShiftBy) {
+		double[] camtran = table.getEntry("camtran").getDoubleArray(new double[]{});
+		if (camtran.length < 6)
+			return null;
 
 		// final double kOffset = 100;
 
@@ -143,11 +159,32 @@ public class LimeLight extends Subsystem {
 		// forward/backward motion, left/right motion
 		Translation2d mTranToGoal = new Translation2d(LengthKt.getInch((camtran[2]) + distanceToShiftBy), LengthKt.getInch((camtran[0] * -1) + distanceToShiftBy));
 		Rotation2d mRotToGoal = Rotation2dKt.getDegree(camtran[4] * 1);
-		Pose2d mPoseToGoal = new Pose2d(mTranToGoal, mRotToGoal);
+		return new Pose2d(mTranToGoal, mRotToGoal);
+	}
 
-		System.out.println(Util.toString(mPoseToGoal));
+	/**
+	 * Get when camtran last changed, in NetworkTables time. Only good for telling if there's a new frame.
+	 */
+	public long getLastCamtranChange() {
+		return table.getEntry("camtran").getLastChange();
+	}
 
-		return mPoseToGoal;
+	/**
+	 * Get the Pose2d of a vision target like getPose, but moved forward by however far the robot
+	 * has driven since the camera took the frame. The frame is from getPipelineLatency ago, so
+	 * look up where the robot was then in the drivetrain's pose history and add on the motion since.
+	 * @param distanceToShiftBy how far to move everything up/right so it shows up on falcon dashboard
+	 * @return the pose, or null if camtran hasn't shown up yet
+	 */
+	public Pose2d getLatencyCompensatedPose(double distanceToShiftBy) {
+		Pose2d measured = getTargetRelativePose(distanceToShiftBy);
+		if (measured == null)
+			return null;
+		double frameTime = Timer.getFPGATimestamp() - getPipelineLatency().getSecond();
+		Pose2d motion = DriveTrain.getInstance().getPoseHistory().getMotionSince(frameTime);
+		if (motion == null)
+			return measured;
+		return measured.plus(motion);
 	}
 
 	public enum PipelinePreset {
@@ -219,7 +256,7 @@ public class LimeLight extends Subsystem {
 	 * @return pipeline latency contribution in seconds
 	 */
 	public Time getPipelineLatency() {
-		return TimeUnitsKt.getMillisecond((table.getEntry("tl").getDouble(0) / 1000) + 11);
+		return TimeUnitsKt.getMillisecond(table.getEntry("tl").getDouble(0) + 11);
 	}
 
 	/**
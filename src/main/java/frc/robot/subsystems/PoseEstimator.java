@@ -0,0 +1,219 @@
+package frc.robot.subsystems;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.ghrobotics.lib.mathematics.twodim.geometry.Pose2d;
+import org.ghrobotics.lib.mathematics.twodim.geometry.Translation2d;
+import org.ghrobotics.lib.mathematics.units.LengthKt;
+import org.ghrobotics.lib.mathematics.units.Rotation2d;
+
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.command.Subsystem;
+import frc.robot.Constants;
+import frc.robot.Robot;
+import frc.robot.lib.ControlLoop;
+import frc.robot.lib.ControlLoop.Phase;
+import frc.robot.lib.LoggableSubsystem;
+import frc.robot.lib.LoopTimer;
+import frc.robot.lib.logging.TelemetryTable;
+import frc.robot.lib.logging.TelemetryTable.DoubleChannel;
+import frc.robot.lib.motion.PoseEstimatorReplay;
+import frc.robot.lib.motion.PoseHistory;
+import frc.robot.lib.motion.PoseKalmanFilter;
+
+/**
+ * Fuses the drivetrain encoders, the navX and the Limelight into one field relative pose with
+ * a PoseKalmanFilter, in the estimate phase of the ControlLoop. The Limelight is read in periodic()
+ * on the main thread and handed over, so the control loop never waits on NetworkTables. Dead
+ * reckoning (DriveTrain's localization) keeps working the same as before, this runs next to it.
+ *
+ * Vision only gets used while a target is set with setVisionTarget, since camtran is relative
+ * to the target and we need to know where on the field the target is to make it field relative.
+ *
+ * The sensor readings get logged to telemetry every loop, so a match can be run back through
+ * the filter later with PoseEstimatorReplay.
+ */
+public class PoseEstimator extends Subsystem implements LoggableSubsystem {
+
+	private static final double kPeriod = 0.01; // seconds
+
+	private static PoseEstimator instance;
+
+	public synchronized static PoseEstimator getInstance() {
+		if (instance == null)
+			instance = new PoseEstimator();
+		return instance;
+	}
+
+	private final PoseKalmanFilter filter;
+	private final PoseHistory history = new PoseHistory();
+
+	private volatile Pose2d visionTarget = null;
+	private long lastVisionFrame = 0; // only touched by the main thread
+
+	/**
+	 * A field relative pose from the Limelight, read on the main thread and handed to the estimate task
+	 */
+	private static class VisionSample {
+		final double time, x, y, heading;
+
+		VisionSample(double time, double x, double y, double heading) {
+			this.time = time;
+			this.x = x;
+			this.y = y;
+			this.heading = heading;
+		}
+	}
+
+	private final AtomicReference<VisionSample> pendingVision = new AtomicReference<>();
+	private final LoopTimer.Section periodicTimer = LoopTimer.getInstance().section("PoseEstimator periodic", Robot.mPeriod);
+
+	// the last readings that went into the filter, for telemetry
+	private double timestamp, leftDistance, rightDistance, gyroHeading;
+	private double visionTime = Double.NaN, visionX, visionY, visionHeading;
+
+	private final DoubleChannel timestampChannel, leftChannel, rightChannel, gyroChannel;
+	private final DoubleChannel visionTimeChannel, visionXChannel, visionYChannel, visionHeadingChannel;
+	private final DoubleChannel xChannel, yChannel, headingChannel;
+
+	private PoseEstimator() {
+		var telemetry = TelemetryTable.getInstance();
+		timestampChannel = telemetry.addDouble(PoseEstimatorReplay.kTimestampColumn);
+		leftChannel = telemetry.addDouble(PoseEstimatorReplay.kLeftColumn);
+		rightChannel = telemetry.addDouble(PoseEstimatorReplay.kRightColumn);
+		gyroChannel = telemetry.addDouble(PoseEstimatorReplay.kGyroColumn);
+		visionTimeChannel = telemetry.addDouble(PoseEstimatorReplay.kVisionTimeColumn);
+		visionXChannel = telemetry.addDouble(PoseEstimatorReplay.kVisionXColumn);
+		visionYChannel = telemetry.addDouble(PoseEstimatorReplay.kVisionYColumn);
+		visionHeadingChannel = telemetry.addDouble(PoseEstimatorReplay.kVisionHeadingColumn);
+		xChannel = telemetry.addDouble("Estimator x (m)");
+		yChannel = telemetry.addDouble("Estimator y (m)");
+		headingChannel = telemetry.addDouble("Estimator heading (rad)");
+
+		filter = new PoseKalmanFilter(Constants.kTrackWidth, Constants.kEstimatorWheelVariancePerMeter, Constants.kEstimatorGyroVariance,
+				Constants.kEstimatorVisionPositionVariance, Constants.kEstimatorVisionHeadingVariance);
+
+		ControlLoop.getInstance().add("Pose estimator", Phase.ESTIMATE, this::update, kPeriod);
+	}
+
+	/**
+	 * Read the Limelight on the main thread, since NetworkTables can take a bit and the estimate
+	 * task runs on the control loop. A new frame gets picked up by the next update.
+	 */
+	@Override
+	public void periodic() {
+		long start = periodicTimer.start();
+		checkForVision();
+		periodicTimer.stop(start);
+	}
+
+	private void checkForVision() {
+		var target = visionTarget;
+		var limelight = LimeLight.getInstance();
+		if (target == null || limelight.getTrackedTargets() < 1)
+			return;
+		long frame = limelight.getLastCamtranChange();
+		if (frame == lastVisionFrame)
+			return;
+		lastVisionFrame = frame;
+		// where the robot is relative to the target, so adding it to the target's field pose gets the robot's
+		var targetRelativePose = limelight.getTargetRelativePose(0);
+		if (targetRelativePose == null)
+			return;
+		var vision = target.plus(targetRelativePose);
+		pendingVision.set(new VisionSample(Timer.getFPGATimestamp() - limelight.getPipelineLatency().getSecond(),
+				vision.getTranslation().getX().getValue(), vision.getTranslation().getY().getValue(), vision.getRotation().getValue()));
+	}
+
+	private void update() {
+		var drive = DriveTrain.getInstance();
+		double now = Timer.getFPGATimestamp();
+		double left = drive.getLeft().getDistance().getValue();
+		double right = drive.getRight().getDistance().getValue();
+		double gyro = Math.toRadians(drive.getGyro(true));
+		var vision = pendingVision.getAndSet(null);
+
+		synchronized (this) {
+			filter.update(now, left, right, gyro);
+			timestamp = now;
+			leftDistance = left;
+			rightDistance = right;
+			gyroHeading = gyro;
+
+			if (vision != null) {
+				visionTime = vision.time;
+				visionX = vision.x;
+				visionY = vision.y;
+				visionHeading = vision.heading;
+				filter.addVisionMeasurement(visionTime, visionX, visionY, visionHeading);
+			}
+
+			history.add(now, filter.getX(), filter.getY(), filter.getHeading());
+		}
+	}
+
+	/**
+	 * Put the robot somewhere, like at the start of auto
+	 */
+	public synchronized void reset(Pose2d pose) {
+		filter.reset(pose.getTranslation().getX().getValue(), pose.getTranslation().getY().getValue(), pose.getRotation().getValue());
+		visionTime = Double.NaN;
+	}
+
+	/**
+	 * Start using vision, with the target we're looking at at this pose on the field. The Limelight's
+	 * camtran gets added on to this to get where the robot is.
+	 */
+	public void setVisionTarget(Pose2d targetFieldPose) {
+		visionTarget = targetFieldPose;
+	}
+
+	/**
+	 * Stop using vision, like when we're done looking at a target
+	 */
+	public void clearVisionTarget() {
+		visionTarget = null;
+		pendingVision.set(null);
+	}
+
+	/**
+	 * Get where the filter thinks the robot is
+	 */
+	public synchronized Pose2d getPose() {
+		return new Pose2d(new Translation2d(LengthKt.getMeter(filter.getX()), LengthKt.getMeter(filter.getY())), new Rotation2d(filter.getHeading()));
+	}
+
+	/**
+	 * Get the filter's covariance, row by row in the order x (m), y (m), heading (rad)
+	 * @param out 9 long array to put it in
+	 */
+	public synchronized void getCovariance(double[] out) {
+		filter.getCovariance(out);
+	}
+
+	/**
+	 * Get the last second or so of fused poses. Reading this doesn't need the estimator's lock.
+	 */
+	public PoseHistory getHistory() {
+		return history;
+	}
+
+	@Override
+	public synchronized void logPeriodicIO() {
+		timestampChannel.set(timestamp);
+		leftChannel.set(leftDistance);
+		rightChannel.set(rightDistance);
+		gyroChannel.set(gyroHeading);
+		visionTimeChannel.set(visionTime);
+		visionXChannel.set(visionX);
+		visionYChannel.set(visionY);
+		visionHeadingChannel.set(visionHeading);
+		xChannel.set(filter.getX());
+		yChannel.set(filter.getY());
+		headingChannel.set(filter.getHeading());
+	}
+
+	@Override
+	protected void initDefaultCommand() {}
+
+}
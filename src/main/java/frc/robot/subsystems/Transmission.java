@@ -17,9 +17,13 @@ import com.ctre.phoenix.motorcontrol.FeedbackDevice;
 import com.ctre.phoenix.motorcontrol.InvertType;
 import com.ctre.phoenix.motorcontrol.NeutralMode;
 import com.ctre.phoenix.motorcontrol.SensorTerm;
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
 
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import frc.robot.RobotConfig.driveTrain;
+import frc.robot.lib.StatusFrameManager;
+import frc.robot.lib.StatusFrameProfile;
+import frc.robot.lib.TalonConfigCache;
 import frc.robot.lib.enums.TransmissionSide;
 
 public class Transmission {
@@ -27,10 +31,15 @@ public class Transmission {
 		NONE, CTRE_MagEncoder_Relative;
 	}
 
+	/** The odometry reads the encoders every 5ms, so they need to come in that fast */
+	private static final StatusFrameProfile kMasterFrames = StatusFrameProfile.kMaster.withPeriod("Drive master", StatusFrameEnhanced.Status_2_Feedback0, 5);
+
 	private FalconSRX<Length> mMaster;
 
 	private FalconSRX<Length> mSlave;
 
+	private TalonConfigCache mConfig;
+
 	private TransmissionSide side;
 
 	NativeUnitLengthModel lengthModel = driveTrain.LEFT_NATIVE_UNIT_LENGTH_MODEL;
@@ -44,6 +53,7 @@ public class Transmission {
 
 		mMaster = new FalconSRX<Length>(masterPort, lengthModel, TimeUnitsKt.getMillisecond(10));
 		mSlave = new FalconSRX<Length>(slavePort, lengthModel, TimeUnitsKt.getMillisecond(10));
+		mConfig = new TalonConfigCache(mMaster);
 
 		this.side = side;
 
@@ -54,8 +64,8 @@ public class Transmission {
 		mSlave.set(ControlMode.Follower, mMaster.getDeviceID());
 		// Quadrature Encoder of current
 		// Talon
-		mMaster.configPeakOutputForward(+1.0, 30);
-		mMaster.configPeakOutputReverse(-1.0, 30);
+		mConfig.configPeakOutputForward(+1.0);
+		mConfig.configPeakOutputReverse(-1.0);
 
 		SmartDashboard.putBoolean("Is the " + side.toString() + " transmission inverted", isInverted);
 
@@ -70,12 +80,23 @@ public class Transmission {
 		mSlave.configVoltageCompSaturation(12);
 		mSlave.enableVoltageCompensation(true);
 		// }
+
+		StatusFrameManager.getInstance().apply(mMaster, kMasterFrames);
+		StatusFrameManager.getInstance().apply(mSlave, StatusFrameProfile.kFollower);
 	}
 
 	public FalconSRX<Length> getMaster() {
 		return mMaster;
 	}
 
+	/**
+	 * Get the master's config cache. Gains and ramps should go through this instead of the
+	 * talon, so setting them to what they already are doesn't block on the bus.
+	 */
+	public TalonConfigCache getConfig() {
+		return mConfig;
+	}
+
 	public List<FalconSRX<Length>> getAll() {
 		return Arrays.asList(
 				mMaster, mSlave);
@@ -123,13 +144,16 @@ public class Transmission {
 		getMaster().set(ControlMode.PercentOutput, 0);
 	}
 
+	/**
+	 * Set the gains in slot 0. Only the ones that changed get written, and not on this thread.
+	 */
 	public void setClosedLoopGains(double kp, double ki, double kd, double kf, double iZone, double maxIntegral) {
-		mMaster.config_kP(0, kp, 0);
-		mMaster.config_kI(0, ki, 0);
-		mMaster.config_kD(0, kd, 0);
-		mMaster.config_kF(0, kf, 0);
-		mMaster.config_IntegralZone(0, (int) Math.round(lengthModel.toNativeUnitPosition(LengthKt.getMeter(iZone)).getValue()), 30);
-		mMaster.configMaxIntegralAccumulator(0, maxIntegral, 0);
+		mConfig.config_kP(0, kp);
+		mConfig.config_kI(0, ki);
+		mConfig.config_kD(0, kd);
+		mConfig.config_kF(0, kf);
+		mConfig.config_IntegralZone(0, (int) Math.round(lengthModel.toNativeUnitPosition(LengthKt.getMeter(iZone)).getValue()));
+		mConfig.configMaxIntegralAccumulator(0, maxIntegral);
 	}
 
 }
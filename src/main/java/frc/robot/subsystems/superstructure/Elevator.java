@@ -27,9 +27,15 @@ import edu.wpi.first.wpilibj.DoubleSolenoid.Value;
 import frc.robot.Robot;
 import frc.robot.RobotConfig;
 import frc.robot.SuperStructureConstants;
+import frc.robot.lib.CANSnapshot;
 import frc.robot.lib.HalfBakedSubsystem;
 import frc.robot.lib.Logger;
+import frc.robot.lib.LoopTimer;
 import frc.robot.lib.PIDSettings;
+import frc.robot.lib.StatusFrameManager;
+import frc.robot.lib.StatusFrameProfile;
+import frc.robot.lib.TalonConfigCache;
+import frc.robot.lib.TalonSnapshot;
 import frc.robot.lib.motion.Util;
 import frc.robot.lib.obj.InvertSettings;
 import frc.robot.states.ElevatorState;
@@ -111,6 +117,8 @@ public class Elevator extends HalfBakedSubsystem {
 	}
 
 	private FalconSRX<Length> mMaster;
+	private TalonSnapshot mSnapshot;
+	private TalonConfigCache mConfig;
 
 	private FalconSRX<Length> mSlave1, mSlave2, mSlave3;
 
@@ -131,6 +139,7 @@ public class Elevator extends HalfBakedSubsystem {
 		mSlave1 = new FalconSRX<Length>(slavePort1, lengthModel, TimeUnitsKt.getMillisecond(10));
 		mSlave2 = new FalconSRX<Length>(slavePort2, lengthModel, TimeUnitsKt.getMillisecond(10));
 		mSlave3 = new FalconSRX<Length>(slavePort3, lengthModel, TimeUnitsKt.getMillisecond(10));
+		mConfig = new TalonConfigCache(mMaster);
 
 		if (mode == EncoderMode.CTRE_MagEncoder_Relative) {
 			mMaster.configSelectedFeedbackSensor(FeedbackDevice.CTRE_MagEncoder_Relative, 0, 30);
@@ -144,8 +153,8 @@ public class Elevator extends HalfBakedSubsystem {
 
 		// Quadrature Encoder of current
 		// Talon
-		mMaster.configPeakOutputForward(+0.3, 0);
-		mMaster.configPeakOutputReverse(-0.3, 0);
+		mConfig.configPeakOutputForward(+0.3);
+		mConfig.configPeakOutputReverse(-0.3);
 
 		mMaster.setSelectedSensorPosition(23000);
 
@@ -172,6 +181,14 @@ public class Elevator extends HalfBakedSubsystem {
 		getMaster().configReverseSoftLimitThreshold(1);
 		getMaster().configReverseSoftLimitEnable(true);
 
+		var frames = StatusFrameManager.getInstance();
+		frames.apply(mMaster, StatusFrameProfile.kMaster);
+		frames.apply(mSlave1, StatusFrameProfile.kFollower);
+		frames.apply(mSlave2, StatusFrameProfile.kFollower);
+		frames.apply(mSlave3, StatusFrameProfile.kFollower);
+
+		mSnapshot = CANSnapshot.getInstance().register(mMaster, TalonSnapshot.kMechanism);
+
 		mCurrentGear = kDefaultGear;
 		setGear(kDefaultGear); // set shifter and closed loop slot
 	}
@@ -183,14 +200,22 @@ public class Elevator extends HalfBakedSubsystem {
 	}
 
 	public void configMotionMagicGains(PIDSettings settings) {
-		getMaster().configMotionCruiseVelocity((int) settings.motionMagicCruiseVelocity);
-		getMaster().configMotionAcceleration((int) settings.motionMagicAccel);
+		mConfig.configMotionCruiseVelocity((int) settings.motionMagicCruiseVelocity);
+		mConfig.configMotionAcceleration((int) settings.motionMagicAccel);
 	}
 
 	public FalconSRX<Length> getMaster() {
 		return mMaster;
 	}
 
+	/**
+	 * Get the master's config cache. Gains should go through this instead of the talon,
+	 * so setting them to what they already are doesn't block on the bus.
+	 */
+	public TalonConfigCache getConfig() {
+		return mConfig;
+	}
+
 	public List<FalconSRX<Length>> getAll() {
 		return Arrays.asList(
 				mMaster//, mSlave1, mSlave2, mSlave3);
@@ -203,23 +228,37 @@ public class Elevator extends HalfBakedSubsystem {
 
 	public void setMotionMagicGains() {
 		// Elevator elev = SuperStructure.getElevator();
-		this.getMaster().configMotionAcceleration((int) (600 * 9 * 1.75));
-		this.getMaster().configMotionCruiseVelocity(4000); // about 3500 theoretical max
-		this.getMaster().configMotionSCurveStrength(0);
-		this.getMaster().config_kP(3, 0.45, 0);
-		this.getMaster().config_kI(3, 0.0, 0);
-		this.getMaster().config_kD(3, 4, 0);
-		this.getMaster().config_kF(3, 0.24 * (500 / 400), 0);
+		mConfig.configMotionAcceleration((int) (600 * 9 * 1.75));
+		mConfig.configMotionCruiseVelocity(4000); // about 3500 theoretical max
+		mConfig.configMotionSCurveStrength(0);
+		mConfig.config_kP(3, 0.45);
+		mConfig.config_kI(3, 0.0);
+		mConfig.config_kD(3, 4);
+		mConfig.config_kF(3, 0.24 * (500 / 400));
 		// this.getMaster().selectProfileSlot(3, 0);
 		// this.getMaster().configClosedloopRamp(0.1);
 	}
 
+	/**
+	 * Get the master talon's readings from the top of this loop
+	 */
+	public TalonSnapshot getSnapshot() {
+		return mSnapshot;
+	}
+
+	/**
+	 * Get the height of the elevator as of the top of this loop
+	 */
 	public Length getHeight() {
-		return mMaster.getSensorPosition();
+		return lengthModel.fromNativeUnitPosition(NativeUnitKt.getNativeUnits(mSnapshot.getPosition()));
 	}
 
+	/**
+	 * Get the velocity of the elevator as of the top of this loop
+	 */
 	public Velocity<Length> getVelocity() {
-		return mMaster.getSensorVelocity();
+		// ticks per 100ms, so 10x that is ticks per second
+		return VelocityKt.getVelocity(lengthModel.fromNativeUnitPosition(NativeUnitKt.getNativeUnits(mSnapshot.getVelocity() * 10.0)));
 	}
 
 	public void setGear(ElevatorGear req) {
@@ -270,14 +309,14 @@ public class Elevator extends HalfBakedSubsystem {
 
 	public void setClosedLoopGains(int slot, double kp, double ki, double kd, double kf, double iZone, double maxIntegral, double minOut, double maxOut) {
 		mMaster.selectProfileSlot(slot, 0);
-		mMaster.config_kP(slot, kp, 30);
-		mMaster.config_kI(slot, ki, 30);
-		mMaster.config_kD(slot, kd, 30);
-		mMaster.config_kF(slot, kf, 30);
-		mMaster.config_IntegralZone(slot, (int) Math.round(lengthModel.toNativeUnitPosition(LengthKt.getInch(iZone)).getValue()), 30);
-		mMaster.configMaxIntegralAccumulator(slot, maxIntegral, 0);
-		mMaster.configPeakOutputForward(maxOut);
-		mMaster.configPeakOutputReverse(minOut);
+		mConfig.config_kP(slot, kp);
+		mConfig.config_kI(slot, ki);
+		mConfig.config_kD(slot, kd);
+		mConfig.config_kF(slot, kf);
+		mConfig.config_IntegralZone(slot, (int) Math.round(lengthModel.toNativeUnitPosition(LengthKt.getInch(iZone)).getValue()));
+		mConfig.configMaxIntegralAccumulator(slot, maxIntegral);
+		mConfig.configPeakOutputForward(maxOut);
+		mConfig.configPeakOutputReverse(minOut);
 	}
 
 	public void setClosedLoopGains(int slot, PIDSettings config) {
@@ -305,13 +344,15 @@ public class Elevator extends HalfBakedSubsystem {
 	}
 
 	public void setMMGains(PIDSettings config) {
-		Logger.log("Setting motion magic gains! Velocity: " + (int) config.motionMagicCruiseVelocity +
-				" acceleration: " + (int) config.motionMagicAccel);
-		getMaster().configMotionCruiseVelocity((int) config.motionMagicCruiseVelocity);
-		getMaster().configMotionAcceleration((int) config.motionMagicAccel);
+		boolean changed = mConfig.configMotionCruiseVelocity((int) config.motionMagicCruiseVelocity);
+		changed |= mConfig.configMotionAcceleration((int) config.motionMagicAccel);
+		if (changed)
+			Logger.log("Setting motion magic gains! Velocity: " + (int) config.motionMagicCruiseVelocity +
+					" acceleration: " + (int) config.motionMagicAccel);
 	}
 
 	SuperStructureState requState = new SuperStructureState(new ElevatorState(LengthKt.getInch(27)));
+	private final LoopTimer.Section mPeriodicTimer = LoopTimer.getInstance().section("Elevator periodic", Robot.mPeriod);
 
 	public void setPositionSetpoint(SuperStructureState requ_) {
 		this.requState = requ_;
@@ -321,8 +362,20 @@ public class Elevator extends HalfBakedSubsystem {
 		setPositionSetpoint(new SuperStructureState(requ_));
 	}
 
+	private boolean mFollowingTrajectory = false;
+
+	/**
+	 * Stop periodic from sending motion magic setpoints while SuperStructure streams a trajectory into the master
+	 */
+	public void setFollowingTrajectory(boolean following) {
+		mFollowingTrajectory = following;
+	}
+
 	@Override
 	public void periodic() {
+		if (mFollowingTrajectory)
+			return;
+		long start = mPeriodicTimer.start();
 		var temp = requState;
 		// temp.elevator.height = temp.elevator.height.plus(getHeightTrim()); // offset by trim
 		var feedForwardVoltage = getVoltage(temp);
@@ -330,6 +383,7 @@ public class Elevator extends HalfBakedSubsystem {
 		// System.out.println("requ state: " + requState.getElevatorHeight().getInch() + " trim value: " + getHeightTrim().getInch() + " overall requ height: " + temp.getElevatorHeight().getInch());
 
 		setMMArbitraryFeedForward(temp.getElevatorHeight(), feedForwardVoltage / 12);
+		mPeriodicTimer.stop(start);
 	}
 
 	/**
@@ -338,8 +392,15 @@ public class Elevator extends HalfBakedSubsystem {
 	 * @return mass accounting for game piece and inner stage
 	 */
 	public static double getVoltage(SuperStructureState state) {
+		return getVoltage(state.getElevatorHeight().getInch());
+	}
+
+	/**
+	 * Get the voltage to hold the elevator up at a height, in inches
+	 */
+	public static double getVoltage(double height) {
 		double voltage;
-		if (state.getElevatorHeight().getInch() >= kTopOfInnerStage.getInch()) {
+		if (height >= kTopOfInnerStage.getInch()) {
 			voltage = 0.1;
 		} else {
 			voltage = -0.05;
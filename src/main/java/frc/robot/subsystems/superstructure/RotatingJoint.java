@@ -20,8 +20,13 @@ import com.ctre.phoenix.motorcontrol.LimitSwitchNormal;
 import com.ctre.phoenix.motorcontrol.LimitSwitchSource;
 import com.ctre.phoenix.motorcontrol.SensorTerm;
 
+import frc.robot.lib.CANSnapshot;
 import frc.robot.lib.HalfBakedSubsystem;
 import frc.robot.lib.PIDSettings;
+import frc.robot.lib.StatusFrameManager;
+import frc.robot.lib.StatusFrameProfile;
+import frc.robot.lib.TalonConfigCache;
+import frc.robot.lib.TalonSnapshot;
 import frc.robot.lib.motion.Util;
 import frc.robot.lib.obj.AngularVelocity;
 import frc.robot.lib.obj.HalfBakedRotatingSRX;
@@ -49,6 +54,9 @@ public class RotatingJoint extends HalfBakedSubsystem {
 
 	private double mTicksPerRotation;
 
+	private TalonSnapshot mSnapshot;
+	private TalonConfigCache mConfig;
+
 	// public RotatingJoint(PIDSettings settings, int motorPort) {
 	//   this(settings, motorPort, null, 0);
 	// }
@@ -101,6 +109,8 @@ public class RotatingJoint extends HalfBakedSubsystem {
 			motors.add(new HalfBakedRotatingSRX(i.intValue(), mTicksPerRotation));
 		}
 
+		mConfig = new TalonConfigCache(getMaster());
+
 		getMaster().setInverted(masterInvert);
 		if (ports.size() > 1) {
 			motors.get(1).set(ControlMode.Follower, ports.get(0));
@@ -120,18 +130,24 @@ public class RotatingJoint extends HalfBakedSubsystem {
 			motor.enableCurrentLimit(true);
 		}
 
+		for (HalfBakedRotatingSRX motor : getAllMotors()) {
+			StatusFrameManager.getInstance().apply(motor, (motor == getMaster()) ? StatusFrameProfile.kMaster : StatusFrameProfile.kFollower);
+		}
+
+		mSnapshot = CANSnapshot.getInstance().register(getMaster(), TalonSnapshot.kMechanism);
+
 	}
 
 	public void setClosedLoopGains(int slot, double kp, double ki, double kd, double kf, double iZone, double maxIntegral, double minOut, double maxOut) {
 		getMaster().selectProfileSlot(slot, 0);
-		getMaster().config_kP(0, kp, 30);
-		getMaster().config_kI(0, ki, 30);
-		getMaster().config_kD(0, kd, 30);
-		getMaster().config_kF(0, kf, 30);
-		getMaster().config_IntegralZone(0, (int) Math.round(getMaster().getTicks(Rotation2dKt.getDegree(iZone))), 0);
-		getMaster().configMaxIntegralAccumulator(0, maxIntegral, 0);
-		getMaster().configPeakOutputForward(maxOut);
-		getMaster().configPeakOutputReverse(minOut);
+		mConfig.config_kP(0, kp);
+		mConfig.config_kI(0, ki);
+		mConfig.config_kD(0, kd);
+		mConfig.config_kF(0, kf);
+		mConfig.config_IntegralZone(0, (int) Math.round(getMaster().getTicks(Rotation2dKt.getDegree(iZone))));
+		mConfig.configMaxIntegralAccumulator(0, maxIntegral);
+		mConfig.configPeakOutputForward(maxOut);
+		mConfig.configPeakOutputReverse(minOut);
 	}
 
 	public void setGainMode(boolean isMotionMagic) {
@@ -145,13 +161,13 @@ public class RotatingJoint extends HalfBakedSubsystem {
 
 	public void setMotionMagicGains() {
 		// Elevator elev = SuperStructure.getElevator();
-		this.getMaster().configMotionAcceleration((int) (4000));
-		this.getMaster().configMotionCruiseVelocity(1250); // about 3500 theoretical max
-		this.getMaster().configMotionSCurveStrength(0);
-		this.getMaster().config_kP(3, 0.85, 0);
-		this.getMaster().config_kI(3, 0.0, 0);
-		this.getMaster().config_kD(3, 6.0, 0);
-		this.getMaster().config_kF(3, 0.45, 0);
+		mConfig.configMotionAcceleration((int) (4000));
+		mConfig.configMotionCruiseVelocity(1250); // about 3500 theoretical max
+		mConfig.configMotionSCurveStrength(0);
+		mConfig.config_kP(3, 0.85);
+		mConfig.config_kI(3, 0.0);
+		mConfig.config_kD(3, 6.0);
+		mConfig.config_kF(3, 0.45);
 		this.getMaster().configClearPositionOnLimitF(true, 0);
 		// this.getMaster().selectProfileSlot(3, 0);
 		// this.getMaster().configClosedloopRamp(0.1);
@@ -197,6 +213,17 @@ public class RotatingJoint extends HalfBakedSubsystem {
 		getMaster().set(mode, reqAngle);
 	}
 
+	/**
+	 * Set the master talon to an angle with an arbitrary feed forward throttle %, like gravity from SuperstructureFeedforward
+	 * @param mode Position or MotionMagic
+	 * @param reqAngle to go to
+	 * @param feedForward extra throttle to apply
+	 */
+	public void requestAngle(ControlMode mode, RoundRotation2d reqAngle, double feedForward) {
+		reqAngle = Util.limit(reqAngle, kMinAngle, kMaxAngle);
+		getMaster().set(mode, reqAngle, DemandType.ArbitraryFeedForward, feedForward);
+	}
+
 	/**
 	 * Set the master talon to an anggle and arbitrary feed forward thorttle %
 	 * @param reqAngle to to to
@@ -245,6 +272,14 @@ public class RotatingJoint extends HalfBakedSubsystem {
 		return motors.get(0);
 	}
 
+	/**
+	 * Get the master's config cache. Gains should go through this instead of the talon,
+	 * so setting them to what they already are doesn't block on the bus.
+	 */
+	public TalonConfigCache getConfig() {
+		return mConfig;
+	}
+
 	/**
 	 * Return an ArrayList of all the falconSRXes
 	 * @return motors... all of the motors
@@ -254,15 +289,22 @@ public class RotatingJoint extends HalfBakedSubsystem {
 	}
 
 	/**
-	 * Get the Rotation2d of the encoder of the master talon
+	 * Get the master talon's readings from the top of this loop
+	 */
+	public TalonSnapshot getSnapshot() {
+		return mSnapshot;
+	}
+
+	/**
+	 * Get the Rotation2d of the encoder of the master talon, as of the top of this loop
 	 * @return sensorPosition as a Rotation2d
 	 */
 	public RoundRotation2d getRotation() {
-		return getMaster().getRotation2d();
+		return getMaster().fromTicks(mSnapshot.getPosition());
 	}
 
 	public AngularVelocity getAngularVelocity() {
-		return getMaster().getSensorVelocity();
+		return getMaster().fromRawVelocity(mSnapshot.getVelocity());
 	}
 
 	/**
@@ -310,7 +352,7 @@ public class RotatingJoint extends HalfBakedSubsystem {
 	}
 
 	public double getDegrees() {
-		return getMaster().getRotation2d().getDegree();
+		return getRotation().getDegree();
 	}
 
 	@Override
@@ -9,29 +9,44 @@ import org.ghrobotics.lib.mathematics.units.Length;
 import org.ghrobotics.lib.mathematics.units.LengthKt;
 import org.ghrobotics.lib.mathematics.units.Mass;
 import org.ghrobotics.lib.mathematics.units.MassKt;
+import org.ghrobotics.lib.mathematics.units.nativeunits.NativeUnitKt;
 
+import com.ctre.phoenix.motion.SetValueMotionProfile;
 import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.DemandType;
 import com.ctre.phoenix.motorcontrol.FeedbackDevice;
 import com.ctre.phoenix.motorcontrol.InvertType;
 import com.team254.lib.physics.DCMotorTransmission;
 
 import edu.wpi.first.wpilibj.DigitalInput;
-import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.command.CommandGroup;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import frc.robot.Constants;
+import frc.robot.Robot;
 import frc.robot.RobotConfig.auto.fieldPositions;
 import frc.robot.commands.subsystems.superstructure.JustElevatorTeleop;
 import frc.robot.lib.HalfBakedSubsystem;
 import frc.robot.lib.Loggable;
+import frc.robot.lib.LoggableSubsystem;
+import frc.robot.lib.Logger;
 import frc.robot.lib.PIDSettings;
 import frc.robot.lib.PIDSettings.FeedbackMode;
+import frc.robot.lib.logging.TelemetryTable;
+import frc.robot.lib.motion.MotionProfileFeeder;
+import frc.robot.lib.logging.TelemetryTable.BooleanChannel;
+import frc.robot.lib.logging.TelemetryTable.DoubleChannel;
+import frc.robot.lib.logging.TelemetryTable.LongChannel;
 import frc.robot.lib.obj.InvertSettings;
 import frc.robot.lib.obj.RoundRotation2d;
 import frc.robot.lib.statemachines.AutoMotionStateMachine.HeldPiece;
+import frc.robot.planners.SuperstructureTrajectory;
+import frc.robot.planners.TrajectoryPlanner;
 import frc.robot.states.ElevatorState;
 import frc.robot.states.IntakeAngle;
+import frc.robot.states.SuperStructureSnapshot;
 import frc.robot.states.SuperStructureState;
+import frc.robot.states.SuperStructureView;
 import frc.robot.subsystems.Intake;
 import frc.robot.subsystems.superstructure.Elevator.EncoderMode;
 import frc.robot.subsystems.superstructure.RotatingJoint.RotatingArmState;
@@ -42,7 +57,7 @@ import frc.robot.subsystems.superstructure.RotatingJoint.RotatingArmState;
  * 
  * @author Jocelyn McHugo
  */
-public class SuperStructure extends HalfBakedSubsystem implements Loggable {
+public class SuperStructure extends HalfBakedSubsystem implements Loggable, LoggableSubsystem {
 
 	private static SuperStructure instance_;
 	private static double currentDTVelocity; //in ft/sec
@@ -60,6 +75,7 @@ public class SuperStructure extends HalfBakedSubsystem implements Loggable {
 	private Wrist mWrist;
 	private RotatingJoint mElbow;
 	private DCMotorTransmission kElbowTransmission, kWristTransmission;
+	private SuperstructureFeedforward mFeedforward;
 	public static final Mass kHatchMass = MassKt.getLb(2.4); // FIXME check mass
 	public static final Mass kCargoMass = MassKt.getLb(1); // FIXME check mass
 	public static final RoundRotation2d kWristMin = RoundRotation2d.getDegree(-270); // relative
@@ -80,6 +96,11 @@ public class SuperStructure extends HalfBakedSubsystem implements Loggable {
 
 	public Length elevatorTrim = LengthKt.getInch(0);
 
+	private LongChannel elevatorTicksChannel, elbowTicksChannel, wristTicksChannel;
+	private LongChannel elevatorVelocityChannel, elbowVelocityChannel, wristVelocityChannel;
+	private DoubleChannel elevatorVoltageChannel, elbowVoltageChannel, wristVoltageChannel;
+	private BooleanChannel carriageMaxChannel, innerStageMinChannel;
+
 	public static synchronized SuperStructure getInstance() {
 		if (instance_ == null) {
 			instance_ = new SuperStructure();
@@ -116,6 +137,9 @@ public class SuperStructure extends HalfBakedSubsystem implements Loggable {
 
 		kWristTransmission = new DCMotorTransmission(Constants.kWristSpeedPerVolt, Constants.kWristTorquePerVolt, Constants.kWristStaticFrictionVoltage);
 
+		mFeedforward = new SuperstructureFeedforward(kElbowTransmission, kWristTransmission, Constants.kElbowMass.getKilogram(), Constants.kElbowLength.getMeter(),
+				Constants.kWristMass.getKilogram(), Constants.kWristLength.getMeter());
+
 		mWrist = new Wrist(new PIDSettings(0.5d, 0, 0, 0, FeedbackMode.ANGULAR), 33, FeedbackDevice.CTRE_MagEncoder_Relative, 8, kWristMin, kWristMax, true /* FIXME check inverting! */,
 				Constants.kWristLength, Constants.kWristMass); // FIXME the ports are wrong and check inverting!
 
@@ -134,16 +158,60 @@ public class SuperStructure extends HalfBakedSubsystem implements Loggable {
 
 		innerStageMinLimitSwitch = new DigitalInput(0);
 
-		mCurrentState = new SuperStructureState();
+		mInchesPerTick = getElevator().getModel().fromNativeUnitPosition(NativeUnitKt.getNativeUnits(1)).getInch();
+		mElbowDegreesPerTick = getElbow().getMaster().fromTicks(1).getDegree();
+		mWristDegreesPerTick = getWrist().getMaster().fromTicks(1).getDegree();
+		captureSnapshot();
+
+		var telemetry = TelemetryTable.getInstance();
+		elevatorTicksChannel = telemetry.addLong("Elevator position (ticks)");
+		elevatorVelocityChannel = telemetry.addLong("Elevator velocity (ticks per 100ms)");
+		elevatorVoltageChannel = telemetry.addDouble("Elevator output voltage");
+		elbowTicksChannel = telemetry.addLong("Elbow position (ticks)");
+		elbowVelocityChannel = telemetry.addLong("Elbow velocity (ticks per 100ms)");
+		elbowVoltageChannel = telemetry.addDouble("Elbow output voltage");
+		wristTicksChannel = telemetry.addLong("Wrist position (ticks)");
+		wristVelocityChannel = telemetry.addLong("Wrist velocity (ticks per 100ms)");
+		wristVoltageChannel = telemetry.addDouble("Wrist output voltage");
+		carriageMaxChannel = telemetry.addBoolean("Carriage max limit");
+		innerStageMinChannel = telemetry.addBoolean("Inner stage min limit");
+	}
 
-		Notifier mSmartDashboardUpdater = new Notifier(() -> {
-			SmartDashboard.putString("Superstructure move setpoint", mReqState.toCSV());
-		});
-		mSmartDashboardUpdater.startPeriodic(0.5);
+	// two snapshots, one being filled while the other's read, swapped every captureSnapshot
+	private final SuperStructureSnapshot[] mSnapshots = { new SuperStructureSnapshot(), new SuperStructureSnapshot() };
+	private volatile SuperStructureSnapshot mSnapshot = mSnapshots[0];
+	private long mSnapshotSequence = 0;
+	private double mInchesPerTick, mElbowDegreesPerTick, mWristDegreesPerTick;
 
+	private SuperStructureState mCurrentState;
+	private long mCurrentStateSequence = -1;
+
+	/**
+	 * Turn this loop's talon readings into a snapshot. Call it once a loop, right after
+	 * CANSnapshot.capture(). Doesn't allocate.
+	 */
+	public void captureSnapshot() {
+		mSnapshotSequence++;
+		var next = mSnapshots[(int) (mSnapshotSequence & 1)];
+		var elevator = getElevator().getSnapshot();
+		var elbow = getElbow().getSnapshot();
+		var wrist = getWrist().getSnapshot();
+		// velocities are ticks per 100ms
+		next.set(mSnapshotSequence, Timer.getFPGATimestamp(),
+				elevator.getPosition() * mInchesPerTick, elevator.getVelocity() * 10 * mInchesPerTick,
+				elbow.getPosition() * mElbowDegreesPerTick, elbow.getVelocity() * 10 * mElbowDegreesPerTick,
+				wrist.getPosition() * mWristDegreesPerTick, wrist.getVelocity() * 10 * mWristDegreesPerTick,
+				mReqState.getHeldPiece());
+		mSnapshot = next;
 	}
 
-	private SuperStructureState mCurrentState;
+	/**
+	 * Get where the superstructure was at the top of this loop, without making anything. Good
+	 * until the next captureSnapshot, so copy it out if it needs to last longer than a loop.
+	 */
+	public SuperStructureView getStateSnapshot() {
+		return mSnapshot;
+	}
 
 	public SuperStructureState getCurrentState() {
 		updateState();
@@ -276,16 +344,16 @@ public class SuperStructure extends HalfBakedSubsystem implements Loggable {
 		setDefaultCommand(new JustElevatorTeleop());
 	}
 
+	/**
+	 * Get the superstructure's state as of the last captureSnapshot. It only gets made once a
+	 * loop, so everyone asking in the same loop shares it. Don't change it.
+	 */
 	public SuperStructureState updateState() {
-		var mNewWrist = getWrist().getCurrentState();
-		var mNewElbow = getElbow().getCurrentState();
-		var mNewElevator = getElevator().getCurrentState();
-		var mNewIntakeAngles = new IntakeAngle(mNewElbow, mNewWrist);
-
-		this.mCurrentState = new SuperStructureState(mNewElevator, mNewIntakeAngles);
-
-		// System.out.println("current state per the wrist: " + getWrist().getCurrentState() + "new wrist per the updated state: " + mCurrentState.jointAngles.wristAngle.angle.getDegree()); 
-
+		var snapshot = mSnapshot;
+		if (mCurrentStateSequence != snapshot.getSequence()) {
+			this.mCurrentState = SuperStructureSnapshot.toState(snapshot);
+			mCurrentStateSequence = snapshot.getSequence();
+		}
 		return mCurrentState;
 	}
 
@@ -339,16 +407,11 @@ public class SuperStructure extends HalfBakedSubsystem implements Loggable {
 
 	public void move(SuperStructureState requState) {
 		//former superstructure periodic
-		updateState();
+		var currentState = updateState();
 
 		this.mReqState = requState;
-		// SuperStructureState prevState = lastState;
-		// double mCurrentWristTorque = Math.abs(SuperStructure.getInstance().calculateWristTorque(prevState)); // torque due to gravity and elevator acceleration, newton meters
-		// double mCurrentElbowTorque = Math.abs(SuperStructure.getInstance().calculateElbowTorques(prevState, mCurrentWristTorque)); // torque due to gravity and elevator acceleration, newton meters
-
-		// double wristVoltageGravity = SuperStructure.getInstance().getWTransmission().getVoltageForTorque(SuperStructure.getInstance().updateState().getWrist().velocity.getValue(), mCurrentWristTorque);
-		// double elbowVoltageGravity = SuperStructure.getInstance().getETransmission().getVoltageForTorque(SuperStructure.getInstance().updateState().getElbow().velocity.getValue(), mCurrentElbowTorque);
-		double elevatorPercentVbusGravity = Elevator.getVoltage(updateState()) / 12;//getElevator().getMaster().getBusVoltage();		
+		updateFeedforward(requState.getHeldPiece());
+		double elevatorPercentVbusGravity = Elevator.getVoltage(currentState) / 12;//getElevator().getMaster().getBusVoltage();		
 
 		// if (Math.abs(mOI.getWristAxis()) > 0.07) {
 		// SuperStructure.getInstance().getWrist().getMaster().set(ControlMode.Position, mRequState.getWrist().angle);
@@ -356,14 +419,101 @@ public class SuperStructure extends HalfBakedSubsystem implements Loggable {
 		// SuperStructure.getInstance().getElbow().getMaster().set(ControlMode.Position, mRequState.getElbow().angle);
 		// SuperStructureState stateSetpoint = plan(requState);
 
-		getWrist().requestAngle(ControlMode.MotionMagic, requState.getWrist().angle, getCurrentState());
-		getElbow().requestAngle(ControlMode.MotionMagic, requState.getElbow().angle);
+		getWrist().requestAngle(requState.getWrist().angle, mFeedforward.getWristPercent(), currentState);
+		getElbow().requestAngle(ControlMode.MotionMagic, requState.getElbow().angle, mFeedforward.getElbowPercent());
 		// getElevator().getMaster().set(ControlMode.MotionMagic, requState.getElevator().height, DemandType.ArbitraryFeedForward, elevatorPercentVbusGravity);
 		getElevator().setPositionSetpoint(requState);
 		// getElevator().getMaster().set(ControlMode.PercentOutput, elevatorPercentVbusGravity);
 
 	}
 
+	/**
+	 * Work out the gravity and elevator acceleration torques on the joints, in percent for the talons
+	 */
+	private void updateFeedforward(HeldPiece piece) {
+		var snapshot = mSnapshot;
+		mFeedforward.update(snapshot.getElbow(), snapshot.getWrist(), snapshot.getHeightVelocity() * 0.0254, // inches -> meters
+				getHeldMass(piece), snapshot.getTime());
+	}
+
+	/** All three joints keep their motion magic gains in slot 3, so trajectories follow with those too */
+	private static final int kTrajectoryProfileSlot = 3;
+
+	private SuperstructureTrajectory mTrajectory;
+	private final MotionProfileFeeder[] mFeeders = new MotionProfileFeeder[TrajectoryPlanner.kJoints];
+	private double mTrajectoryStartTime = Double.NaN;
+
+	/**
+	 * Start streaming a trajectory from TrajectoryPlanner into the elevator, elbow and wrist talons,
+	 * so that all three follow it point for point instead of each going to its own motion magic
+	 * setpoint. Call followTrajectory every loop until isTrajectoryDone, then stopTrajectory.
+	 * This makes the feeders, so do it when the command starts.
+	 * @param goal where the trajectory ends, for the held piece
+	 */
+	public void startTrajectory(SuperstructureTrajectory trajectory, SuperStructureState goal) {
+		stopTrajectory();
+		this.mReqState = goal;
+		mTrajectory = trajectory;
+		mTrajectoryStartTime = Double.NaN;
+		int pointDurationMs = (int) Math.round(trajectory.getDt() * 1000);
+		mFeeders[TrajectoryPlanner.kElevator] = new MotionProfileFeeder(MotionProfileFeeder.forTalon(getElevator().getMaster()),
+				trajectory.getPointSource(TrajectoryPlanner.kElevator, 1 / mInchesPerTick, kTrajectoryProfileSlot), pointDurationMs);
+		mFeeders[TrajectoryPlanner.kElbow] = new MotionProfileFeeder(MotionProfileFeeder.forTalon(getElbow().getMaster()),
+				trajectory.getPointSource(TrajectoryPlanner.kElbow, 1 / mElbowDegreesPerTick, kTrajectoryProfileSlot), pointDurationMs);
+		mFeeders[TrajectoryPlanner.kWrist] = new MotionProfileFeeder(MotionProfileFeeder.forTalon(getWrist().getMaster()),
+				trajectory.getPointSource(TrajectoryPlanner.kWrist, 1 / mWristDegreesPerTick, kTrajectoryProfileSlot), pointDurationMs);
+		getElevator().setFollowingTrajectory(true);
+		for (var feeder : mFeeders)
+			feeder.start();
+	}
+
+	/**
+	 * Keep the talons running the trajectory with this loop's feedforward. Nothing moves until all
+	 * three have enough points to start, so they all start together. Doesn't allocate.
+	 */
+	public void followTrajectory() {
+		if (mTrajectory == null)
+			return;
+		if (Double.isNaN(mTrajectoryStartTime)) {
+			for (var feeder : mFeeders) {
+				if (!feeder.isReadyToRun())
+					return; // the talons hold what they were last told until then
+			}
+			mTrajectoryStartTime = Timer.getFPGATimestamp();
+		}
+		updateFeedforward(mReqState.getHeldPiece());
+		int index = mTrajectory.indexAt(Timer.getFPGATimestamp() - mTrajectoryStartTime);
+		double elevatorFeedForward = Elevator.getVoltage(mTrajectory.getPosition(TrajectoryPlanner.kElevator, index)) / 12;
+		getElevator().getMaster().set(ControlMode.MotionProfile, SetValueMotionProfile.Enable.value, DemandType.ArbitraryFeedForward, elevatorFeedForward);
+		getElbow().getMaster().set(ControlMode.MotionProfile, SetValueMotionProfile.Enable.value, DemandType.ArbitraryFeedForward, mFeedforward.getElbowPercent());
+		getWrist().getMaster().set(ControlMode.MotionProfile, SetValueMotionProfile.Enable.value, DemandType.ArbitraryFeedForward, mFeedforward.getWristPercent());
+	}
+
+	/**
+	 * Check if the trajectory has had time to finish. The talons hold its last point after that.
+	 */
+	public boolean isTrajectoryDone() {
+		return mTrajectory == null
+				|| (!Double.isNaN(mTrajectoryStartTime) && Timer.getFPGATimestamp() - mTrajectoryStartTime >= mTrajectory.getDuration());
+	}
+
+	/**
+	 * Stop streaming and give the feeders' Notifiers back. Call move after this to hand the joints
+	 * back to motion magic.
+	 */
+	public void stopTrajectory() {
+		for (int i = 0; i < mFeeders.length; i++) {
+			if (mFeeders[i] != null) {
+				mFeeders[i].close();
+				if (mFeeders[i].getUnderruns() > 0)
+					Logger.log("Superstructure trajectory joint " + i + " ran out of points " + mFeeders[i].getUnderruns() + " times");
+				mFeeders[i] = null;
+			}
+		}
+		mTrajectory = null;
+		getElevator().setFollowingTrajectory(false);
+	}
+
 	//	public SuperStructureState plan(SuperStructureState mReqState) {
 	//
 	//		mReqPath = planner.plan(mReqState, mCurrentState);
@@ -392,49 +542,54 @@ public class SuperStructure extends HalfBakedSubsystem implements Loggable {
 	//	}
 
 	/**
-	 * Calculate the torque on the wrist due to gravity for a given state
-	 * @param state the state of the superstructure 
-	 * @return torque in newton meters on the wrist
+	 * Get the mass of a game piece, in kg
 	 */
-	public double calculateWristTorque(SuperStructureState state) {
-		Mass totalMass = getWrist().kArmMass;
-		if (state.getHeldPiece() == HeldPiece.HATCH)
-			totalMass.plus(kHatchMass);
-		if (state.getHeldPiece() == HeldPiece.CARGO)
-			totalMass.plus(kCargoMass);
-		/* The distance from the pivot of the wrist to the center of mass */
-		double x1 = (getWrist().kArmLength.getValue()) * Math.abs(state.jointAngles.getWrist().angle.getCos()); // absolute value so cosine is always positive
-		/* The torque due to gravity  */
-		double torqueGravity = (totalMass.getValue() * 9.8 * x1);
-		/* The torque on the wrist due to acceleration of the elevator (assuming a rigid elbow) */
-		double torqueAccel = totalMass.getValue() * state.elevator.acceleration.getValue() * x1;
-
-		return torqueGravity + torqueAccel;
+	private static double getHeldMass(HeldPiece piece) {
+		if (piece == HeldPiece.HATCH)
+			return kHatchMass.getKilogram();
+		if (piece == HeldPiece.CARGO)
+			return kCargoMass.getKilogram();
+		return 0;
+	}
+
+	public SuperstructureFeedforward getFeedforward() {
+		return mFeedforward;
 	}
 
+	private static final int kDashboardDivider = (int) Math.round(0.5 / Robot.mPeriod);
+	private int mDashboardCount = 0;
+
 	/**
-	 * Calculate the elbow on the wrist due to gravity for a given state and wrist torque
-	 * @param state the state of the superstructure 
-	 * @param wristTorque the torque on the wrist
-	 * @return torque in newton meters on the wrist
+	 * Write the raw sensor values into telemetry channels. Unlike toCSV() this doesn't make
+	 * a new state, and only makes the setpoint string every half second, so it's fine to call
+	 * every loop. The talon readings come out of this loop's CANSnapshot, so this doesn't touch
+	 * the CAN bus.
 	 */
-	public double calculateElbowTorques(SuperStructureState state, double wristTorque) {
-		Mass wristTotalMass = getWrist().kArmMass;
-		if (state.getHeldPiece() == HeldPiece.HATCH)
-			wristTotalMass.plus(kHatchMass);
-		if (state.getHeldPiece() == HeldPiece.CARGO)
-			wristTotalMass.plus(kCargoMass);
+	@Override
+	public void logPeriodicIO() {
+		// the setpoint string is for people, every half second is plenty
+		if (++mDashboardCount >= kDashboardDivider) {
+			mDashboardCount = 0;
+			SmartDashboard.putString("Superstructure move setpoint", mReqState.toCSV());
+		}
+
+		var elevator = getElevator().getSnapshot();
+		elevatorTicksChannel.set(elevator.getPosition());
+		elevatorVelocityChannel.set(elevator.getVelocity());
+		elevatorVoltageChannel.set(elevator.getOutputVoltage());
+
+		var elbow = getElbow().getSnapshot();
+		elbowTicksChannel.set(elbow.getPosition());
+		elbowVelocityChannel.set(elbow.getVelocity());
+		elbowVoltageChannel.set(elbow.getOutputVoltage());
 
-		/* The distance from the pivot to the center of mass of the elbow */
-		double x_2 = (getElbow().kArmLength.getMeter()) * Math.abs(state.jointAngles.getWrist().angle.getCos());// absolute value so cosine is always positive
-		/* The torque due to gravity  */
-		double torqueGravity = (getElbow().kArmMass.getKilogram() * 9.8 * x_2); // m_2 * g * x_2 
-		/* The torque doe to acceleration on the wrist */
-		double torqueAccel = getElbow().kArmMass.getKilogram() * state.elevator.acceleration.getValue() * x_2;
-		// m_2 * g * x_2
-		double torqueWrstComponent = (wristTotalMass.getKilogram() * getElbow().kArmLength.getMeter() * 2 /* double the distance from the joint to COM*/ * 9.8);
+		var wrist = getWrist().getSnapshot();
+		wristTicksChannel.set(wrist.getPosition());
+		wristVelocityChannel.set(wrist.getVelocity());
+		wristVoltageChannel.set(wrist.getOutputVoltage());
 
-		return torqueGravity + torqueAccel + torqueWrstComponent + wristTorque;
+		carriageMaxChannel.set(getCarriageMaxLimit());
+		innerStageMinChannel.set(getInnerStageMinLimit());
 	}
 
 	@Override
@@ -450,5 +605,6 @@ public class SuperStructure extends HalfBakedSubsystem implements Loggable {
 	@Override
 	public void onDisable() {
 		// resetElbowTrim();
+		mFeedforward.reset();
 	}
 }
@@ -0,0 +1,130 @@
+package frc.robot.subsystems.superstructure;
+
+import com.team254.lib.physics.DCMotorTransmission;
+
+/**
+ * Works out how much each rotating joint has to push to hold itself up against gravity and the
+ * elevator speeding up or slowing down, and turns that into volts with the joints' motor models,
+ * for ArbitraryFeedForward on top of MotionMagic. MotionMagic's kF already covers velocity, so
+ * this is only the torque.
+ *
+ * Nothing in here makes objects, and the trig only gets redone when a joint has moved, so it's
+ * fine to update every loop.
+ */
+public class SuperstructureFeedforward {
+
+	public static final double kGravity = 9.8; // m/s^2
+	public static final double kNominalVoltage = 12;
+	/** How much of each new elevator acceleration reading to take, the rest is the old estimate */
+	public static final double kAccelerationFilter = 0.2;
+
+	private final DCMotorTransmission elbowTransmission, wristTransmission;
+	private final double elbowMass, elbowLength, wristMass, wristLength; // kg and m, length to the COM
+
+	private double lastElbow = Double.NaN, lastWrist = Double.NaN;
+	private double elbowCos, wristCos;
+	private double lastElevatorVelocity = Double.NaN, lastTime;
+	private double elevatorAcceleration = 0;
+	private double elbowTorque, wristTorque, elbowVoltage, wristVoltage;
+
+	public SuperstructureFeedforward(DCMotorTransmission elbowTransmission, DCMotorTransmission wristTransmission,
+			double elbowMass, double elbowLength, double wristMass, double wristLength) {
+		this.elbowTransmission = elbowTransmission;
+		this.wristTransmission = wristTransmission;
+		this.elbowMass = elbowMass;
+		this.elbowLength = elbowLength;
+		this.wristMass = wristMass;
+		this.wristLength = wristLength;
+	}
+
+	/**
+	 * Work out the feedforward for where the superstructure is now. Call it once a loop, then
+	 * read the answers back with the getters.
+	 * @param elbow angle in degrees, 0 sticking straight out the front
+	 * @param wrist the wrist's sensor angle in degrees, same as SuperStructureState has it
+	 * @param elevatorVelocity in m/s, to get the elevator's acceleration from
+	 * @param heldMass of whatever game piece we have, in kg
+	 * @param time now, in seconds
+	 */
+	public void update(double elbow, double wrist, double elevatorVelocity, double heldMass, double time) {
+		if (!Double.isNaN(lastElevatorVelocity) && time > lastTime) {
+			double acceleration = (elevatorVelocity - lastElevatorVelocity) / (time - lastTime);
+			elevatorAcceleration += kAccelerationFilter * (acceleration - elevatorAcceleration);
+		}
+		lastElevatorVelocity = elevatorVelocity;
+		lastTime = time;
+
+		if (elbow != lastElbow) {
+			elbowCos = Math.cos(Math.toRadians(elbow));
+			lastElbow = elbow;
+			lastWrist = Double.NaN; // the wrist's real angle depends on the elbow too
+		}
+		if (wrist != lastWrist) {
+			// same as SuperStructure.getUnDumbWrist
+			wristCos = Math.cos(Math.toRadians(wrist + elbow / 2));
+			lastWrist = wrist;
+		}
+
+		// the elevator speeding up going up is the same as more gravity
+		double g = kGravity + elevatorAcceleration;
+		double wristTotalMass = wristMass + heldMass;
+		wristTorque = wristTotalMass * g * wristLength * wristCos;
+		// the elbow holds itself, the wrist out at about twice as far as its own COM, and whatever the wrist is holding up
+		elbowTorque = (elbowMass * elbowLength + wristTotalMass * elbowLength * 2) * g * elbowCos + wristTorque;
+
+		wristVoltage = wristTransmission.getVoltageForTorque(0, wristTorque);
+		elbowVoltage = elbowTransmission.getVoltageForTorque(0, elbowTorque);
+	}
+
+	/**
+	 * Forget the last elevator velocity, like after being disabled, so the next update doesn't see a huge acceleration
+	 */
+	public void reset() {
+		lastElevatorVelocity = Double.NaN;
+		elevatorAcceleration = 0;
+	}
+
+	/**
+	 * Get the filtered elevator acceleration, in m/s^2
+	 */
+	public double getElevatorAcceleration() {
+		return elevatorAcceleration;
+	}
+
+	/**
+	 * Get the torque the elbow needs to hold, in newton meters
+	 */
+	public double getElbowTorque() {
+		return elbowTorque;
+	}
+
+	/**
+	 * Get the torque the wrist needs to hold, in newton meters
+	 */
+	public double getWristTorque() {
+		return wristTorque;
+	}
+
+	public double getElbowVoltage() {
+		return elbowVoltage;
+	}
+
+	public double getWristVoltage() {
+		return wristVoltage;
+	}
+
+	/**
+	 * Get the elbow's feedforward as a fraction of the battery, for DemandType.ArbitraryFeedForward
+	 */
+	public double getElbowPercent() {
+		return elbowVoltage / kNominalVoltage;
+	}
+
+	/**
+	 * Get the wrist's feedforward as a fraction of the battery, for DemandType.ArbitraryFeedForward
+	 */
+	public double getWristPercent() {
+		return wristVoltage / kNominalVoltage;
+	}
+
+}
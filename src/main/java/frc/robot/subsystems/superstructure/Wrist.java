@@ -68,13 +68,13 @@ public class Wrist extends RotatingJoint {
 	@Override
 	public void setMotionMagicGains() {
 		// Elevator elev = SuperStructure.getElevator();
-		this.getMaster().configMotionAcceleration((int) (3500));
-		this.getMaster().configMotionCruiseVelocity(2000); // about 3500 theoretical max
-		this.getMaster().configMotionSCurveStrength(0);
-		this.getMaster().config_kP(3, 3.5, 0);
-		this.getMaster().config_kI(3, 0.001, 0);
-		this.getMaster().config_kD(3, 0.0, 0);
-		this.getMaster().config_kF(3, 0.4, 0);
+		getConfig().configMotionAcceleration((int) (3500));
+		getConfig().configMotionCruiseVelocity(2000); // about 3500 theoretical max
+		getConfig().configMotionSCurveStrength(0);
+		getConfig().config_kP(3, 3.5);
+		getConfig().config_kI(3, 0.001);
+		getConfig().config_kD(3, 0.0);
+		getConfig().config_kF(3, 0.4);
 		// this.getMaster().selectProfileSlot(3, 0);
 		// this.getMaster().configClosedloopRamp(0.1);
 	}
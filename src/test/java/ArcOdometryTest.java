@@ -0,0 +1,144 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import frc.robot.lib.ArcOdometry;
+
+/**
+ * Drives a perfect robot along curves and checks the odometry ends up where the robot really is.
+ * Encoder readings get rounded to ticks like the real ones, and the gyro reads clockwise positive like the navX.
+ */
+public class ArcOdometryTest {
+
+	private static final double kTrackWidth = 0.66;
+	private static final double kMetersPerTick = 2 * Math.PI * 0.0508 / 4096; // 4 inch wheels, mag encoders
+
+	/** Angular velocity as a function of time, in rad/s */
+	private interface Curve {
+		double angular(double time);
+	}
+
+	/**
+	 * Drive along a curve at a constant speed, updating the odometry every dt
+	 * @param truth gets where the robot really ended up
+	 * @param euler gets where the old way of doing it (straight along the new heading) ends up
+	 * @param gyroWorks if false the gyro reads NaN the whole time
+	 */
+	private static ArcOdometry drive(double speed, Curve curve, double seconds, double dt, double[] truth, double[] euler, boolean gyroWorks) {
+		var odometry = new ArcOdometry(kMetersPerTick, kMetersPerTick, kTrackWidth, true);
+		odometry.reset(1, 2, 0.5);
+		double x = 1, y = 2, heading = 0.5, left = 0, right = 0;
+		double eulerX = 1, eulerY = 2;
+
+		// fine steps for the real robot, so it's basically continuous
+		int substeps = 50;
+		double h = dt / substeps;
+		odometry.update(0, 0, gyroWorks ? 0 : Double.NaN);
+		for (double time = 0; time < seconds - 1e-9; time += dt) {
+			double lastLeft = left, lastRight = right;
+			for (int i = 0; i < substeps; i++) {
+				double angular = curve.angular(time + i * h);
+				double mid = heading + angular * h / 2;
+				x += speed * h * Math.cos(mid);
+				y += speed * h * Math.sin(mid);
+				heading += angular * h;
+				left += (speed - angular * kTrackWidth / 2) * h;
+				right += (speed + angular * kTrackWidth / 2) * h;
+			}
+			long leftTicks = Math.round(left / kMetersPerTick), rightTicks = Math.round(right / kMetersPerTick);
+			odometry.update(leftTicks, rightTicks, gyroWorks ? -Math.toDegrees(heading - 0.5) : Double.NaN);
+
+			double distance = ((left - lastLeft) + (right - lastRight)) / 2;
+			eulerX += distance * Math.cos(heading);
+			eulerY += distance * Math.sin(heading);
+		}
+		truth[0] = x;
+		truth[1] = y;
+		truth[2] = heading;
+		euler[0] = eulerX;
+		euler[1] = eulerY;
+		return odometry;
+	}
+
+	private static double error(ArcOdometry odometry, double[] truth) {
+		return Math.hypot(odometry.getX() - truth[0], odometry.getY() - truth[1]);
+	}
+
+	@Test
+	public void testStraight() {
+		var truth = new double[3];
+		var odometry = drive(2, time -> 0, 3, 0.005, truth, new double[2], true);
+		assertEquals(1 + 6 * Math.cos(0.5), odometry.getX(), 1e-3);
+		assertEquals(2 + 6 * Math.sin(0.5), odometry.getY(), 1e-3);
+		assertEquals(6, odometry.getDistance(), 1e-3);
+	}
+
+	@Test
+	public void testCircle(TestReporter reporter) {
+		var truth = new double[3];
+		var euler = new double[2];
+		// a full circle with a 1.5m radius
+		var odometry = drive(1.5, time -> 1, 2 * Math.PI, 0.005, truth, euler, true);
+		double error = error(odometry, truth);
+		reportErrors(reporter, "Circle at 200hz", error, Math.hypot(euler[0] - truth[0], euler[1] - truth[1]));
+		assertTrue(error < 1e-3);
+		assertEquals(truth[2], odometry.getHeading(), 1e-6);
+	}
+
+	@Test
+	public void testSlowUpdates(TestReporter reporter) {
+		var truth = new double[3];
+		var euler = new double[2];
+		// a quarter of the same circle (a full one cancels out), but only updated every 40ms. The arcs don't care, straight steps do
+		var odometry = drive(1.5, time -> 1, Math.PI / 2, 0.04, truth, euler, true);
+		double error = error(odometry, truth);
+		double eulerError = Math.hypot(euler[0] - truth[0], euler[1] - truth[1]);
+		reportErrors(reporter, "Quarter circle at 25hz", error, eulerError);
+		assertTrue(error < 1e-3);
+		assertTrue(eulerError > 10 * error);
+	}
+
+	@Test
+	public void testSCurve() {
+		var truth = new double[3];
+		var odometry = drive(2.5, time -> 1.2 * Math.sin(time), 10, 0.005, truth, new double[2], true);
+		double error = error(odometry, truth);
+		assertTrue(error < 5e-3);
+	}
+
+	@Test
+	public void testWithoutGyro() {
+		var truth = new double[3];
+		var odometry = drive(1.5, time -> 0.8, 5, 0.005, truth, new double[2], false);
+		assertTrue(error(odometry, truth) < 5e-3);
+		assertEquals(truth[2], odometry.getHeading(), 1e-3);
+	}
+
+	private static void reportErrors(TestReporter reporter, String name, double arcError, double eulerError) {
+		reporter.publishEntry(name + ", arc error (m)", String.format("%.5f", arcError));
+		reporter.publishEntry(name + ", straight line steps error (m)", String.format("%.5f", eulerError));
+	}
+
+	/**
+	 * Reports what an update costs, and checks it doesn't allocate once it's warmed up
+	 */
+	@Test
+	@Tag(Benchmarks.kTag)
+	public void benchmarkUpdate(TestReporter reporter) {
+		var odometry = new ArcOdometry(kMetersPerTick, kMetersPerTick, kTrackWidth, true);
+		int updates = 2_000_000;
+		var result = Benchmarks.measure(1, () -> {
+			for (int i = 0; i < updates; i++) {
+				odometry.update(i * 3, i * 4, i * 0.01);
+			}
+		});
+
+		result.report(reporter, "ArcOdometry update", updates);
+		assertTrue(result.bytes / updates < 1);
+		assertTrue(Double.isFinite(odometry.getX()));
+	}
+
+}
@@ -0,0 +1,77 @@
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.TestReporter;
+
+/**
+ * Shared harness for the benchmarks. There's no JMH in this build, so it just runs the body a few
+ * times to give the JIT a go at it, then times and counts what the thread allocates on one more run.
+ * Benchmarks are tagged {@value #kTag}, which gradle test skips. Run them with gradle benchmark.
+ *
+ * Only allocations get asserted on. Times depend on the machine, so they go in the test report.
+ */
+public final class Benchmarks {
+
+	public static final String kTag = "benchmark";
+
+	private static final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	private Benchmarks() {
+	}
+
+	/**
+	 * What the measured run cost
+	 */
+	public static final class Result {
+		public final long bytes;
+		public final long nanos;
+
+		private Result(long bytes, long nanos) {
+			this.bytes = bytes;
+			this.nanos = nanos;
+		}
+
+		public double nanosPer(double ops) {
+			return nanos / ops;
+		}
+
+		public double bytesPer(double ops) {
+			return bytes / ops;
+		}
+
+		/**
+		 * Publish ns and bytes per op to the test report
+		 * @param name of what was measured
+		 * @param ops how many times the body did it
+		 */
+		public void report(TestReporter reporter, String name, double ops) {
+			reporter.publishEntry(name + " (ns/op)", String.format("%.1f", nanosPer(ops)));
+			reporter.publishEntry(name + " (bytes/op)", String.format("%.2f", bytesPer(ops)));
+		}
+	}
+
+	/**
+	 * Run body warmups times, then once more while timing it and counting allocations
+	 */
+	public static Result measure(int warmups, Runnable body) {
+		for (int i = 0; i < warmups; i++) {
+			body.run();
+		}
+		long thread = Thread.currentThread().getId();
+		long before = threads.getThreadAllocatedBytes(thread);
+		long start = System.nanoTime();
+		body.run();
+		long nanos = System.nanoTime() - start;
+		long bytes = threads.getThreadAllocatedBytes(thread) - before;
+		// only make the result once both are read, so it isn't counted
+		return new Result(bytes, nanos);
+	}
+
+	/**
+	 * Run body warmups times, then once more while counting allocations
+	 * @return bytes the current thread allocated during the measured run
+	 */
+	public static long allocatedBytes(int warmups, Runnable body) {
+		return measure(warmups, body).bytes;
+	}
+
+}
@@ -0,0 +1,158 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import frc.robot.lib.ControlLoop;
+import frc.robot.lib.ControlLoop.Phase;
+
+public class ControlLoopTest {
+
+	static final double kPeriod = 0.005;
+	static final long kPeriodNanos = 5_000_000;
+
+	@Test
+	public void testPhaseOrder() {
+		var loop = new ControlLoop(kPeriod);
+		var ran = new ArrayList<String>();
+		// added out of order on purpose
+		loop.add("log", Phase.LOG, () -> ran.add("log"));
+		loop.add("act", Phase.ACT, () -> ran.add("act"));
+		loop.add("sense", Phase.SENSE, () -> ran.add("sense"));
+		loop.add("plan", Phase.PLAN, () -> ran.add("plan"));
+		loop.add("estimate", Phase.ESTIMATE, () -> ran.add("estimate"));
+		loop.add("sense 2", Phase.SENSE, () -> ran.add("sense 2"));
+
+		loop.tick(0);
+		assertEquals(List.of("sense", "sense 2", "estimate", "plan", "act", "log"), ran);
+		assertEquals(1, loop.getTicks());
+	}
+
+	@Test
+	public void testSlowerTasksAndRemove() {
+		var loop = new ControlLoop(kPeriod);
+		int[] fast = { 0 }, slow = { 0 };
+		loop.add("fast", Phase.ESTIMATE, () -> fast[0]++);
+		var slowTask = loop.add("slow", Phase.LOG, () -> slow[0]++, 0.5);
+		assertEquals(100, slowTask.getTicks());
+
+		for (int i = 0; i < 250; i++) {
+			loop.tick(i * kPeriodNanos);
+		}
+		assertEquals(250, fast[0]);
+		// first tick, then every 100
+		assertEquals(3, slow[0]);
+
+		assertTrue(loop.remove(slowTask));
+		assertFalse(loop.remove(slowTask));
+		assertFalse(loop.remove(null));
+		for (int i = 0; i < 200; i++) {
+			loop.tick(i * kPeriodNanos);
+		}
+		assertEquals(3, slow[0]);
+		assertEquals(450, fast[0]);
+	}
+
+	@Test
+	public void testThrowingTaskDoesntStopTheRest() {
+		var loop = new ControlLoop(kPeriod);
+		int[] ran = { 0 };
+		loop.add("broken", Phase.PLAN, () -> {
+			throw new IllegalStateException("oops");
+		});
+		loop.add("fine", Phase.ACT, () -> ran[0]++);
+
+		loop.tick(0);
+		loop.tick(kPeriodNanos);
+		assertEquals(2, ran[0]);
+		assertEquals(2, loop.getErrors(Phase.PLAN));
+		assertEquals(0, loop.getErrors(Phase.ACT));
+	}
+
+	@Test
+	public void testErrorsCountPerTask() {
+		var loop = new ControlLoop(kPeriod);
+		var broken = loop.add("broken", Phase.PLAN, () -> {
+			throw new IllegalStateException("oops");
+		});
+		// a second's worth of ticks. Only a couple get logged, but they all get counted
+		for (int i = 0; i <= 200; i++) {
+			loop.tick(i * kPeriodNanos);
+		}
+		assertEquals(201, broken.getErrors());
+		assertEquals(201, loop.getErrors(Phase.PLAN));
+	}
+
+	@Test
+	public void testRemoveWaitsForTheTick() throws InterruptedException {
+		var loop = new ControlLoop(kPeriod);
+		var running = new CountDownLatch(1);
+		var finish = new CountDownLatch(1);
+		int[] runs = { 0 };
+		var task = loop.add("slow", Phase.ACT, () -> {
+			runs[0]++;
+			running.countDown();
+			try {
+				finish.await();
+			} catch (InterruptedException e) {
+			}
+		});
+
+		var ticker = new Thread(() -> loop.tick(0));
+		ticker.start();
+		running.await();
+
+		var removed = new AtomicBoolean(false);
+		var remover = new Thread(() -> removed.set(loop.remove(task)));
+		remover.start();
+		remover.join(50);
+		// still stuck in the tick, so remove can't have returned yet
+		assertTrue(remover.isAlive());
+		assertFalse(removed.get());
+
+		finish.countDown();
+		remover.join();
+		ticker.join();
+		assertTrue(removed.get());
+		loop.tick(kPeriodNanos);
+		assertEquals(1, runs[0]);
+	}
+
+	@Test
+	public void testOverrunsAndJitter() {
+		var loop = new ControlLoop(kPeriod);
+		loop.setBudget(Phase.PLAN, 0.0005);
+		loop.add("slow", Phase.PLAN, () -> {
+			long start = System.nanoTime();
+			while (System.nanoTime() - start < 1_000_000) {
+				// spin for a millisecond
+			}
+		});
+
+		long start = System.nanoTime();
+		loop.tick(start);
+		// late by 2ms
+		loop.tick(start + kPeriodNanos + 2_000_000);
+
+		assertEquals(2, loop.getOverruns(Phase.PLAN));
+		assertEquals(0, loop.getOverruns(Phase.SENSE));
+		assertEquals(0, loop.getLoopOverruns());
+		assertTrue(loop.getLastDuration(Phase.PLAN) >= 0.001);
+		assertEquals(0.002, loop.getMaxJitter(Phase.SENSE), 1e-9);
+		// later phases start whenever the earlier ones finish, so they jitter by at least as much
+		assertTrue(loop.getMaxJitter(Phase.ACT) > 0.0015);
+
+		// logging starts a new window for the maxes, but keeps the counts
+		loop.logPeriodicIO();
+		loop.tick(start + 2 * kPeriodNanos + 2_000_000);
+		assertEquals(0, loop.getMaxJitter(Phase.SENSE), 1e-9);
+		assertEquals(3, loop.getOverruns(Phase.PLAN));
+	}
+
+}
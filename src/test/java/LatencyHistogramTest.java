@@ -0,0 +1,118 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import frc.robot.lib.LatencyHistogram;
+import frc.robot.lib.LoopTimer;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void testPercentiles() {
+		var histogram = new LatencyHistogram(0.020);
+		// 1 to 1000 microseconds, once each
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(i * 1000L);
+		}
+		assertEquals(1000, histogram.getCount());
+		assertEquals(0.001, histogram.getMax(), 1e-12);
+		assertEquals(0.0005005, histogram.getMean(), 1e-12);
+
+		// buckets are never more than about 3% (or a microsecond) wide, and round up
+		for (double percentile : new double[] { 1, 10, 50, 90, 99, 99.9 }) {
+			double exact = percentile * 10 * 1e-6;
+			double measured = histogram.getPercentile(percentile);
+			assertTrue(percentile + ": " + measured, measured >= exact && measured <= Math.max(exact * 1.035, exact + 1e-6));
+		}
+		assertEquals(0.001, histogram.getPercentile(100), 1e-12);
+	}
+
+	@Test
+	public void testOverrunsAndReset() {
+		var histogram = new LatencyHistogram(0.020);
+		histogram.record(19_000_000);
+		histogram.record(21_000_000);
+		histogram.record(600_000_000_000L); // ten minutes, off the end
+		assertEquals(2, histogram.getOverruns());
+		assertEquals(600, histogram.getMax(), 1e-9);
+		assertEquals(600, histogram.getPercentile(100), 1e-9);
+
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getPercentile(50), 0);
+		histogram.record(1_000);
+		assertEquals(1, histogram.getCount());
+		assertEquals(0, histogram.getOverruns());
+		assertEquals(1e-6, histogram.getMax(), 1e-15);
+	}
+
+	@Test
+	public void testBucketsCoverEverything() {
+		// every microsecond up to 2^17 lands in exactly one bucket, in order
+		long[] buckets = { 0 };
+		var histogram = new LatencyHistogram(1);
+		for (long micros = 0; micros < 1 << 17; micros++) {
+			histogram.record(micros * 1000);
+		}
+		long[] total = { 0 }, last = { -1 };
+		histogram.forEachBucket((maxMicros, count) -> {
+			assertTrue(maxMicros > last[0]);
+			assertEquals(maxMicros - last[0], count);
+			last[0] = maxMicros;
+			total[0] += count;
+			buckets[0]++;
+		});
+		assertEquals(1 << 17, total[0]);
+		// linear to 32, then 32 per power of two
+		assertEquals(32 + 32 * 12, buckets[0]);
+	}
+
+	@Test
+	public void testSectionsAreShared() {
+		var timer = LoopTimer.getInstance();
+		var section = timer.section("LatencyHistogramTest", 0.001);
+		assertTrue(section == timer.section("LatencyHistogramTest", 1));
+		assertEquals(0.001, section.getHistogram().getBudget(), 0);
+
+		int[] ran = { 0 };
+		var wrapped = timer.wrap("LatencyHistogramTest", 1, () -> ran[0]++);
+		wrapped.run();
+		wrapped.run();
+		assertEquals(2, ran[0]);
+		assertEquals(2, section.getHistogram().getCount());
+	}
+
+	/**
+	 * Reports what timing a section costs, and checks it doesn't allocate
+	 */
+	@Test
+	@Tag(Benchmarks.kTag)
+	public void benchmarkRecord(TestReporter reporter) {
+		var section = LoopTimer.getInstance().section("LatencyHistogramTest benchmark", 0.020);
+		var random = new Random(5940);
+		var times = new long[4096];
+		for (int i = 0; i < times.length; i++) {
+			times[i] = (long) (Math.exp(random.nextGaussian() + 10));
+		}
+		int rounds = 2000;
+
+		var result = Benchmarks.measure(1, () -> {
+			for (int r = 0; r < rounds; r++) {
+				for (int i = 0; i < times.length; i++) {
+					long sectionStart = section.start();
+					section.getHistogram().record(times[i]);
+					section.stop(sectionStart);
+				}
+			}
+		});
+		result.report(reporter, "Timed section with an extra record", (double) rounds * times.length);
+
+		assertEquals(0, result.bytes);
+	}
+
+}
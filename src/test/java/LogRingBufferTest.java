@@ -0,0 +1,119 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+
+import frc.robot.lib.logging.BinaryLogWriter;
+import frc.robot.lib.logging.LogRingBuffer;
+
+public class LogRingBufferTest {
+
+	@Test
+	public void testDropsWhenFull() {
+		var buffer = new LogRingBuffer(4, 64);
+
+		for (int i = 0; i < 4; i++) {
+			assertTrue(buffer.offerText(i, "record " + i, null, null));
+		}
+		assertFalse(buffer.offerText(5, "this one gets dropped", null, null));
+
+		assertEquals(1, buffer.getDroppedRecords());
+		assertEquals(4, buffer.getHighWaterMark());
+
+		assertEquals(4, buffer.drain((data, offset, length) -> {}, 100));
+		assertTrue(buffer.isEmpty());
+		assertTrue(buffer.offerText(6, "room again", null, null));
+	}
+
+	@Test
+	public void testRoundTrip() {
+		var buffer = new LogRingBuffer(16, 64);
+		buffer.offerText(1000000, "Bus voltage", ", ", "12.1");
+		buffer.offerDouble(2000000, "Left talon output voltage", 6.5);
+
+		var raw = new ByteArrayOutputStream();
+		buffer.drain((data, offset, length) -> raw.write(data, offset, length), 100);
+
+		var text = new ByteArrayOutputStream();
+		BinaryLogWriter.decode(ByteBuffer.wrap(raw.toByteArray()), new PrintStream(text));
+
+		var lines = text.toString().split("\n");
+		assertEquals(2, lines.length);
+		assertEquals("1.0, Bus voltage, 12.1", lines[0]);
+		assertEquals("2.0, Left talon output voltage, 6.5", lines[1]);
+	}
+
+	@Test
+	public void testSkipDropsPendingRecords() {
+		var buffer = new LogRingBuffer(16, 64);
+		buffer.offerText(1, "before the clear", null, null);
+		buffer.offerText(2, "also before", null, null);
+		buffer.skipTo(buffer.getWritePosition());
+		buffer.offerText(3, "after the clear", null, null);
+
+		var raw = new ByteArrayOutputStream();
+		buffer.drain((data, offset, length) -> raw.write(data, offset, length), 100);
+		assertTrue(buffer.isEmpty());
+
+		var text = new ByteArrayOutputStream();
+		BinaryLogWriter.decode(ByteBuffer.wrap(raw.toByteArray()), new PrintStream(text));
+		assertEquals("3.0E-6, after the clear", text.toString().trim());
+	}
+
+	@Test
+	public void testTruncationIsCounted() {
+		var buffer = new LogRingBuffer(16, 32);
+		assertTrue(buffer.offerText(1, "fits", null, null));
+		assertEquals(0, buffer.getTruncatedRecords());
+		assertTrue(buffer.offerText(2, "this is a lot more than twenty bytes", null, null));
+		assertTrue(buffer.offerRow(3, new long[3], 3));
+		assertEquals(2, buffer.getTruncatedRecords());
+
+		var raw = new ByteArrayOutputStream();
+		buffer.drain((data, offset, length) -> raw.write(data, offset, length), 2);
+		var text = new ByteArrayOutputStream();
+		BinaryLogWriter.decode(ByteBuffer.wrap(raw.toByteArray()), new PrintStream(text));
+		assertEquals("2.0E-6, this is a lot more t...", text.toString().split("\n")[1]);
+	}
+
+	@Test
+	public void testManyProducers() throws InterruptedException {
+		final int kThreads = 4;
+		final int kPerThread = 20000;
+		var buffer = new LogRingBuffer(256, 32);
+
+		var producers = new Thread[kThreads];
+		for (int t = 0; t < kThreads; t++) {
+			producers[t] = new Thread(() -> {
+				for (int i = 0; i < kPerThread; i++) {
+					buffer.offerDouble(i, "k", i);
+				}
+			});
+			producers[t].start();
+		}
+
+		long drained = 0;
+		boolean alive = true;
+		while (alive) {
+			alive = false;
+			for (Thread producer : producers) {
+				alive |= producer.isAlive();
+			}
+			drained += buffer.drain((data, offset, length) -> {}, Integer.MAX_VALUE);
+		}
+		for (Thread producer : producers) {
+			producer.join();
+		}
+		drained += buffer.drain((data, offset, length) -> {}, Integer.MAX_VALUE);
+
+		// every record either made it through or was counted as dropped, never lost
+		assertEquals(kThreads * kPerThread, drained + buffer.getDroppedRecords());
+		assertTrue(buffer.getHighWaterMark() <= buffer.getCapacity());
+	}
+
+}
@@ -0,0 +1,87 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.ctre.phoenix.motion.TrajectoryPoint;
+
+import org.junit.jupiter.api.Test;
+
+import frc.robot.lib.motion.MotionProfileFeeder;
+
+public class MotionProfileFeederTest {
+
+	private static final int kPointDurationMs = 10;
+
+	private static MotionProfileFeeder.PointSource points(int count) {
+		return new MotionProfileFeeder.PointSource() {
+			@Override
+			public int size() {
+				return count;
+			}
+
+			@Override
+			public void fill(TrajectoryPoint point, int index) {
+				point.position = index;
+				point.velocity = 1;
+			}
+		};
+	}
+
+	@Test
+	public void testStreamsLongProfileWithoutUnderrun() {
+		// way more points than the top buffer can hold at once
+		var talon = new SimulatedProfileBuffer(128, 32);
+		var feeder = new MotionProfileFeeder(talon, points(3000), kPointDurationMs, 16);
+		feeder.reset();
+
+		feeder.feed();
+		assertTrue(feeder.isReadyToRun());
+		assertEquals(16, feeder.getPointsPushed());
+
+		talon.setEnabled(true);
+		// feed every half a point, like the Notifier does
+		for (int i = 0; i < 2 * 3000 + 10; i++) {
+			talon.run(kPointDurationMs / 2.0);
+			feeder.feed();
+		}
+
+		assertTrue(feeder.isDonePushing());
+		assertTrue(talon.isFinished());
+		assertEquals(3000, talon.getPointsExecuted());
+		assertEquals(0, feeder.getUnderruns());
+	}
+
+	@Test
+	public void testCountsUnderruns() {
+		var talon = new SimulatedProfileBuffer(128, 8);
+		var feeder = new MotionProfileFeeder(talon, points(200), kPointDurationMs, 4);
+		feeder.reset();
+		feeder.feed();
+
+		talon.setEnabled(true);
+		// only feeding every 5 points with 4 points per feed can't keep up
+		for (int i = 0; i < 100; i++) {
+			talon.run(5 * kPointDurationMs);
+			feeder.feed();
+		}
+
+		assertTrue(feeder.getUnderruns() > 0);
+		// the points still all get there eventually
+		assertEquals(200, talon.getPointsExecuted());
+	}
+
+	@Test
+	public void testShortProfileIsReady() {
+		var talon = new SimulatedProfileBuffer(128, 32);
+		var feeder = new MotionProfileFeeder(talon, points(3), kPointDurationMs);
+		feeder.reset();
+		assertFalse(feeder.isReadyToRun());
+		assertEquals(-1, feeder.getStartupLatency(), 0);
+
+		feeder.feed();
+		assertTrue(feeder.isDonePushing());
+		assertTrue(feeder.isReadyToRun());
+		assertTrue(feeder.getStartupLatency() >= 0);
+	}
+
+}
@@ -0,0 +1,94 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.junit.jupiter.api.Test;
+
+import frc.robot.lib.motion.MotionProfile;
+
+public class MotionProfileTest {
+
+	private static final File kCSV = new File("src/main/deploy/paths/test.left.pf1.csv");
+
+	@Test
+	public void testConvertedMatchesCSV() throws IOException {
+		var binary = File.createTempFile("profile", MotionProfile.kBinaryExtension);
+		binary.deleteOnExit();
+		MotionProfile.convertCSV(kCSV, binary);
+		var profile = MotionProfile.read(binary);
+
+		int row = 0;
+		try (var reader = new BufferedReader(new FileReader(kCSV))) {
+			String line = reader.readLine();
+			while ((line = reader.readLine()) != null) {
+				String[] values = line.split(",");
+				for (int column = 0; column < MotionProfile.kColumns; column++) {
+					assertEquals(Double.parseDouble(values[column]), profile.get(column, row), 0);
+				}
+				row++;
+			}
+		}
+		assertEquals(row, profile.size());
+	}
+
+	@Test
+	public void testDeployedBinaryIsUpToDate() throws IOException {
+		var deployed = MotionProfile.load(kCSV.getPath());
+		var parsed = MotionProfile.wrap(MotionProfile.parseCSV(kCSV));
+
+		assertEquals(parsed.size(), deployed.size());
+		for (int i = 0; i < parsed.size(); i++) {
+			assertEquals(parsed.getPosition(i), deployed.getPosition(i), 0);
+			assertEquals(parsed.getVelocity(i), deployed.getVelocity(i), 0);
+			assertEquals(parsed.getHeading(i), deployed.getHeading(i), 0);
+		}
+	}
+
+	@Test
+	public void testStaleBinaryIsSkipped() throws IOException {
+		var directory = Files.createTempDirectory("profiles").toFile();
+		directory.deleteOnExit();
+		var csv = new File(directory, "stale" + MotionProfile.kCSVExtension);
+		var binary = new File(directory, "stale" + MotionProfile.kBinaryExtension);
+		csv.deleteOnExit();
+		binary.deleteOnExit();
+		int points = MotionProfile.wrap(MotionProfile.parseCSV(kCSV)).size();
+
+		// converted from a shorter path, then the csv got regenerated
+		var lines = Files.readAllLines(kCSV.toPath());
+		Files.write(csv.toPath(), lines.subList(0, lines.size() / 2));
+		MotionProfile.convertCSV(csv, binary);
+		Files.copy(kCSV.toPath(), csv.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		binary.setLastModified(csv.lastModified());
+		assertFalse(MotionProfile.isUpToDate(csv, binary));
+		assertEquals(points, MotionProfile.load(csv.getPath()).size());
+
+		// same points, but the csv is newer
+		MotionProfile.convertCSV(csv, binary);
+		binary.setLastModified(csv.lastModified() - 60000);
+		assertFalse(MotionProfile.isUpToDate(csv, binary));
+
+		binary.setLastModified(csv.lastModified());
+		assertTrue(MotionProfile.isUpToDate(csv, binary));
+		assertEquals(points, MotionProfile.load(csv.getPath()).size());
+	}
+
+	@Test
+	public void testRejectsGarbage() {
+		assertThrows(IllegalArgumentException.class, () -> MotionProfile.wrap(ByteBuffer.allocate(64)));
+
+		var truncated = ByteBuffer.allocate(MotionProfile.kHeaderBytes);
+		truncated.putInt(MotionProfile.kMagic).putInt(MotionProfile.kVersion).putInt(MotionProfile.kColumns).putInt(10).flip();
+		assertThrows(IllegalArgumentException.class, () -> MotionProfile.wrap(truncated));
+	}
+
+}
@@ -0,0 +1,167 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import frc.robot.lib.motion.PoseEstimatorReplay;
+import frc.robot.lib.motion.PoseKalmanFilter;
+
+/**
+ * Drives a simulated robot around with a slipping left wheel, a drifting gyro and a noisy, late
+ * camera, writes the readings out like a decoded telemetry log, and replays it through the filter.
+ */
+public class PoseEstimatorReplayTest {
+
+	private static final double kTrackWidth = 0.66;
+	private static final double kSimDt = 0.01;
+	private static final int kTicksPerRow = 2; // the log is written every other estimator tick, like the robot loop
+	private static final int kRowsPerFrame = 5;
+	private static final double kCameraLatency = 0.05;
+
+	private static PoseKalmanFilter makeFilter() {
+		return new PoseKalmanFilter(kTrackWidth, 0.05 * 0.05, Math.pow(Math.toRadians(1), 2), 0.1 * 0.1, Math.pow(Math.toRadians(5), 2));
+	}
+
+	/**
+	 * Make a log of the robot driving around for some time
+	 * @param withVision if the camera can see anything
+	 * @param truth gets the real x, y and heading at the end
+	 */
+	private static String simulate(double seconds, boolean withVision, double[] truth) {
+		var random = new Random(5499);
+		var log = new StringBuilder("time," + String.join(",", PoseEstimatorReplay.kTimestampColumn, PoseEstimatorReplay.kLeftColumn,
+				PoseEstimatorReplay.kRightColumn, PoseEstimatorReplay.kGyroColumn, PoseEstimatorReplay.kVisionTimeColumn,
+				PoseEstimatorReplay.kVisionXColumn, PoseEstimatorReplay.kVisionYColumn, PoseEstimatorReplay.kVisionHeadingColumn) + "\n");
+
+		int steps = (int) (seconds / kSimDt);
+		double[] xs = new double[steps + 1], ys = new double[steps + 1], headings = new double[steps + 1];
+		double left = 0, right = 0, gyro = 0.3; // the gyro doesn't start at zero
+		double frameTime = Double.NaN, frameX = 0, frameY = 0, frameHeading = 0;
+
+		for (int step = 1; step <= steps; step++) {
+			double time = step * kSimDt;
+			double linear = 1.5 * kSimDt;
+			double angular = 0.8 * Math.sin(0.4 * time) * kSimDt;
+			double mid = headings[step - 1] + angular / 2;
+			xs[step] = xs[step - 1] + linear * Math.cos(mid);
+			ys[step] = ys[step - 1] + linear * Math.sin(mid);
+			headings[step] = headings[step - 1] + angular;
+
+			double leftTravel = linear - angular * kTrackWidth / 2;
+			double rightTravel = linear + angular * kTrackWidth / 2;
+			left += leftTravel * 1.03 + random.nextGaussian() * 0.001; // the left side slips
+			right += rightTravel + random.nextGaussian() * 0.001;
+			gyro += angular + 0.0003 * kSimDt + random.nextGaussian() * 0.0005; // about a degree a minute of drift
+
+			if (step % kTicksPerRow != 0)
+				continue;
+			int row = step / kTicksPerRow;
+			if (withVision && row % kRowsPerFrame == 0) {
+				int frameStep = step - (int) Math.round(kCameraLatency / kSimDt);
+				frameTime = frameStep * kSimDt;
+				frameX = xs[frameStep] + random.nextGaussian() * 0.05;
+				frameY = ys[frameStep] + random.nextGaussian() * 0.05;
+				frameHeading = headings[frameStep] + random.nextGaussian() * Math.toRadians(2);
+			}
+			log.append(time).append(',').append(time).append(',').append(left).append(',').append(right).append(',').append(gyro)
+					.append(',').append(frameTime).append(',').append(frameX).append(',').append(frameY).append(',').append(frameHeading).append('\n');
+		}
+
+		truth[0] = xs[steps];
+		truth[1] = ys[steps];
+		truth[2] = headings[steps];
+		return log.toString();
+	}
+
+	private static double error(PoseKalmanFilter filter, double[] truth) {
+		return Math.hypot(filter.getX() - truth[0], filter.getY() - truth[1]);
+	}
+
+	@Test
+	public void testDrivesStraight() {
+		var filter = makeFilter();
+		filter.reset(1, 2, 0);
+		filter.update(0, 10, 10, 5);
+		filter.update(0.01, 11, 11, 5);
+		assertEquals(2, filter.getX(), 1e-9);
+		assertEquals(2, filter.getY(), 1e-9);
+		assertEquals(0, filter.getHeading(), 1e-9);
+		assertTrue(filter.getCovariance(0, 0) > 0);
+	}
+
+	@Test
+	public void testThrowsOutOldVision() {
+		var filter = makeFilter();
+		filter.update(10, 0, 0, 0);
+		assertFalse(filter.addVisionMeasurement(5, 1, 1, 0));
+		assertTrue(filter.addVisionMeasurement(10, 1, 1, 0));
+	}
+
+	@Test
+	public void testVisionFixesSlip() throws IOException {
+		var truth = new double[3];
+
+		var deadReckoning = new PoseEstimatorReplay(makeFilter());
+		deadReckoning.replay(new StringReader(simulate(30, false, truth)));
+
+		var fused = new PoseEstimatorReplay(makeFilter());
+		fused.replay(new StringReader(simulate(30, true, truth)));
+
+		double deadReckoningError = error(deadReckoning.getFilter(), truth);
+		double fusedError = error(fused.getFilter(), truth);
+
+		assertEquals(0, deadReckoning.getVisionMeasurements());
+		assertTrue(fused.getVisionMeasurements() > 100);
+		assertEquals(0, fused.getRejectedVisionMeasurements());
+		assertTrue("fused error " + fusedError, fusedError < 0.15);
+		assertTrue(fusedError < deadReckoningError / 2);
+
+		double[] covariance = new double[9];
+		fused.getFilter().getCovariance(covariance);
+		assertTrue(covariance[0] > 0 && covariance[4] > 0 && covariance[8] > 0);
+		assertEquals(covariance[1], covariance[3], 0);
+	}
+
+	/**
+	 * Checks the filter doesn't allocate per tick, with a camera frame every fifth tick like the
+	 * replay, and reports what a tick costs. Also reports the replay's own timing of a long log,
+	 * which has the worst tick in it.
+	 */
+	@Test
+	@Tag(Benchmarks.kTag)
+	public void benchmarkUpdate(TestReporter reporter) throws IOException {
+		var filter = makeFilter();
+		int ticks = 100000;
+		var time = new double[1];
+
+		var result = Benchmarks.measure(1, () -> {
+			for (int i = 0; i < ticks; i++) {
+				time[0] += kSimDt;
+				double distance = time[0] * 2;
+				filter.update(time[0], distance, distance * 1.01, time[0] * 0.01);
+				if (i % (kTicksPerRow * kRowsPerFrame) == 0) {
+					filter.addVisionMeasurement(time[0] - kCameraLatency, filter.getX() + 0.05, filter.getY() - 0.05, filter.getHeading());
+				}
+			}
+		});
+		result.report(reporter, "PoseKalmanFilter tick", ticks);
+
+		var log = simulate(120, true, new double[3]);
+		new PoseEstimatorReplay(makeFilter()).replay(new StringReader(log));
+		var replay = new PoseEstimatorReplay(makeFilter());
+		replay.replay(new StringReader(log));
+		reporter.publishEntry("Replay tick (ns, mean)", String.format("%.0f", replay.getMeanNanos()));
+		reporter.publishEntry("Replay tick (ns, worst)", Long.toString(replay.getMaxNanos()));
+
+		assertTrue(Double.isFinite(filter.getX()));
+		assertTrue(result.bytes / ticks < 1);
+	}
+
+}
@@ -0,0 +1,114 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import frc.robot.lib.motion.PoseHistory;
+
+public class PoseHistoryTest {
+
+	private static final double kDt = 0.01;
+
+	@Test
+	public void testEmpty() {
+		var history = new PoseHistory();
+		var out = new double[] { 1, 2, 3 };
+		assertFalse(history.getPose(0, out));
+		assertEquals(1, out[0], 0);
+		assertEquals(0, history.size());
+	}
+
+	@Test
+	public void testInterpolates() {
+		var history = new PoseHistory();
+		for (int i = 0; i < 50; i++) {
+			history.add(i * kDt, i, 2 * i, 0.01 * i);
+		}
+		var out = new double[3];
+
+		assertTrue(history.getPose(0.105, out));
+		assertEquals(10.5, out[0], 1e-9);
+		assertEquals(21, out[1], 1e-9);
+		assertEquals(0.105, out[2], 1e-9);
+
+		// right on a sample
+		history.getPose(0.2, out);
+		assertEquals(20, out[0], 1e-9);
+
+		// off either end gets clamped
+		history.getPose(-1, out);
+		assertEquals(0, out[0], 0);
+		history.getPose(10, out);
+		assertEquals(49, out[0], 0);
+	}
+
+	@Test
+	public void testHeadingWrapsTheShortWay() {
+		var history = new PoseHistory();
+		history.add(0, 0, 0, Math.PI - 0.1);
+		history.add(1, 0, 0, -Math.PI + 0.1);
+		var out = new double[3];
+		history.getPose(0.5, out);
+		assertEquals(-1, Math.cos(out[2]), 1e-9);
+	}
+
+	@Test
+	public void testOverwritesOldest() {
+		var history = new PoseHistory(100); // rounds up to 128
+		assertEquals(128, history.getCapacity());
+		for (int i = 0; i < 1000; i++) {
+			history.add(i * kDt, i, 0, 0);
+		}
+		assertEquals(128, history.size());
+
+		var out = new double[3];
+		history.getPose(0, out);
+		assertEquals(1000 - 128, out[0], 0);
+		history.getPose(9.985, out);
+		assertEquals(998.5, out[0], 1e-9);
+
+		history.clear();
+		assertEquals(0, history.size());
+		assertFalse(history.getPose(9.985, out));
+	}
+
+	/**
+	 * Hammer the history from a writer and a couple of readers, and make sure no reader ever sees
+	 * a pose that's half one sample and half another. Every pose written has y = 2x and heading = -x.
+	 */
+	@Test
+	public void testReadersNeverSeeTornPoses() throws InterruptedException {
+		var history = new PoseHistory(16);
+		var done = new AtomicBoolean(false);
+		var failure = new AtomicReference<String>();
+
+		Runnable reader = () -> {
+			var out = new double[3];
+			while (!done.get()) {
+				// chase the writer, looking a bit behind the last pose this reader saw
+				if (history.getPose(out[0] * kDt - 0.05, out)) {
+					if (Math.abs(out[1] - 2 * out[0]) > 1e-6 || Math.abs(out[2] + out[0]) > 1e-6) {
+						failure.compareAndSet(null, "torn pose " + out[0] + ", " + out[1] + ", " + out[2]);
+					}
+				}
+			}
+		};
+		var readers = new Thread[] { new Thread(reader), new Thread(reader) };
+		for (var thread : readers)
+			thread.start();
+
+		for (int i = 0; i < 2_000_000; i++) {
+			history.add(i * kDt, i, 2 * i, -i);
+		}
+		done.set(true);
+		for (var thread : readers)
+			thread.join();
+
+		assertEquals(null, failure.get());
+	}
+
+}
@@ -0,0 +1,103 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.ghrobotics.lib.mathematics.units.LengthKt;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import frc.robot.lib.obj.RoundRotation2d;
+import frc.robot.planners.PresetPlanTable;
+import frc.robot.states.ElevatorState;
+import frc.robot.states.IntakeAngle;
+import frc.robot.states.SuperStructureState;
+
+public class PresetPlanTableTest {
+
+	static SuperStructureState state(double height, double elbow, double wrist) {
+		return new SuperStructureState(new ElevatorState(LengthKt.getInch(height)), new IntakeAngle(RoundRotation2d.getDegree(elbow), RoundRotation2d.getDegree(wrist)));
+	}
+
+	@Test
+	public void testEveryPresetPairIsPlanned() {
+		var table = PresetPlanTable.getInstance();
+		for (int start = 0; start < table.getPresetCount(); start++) {
+			for (int goal = 0; goal < table.getPresetCount(); goal++) {
+				assertFalse(table.getPlan(start, goal).isEmpty());
+			}
+		}
+	}
+
+	@Test
+	public void testOnPresetIsLookedUp() {
+		var table = new PresetPlanTable(state(20, 5, 4), state(40, 6, 16), state(17.5, -58, 36));
+		// close enough to the first preset to count
+		var start = state(20.5, 3, 6);
+		assertEquals(0, table.indexOf(start));
+		var plan = table.getPlan(start, table.getPreset(2));
+		assertTrue(plan == table.getPlan(0, 2));
+		assertEquals(1, table.getHits());
+		assertEquals(0, table.getMisses());
+	}
+
+	@Test
+	public void testOffPresetIsPlannedLive() {
+		var table = new PresetPlanTable(state(20, 5, 4), state(40, 6, 16));
+		var start = state(30, -20, 0);
+		assertEquals(-1, table.indexOf(start));
+		var plan = table.getPlan(start, table.getPreset(1));
+		assertEquals(1, table.getMisses());
+		assertFalse(plan.isEmpty());
+		var last = plan.get(plan.size() - 1);
+		assertEquals(40, last.getElevatorHeight().getInch(), 1e-9);
+		assertEquals(6, last.getElbowAngle().getDegree(), 1e-9);
+		assertEquals(16, last.getWristAngle().getDegree(), 1e-9);
+
+		// and a goal that isn't a preset either
+		assertFalse(table.getPlan(table.getPreset(0), state(45, 0, 0)).isEmpty());
+		assertEquals(2, table.getMisses());
+	}
+
+	@Test
+	public void testSafedGoalIsReported() {
+		// straight down at the bottom is blocked, as a preset and planned live
+		var table = new PresetPlanTable(state(40, 6, 16), state(0.5, -90, 0));
+		assertFalse(table.getPlan(table.getPreset(1), table.getPreset(0)).isEmpty());
+		assertFalse(table.isGoalSafed());
+		var plan = table.getPlan(table.getPreset(0), table.getPreset(1));
+		assertTrue(table.isGoalSafed());
+		assertTrue(plan.get(plan.size() - 1).getElevatorHeight().getInch() > 0.5);
+
+		table.getPlan(state(30, -20, 0), table.getPreset(0));
+		assertFalse(table.isGoalSafed());
+		table.getPlan(state(30, -20, 0), table.getPreset(1));
+		assertTrue(table.isGoalSafed());
+	}
+
+	/**
+	 * Reports what looking up a preset to preset plan costs, and checks it doesn't allocate
+	 */
+	@Test
+	@Tag(Benchmarks.kTag)
+	public void benchmarkLookup(TestReporter reporter) {
+		var table = PresetPlanTable.getInstance();
+		int presets = table.getPresetCount();
+		int rounds = 20000;
+
+		var sizes = new int[1];
+		var result = Benchmarks.measure(1, () -> {
+			for (int r = 0; r < rounds; r++) {
+				for (int i = 0; i < presets; i++) {
+					// as PlannedGoToState does it, with the goal's index from its constructor
+					sizes[0] += table.getPlan(table.getPreset(i), table.getPreset(r % presets), r % presets).size();
+				}
+			}
+		});
+		result.report(reporter, "Preset to preset plan lookup", (double) rounds * presets);
+
+		assertTrue(sizes[0] > 0);
+		assertEquals(0, result.bytes);
+	}
+
+}
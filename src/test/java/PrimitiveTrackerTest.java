@@ -0,0 +1,155 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ghrobotics.lib.mathematics.twodim.control.FeedForwardTracker;
+import org.ghrobotics.lib.mathematics.twodim.control.PurePursuitTracker;
+import org.ghrobotics.lib.mathematics.twodim.control.RamseteTracker;
+import org.ghrobotics.lib.mathematics.twodim.control.TrajectoryTracker;
+import org.ghrobotics.lib.mathematics.twodim.geometry.Pose2d;
+import org.ghrobotics.lib.mathematics.twodim.geometry.Pose2dWithCurvature;
+import org.ghrobotics.lib.mathematics.twodim.geometry.Translation2d;
+import org.ghrobotics.lib.mathematics.twodim.trajectory.types.TimedTrajectory;
+import org.ghrobotics.lib.mathematics.units.LengthKt;
+import org.ghrobotics.lib.mathematics.units.Rotation2d;
+import org.ghrobotics.lib.mathematics.units.TimeUnitsKt;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import frc.robot.Constants;
+import frc.robot.commands.auto.Trajectories;
+import frc.robot.commands.auto.TrajectorySpecRegistry;
+import frc.robot.lib.motion.FlatTrajectory;
+import frc.robot.lib.motion.PrimitiveFeedForwardTracker;
+import frc.robot.lib.motion.PrimitivePurePursuitTracker;
+import frc.robot.lib.motion.PrimitiveRamseteTracker;
+import frc.robot.lib.motion.PrimitiveTrajectoryTracker;
+import frc.robot.subsystems.DriveTrain.Gear;
+
+/**
+ * Checks that our trackers do the same thing as the FalconLibrary ones on every path in
+ * trajectories.json, and that ours don't allocate while they're tracking. The benchmark reports
+ * what each costs per call next to FalconLibrary's.
+ */
+public class PrimitiveTrackerTest {
+
+	private static final double kDt = 0.01;
+	private static final double kVelocityTolerance = 0.05; // m/s and rad/s
+
+	private static List<TimedTrajectory<Pose2dWithCurvature>> trajectories;
+
+	private static synchronized List<TimedTrajectory<Pose2dWithCurvature>> getTrajectories() throws IOException {
+		if (trajectories == null) {
+			var registry = new TrajectorySpecRegistry((waypoints, gear, reversed) -> (gear == Gear.HIGH)
+					? Trajectories.generateTrajectoryHighGear(waypoints, reversed)
+					: Trajectories.generateTrajectoryLowGear(waypoints, reversed), Integer.MAX_VALUE);
+			registry.load(new File("src/main/deploy/" + TrajectorySpecRegistry.kSpecFileName));
+
+			trajectories = new ArrayList<>();
+			for (Gear gear : Gear.values()) {
+				for (String name : registry.getNames(gear)) {
+					trajectories.add(registry.get(gear, name));
+				}
+			}
+		}
+		return trajectories;
+	}
+
+	/**
+	 * Drive a simulated robot along a trajectory with the old tracker, starting a bit off the
+	 * path, and check that the new tracker asks for the same velocities at every step
+	 */
+	private static void compare(TrajectoryTracker falcon, PrimitiveTrajectoryTracker primitive, TimedTrajectory<Pose2dWithCurvature> trajectory) {
+		falcon.reset(trajectory);
+		primitive.reset(trajectory);
+
+		var start = trajectory.getFirstState().getState().getPose();
+		double x = start.getTranslation().getX().getValue() + 0.1;
+		double y = start.getTranslation().getY().getValue() - 0.1;
+		double heading = start.getRotation().getValue() + Math.toRadians(5);
+
+		double time = 0;
+		while (!falcon.isFinished()) {
+			var pose = new Pose2d(new Translation2d(LengthKt.getMeter(x), LengthKt.getMeter(y)), new Rotation2d(heading));
+			var expected = falcon.nextState(pose, TimeUnitsKt.getSecond(time));
+			primitive.nextState(x, y, heading, time);
+
+			double linear = expected.getLinearVelocity().getValue();
+			double angular = expected.getAngularVelocity().getValue();
+			assertEquals("linear velocity at " + time + " s", linear, primitive.getVelocity().getLinear(), kVelocityTolerance);
+			assertEquals("angular velocity at " + time + " s", angular, primitive.getVelocity().getAngular(), kVelocityTolerance);
+
+			x += linear * Math.cos(heading) * kDt;
+			y += linear * Math.sin(heading) * kDt;
+			heading += angular * kDt;
+			time += kDt;
+		}
+		assertTrue(primitive.isFinished());
+	}
+
+	@Test
+	public void testRamseteMatches() throws IOException {
+		for (var trajectory : getTrajectories()) {
+			compare(new RamseteTracker(Constants.kDriveBeta, Constants.kDriveZeta),
+					new PrimitiveRamseteTracker(Constants.kDriveBeta, Constants.kDriveZeta), trajectory);
+		}
+	}
+
+	@Test
+	public void testPurePursuitMatches() throws IOException {
+		for (var trajectory : getTrajectories()) {
+			compare(new PurePursuitTracker(Constants.kLat, Constants.kLookaheadTime, Constants.kMinLookaheadDistance),
+					new PrimitivePurePursuitTracker(Constants.kLat, Constants.kLookaheadTime.getValue(), Constants.kMinLookaheadDistance.getValue()),
+					trajectory);
+		}
+	}
+
+	@Test
+	public void testFeedForwardMatches() throws IOException {
+		for (var trajectory : getTrajectories()) {
+			compare(new FeedForwardTracker(), new PrimitiveFeedForwardTracker(), trajectory);
+		}
+	}
+
+	@Test
+	@Tag(Benchmarks.kTag)
+	public void benchmarkRamsete(TestReporter reporter) throws IOException {
+		var trajectory = getTrajectories().get(0);
+		var flat = FlatTrajectory.of(trajectory);
+		var falcon = new RamseteTracker(Constants.kDriveBeta, Constants.kDriveZeta);
+		var primitive = new PrimitiveRamseteTracker(Constants.kDriveBeta, Constants.kDriveZeta);
+		var pose = trajectory.getFirstState().getState().getPose();
+		double x = pose.getTranslation().getX().getValue(), y = pose.getTranslation().getY().getValue(), heading = pose.getRotation().getValue();
+
+		int steps = (int) (flat.getTotalTime() / kDt);
+		int runs = 200;
+		var falconResult = Benchmarks.measure(1, () -> {
+			for (int run = 0; run < runs; run++) {
+				falcon.reset(trajectory);
+				for (int i = 0; i < steps; i++) {
+					falcon.nextState(pose, TimeUnitsKt.getSecond(i * kDt));
+				}
+			}
+		});
+		var primitiveResult = Benchmarks.measure(1, () -> {
+			for (int run = 0; run < runs; run++) {
+				primitive.reset(flat);
+				for (int i = 0; i < steps; i++) {
+					primitive.nextState(x, y, heading, i * kDt);
+				}
+			}
+		});
+
+		long calls = (long) runs * steps;
+		falconResult.report(reporter, "FalconLibrary Ramsete nextState", calls);
+		primitiveResult.report(reporter, "Primitive Ramsete nextState", calls);
+		// reset makes a couple of cursors, but nextState shouldn't allocate anything
+		assertTrue(primitiveResult.bytes / calls < 1);
+	}
+
+}
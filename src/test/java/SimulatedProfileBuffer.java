@@ -0,0 +1,115 @@
+import com.ctre.phoenix.ErrorCode;
+import com.ctre.phoenix.motion.MotionProfileStatus;
+import com.ctre.phoenix.motion.TrajectoryPoint;
+
+import frc.robot.lib.motion.MotionProfileFeeder.ProfileBuffer;
+
+/**
+ * A stand in for a Talon's motion profile buffers. Points go into a top buffer with a fixed
+ * capacity, processMotionProfileBuffer moves as many as fit into the bottom buffer, and while
+ * the profile is enabled run() drains the bottom buffer one point per point duration.
+ * Running out before the last point sets hasUnderrun, just like the real thing.
+ */
+public class SimulatedProfileBuffer implements ProfileBuffer {
+
+	private final int topCapacity;
+	private final int bottomCapacity;
+
+	private int topCount = 0;
+	private int bottomCount = 0;
+	private boolean lastPointQueued = false;
+	private boolean finished = false;
+	private boolean hasUnderrun = false;
+	private boolean enabled = false;
+	private int pointsExecuted = 0;
+	private double msIntoPoint = 0;
+	private int pointDurationMs = 0;
+
+	public SimulatedProfileBuffer(int topCapacity, int bottomCapacity) {
+		this.topCapacity = topCapacity;
+		this.bottomCapacity = bottomCapacity;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Run the profile for some time, draining points from the bottom buffer
+	 */
+	public void run(double ms) {
+		if (!enabled || finished)
+			return;
+		msIntoPoint += ms;
+		while (pointDurationMs > 0 && msIntoPoint >= pointDurationMs && !finished) {
+			msIntoPoint -= pointDurationMs;
+			if (bottomCount == 0) {
+				hasUnderrun = true;
+				continue;
+			}
+			bottomCount--;
+			pointsExecuted++;
+			if (bottomCount == 0 && topCount == 0 && lastPointQueued)
+				finished = true;
+		}
+	}
+
+	public int getPointsExecuted() {
+		return pointsExecuted;
+	}
+
+	public boolean isFinished() {
+		return finished;
+	}
+
+	@Override
+	public ErrorCode pushMotionProfileTrajectory(TrajectoryPoint point) {
+		if (topCount >= topCapacity)
+			return ErrorCode.BufferFull;
+		topCount++;
+		pointDurationMs = point.timeDur;
+		lastPointQueued |= point.isLastPoint;
+		return ErrorCode.OK;
+	}
+
+	@Override
+	public void processMotionProfileBuffer() {
+		int toMove = Math.min(topCount, bottomCapacity - bottomCount);
+		topCount -= toMove;
+		bottomCount += toMove;
+	}
+
+	@Override
+	public ErrorCode getMotionProfileStatus(MotionProfileStatus status) {
+		status.topBufferCnt = topCount;
+		status.topBufferRem = topCapacity - topCount;
+		status.btmBufferCnt = bottomCount;
+		status.hasUnderrun = hasUnderrun;
+		status.isUnderrun = enabled && bottomCount == 0 && !finished;
+		status.isLast = finished;
+		return ErrorCode.OK;
+	}
+
+	@Override
+	public ErrorCode clearMotionProfileTrajectories() {
+		topCount = 0;
+		bottomCount = 0;
+		lastPointQueued = false;
+		finished = false;
+		pointsExecuted = 0;
+		msIntoPoint = 0;
+		return ErrorCode.OK;
+	}
+
+	@Override
+	public ErrorCode clearMotionProfileHasUnderrun(int timeoutMs) {
+		hasUnderrun = false;
+		return ErrorCode.OK;
+	}
+
+	@Override
+	public ErrorCode changeMotionControlFramePeriod(int periodMs) {
+		return ErrorCode.OK;
+	}
+
+}
@@ -0,0 +1,55 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
+
+import org.junit.jupiter.api.Test;
+
+import frc.robot.lib.StatusFrameManager;
+import frc.robot.lib.StatusFrameProfile;
+
+public class StatusFrameProfileTest {
+
+	@Test
+	public void testWithPeriodMakesACopy() {
+		var fast = StatusFrameProfile.kMaster.withPeriod("Fast", StatusFrameEnhanced.Status_2_Feedback0, 5);
+		assertEquals(5, fast.getPeriod(StatusFrameEnhanced.Status_2_Feedback0));
+		assertEquals(10, StatusFrameProfile.kMaster.getPeriod(StatusFrameEnhanced.Status_2_Feedback0));
+
+		var tooSlow = StatusFrameProfile.kMaster.withPeriod("Too slow", StatusFrameEnhanced.Status_2_Feedback0, 1000);
+		assertEquals(StatusFrameProfile.kMaxPeriod, tooSlow.getPeriod(StatusFrameEnhanced.Status_2_Feedback0));
+	}
+
+	@Test
+	public void testProfilesSendLessThanDefault() {
+		double defaultRate = StatusFrameProfile.kDefault.getFramesPerSecond();
+		assertTrue(StatusFrameProfile.kFollower.getFramesPerSecond() < defaultRate / 5);
+		assertTrue(StatusFrameProfile.kOpenLoop.getFramesPerSecond() < defaultRate / 2);
+		assertTrue(StatusFrameProfile.kSensorOnly.getFramesPerSecond() < defaultRate);
+	}
+
+	@Test
+	public void testRobotBusUtilization() {
+		// the 2019 robot: 2 drive masters and 2 followers, the elevator master and 3 followers,
+		// the elbow master and follower, the wrist, and 2 intake talons
+		var driveMaster = StatusFrameProfile.kMaster.withPeriod("Drive master", StatusFrameEnhanced.Status_2_Feedback0, 5);
+		var profiles = new ArrayList<StatusFrameProfile>();
+		Collections.addAll(profiles, driveMaster, driveMaster, StatusFrameProfile.kMaster, StatusFrameProfile.kMaster, StatusFrameProfile.kMaster,
+				StatusFrameProfile.kOpenLoop, StatusFrameProfile.kOpenLoop);
+		for (int i = 0; i < 6; i++) {
+			profiles.add(StatusFrameProfile.kFollower);
+		}
+		var defaults = Collections.nCopies(profiles.size(), StatusFrameProfile.kDefault);
+
+		double profiled = StatusFrameManager.estimateBusUtilization(profiles);
+		double unprofiled = StatusFrameManager.estimateBusUtilization(defaults);
+		System.out.println(String.format("%d talons: %.1f%% of the bus with profiles, %.1f%% on defaults", profiles.size(), profiled * 100, unprofiled * 100));
+
+		assertTrue(profiled < unprofiled);
+		assertTrue(unprofiled < 1);
+	}
+
+}
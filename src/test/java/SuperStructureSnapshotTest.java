@@ -0,0 +1,80 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import frc.robot.lib.statemachines.AutoMotionStateMachine.HeldPiece;
+import frc.robot.states.SuperStructureSnapshot;
+import frc.robot.states.SuperStructureState;
+import frc.robot.states.SuperStructureView;
+
+public class SuperStructureSnapshotTest {
+
+	@Test
+	public void testCopyAndToState() {
+		var snapshot = new SuperStructureSnapshot();
+		snapshot.set(3, 1.5, 20, 4, -44, 10, -20, -5, HeldPiece.CARGO);
+		var copy = new SuperStructureSnapshot();
+		copy.copyFrom(snapshot);
+		assertEquals(3, copy.getSequence());
+		assertEquals(1.5, copy.getTime(), 0);
+		assertEquals(4, copy.getHeightVelocity(), 0);
+		assertEquals(-5, copy.getWristVelocity(), 0);
+
+		var state = SuperStructureSnapshot.toState(copy);
+		assertEquals(20, state.getElevatorHeight().getInch(), 1e-9);
+		assertEquals(-44, state.getElbowAngle().getDegree(), 1e-9);
+		assertEquals(-20, state.getWristAngle().getDegree(), 1e-9);
+		assertEquals(HeldPiece.CARGO, state.getHeldPiece());
+	}
+
+	/**
+	 * The old way made a whole new SuperStructureState every time anything asked, which was
+	 * about four times a loop (getCurrentState, move, Elevator.getVoltage and robotPeriodic).
+	 * Reports what each way costs per loop and how much the snapshot saves. Checks the old way
+	 * allocates and reading snapshots doesn't.
+	 */
+	@Test
+	@Tag(Benchmarks.kTag)
+	public void benchmarkAllocationPerLoop(TestReporter reporter) {
+		int loops = 100000, readsPerLoop = 4;
+		var snapshots = new SuperStructureSnapshot[] { new SuperStructureSnapshot(), new SuperStructureSnapshot() };
+		// commands hang on to the states they get, so the JIT can't just not make them
+		var kept = new SuperStructureState[readsPerLoop];
+		var sum = new double[1];
+
+		var old = Benchmarks.measure(1, () -> {
+			for (int i = 0; i < loops; i++) {
+				snapshots[0].set(i, i * 0.02, i % 60, 1, -(i % 180), 2, i % 90, 3, HeldPiece.NONE);
+				for (int r = 0; r < readsPerLoop; r++) {
+					kept[r] = SuperStructureSnapshot.toState(snapshots[0]);
+					sum[0] += kept[r].getElbowAngle().getDegree();
+				}
+			}
+		});
+
+		var snapshot = Benchmarks.measure(1, () -> {
+			SuperStructureView front = snapshots[0];
+			for (int i = 0; i < loops; i++) {
+				// fill the one nobody's reading, then swap
+				var next = snapshots[(i + 1) & 1];
+				next.set(i, i * 0.02, i % 60, 1, -(i % 180), 2, i % 90, 3, HeldPiece.NONE);
+				front = next;
+				for (int r = 0; r < readsPerLoop; r++) {
+					sum[0] += front.getElbow();
+				}
+			}
+		});
+
+		old.report(reporter, "New state every read, per loop", loops);
+		snapshot.report(reporter, "Snapshot, per loop", loops);
+		reporter.publishEntry("Snapshot saves per loop", String.format("%.0f bytes, %.0f ns",
+				old.bytesPer(loops) - snapshot.bytesPer(loops), old.nanosPer(loops) - snapshot.nanosPer(loops)));
+		assertTrue(Double.isFinite(sum[0]));
+		assertEquals(0, snapshot.bytes);
+		assertTrue(old.bytes > 0);
+	}
+
+}
@@ -0,0 +1,93 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import com.team254.lib.physics.DCMotorTransmission;
+
+import frc.robot.lib.obj.RoundRotation2d;
+import frc.robot.subsystems.superstructure.SuperstructureFeedforward;
+
+public class SuperstructureFeedforwardTest {
+
+	static final double kElbowMass = 1.4, kElbowLength = 0.2, kWristMass = 6.8, kWristLength = 0.15;
+
+	static SuperstructureFeedforward feedforward() {
+		return new SuperstructureFeedforward(new DCMotorTransmission(0.17, 55, 0), new DCMotorTransmission(0.21, 47.33, 0),
+				kElbowMass, kElbowLength, kWristMass, kWristLength);
+	}
+
+	@Test
+	public void testStraightOutHoldsTheMost() {
+		var feedforward = feedforward();
+		// elbow straight out the front, wrist in line with it
+		feedforward.update(0, 0, 0, 0, 0);
+		double wristTorque = kWristMass * 9.8 * kWristLength;
+		assertEquals(wristTorque, feedforward.getWristTorque(), 1e-9);
+		assertEquals((kElbowMass * kElbowLength + kWristMass * kElbowLength * 2) * 9.8 + wristTorque, feedforward.getElbowTorque(), 1e-9);
+		assertEquals(wristTorque / 47.33 / 12, feedforward.getWristPercent(), 1e-9);
+
+		// hanging straight down there's nothing to hold, with the wrist's sensor angle taking half the elbow off
+		feedforward.update(-90, -45, 0, 0, 0.01);
+		assertEquals(0, feedforward.getElbowTorque(), 1e-9);
+		assertEquals(0, feedforward.getWristVoltage(), 1e-9);
+
+		// and out the back it pushes the other way
+		feedforward.update(-180, -90, 0, 0, 0.02);
+		assertTrue(feedforward.getElbowTorque() < 0);
+		assertTrue(feedforward.getWristTorque() < 0);
+	}
+
+	@Test
+	public void testGamePieceAndElevatorAcceleration() {
+		var feedforward = feedforward();
+		feedforward.update(0, 0, 0, 0, 0);
+		double empty = feedforward.getWristTorque();
+		feedforward.update(0, 0, 0, 1, 0);
+		assertEquals(empty * (kWristMass + 1) / kWristMass, feedforward.getWristTorque(), 1e-9);
+
+		// speeding up going up at 1 m/s^2, once the filter settles
+		feedforward.reset();
+		for (int i = 0; i <= 100; i++) {
+			feedforward.update(0, 0, i * 0.01, 0, i * 0.01);
+		}
+		assertEquals(1, feedforward.getElevatorAcceleration(), 1e-6);
+		assertEquals(empty * (9.8 + 1) / 9.8, feedforward.getWristTorque(), 1e-6);
+	}
+
+	@Test
+	public void testRotationTrigIsCached() {
+		var rotation = RoundRotation2d.getDegree(30);
+		assertEquals(Math.cos(Math.toRadians(30)), rotation.getCos(), 1e-12);
+		assertEquals(0.5, rotation.getSin(), 1e-12);
+		var copy = new RoundRotation2d(rotation);
+		assertEquals(rotation.getCos(), copy.getCos(), 0);
+		assertEquals(-1, RoundRotation2d.getDegree(180).getCos(), 1e-12);
+	}
+
+	/**
+	 * Reports what a feedforward update costs, and checks it doesn't allocate
+	 */
+	@Test
+	@Tag(Benchmarks.kTag)
+	public void benchmarkUpdate(TestReporter reporter) {
+		var feedforward = feedforward();
+		int rounds = 1000000;
+
+		var sum = new double[1];
+		var result = Benchmarks.measure(1, () -> {
+			for (int r = 0; r < rounds; r++) {
+				// moving every loop, so the trig gets redone every time
+				feedforward.update(-(r % 180), r % 90, (r % 50) * 0.02, 0, r * 0.01);
+				sum[0] += feedforward.getElbowPercent() + feedforward.getWristPercent();
+			}
+		});
+		result.report(reporter, "Feedforward update", rounds);
+
+		assertTrue(Double.isFinite(sum[0]));
+		assertEquals(0, result.bytes);
+	}
+
+}
@@ -0,0 +1,135 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import frc.robot.SuperStructureConstants;
+import frc.robot.planners.SuperstructurePlanner;
+
+public class SuperstructurePlannerTest {
+
+	// height, elbow, wrist, at about where iPosition's presets get used
+	static final double[][] kPresets = {
+			{ 3.5, -44, -20 }, // CARGO_GRAB
+			{ 20, -5, -50 }, // CARGO_DOWN
+			{ 40, 6, 16 }, // CARGO_PLACE
+			{ 20, 5, 4 }, // HATCH
+			{ 47, 10, 8 }, // HATCH_PITCHED_UP
+			{ 10, -85, -45 }, // STOWED
+			{ 21, -78, 67 }, // CARGO_PLACE_INSIDE
+			{ 60, -190, -110 }, // HATCH_REVERSE, past the limits
+			{ 0.5, -90, 0 }, // straight down at the bottom, blocked
+	};
+
+	@Test
+	public void testEveryPresetPairPlans() {
+		var planner = SuperstructurePlanner.getInstance();
+		for (var start : kPresets) {
+			for (var goal : kPresets) {
+				assertTrue(planner.plan(start[0], start[1], start[2], goal[0], goal[1], goal[2]));
+				int last = planner.getWaypointCount() - 1;
+				assertTrue(last >= 0);
+				// ends exactly at the goal, clamped to the limits, or above it if it's blocked
+				if (planner.isGoalSafed()) {
+					assertTrue(planner.getWaypointHeight(last) > goal[0]);
+					assertFalse(planner.isOccupied(planner.getWaypointHeight(last), planner.getWaypointElbow(last), planner.getWaypointWrist(last)));
+				} else {
+					assertEquals(Math.min(goal[0], SuperStructureConstants.Elevator.top.getInch()), planner.getWaypointHeight(last), 1e-9);
+				}
+				assertEquals(Math.max(goal[1], SuperStructureConstants.Elbow.kElbowMin.getDegree()), planner.getWaypointElbow(last), 1e-9);
+				assertEquals(Math.max(goal[2], SuperStructureConstants.Wrist.kWristMin.getDegree()), planner.getWaypointWrist(last), 1e-9);
+				// everything but the goal is somewhere the arm can be
+				for (int i = 0; i < last; i++) {
+					assertFalse(planner.isOccupied(planner.getWaypointHeight(i), planner.getWaypointElbow(i), planner.getWaypointWrist(i)));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testStraightLinesBetweenWaypointsAreClear() {
+		var planner = SuperstructurePlanner.getInstance();
+		for (var start : kPresets) {
+			for (var goal : kPresets) {
+				planner.plan(start[0], start[1], start[2], goal[0], goal[1], goal[2]);
+				// the last bit might go straight down into a blocked goal on the safe list
+				for (int i = 0; i + 2 < planner.getWaypointCount(); i++) {
+					for (double t = 0; t <= 1; t += 0.01) {
+						double height = planner.getWaypointHeight(i) + (planner.getWaypointHeight(i + 1) - planner.getWaypointHeight(i)) * t;
+						double elbow = planner.getWaypointElbow(i) + (planner.getWaypointElbow(i + 1) - planner.getWaypointElbow(i)) * t;
+						double wrist = planner.getWaypointWrist(i) + (planner.getWaypointWrist(i + 1) - planner.getWaypointWrist(i)) * t;
+						assertFalse(planner.isOccupied(height, elbow, wrist));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testBlockedGoalGetsInWithTheElevator() {
+		var planner = SuperstructurePlanner.getInstance();
+		// cargo grab has the intake in the bumpers, so the grid says it's blocked
+		assertTrue(planner.isOccupied(3.5, -44, -20));
+		assertTrue(planner.plan(40, 6, 16, 3.5, -44, -20));
+		int last = planner.getWaypointCount() - 1;
+		assertTrue(last >= 1);
+		assertTrue(planner.getWaypointHeight(last - 1) > 3.5);
+		assertEquals(-44, planner.getWaypointElbow(last - 1), SuperstructurePlanner.kElbowStep / 2);
+		assertEquals(-20, planner.getWaypointWrist(last - 1), SuperstructurePlanner.kWristStep / 2);
+		assertFalse(planner.isGoalSafed());
+		assertEquals(3.5, planner.getWaypointHeight(last), 1e-9);
+	}
+
+	@Test
+	public void testOtherBlockedGoalsGetSafed() {
+		var planner = SuperstructurePlanner.getInstance();
+		// straight down at the bottom goes through the electronics, and isn't a preset anyone's run
+		assertTrue(planner.isOccupied(0.5, -90, 0));
+		assertTrue(planner.plan(40, 6, 16, 0.5, -90, 0));
+		assertTrue(planner.isGoalSafed());
+		int last = planner.getWaypointCount() - 1;
+		assertTrue(planner.getWaypointHeight(last) > 0.5);
+		assertEquals(-90, planner.getWaypointElbow(last), 1e-9);
+		assertEquals(0, planner.getWaypointWrist(last), 1e-9);
+		assertFalse(planner.isOccupied(planner.getWaypointHeight(last), -90, 0));
+	}
+
+	@Test
+	public void testTopOfTheElevatorIsOnTheGrid() {
+		var planner = SuperstructurePlanner.getInstance();
+		assertFalse(planner.isOccupied(SuperStructureConstants.Elevator.top.getInch(), 6, 16));
+	}
+
+	/**
+	 * Plans every pair of presets, reports the mean and worst time per plan (the target is well
+	 * under a millisecond), and checks it doesn't allocate
+	 */
+	@Test
+	@Tag(Benchmarks.kTag)
+	public void benchmarkPresetPlans(TestReporter reporter) {
+		var planner = SuperstructurePlanner.getInstance();
+		int rounds = 200;
+
+		var worst = new long[1];
+		var result = Benchmarks.measure(1, () -> {
+			worst[0] = 0;
+			for (int r = 0; r < rounds; r++) {
+				for (var start : kPresets) {
+					for (var goal : kPresets) {
+						long t = System.nanoTime();
+						planner.plan(start[0], start[1], start[2], goal[0], goal[1], goal[2]);
+						worst[0] = Math.max(worst[0], System.nanoTime() - t);
+					}
+				}
+			}
+		});
+
+		result.report(reporter, "Preset to preset plan", (double) rounds * kPresets.length * kPresets.length);
+		reporter.publishEntry("Preset to preset plan (ns, worst)", Long.toString(worst[0]));
+		assertEquals(0, result.bytes);
+	}
+
+}
@@ -0,0 +1,113 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import com.ctre.phoenix.ErrorCode;
+
+import org.junit.jupiter.api.Test;
+
+import frc.robot.lib.TalonConfigCache;
+import frc.robot.lib.TalonConfigCache.Parameter;
+
+public class TalonConfigCacheTest {
+
+	/** Remembers every write, and can be told to fail them */
+	private static class FakeTalon implements TalonConfigCache.ConfigTarget {
+		final ArrayList<String> writes = new ArrayList<String>();
+		boolean fail = false;
+
+		@Override
+		public ErrorCode config(Parameter parameter, int slot, double value, int timeoutMs) {
+			writes.add(parameter + " " + slot + " " + value);
+			return fail ? ErrorCode.SigNotUpdated : ErrorCode.OK;
+		}
+	}
+
+	/** Holds on to the flushes until run() so it acts like the writer thread being busy */
+	private static class QueuedExecutor implements java.util.concurrent.Executor {
+		final ArrayList<Runnable> queued = new ArrayList<Runnable>();
+
+		@Override
+		public void execute(Runnable command) {
+			queued.add(command);
+		}
+
+		void run() {
+			var toRun = new ArrayList<Runnable>(queued);
+			queued.clear();
+			toRun.forEach(Runnable::run);
+		}
+	}
+
+	@Test
+	public void testSkipsRepeats() {
+		var talon = new FakeTalon();
+		var cache = new TalonConfigCache(talon, Runnable::run, "test");
+
+		assertTrue(cache.config_kP(0, 0.5));
+		assertFalse(cache.config_kP(0, 0.5));
+		assertTrue(cache.config_kP(1, 0.5)); // different slot
+		assertTrue(cache.configClosedloopRamp(0.16));
+		assertFalse(cache.configClosedloopRamp(0.16));
+
+		assertEquals(3, talon.writes.size());
+		assertEquals(3, cache.getWrites());
+		assertEquals(2, cache.getSkipped());
+	}
+
+	@Test
+	public void testGearShiftsOnlyWriteWhatChanged() {
+		var talon = new FakeTalon();
+		var cache = new TalonConfigCache(talon, Runnable::run, "test");
+		// high and low gear only have different kP and kF
+		double[] high = { 0.4, 0, 2, 0.3 };
+		double[] low = { 0.6, 0, 2, 0.5 };
+		for (int shift = 0; shift < 10; shift++) {
+			var gains = (shift % 2 == 0) ? high : low;
+			cache.config_kP(0, gains[0]);
+			cache.config_kI(0, gains[1]);
+			cache.config_kD(0, gains[2]);
+			cache.config_kF(0, gains[3]);
+		}
+		// 4 the first time, then 2 a shift
+		assertEquals(4 + 9 * 2, talon.writes.size());
+	}
+
+	@Test
+	public void testBatchesAndKeepsNewest() {
+		var talon = new FakeTalon();
+		var writer = new QueuedExecutor();
+		var cache = new TalonConfigCache(talon, writer, "test");
+
+		cache.configMotionCruiseVelocity(1000);
+		cache.configMotionAcceleration(2000);
+		cache.configMotionCruiseVelocity(1500);
+		assertEquals(0, talon.writes.size());
+		assertEquals(1, writer.queued.size()); // one flush for all of it
+
+		writer.run();
+		assertEquals(2, talon.writes.size());
+		assertTrue(talon.writes.contains(Parameter.CRUISE_VELOCITY + " 0 1500.0"));
+
+		// back to what it was, so nothing to do
+		assertFalse(cache.configMotionCruiseVelocity(1500));
+		assertEquals(0, writer.queued.size());
+	}
+
+	@Test
+	public void testRetriesFailures() {
+		var talon = new FakeTalon();
+		var cache = new TalonConfigCache(talon, Runnable::run, "test");
+		talon.fail = true;
+		cache.config_kD(3, 4);
+		assertEquals(1, cache.getFailures());
+
+		talon.fail = false;
+		assertTrue(cache.config_kD(3, 4));
+		assertEquals(2, talon.writes.size());
+		assertFalse(cache.config_kD(3, 4));
+	}
+
+}
@@ -0,0 +1,117 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import frc.robot.lib.Logger;
+import frc.robot.lib.logging.BinaryLogWriter;
+import frc.robot.lib.logging.TelemetryTable;
+
+public class TelemetryTableTest {
+
+	private static final int kWarmups = 4;
+	private static final int kLoops = 50000;
+
+	@Test
+	public void testRowRoundTrip() throws IOException {
+		var file = File.createTempFile("telemetry", ".bin");
+		file.deleteOnExit();
+		var table = new TelemetryTable(file.getPath(), 8);
+		var voltage = table.addDouble("Bus voltage");
+		var ticks = table.addLong("Elbow position (ticks)");
+		var limit = table.addBoolean("Carriage max limit");
+
+		voltage.set(12.5);
+		ticks.set(-2048);
+		limit.set(true);
+		table.commit();
+		table.getWriter().stop();
+
+		var text = new ByteArrayOutputStream();
+		BinaryLogWriter.decode(ByteBuffer.wrap(Files.readAllBytes(file.toPath())), new PrintStream(text));
+		var lines = text.toString().split("\n");
+
+		assertEquals(2, lines.length);
+		assertEquals("time,Bus voltage,Elbow position (ticks),Carriage max limit", lines[0]);
+		assertTrue(lines[1].endsWith(",12.5,-2048,true"));
+	}
+
+	@Test
+	public void testNoChannelsAfterCommit() throws IOException {
+		var file = File.createTempFile("telemetry", ".bin");
+		file.deleteOnExit();
+		var table = new TelemetryTable(file.getPath(), 8);
+		table.addDouble("Bus voltage");
+		table.commit();
+		table.getWriter().stop();
+
+		assertThrows(IllegalStateException.class, () -> table.addDouble("Too late"));
+	}
+
+	/**
+	 * Not really a test, more of a benchmark: compares one robot loop worth of DriveTrain's
+	 * logPeriodicIO through Logger.log(key, double) against telemetry channels, and reports what
+	 * each costs. Only asserts that neither allocates.
+	 */
+	@Test
+	@Tag(Benchmarks.kTag)
+	public void benchmarkAgainstLogger(TestReporter reporter) throws IOException {
+		var file = File.createTempFile("telemetry", ".bin");
+		file.deleteOnExit();
+		var table = new TelemetryTable(file.getPath(), 8);
+		var bus = table.addDouble("Bus voltage");
+		var forward = table.addDouble("Forward joystick command");
+		var turn = table.addDouble("Turn joystick command");
+		var left = table.addDouble("Left talon output voltage");
+		var right = table.addDouble("Right talon output voltage");
+
+		Runnable loggerLoop = () -> {
+			double x = System.nanoTime() % 1000 / 100.0;
+			Logger.log("Bus voltage", 12 + x);
+			Logger.log("Forward joystick command", x / 10);
+			Logger.log("Turn joystick command", -x / 10);
+			Logger.log("Left talon output voltage", x * 1.2);
+			Logger.log("Right talon output voltage", x * -1.2);
+		};
+
+		Runnable channelLoop = () -> {
+			double x = System.nanoTime() % 1000 / 100.0;
+			bus.set(12 + x);
+			forward.set(x / 10);
+			turn.set(-x / 10);
+			left.set(x * 1.2);
+			right.set(x * -1.2);
+			table.commit();
+		};
+
+		var logger = measure(loggerLoop);
+		var channels = measure(channelLoop);
+		table.getWriter().stop();
+
+		logger.report(reporter, "Logger.log(key, double) loop", kLoops);
+		channels.report(reporter, "TelemetryTable channels loop", kLoops);
+		reporter.publishEntry("Channels speedup over Logger", String.format("%.1fx", (double) logger.nanos / channels.nanos));
+		// allow a little slop for whatever the JIT decides to do
+		assertTrue("Logger path allocated " + logger.bytesPer(kLoops) + " bytes per loop", logger.bytesPer(kLoops) < 1);
+		assertTrue("Channel path allocated " + channels.bytesPer(kLoops) + " bytes per loop", channels.bytesPer(kLoops) < 1);
+	}
+
+	private static Benchmarks.Result measure(Runnable loop) {
+		return Benchmarks.measure(kWarmups, () -> {
+			for (int i = 0; i < kLoops; i++) {
+				loop.run();
+			}
+		});
+	}
+
+}
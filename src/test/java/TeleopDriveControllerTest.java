@@ -0,0 +1,221 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import frc.robot.lib.motion.DriveDynamicsSolver;
+import frc.robot.lib.motion.TeleopDriveController;
+import frc.robot.lib.motion.Util;
+
+public class TeleopDriveControllerTest {
+
+	// roughly the 2019 robot: 57kg, 10kg m^2, 3" wheels, 26" track
+	static final double kMass = 57, kMoi = 10, kWheelRadius = 0.0762, kWheelBase = 0.33;
+	static final double kSpeedPerVolt = 1 / 0.25, kTorquePerVolt = 0.5, kFriction = 1, kDrag = 2;
+	static final double kDt = 0.025;
+
+	static DriveDynamicsSolver solver() {
+		return new DriveDynamicsSolver(kMass, kMoi, 0, kWheelRadius, kWheelBase,
+				kSpeedPerVolt, kTorquePerVolt, kFriction, kSpeedPerVolt, kTorquePerVolt, kFriction);
+	}
+
+	double leftSpeed, rightSpeed, leftVoltage, rightVoltage;
+
+	TeleopDriveController controller() {
+		return new TeleopDriveController(solver(), solver(), (ls, rs, lv, rv) -> {
+			leftSpeed = ls;
+			rightSpeed = rs;
+			leftVoltage = lv;
+			rightVoltage = rv;
+		});
+	}
+
+	@Test
+	public void testSolverMatchesHandMath() {
+		var solver = solver();
+		solver.solve(1, 0.5, 2, 1);
+
+		double left = (1 - kWheelBase * 0.5) / kWheelRadius;
+		double right = (1 + kWheelBase * 0.5) / kWheelRadius;
+		double leftTorque = kWheelRadius / 2 * (2 * kMass - 1 * kMoi / kWheelBase);
+		double rightTorque = kWheelRadius / 2 * (2 * kMass + 1 * kMoi / kWheelBase);
+
+		assertEquals(left, solver.getLeftVelocity(), 1e-9);
+		assertEquals(right * kWheelRadius, solver.getRightSpeed(), 1e-9);
+		assertEquals(leftTorque / kTorquePerVolt + left / kSpeedPerVolt + kFriction, solver.getLeftVoltage(), 1e-9);
+		assertEquals(rightTorque / kTorquePerVolt + right / kSpeedPerVolt + kFriction, solver.getRightVoltage(), 1e-9);
+
+		// standing still with nothing asked for takes no volts, not the friction voltage
+		solver.solve(0, 0, 0, 0);
+		assertEquals(0, solver.getLeftVoltage(), 0);
+		assertEquals(0, solver.getRightVoltage(), 0);
+	}
+
+	/**
+	 * The old closedLoopArcadeDrive, with ChassisStates turned into doubles and FalconLibrary's
+	 * DifferentialDrive.solveInverseDynamics written out. The only change is the limiter: it
+	 * multiplies by dt instead of dividing, only limits speeding up, and low gear limits angular
+	 * acceleration too. Returns v, w, left speed, right speed, left volts and right volts, and
+	 * moves last along.
+	 */
+	static double[] oldArcadeDrive(double linearPercent, double rotationPercent, boolean squareInputs, boolean isHighGear, double[] last) {
+		linearPercent = Util.limit(linearPercent, 1);
+		linearPercent = Util.deadband(linearPercent, 0.07);
+		rotationPercent = Util.limit(rotationPercent, 1);
+		rotationPercent = Util.deadband(rotationPercent, 0.1);
+		if (squareInputs) {
+			linearPercent = Math.copySign(linearPercent * linearPercent, linearPercent);
+			rotationPercent = Math.copySign(rotationPercent * rotationPercent, rotationPercent);
+		}
+
+		final double lowGearForward = Util.toMeters(7.5);
+		final double lowGearTurn = Util.toMeters(12);
+		final double highGearForward = Util.toMeters(11);
+		double highGearTurn = Util.toMeters(18);
+		final double maxAccelLinearLow = Util.toMeters(12);
+		final double maxAccelLinearHigh = Util.toMeters(18);
+		final double maxAccelAngularLow = 3.6;
+		final double maxAccelAngularHigh = Util.toMeters(13);
+
+		double linear = linearPercent * ((isHighGear) ? highGearForward : lowGearForward);
+		double angular = -1 * rotationPercent * ((isHighGear) ? highGearTurn : lowGearTurn);
+		if (isHighGear) {
+			linear = Util.limit(linear, Math.min(last[0], 0) - maxAccelLinearHigh * kDt, Math.max(last[0], 0) + maxAccelLinearHigh * kDt);
+			if (linear < Util.toMeters(5))
+				highGearTurn = Util.toMeters(12);
+			angular = Util.limit(angular, Math.min(last[1], 0) - maxAccelAngularHigh * kDt, Math.max(last[1], 0) + maxAccelAngularHigh * kDt);
+			linear = Util.limit(linear, highGearForward);
+			angular = Util.limit(angular, highGearTurn);
+		} else {
+			linear = Util.limit(linear, Math.min(last[0], 0) - maxAccelLinearLow * kDt, Math.max(last[0], 0) + maxAccelLinearLow * kDt);
+			angular = Util.limit(angular, Math.min(last[1], 0) - maxAccelAngularLow * kDt, Math.max(last[1], 0) + maxAccelAngularLow * kDt);
+			linear = Util.limit(linear, lowGearForward);
+			angular = Util.limit(angular, lowGearTurn);
+		}
+		double linearAccel = (linear - last[0]) / kDt;
+		double angularAccel = (angular - last[1]) / kDt;
+		last[0] = linear;
+		last[1] = angular;
+
+		double left = (linear - kWheelBase * angular) / kWheelRadius;
+		double right = (linear + kWheelBase * angular) / kWheelRadius;
+		double leftTorque = kWheelRadius / 2.0 * (linearAccel * kMass - angularAccel * kMoi / kWheelBase - angular * kDrag / kWheelBase);
+		double rightTorque = kWheelRadius / 2.0 * (linearAccel * kMass + angularAccel * kMoi / kWheelBase + angular * kDrag / kWheelBase);
+		return new double[] { linear, angular, left * kWheelRadius, right * kWheelRadius, oldVoltage(left, leftTorque), oldVoltage(right, rightTorque) };
+	}
+
+	/** DCMotorTransmission.getVoltageForTorque */
+	static double oldVoltage(double speed, double torque) {
+		double friction;
+		if (speed > DriveDynamicsSolver.kEpsilon)
+			friction = kFriction;
+		else if (speed < -DriveDynamicsSolver.kEpsilon)
+			friction = -kFriction;
+		else if (torque > DriveDynamicsSolver.kEpsilon)
+			friction = kFriction;
+		else if (torque < -DriveDynamicsSolver.kEpsilon)
+			friction = -kFriction;
+		else
+			return 0;
+		return torque / kTorquePerVolt + speed / kSpeedPerVolt + friction;
+	}
+
+	@Test
+	public void testMatchesOldArcadeDrive() {
+		var dragSolver = new DriveDynamicsSolver(kMass, kMoi, kDrag, kWheelRadius, kWheelBase,
+				kSpeedPerVolt, kTorquePerVolt, kFriction, kSpeedPerVolt, kTorquePerVolt, kFriction);
+		var drive = new TeleopDriveController(dragSolver, dragSolver, (ls, rs, lv, rv) -> {
+			leftSpeed = ls;
+			rightSpeed = rs;
+			leftVoltage = lv;
+			rightVoltage = rv;
+		});
+		var random = new Random(5940);
+		var last = new double[2];
+		for (int i = 0; i < 20_000; i++) {
+			// big jumps and small ones, some in the deadband, switching gears now and then
+			double linear = (i % 7 == 0) ? 0.05 : random.nextDouble() * 2.4 - 1.2;
+			double rotation = (i % 11 == 0) ? 0 : random.nextDouble() * 2.4 - 1.2;
+			boolean highGear = (i / 500) % 2 == 0;
+			boolean square = i % 3 != 0;
+
+			var expected = oldArcadeDrive(linear, rotation, square, highGear, last);
+			drive.update(linear, rotation, square, highGear, kDt);
+			assertEquals(expected[0], drive.getLinearVelocity(), 0);
+			assertEquals(expected[1], drive.getAngularVelocity(), 0);
+			assertEquals(expected[2], leftSpeed, 0);
+			assertEquals(expected[3], rightSpeed, 0);
+			assertEquals(expected[4], leftVoltage, 0);
+			assertEquals(expected[5], rightVoltage, 0);
+		}
+	}
+
+	@Test
+	public void testAccelerationLimited() {
+		var drive = controller();
+		drive.update(1, 0, false, true, kDt);
+		assertEquals(TeleopDriveController.kHighGearLinearAccel * kDt, drive.getLinearVelocity(), 1e-9);
+		assertEquals(TeleopDriveController.kHighGearLinearAccel, drive.getLinearAcceleration(), 1e-9);
+		assertTrue(leftVoltage > 0 && rightVoltage > 0);
+
+		// eventually gets to top speed and stays there
+		for (int i = 0; i < 100; i++) {
+			drive.update(1, 0, false, true, kDt);
+		}
+		assertEquals(TeleopDriveController.kHighGearLinearSpeed, drive.getLinearVelocity(), 1e-9);
+		assertEquals(0, drive.getLinearAcceleration(), 1e-9);
+		assertEquals(leftSpeed, rightSpeed, 1e-9);
+
+		// letting go stops right away, but reversing starts from zero
+		drive.update(0, 0, false, true, kDt);
+		assertEquals(0, drive.getLinearVelocity(), 0);
+		for (int i = 0; i < 100; i++) {
+			drive.update(1, 0, false, true, kDt);
+		}
+		drive.update(-1, 0, false, true, kDt);
+		assertEquals(-TeleopDriveController.kHighGearLinearAccel * kDt, drive.getLinearVelocity(), 1e-9);
+
+		// low gear limits turning too
+		drive.reset();
+		drive.update(0, 1, false, false, kDt);
+		assertEquals(-TeleopDriveController.kLowGearAngularAccel * kDt, drive.getAngularVelocity(), 1e-9);
+		assertTrue(leftSpeed > 0 && rightSpeed < 0);
+	}
+
+	@Test
+	public void testInputShaping() {
+		var drive = controller();
+		drive.update(0.05, 0.05, true, false, kDt);
+		assertEquals(0, drive.getLinearPercent(), 0);
+		assertEquals(0, drive.getRotationPercent(), 0);
+		assertEquals(0, leftVoltage, 0);
+
+		drive.update(-2, 0.5, true, false, kDt);
+		assertEquals(-1, drive.getLinearPercent(), 1e-9);
+		assertTrue(drive.getRotationPercent() > 0 && drive.getRotationPercent() < 0.5);
+	}
+
+	/**
+	 * Reports what an update costs, and checks it doesn't allocate once it's warmed up
+	 */
+	@Test
+	@Tag(Benchmarks.kTag)
+	public void benchmarkUpdate(TestReporter reporter) {
+		var drive = controller();
+		int updates = 2_000_000;
+		var result = Benchmarks.measure(1, () -> {
+			for (int i = 0; i < updates; i++) {
+				drive.update(Math.sin(i * 1e-3), Math.cos(i * 1e-3), true, (i & 1024) == 0, kDt);
+			}
+		});
+		result.report(reporter, "TeleopDriveController update", updates);
+
+		assertTrue(result.bytes / updates < 1);
+		assertTrue(Double.isFinite(leftVoltage));
+	}
+
+}
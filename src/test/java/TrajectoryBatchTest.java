@@ -0,0 +1,63 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.ghrobotics.lib.mathematics.twodim.geometry.Pose2dWithCurvature;
+import org.ghrobotics.lib.mathematics.twodim.trajectory.types.TimedTrajectory;
+import org.junit.jupiter.api.Test;
+
+import frc.robot.lib.motion.TrajectoryBatch;
+import frc.robot.lib.motion.TrajectoryBatch.BatchFailedException;
+
+public class TrajectoryBatchTest {
+
+	private static TimedTrajectory<Pose2dWithCurvature> empty() {
+		return new TimedTrajectory<Pose2dWithCurvature>(List.of(), false);
+	}
+
+	@Test
+	public void testEverythingGetsInstalled() {
+		var highGear = new HashMap<String, TimedTrajectory<Pose2dWithCurvature>>();
+		var lowGear = new HashMap<String, TimedTrajectory<Pose2dWithCurvature>>();
+		var first = empty();
+		var second = empty();
+
+		var batch = new TrajectoryBatch(2);
+		batch.add(highGear, "habL to cargoL1", "HG habL to cargoL1", () -> first);
+		batch.add(lowGear, "habL to cargoL1", () -> second);
+		batch.generate();
+
+		assertSame(first, highGear.get("habL to cargoL1"));
+		assertSame(second, lowGear.get("habL to cargoL1"));
+		assertTrue(batch.getReport().contains("HG habL to cargoL1"));
+	}
+
+	@Test
+	public void testOneFailureInstallsNothing() {
+		Map<String, TimedTrajectory<Pose2dWithCurvature>> highGear = new HashMap<>();
+		Map<String, TimedTrajectory<Pose2dWithCurvature>> lowGear = new HashMap<>();
+
+		var batch = new TrajectoryBatch(2);
+		batch.add(highGear, "habL to cargoL1", TrajectoryBatchTest::empty);
+		batch.add(lowGear, "cargoL1 to loadingL", () -> {
+			throw new IllegalStateException("spline went backwards");
+		});
+		batch.add(lowGear, "loadingL to cargoL2", TrajectoryBatchTest::empty);
+
+		var e = assertThrows(BatchFailedException.class, batch::generate);
+		assertTrue(e.getMessage().startsWith("1 of 3 trajectories failed"));
+		assertTrue(e.getMessage().contains("cargoL1 to loadingL: java.lang.IllegalStateException: spline went backwards"));
+
+		// the ones that worked don't get put in their maps either
+		assertTrue(highGear.isEmpty());
+		assertTrue(lowGear.isEmpty());
+		assertTrue(batch.getReport().contains("FAILED"));
+		assertEquals(3, batch.size());
+	}
+
+}
@@ -0,0 +1,192 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.ghrobotics.lib.mathematics.twodim.geometry.Pose2d;
+import org.ghrobotics.lib.mathematics.twodim.geometry.Pose2dWithCurvature;
+import org.ghrobotics.lib.mathematics.twodim.trajectory.constraints.TimingConstraint;
+import org.ghrobotics.lib.mathematics.twodim.trajectory.types.TimedEntry;
+import org.ghrobotics.lib.mathematics.twodim.trajectory.types.TimedTrajectory;
+import org.ghrobotics.lib.mathematics.units.Length;
+import org.ghrobotics.lib.mathematics.units.LengthKt;
+import org.ghrobotics.lib.mathematics.units.Rotation2dKt;
+import org.ghrobotics.lib.mathematics.units.TimeUnitsKt;
+import org.ghrobotics.lib.mathematics.units.derivedunits.Acceleration;
+import org.ghrobotics.lib.mathematics.units.derivedunits.AccelerationKt;
+import org.ghrobotics.lib.mathematics.units.derivedunits.Velocity;
+import org.ghrobotics.lib.mathematics.units.derivedunits.VelocityKt;
+import org.junit.jupiter.api.Test;
+
+import frc.robot.lib.motion.TrajectoryCache;
+
+public class TrajectoryCacheTest {
+
+	private static final Velocity<Length> kZero = VelocityKt.getVelocity(LengthKt.getFeet(0));
+	private static final Velocity<Length> kMaxVelocity = VelocityKt.getVelocity(LengthKt.getFeet(10));
+	private static final Acceleration<Length> kMaxAcceleration = AccelerationKt.getAcceleration(LengthKt.getFeet(8));
+
+	/** A constraint that keeps its limits in a list, like the ones that don't have a field per value */
+	static class ListConstraint implements TimingConstraint<Pose2dWithCurvature> {
+		private final List<Double> limits;
+
+		ListConstraint(Double... limits) {
+			this.limits = Arrays.asList(limits);
+		}
+
+		@Override
+		public double getMaxVelocity(Pose2dWithCurvature state) {
+			return limits.get(0);
+		}
+
+		@Override
+		public TimingConstraint.MinMaxAcceleration getMinMaxAcceleration(Pose2dWithCurvature state, double velocity) {
+			return new TimingConstraint.MinMaxAcceleration(-limits.get(1), limits.get(1));
+		}
+	}
+
+	private static List<Pose2d> waypoints(double endX) {
+		return Arrays.asList(new Pose2d(LengthKt.getFeet(5), LengthKt.getFeet(9), Rotation2dKt.getDegree(180)),
+				new Pose2d(LengthKt.getFeet(endX), LengthKt.getFeet(7), Rotation2dKt.getDegree(150)));
+	}
+
+	private static TimedTrajectory<Pose2dWithCurvature> trajectory(double endX) {
+		var points = new ArrayList<TimedEntry<Pose2dWithCurvature>>();
+		for (int i = 0; i < 5; i++) {
+			var pose = new Pose2d(LengthKt.getFeet(5 + (endX - 5) * i / 4), LengthKt.getFeet(9 - i * 0.5), Rotation2dKt.getDegree(180 - i * 7.5));
+			points.add(new TimedEntry<Pose2dWithCurvature>(new Pose2dWithCurvature(pose, 0.1 * i, -0.01 * i),
+					TimeUnitsKt.getSecond(i * 0.5), VelocityKt.getVelocity(LengthKt.getFeet(i)), AccelerationKt.getAcceleration(LengthKt.getFeet(2))));
+		}
+		return new TimedTrajectory<Pose2dWithCurvature>(points, true);
+	}
+
+	private static long key(double endX, List<? extends TimingConstraint<Pose2dWithCurvature>> constraints, boolean reversed) {
+		return TrajectoryCache.key(waypoints(endX), constraints, kZero, kZero, kMaxVelocity, kMaxAcceleration, reversed, false);
+	}
+
+	private static TimedTrajectory<Pose2dWithCurvature> get(TrajectoryCache cache, double endX, TimedTrajectory<Pose2dWithCurvature> generated) {
+		return cache.getOrGenerate(waypoints(endX), List.of(), kZero, kZero, kMaxVelocity, kMaxAcceleration, true, false, () -> generated);
+	}
+
+	private static Path tempFile() throws IOException {
+		var file = File.createTempFile("trajectory-cache", ".bin");
+		file.deleteOnExit();
+		file.delete();
+		return file.toPath();
+	}
+
+	private static void assertSameTrajectory(TimedTrajectory<Pose2dWithCurvature> expected, TimedTrajectory<Pose2dWithCurvature> actual) {
+		assertEquals(expected.getReversed(), actual.getReversed());
+		assertEquals(expected.getPoints().size(), actual.getPoints().size());
+		for (int i = 0; i < expected.getPoints().size(); i++) {
+			var a = expected.getPoints().get(i);
+			var b = actual.getPoints().get(i);
+			assertEquals(a.getT().getValue(), b.getT().getValue(), 0);
+			assertEquals(a.getState().getPose().getTranslation().getX().getValue(), b.getState().getPose().getTranslation().getX().getValue(), 0);
+			assertEquals(a.getState().getPose().getTranslation().getY().getValue(), b.getState().getPose().getTranslation().getY().getValue(), 0);
+			assertEquals(a.getState().getPose().getRotation().getValue(), b.getState().getPose().getRotation().getValue(), 0);
+			assertEquals(a.getState().getCurvature(), b.getState().getCurvature(), 0);
+			assertEquals(a.getState().getDkds(), b.getState().getDkds(), 0);
+			assertEquals(a.getVelocity().getValue(), b.getVelocity().getValue(), 0);
+			assertEquals(a.getAcceleration().getValue(), b.getAcceleration().getValue(), 0);
+		}
+	}
+
+	@Test
+	public void testKeyIsStable() {
+		var constraints = List.of(new ListConstraint(5.0, 7.0));
+		long key = key(20, constraints, true);
+		// a different but equal constraint object gets the same key
+		assertEquals(key, key(20, List.of(new ListConstraint(5.0, 7.0)), true));
+
+		assertNotEquals(key, key(21, constraints, true));
+		assertNotEquals(key, key(20, constraints, false));
+		assertNotEquals(key, key(20, List.of(), true));
+		// the constraint's values are in a java.util list, which still counts
+		assertNotEquals(key, key(20, List.of(new ListConstraint(5.0, 8.0)), true));
+	}
+
+	@Test
+	public void testSaveAndLoad() throws IOException {
+		var file = tempFile();
+		var first = new TrajectoryCache(file);
+		var original = trajectory(20);
+		assertSameTrajectory(original, get(first, 20, original));
+		assertEquals(1, first.getMisses());
+		first.save();
+
+		var second = new TrajectoryCache(file);
+		assertSameTrajectory(original, get(second, 20, null));
+		assertEquals(1, second.getHits());
+		assertEquals(0, second.getMisses());
+	}
+
+	@Test
+	public void testHitsAreOnlyDecodedOnce() throws IOException {
+		var file = tempFile();
+		var first = new TrajectoryCache(file);
+		get(first, 20, trajectory(20));
+		first.save();
+
+		var second = new TrajectoryCache(file);
+		var decoded = get(second, 20, null);
+		assertSame(decoded, get(second, 20, null));
+		assertEquals(2, second.getHits());
+	}
+
+	@Test
+	public void testOtherVersionIsIgnored() throws IOException {
+		var file = tempFile();
+		var first = new TrajectoryCache(file);
+		get(first, 20, trajectory(20));
+		first.save();
+
+		// same magic, some other version
+		try (var out = new RandomAccessFile(file.toFile(), "rw")) {
+			out.seek(4);
+			out.writeInt(Integer.MAX_VALUE);
+		}
+		var second = new TrajectoryCache(file);
+		get(second, 20, trajectory(20));
+		assertEquals(0, second.getHits());
+		assertEquals(1, second.getMisses());
+
+		// and a file that's too short for the header
+		try (var out = new DataOutputStream(new FileOutputStream(file.toFile()))) {
+			out.writeShort(1);
+		}
+		var third = new TrajectoryCache(file);
+		get(third, 20, trajectory(20));
+		assertEquals(1, third.getMisses());
+	}
+
+	@Test
+	public void testTruncatedFileKeepsWhatsThere() throws IOException {
+		var file = tempFile();
+		var first = new TrajectoryCache(file);
+		get(first, 20, trajectory(20));
+		get(first, 25, trajectory(25));
+		first.save();
+
+		// a brownout halfway through the last entry
+		try (var out = new RandomAccessFile(file.toFile(), "rw")) {
+			out.setLength(out.length() - 20);
+		}
+		var second = new TrajectoryCache(file);
+		assertSameTrajectory(trajectory(20), get(second, 20, null));
+		var regenerated = trajectory(25);
+		assertSame(regenerated, get(second, 25, regenerated));
+		assertEquals(1, second.getHits());
+		assertEquals(1, second.getMisses());
+	}
+
+}
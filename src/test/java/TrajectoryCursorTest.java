@@ -0,0 +1,85 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import frc.robot.lib.motion.FlatTrajectory;
+import frc.robot.lib.motion.TrajectoryCursor;
+
+public class TrajectoryCursorTest {
+
+	/**
+	 * A straight line along x at a constant 1 m/s, with a point every 0.1 seconds, turning
+	 * from just under +pi to just over -pi halfway through to check heading wraparound
+	 */
+	private static FlatTrajectory makeLine(int points) {
+		double[] t = new double[points], x = new double[points], y = new double[points], heading = new double[points],
+				curvature = new double[points], dkds = new double[points], velocity = new double[points], acceleration = new double[points];
+		for (int i = 0; i < points; i++) {
+			t[i] = i * 0.1;
+			x[i] = i * 0.1;
+			y[i] = 2;
+			heading[i] = (i < points / 2) ? Math.PI - 0.05 : -Math.PI + 0.05;
+			curvature[i] = i;
+			velocity[i] = 1;
+		}
+		return new FlatTrajectory(t, x, y, heading, curvature, dkds, velocity, acceleration, false);
+	}
+
+	@Test
+	public void testInterpolates() {
+		var cursor = new TrajectoryCursor(makeLine(11));
+
+		cursor.sample(0.25);
+		assertEquals(2, cursor.getIndex());
+		assertEquals(0.25, cursor.getX(), 1e-9);
+		assertEquals(2, cursor.getY(), 1e-9);
+		assertEquals(2.5, cursor.getCurvature(), 1e-9);
+		assertEquals(1, cursor.getVelocity(), 1e-9);
+		assertFalse(cursor.isDone());
+
+		// across the wraparound the heading should go the short way, through pi
+		cursor.sample(0.45);
+		assertEquals(Math.PI, Math.abs(cursor.getHeading()), 1e-9);
+	}
+
+	@Test
+	public void testClampsAndSeeksBackwards() {
+		var cursor = new TrajectoryCursor(makeLine(11));
+
+		cursor.sample(-1);
+		assertEquals(0, cursor.getX(), 1e-9);
+
+		cursor.sample(5);
+		assertEquals(1, cursor.getX(), 1e-9);
+		assertTrue(cursor.isDone());
+
+		cursor.sample(0.31);
+		assertEquals(3, cursor.getIndex());
+		assertEquals(0.31, cursor.getX(), 1e-9);
+
+		cursor.reset();
+		assertEquals(0, cursor.getIndex());
+		assertEquals(0, cursor.getX(), 1e-9);
+	}
+
+	@Test
+	public void testNoAllocation() {
+		var cursor = new TrajectoryCursor(makeLine(1000));
+
+		var sum = new double[1];
+		// warmed up so the JIT isn't counted
+		long allocated = Benchmarks.allocatedBytes(2, () -> {
+			for (int i = 0; i < 10000; i++) {
+				cursor.sample(i * 0.01);
+				sum[0] += cursor.getX();
+			}
+		});
+
+		assertTrue(sum[0] > 0);
+		// the measurement itself can allocate a little, but not once per sample
+		assertTrue("Allocated " + allocated + " bytes", allocated < 1000);
+	}
+
+}
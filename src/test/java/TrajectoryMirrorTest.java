@@ -0,0 +1,82 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.ghrobotics.lib.mathematics.twodim.geometry.Pose2d;
+import org.ghrobotics.lib.mathematics.twodim.geometry.Pose2dWithCurvature;
+import org.ghrobotics.lib.mathematics.twodim.trajectory.types.TimedEntry;
+import org.ghrobotics.lib.mathematics.twodim.trajectory.types.TimedTrajectory;
+import org.ghrobotics.lib.mathematics.units.LengthKt;
+import org.ghrobotics.lib.mathematics.units.Rotation2dKt;
+import org.ghrobotics.lib.mathematics.units.TimeUnitsKt;
+import org.ghrobotics.lib.mathematics.units.derivedunits.AccelerationKt;
+import org.ghrobotics.lib.mathematics.units.derivedunits.VelocityKt;
+import org.junit.jupiter.api.Test;
+
+import frc.robot.lib.motion.TrajectoryMirror;
+
+public class TrajectoryMirrorTest {
+
+	private static TimedEntry<Pose2dWithCurvature> entry(double t, double x, double y, double heading, double curvature, double velocity) {
+		return new TimedEntry<Pose2dWithCurvature>(
+				new Pose2dWithCurvature(new Pose2d(LengthKt.getFeet(x), LengthKt.getFeet(y), Rotation2dKt.getDegree(heading)), curvature, curvature / 10),
+				TimeUnitsKt.getSecond(t),
+				VelocityKt.getVelocity(LengthKt.getFeet(velocity)),
+				AccelerationKt.getAcceleration(LengthKt.getFeet(2)));
+	}
+
+	@Test
+	public void testMirrorName() {
+		assertEquals("habL to rocketLF", TrajectoryMirror.mirrorName("habR to rocketRF"));
+		assertEquals("cargoMR to loadingR", TrajectoryMirror.mirrorName("cargoML to loadingL"));
+		assertEquals("habM to cargoML", TrajectoryMirror.mirrorName("habM to cargoMR"));
+		assertEquals("reverse 3 feet", TrajectoryMirror.mirrorName("reverse 3 feet"));
+		assertEquals("Left", TrajectoryMirror.mirrorName("Left"));
+		// capital Ls and Rs that aren't a side stay put
+		assertEquals("loadingToRocketFar to cargoL1", TrajectoryMirror.mirrorName("loadingToRocketFar to cargoR1"));
+		assertEquals("habRamp to rocketRC", TrajectoryMirror.mirrorName("habRamp to rocketLC"));
+	}
+
+	@Test
+	public void testMirrorTrajectory() {
+		var original = new TimedTrajectory<Pose2dWithCurvature>(Arrays.asList(
+				entry(0, 5, 9.5, 180, 0.5, 0),
+				entry(1, 10, 7, 150, 0.2, 6),
+				entry(2, 20, 5, 140, -0.3, 3)), true);
+
+		var mirrored = TrajectoryMirror.mirror(original);
+		assertEquals(true, mirrored.getReversed());
+		assertEquals(3, mirrored.getPoints().size());
+
+		for (int i = 0; i < 3; i++) {
+			var a = original.getPoints().get(i);
+			var b = mirrored.getPoints().get(i);
+
+			// timing is untouched
+			assertEquals(a.getT().getValue(), b.getT().getValue(), 1e-9);
+			assertEquals(a.getVelocity().getValue(), b.getVelocity().getValue(), 1e-9);
+			assertEquals(a.getAcceleration().getValue(), b.getAcceleration().getValue(), 1e-9);
+
+			// the pose flips across the middle of the field and the path curves the other way
+			var aPose = a.getState().getPose();
+			var bPose = b.getState().getPose();
+			assertEquals(aPose.getTranslation().getX().getFeet(), bPose.getTranslation().getX().getFeet(), 1e-9);
+			assertEquals(27 - aPose.getTranslation().getY().getFeet(), bPose.getTranslation().getY().getFeet(), 1e-9);
+			assertEquals(aPose.getRotation().getCos(), bPose.getRotation().getCos(), 1e-9);
+			assertEquals(-aPose.getRotation().getSin(), bPose.getRotation().getSin(), 1e-9);
+			assertEquals(-a.getState().getCurvature(), b.getState().getCurvature(), 1e-9);
+			assertEquals(-a.getState().getDkds(), b.getState().getDkds(), 1e-9);
+		}
+
+		// mirroring twice gets back to where we started
+		var twice = TrajectoryMirror.mirror(mirrored);
+		for (int i = 0; i < 3; i++) {
+			var a = original.getPoints().get(i).getState().getPose();
+			var b = twice.getPoints().get(i).getState().getPose();
+			assertEquals(a.getTranslation().getY().getFeet(), b.getTranslation().getY().getFeet(), 1e-9);
+			assertEquals(a.getRotation().getCos(), b.getRotation().getCos(), 1e-9);
+			assertEquals(a.getRotation().getSin(), b.getRotation().getSin(), 1e-9);
+		}
+	}
+
+}
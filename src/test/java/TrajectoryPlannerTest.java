@@ -0,0 +1,113 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import com.team254.lib.physics.DCMotorTransmission;
+
+import frc.robot.planners.TrajectoryPlanner;
+import frc.robot.planners.TrajectoryPlanner.JointLimits;
+
+public class TrajectoryPlannerTest {
+
+	static final TrajectoryPlanner kPlanner = new TrajectoryPlanner(new JointLimits(45, 150), new JointLimits(190, 600), new JointLimits(150, 400), 0.01);
+
+	// about HATCH to a pass through, to the back
+	static final double[] kHeight = { 20, 35, 50, 5 };
+	static final double[] kElbow = { 5, -90, -150, -193 };
+	static final double[] kWrist = { 4, 0, -60, -112 };
+
+	@Test
+	public void testJointsArriveTogether() {
+		var trajectory = kPlanner.generate(kHeight, kElbow, kWrist, kHeight.length);
+		int last = trajectory.size() - 1;
+		double[][] waypoints = { kHeight, kElbow, kWrist };
+		for (int joint = 0; joint < TrajectoryPlanner.kJoints; joint++) {
+			assertEquals(waypoints[joint][0], trajectory.getPosition(joint, 0), 1e-9);
+			assertEquals(waypoints[joint][kHeight.length - 1], trajectory.getPosition(joint, last), 1e-9);
+			assertEquals(0, trajectory.getVelocity(joint, last), 1e-9);
+		}
+		// and every joint is still moving until just before the end
+		for (int joint = 0; joint < TrajectoryPlanner.kJoints; joint++) {
+			assertTrue(Math.abs(trajectory.getVelocity(joint, last - 2)) > 0);
+		}
+	}
+
+	@Test
+	public void testLimitsAreRespected() {
+		var trajectory = kPlanner.generate(kHeight, kElbow, kWrist, kHeight.length);
+		for (int joint = 0; joint < TrajectoryPlanner.kJoints; joint++) {
+			var limits = kPlanner.getLimits(joint);
+			boolean atVelocity = false;
+			for (int i = 0; i < trajectory.size(); i++) {
+				assertTrue(Math.abs(trajectory.getVelocity(joint, i)) <= limits.maxVelocity + 1e-9);
+				assertTrue(Math.abs(trajectory.getAcceleration(joint, i)) <= limits.maxAcceleration + 1e-9);
+				atVelocity |= Math.abs(trajectory.getVelocity(joint, i)) > limits.maxVelocity * 0.99;
+				if (i > 0) {
+					double step = Math.abs(trajectory.getPosition(joint, i) - trajectory.getPosition(joint, i - 1));
+					assertTrue(step <= limits.maxVelocity * trajectory.getDt() + 1e-9);
+				}
+			}
+			// the elbow sets the pace on the long swing
+			if (joint == TrajectoryPlanner.kElbow)
+				assertTrue(atVelocity);
+		}
+	}
+
+	@Test
+	public void testStaysOnTheLineBetweenWaypoints() {
+		var trajectory = kPlanner.generate(kHeight, kElbow, kWrist, kHeight.length);
+		// the first segment: elbow and wrist are where the height says they should be
+		for (int i = 0; i < trajectory.size(); i++) {
+			double s = (trajectory.getPosition(TrajectoryPlanner.kElevator, i) - kHeight[0]) / (kHeight[1] - kHeight[0]);
+			if (s > 1 - 1e-9)
+				break;
+			assertEquals(kElbow[0] + (kElbow[1] - kElbow[0]) * s, trajectory.getPosition(TrajectoryPlanner.kElbow, i), 1e-6);
+			assertEquals(kWrist[0] + (kWrist[1] - kWrist[0]) * s, trajectory.getPosition(TrajectoryPlanner.kWrist, i), 1e-6);
+		}
+	}
+
+	@Test
+	public void testStandingStill() {
+		var trajectory = kPlanner.generate(new double[] { 20, 20 }, new double[] { 5, 5 }, new double[] { 4, 4 }, 2);
+		assertEquals(1, trajectory.size());
+		assertEquals(0, trajectory.getDuration(), 0);
+		assertEquals(0, trajectory.indexAt(1));
+	}
+
+	@Test
+	public void testTorqueLimitsFromTheMotorModel() {
+		var transmission = new DCMotorTransmission(0.2, 50, 0);
+		// 10 volts, 1 of which holds it up, 3/4 of the rest for speed
+		var limits = JointLimits.fromTransmission(transmission, 50, 0.1, 10, 1000, 1e6);
+		assertEquals(Math.toDegrees(0.2 * 9 * TrajectoryPlanner.kVelocityFraction), limits.maxVelocity, 1e-9);
+		assertEquals(Math.toDegrees(50 * 9 * (1 - TrajectoryPlanner.kVelocityFraction) / 0.1), limits.maxAcceleration, 1e-9);
+		// and the configured limits still win
+		assertEquals(60, JointLimits.fromTransmission(transmission, 50, 0.1, 10, 60, 1e6).maxVelocity, 0);
+	}
+
+	/**
+	 * Reports what timing a four waypoint path costs, and checks generate doesn't allocate much past
+	 * the trajectory's own arrays, a time column and three per joint
+	 */
+	@Test
+	@Tag(Benchmarks.kTag)
+	public void benchmarkGenerate(TestReporter reporter) {
+		int rounds = 2000;
+		var trajectory = kPlanner.generate(kHeight, kElbow, kWrist, kHeight.length);
+		int points = trajectory.size();
+		var result = Benchmarks.measure(1, () -> {
+			for (int r = 0; r < rounds; r++) {
+				kPlanner.generate(kHeight, kElbow, kWrist, kHeight.length);
+			}
+		});
+		result.report(reporter, "Four waypoint generate", rounds);
+		reporter.publishEntry("Four waypoint trajectory", String.format("%d points over %.2f s", points, trajectory.getDuration()));
+
+		long trajectoryBytes = (long) points * Double.BYTES * (1 + 3 * TrajectoryPlanner.kJoints);
+		assertTrue(result.bytes / rounds < 2 * trajectoryBytes);
+	}
+
+}
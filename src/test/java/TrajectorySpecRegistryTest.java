@@ -0,0 +1,109 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ghrobotics.lib.mathematics.twodim.geometry.Pose2d;
+import org.junit.jupiter.api.Test;
+
+import frc.robot.commands.auto.TrajectorySpecRegistry;
+import frc.robot.subsystems.DriveTrain.Gear;
+
+public class TrajectorySpecRegistryTest {
+
+	private static final String kSpecs = "{"
+			+ "\"locations\": { \"habL\": { \"x\": 5.6, \"y\": 17.684, \"heading\": 180 }, \"cargoL1\": { \"x\": 21.565, \"y\": 17.235, \"heading\": -90 } },"
+			+ "\"highGear\": [ { \"name\": \"habL to cargoL1\", \"reversed\": true, \"waypoints\": [\"habL\", { \"location\": \"cargoL1\", \"plus\": { \"x\": 0, \"y\": 0, \"heading\": -45 } }] } ],"
+			+ "\"lowGear\": [ { \"name\": \"habL to cargoL1\", \"gear\": \"high\", \"waypoints\": [\"habL\", { \"location\": \"cargoL1\", \"heading\": 0 }] } ]"
+			+ "}";
+
+	private final List<String> generated = new ArrayList<>();
+	private final List<List<Pose2d>> generatedWaypoints = new ArrayList<>();
+
+	private TrajectorySpecRegistry makeRegistry(int maxMaterialized) {
+		return new TrajectorySpecRegistry((waypoints, gear, reversed) -> {
+			generated.add(gear + " " + reversed);
+			generatedWaypoints.add(waypoints);
+			return null;
+		}, maxMaterialized);
+	}
+
+	@Test
+	public void testParsesWithoutGenerating() {
+		var registry = makeRegistry(4);
+		registry.load(new StringReader(kSpecs));
+
+		assertEquals(2, registry.getLocations().size());
+		assertTrue(registry.contains(Gear.HIGH, "habL to cargoL1"));
+		assertTrue(registry.contains(Gear.LOW, "habL to cargoL1"));
+		assertFalse(registry.contains(Gear.LOW, "nope"));
+		// nothing gets generated until something asks for it
+		assertTrue(generated.isEmpty());
+	}
+
+	@Test
+	public void testGeneratesOnDemand() {
+		var registry = makeRegistry(4);
+		registry.load(new StringReader(kSpecs));
+
+		assertNull(registry.view(Gear.HIGH).get("nope"));
+		assertTrue(generated.isEmpty());
+
+		registry.get(Gear.HIGH, "habL to cargoL1");
+		registry.get(Gear.LOW, "habL to cargoL1");
+		assertEquals("HIGH true", generated.get(0));
+		// the low gear list can ask for high gear constraints, and reversed defaults to false
+		assertEquals("HIGH false", generated.get(1));
+
+		var plussed = generatedWaypoints.get(0).get(1);
+		assertEquals(21.565, plussed.getTranslation().getX().getFeet(), 1e-6);
+		assertEquals(-135, plussed.getRotation().getDegree(), 1e-6);
+
+		var overridden = generatedWaypoints.get(1).get(1);
+		assertEquals(17.235, overridden.getTranslation().getY().getFeet(), 1e-6);
+		assertEquals(0, overridden.getRotation().getDegree(), 1e-6);
+	}
+
+	@Test
+	public void testMirrorsMissingSide() {
+		var registry = makeRegistry(4);
+		registry.load(new StringReader("{ \"lowGear\": [ { \"name\": \"habR to cargoR1\", \"waypoints\": ["
+				+ "{ \"x\": 5.6, \"y\": 9.5, \"heading\": 180 }, { \"x\": 21.5, \"y\": 9.9, \"heading\": 90 }] } ] }"));
+
+		assertTrue(registry.contains(Gear.LOW, "habL to cargoL1"));
+		assertFalse(registry.contains(Gear.HIGH, "habL to cargoL1"));
+
+		// the fake generator returns null, so nothing gets mirrored, but the right side spec is what gets generated
+		registry.get(Gear.LOW, "habL to cargoL1");
+		assertEquals(1, generated.size());
+		assertEquals(9.5, generatedWaypoints.get(0).get(0).getTranslation().getY().getFeet(), 1e-6);
+		assertNull(registry.get(Gear.LOW, "habL to cargoL2"));
+	}
+
+	@Test
+	public void testBadLocation() {
+		var registry = makeRegistry(4);
+		assertThrows(IllegalArgumentException.class, () -> registry.load(new StringReader(
+				"{ \"lowGear\": [ { \"name\": \"oops\", \"waypoints\": [\"habL\", \"cargoL1\"] } ] }")));
+	}
+
+	@Test
+	public void testDeployedSpecsParse() throws IOException {
+		var registry = makeRegistry(4);
+		registry.load(new File("src/main/deploy/" + TrajectorySpecRegistry.kSpecFileName));
+
+		assertTrue(registry.contains(Gear.LOW, "habR to rocketRF"));
+		assertTrue(registry.contains(Gear.LOW, "rocketRF to loadingR"));
+		assertTrue(registry.contains(Gear.LOW, "loadingR to rocketRF"));
+		assertTrue(registry.contains(Gear.HIGH, "test"));
+		assertTrue(generated.isEmpty());
+	}
+
+}